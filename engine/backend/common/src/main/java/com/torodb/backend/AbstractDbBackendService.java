@@ -30,9 +30,11 @@ import org.apache.logging.log4j.Logger;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 
 /**
@@ -55,6 +57,8 @@ public abstract class AbstractDbBackendService<ConfigurationT extends BackendCon
   private HikariDataSource writeDataSource;
   private HikariDataSource systemDataSource;
   private HikariDataSource readOnlyDataSource;
+  private HikariDataSource importDataSource;
+  private Semaphore importConnectionPermits;
   /**
    * Global state variable for data import mode. If true data import mode is enabled, data import
    * mode is otherwise disabled. Indexes will not be created while data import mode is enabled. When
@@ -116,6 +120,15 @@ public abstract class AbstractDbBackendService<ConfigurationT extends BackendCon
         reservedReadPoolSize,
         getGlobalCursorTransactionIsolation(),
         true);
+    int importPoolSize = getImportConnectionPoolSize(configuration);
+    if (importPoolSize > 0) {
+      importDataSource = createPooledDataSource(
+          configuration, "import",
+          importPoolSize,
+          getCommonTransactionIsolation(),
+          false);
+    }
+    importConnectionPermits = new Semaphore(importPoolSize);
   }
 
   @Override
@@ -126,6 +139,17 @@ public abstract class AbstractDbBackendService<ConfigurationT extends BackendCon
     writeDataSource.close();
     systemDataSource.close();
     readOnlyDataSource.close();
+    if (importDataSource != null) {
+      importDataSource.close();
+    }
+  }
+
+  /**
+   * Returns the number of connections that can be used to insert data in parallel with the write
+   * connections while data insert mode is enabled. By default there is none.
+   */
+  protected int getImportConnectionPoolSize(ConfigurationT configuration) {
+    return 0;
   }
 
   @Nonnull
@@ -261,4 +285,31 @@ public abstract class AbstractDbBackendService<ConfigurationT extends BackendCon
 
     return consumeConnection(writeDataSource, false);
   }
+
+  @Override
+  @Nullable
+  public Connection tryCreateImportConnection() {
+    checkState();
+
+    if (!dataImportMode || !importConnectionPermits.tryAcquire()) {
+      return null;
+    }
+    try {
+      return consumeConnection(importDataSource, false);
+    } catch (RuntimeException ex) {
+      importConnectionPermits.release();
+      throw ex;
+    }
+  }
+
+  @Override
+  public void releaseImportConnection(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException ex) {
+      throw errorHandler.handleException(Context.CLOSE, ex);
+    } finally {
+      importConnectionPermits.release();
+    }
+  }
 }
@@ -25,10 +25,12 @@ import com.torodb.backend.d2r.ResultSetDocPartResult;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.cursors.ConcatCursor;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
-import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.language.Filter;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -36,14 +38,18 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.kvdocument.values.KvValue;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
 import org.jooq.lambda.Seq;
 import org.jooq.lambda.Unchecked;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -54,6 +60,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
@@ -64,6 +71,8 @@ import javax.inject.Singleton;
 @SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
 public abstract class AbstractReadInterface implements ReadInterface {
 
+  protected static final int DEFAULT_CURSOR_FETCH_SIZE = 1000;
+
   private final MetaDataReadInterface metaDataReadInterface;
   private final DataTypeProvider dataTypeProvider;
   private final ErrorHandler errorHandler;
@@ -96,7 +105,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         metaDocPart.getIdentifier(), metaField.getIdentifier());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       sqlHelper.setPreparedStatementValue(preparedStatement, 1, metaField.getType(), value);
       return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
     } finally {
@@ -108,6 +117,45 @@ public abstract class AbstractReadInterface implements ReadInterface {
       String rootTableName,
       String columnName);
 
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  public Cursor<Integer> getCollectionDidsWithFilter(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCol, Filter filter) throws SQLException {
+    assert metaDatabase.getMetaCollectionByIdentifier(metaCol.getIdentifier()) != null;
+
+    MetaDocPart rootDocPart = metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return new EmptyCursor<>();
+    }
+    FilterConditionBuilder conditionBuilder = new FilterConditionBuilder(metaDatabase, metaCol,
+        rootDocPart, tableRefFactory, sqlHelper);
+    String condition = conditionBuilder.build(filter);
+    String statement = getReadCollectionDidsWithFilterStatement(metaDatabase.getIdentifier(),
+        rootDocPart.getIdentifier(), condition);
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : conditionBuilder.getParameters()) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, parameter.v1,
+            parameter.v2);
+        parameterIndex++;
+      }
+      return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns the statement that selects, sorted by did, the dids of the given root table whose
+   * rows fulfill the given condition.
+   */
+  protected abstract String getReadCollectionDidsWithFilterStatement(String schemaName,
+      String rootTableName, String condition);
+
   @Override
   @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
       justification =
@@ -146,10 +194,8 @@ public abstract class AbstractReadInterface implements ReadInterface {
                       metaCol,
                       metaDocPart,
                       valuesMultimapBatch)));
-      Stream<Integer> didStream = didCursorStream
-          .flatMap(cursor -> cursor.getRemaining().stream());
 
-      return new IteratorCursor<>(didStream.iterator());
+      return new ConcatCursor<>(didCursorStream.iterator());
     }
 
     return getCollectionDidsWithFieldsInBatch(dsl, metaDatabase, metaCol, metaDocPart,
@@ -182,7 +228,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         .map(e -> new Tuple2<String, Integer>(e.getKey().getIdentifier(), e.getValue().size())));
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       int parameterIndex = 1;
       Iterator<Map.Entry<MetaField, Collection<KvValue<?>>>> valuesMultimapSortedIterator =
           valuesMultimapSortedStreamProvider.get().iterator();
@@ -241,11 +287,8 @@ public abstract class AbstractReadInterface implements ReadInterface {
                     metaDocPart,
                     mapBatch.v1,
                     mapBatch.v2)));
-    Stream<Tuple2<Integer, KvValue<?>>> didProjectionStream =
-        didProjectionCursorStream
-            .flatMap(cursor -> cursor.getRemaining().stream());
 
-    return new IteratorCursor<>(didProjectionStream.iterator());
+    return new ConcatCursor<>(didProjectionCursorStream.iterator());
   }
 
   @SuppressWarnings("rawtypes")
@@ -273,7 +316,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         metaDocPart.getIdentifier(), metaField.getIdentifier(), values.size());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       int parameterIndex = 1;
       for (KvValue<?> value : values) {
         sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, metaField.getType(),
@@ -320,7 +363,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         .getIdentifier());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
     } finally {
       dsl.configuration().connectionProvider().release(connection);
@@ -348,6 +391,68 @@ public abstract class AbstractReadInterface implements ReadInterface {
 
   protected abstract String getReadCountAllStatement(String schema, String rootTableName);
 
+  @Override
+  public long countByFilter(DSLContext dsl, MetaDatabase database, MetaCollection collection,
+      Filter filter) {
+    if (filter.isAll()) {
+      return countAll(dsl, database, collection);
+    }
+    MetaDocPart rootDocPart = collection.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return 0;
+    }
+    FilterConditionBuilder conditionBuilder = new FilterConditionBuilder(database, collection,
+        rootDocPart, tableRefFactory, sqlHelper);
+    String condition = conditionBuilder.build(filter);
+    String statement = getReadCountWithFilterStatement(database.getIdentifier(), rootDocPart
+        .getIdentifier(), condition);
+    return sqlHelper.executeStatementWithResult(dsl, statement, Context.FETCH, ps -> {
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : conditionBuilder.getParameters()) {
+        sqlHelper.setPreparedStatementValue(ps, parameterIndex, parameter.v1, parameter.v2);
+        parameterIndex++;
+      }
+    }).get(0).into(Long.class);
+  }
+
+  protected abstract String getReadCountWithFilterStatement(String schema, String rootTableName,
+      String condition);
+
+  @Override
+  public long estimateCountAll(DSLContext dsl, MetaDatabase database,
+      MetaCollection collection) {
+    MetaDocPart rootDocPart = collection.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return 0;
+    }
+    String statement = getEstimateCountAllStatement();
+    if (statement == null) {
+      return countAll(dsl, database, collection);
+    }
+    Result<Record> result = sqlHelper.executeStatementWithResult(dsl, statement, Context.FETCH,
+        ps -> {
+          ps.setString(1, database.getIdentifier());
+          ps.setString(2, rootDocPart.getIdentifier());
+        });
+    Long estimation = result.isEmpty() ? null : result.get(0).into(Long.class);
+    if (estimation == null || estimation < 0) {
+      return countAll(dsl, database, collection);
+    }
+    return estimation;
+  }
+
+  /**
+   * Returns the statement that estimates the number of rows of a table using the statistics kept
+   * by the database or null if there are no statistics.
+   *
+   * <p>The statement has two parameters, the schema and the name of the table, and returns a
+   * negative value when the table statistics have not been collected yet.
+   */
+  @Nullable
+  protected String getEstimateCountAllStatement() {
+    return null;
+  }
+
   @Nonnull
   @Override
   public List<DocPartResult> getCollectionResultSets(@Nonnull DSLContext dsl,
@@ -363,30 +468,129 @@ public abstract class AbstractReadInterface implements ReadInterface {
       "ResultSet is wrapped in a DocPartResult. It's iterated and closed in caller code")
   public List<DocPartResult> getCollectionResultSets(DSLContext dsl, MetaDatabase metaDatabase,
       MetaCollection metaCollection, Collection<Integer> dids) throws SQLException {
-    ArrayList<DocPartResult> result = new ArrayList<>();
+    List<MetaDocPart> metaDocParts = metaCollection
+        .streamContainedMetaDocParts()
+        .sorted(TableRefComparator.MetaDocPart.DESC)
+        .collect(Collectors.toList());
     Connection connection = dsl.configuration().connectionProvider().acquire();
+    Array didArray = null;
     try {
-      Iterator<? extends MetaDocPart> metaDocPartIterator = metaCollection
-          .streamContainedMetaDocParts()
-          .sorted(TableRefComparator.MetaDocPart.DESC)
-          .iterator();
-      while (metaDocPartIterator.hasNext()) {
-        MetaDocPart metaDocPart = metaDocPartIterator.next();
-        String statament = getDocPartStatament(metaDatabase, metaDocPart, dids);
-
-        PreparedStatement preparedStatement = connection.prepareStatement(statament);
+      if (isDidArrayParameterSupported()) {
+        didArray = sqlHelper.createDidArray(connection, dids);
+      }
+      if (metaDocParts.size() > 1 && isMultiStatementReadSupported()) {
+        return getCollectionResultSetsInOneStatement(connection, metaDatabase, metaDocParts,
+            dids, didArray);
+      }
+      ArrayList<DocPartResult> result = new ArrayList<>();
+      for (MetaDocPart metaDocPart : metaDocParts) {
+        String statement = getDocPartStatement(metaDatabase, metaDocPart, dids);
+
+        PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
+        if (didArray != null) {
+          preparedStatement.setArray(1, didArray);
+        }
         result.add(new ResultSetDocPartResult(metaDataReadInterface, dataTypeProvider, errorHandler,
-            metaDocPart, preparedStatement.executeQuery(), sqlHelper));
+            metaDocPart, preparedStatement.executeQuery()));
       }
+      return result;
     } finally {
-      dsl.configuration().connectionProvider().release(connection);
+      try {
+        //the array has already been sent with the executed statements
+        if (didArray != null) {
+          didArray.free();
+        }
+      } finally {
+        dsl.configuration().connectionProvider().release(connection);
+      }
+    }
+  }
+
+  /**
+   * Reads all the given doc parts executing their statements as a single multi statement, which
+   * is sent to the database in one round trip.
+   */
+  private List<DocPartResult> getCollectionResultSetsInOneStatement(Connection connection,
+      MetaDatabase metaDatabase, List<MetaDocPart> metaDocParts, Collection<Integer> dids,
+      @Nullable Array didArray) throws SQLException {
+    StringBuilder sb = new StringBuilder();
+    for (MetaDocPart metaDocPart : metaDocParts) {
+      sb.append(getDocPartStatement(metaDatabase, metaDocPart, dids))
+          .append(';');
+    }
+
+    ArrayList<DocPartResult> result = new ArrayList<>(metaDocParts.size());
+    PreparedStatement statement = connection.prepareStatement(sb.toString());
+    try {
+      //the statement is closed once all doc part results have been closed
+      statement.closeOnCompletion();
+      if (didArray != null) {
+        for (int parameterIndex = 1; parameterIndex <= metaDocParts.size(); parameterIndex++) {
+          statement.setArray(parameterIndex, didArray);
+        }
+      }
+      boolean isResultSet = statement.execute();
+      for (MetaDocPart metaDocPart : metaDocParts) {
+        if (!isResultSet) {
+          throw new IllegalStateException("The statement that reads " + metaDocPart
+              .getIdentifier() + " did not return a result set");
+        }
+        result.add(new ResultSetDocPartResult(metaDataReadInterface, dataTypeProvider, errorHandler,
+            metaDocPart, statement.getResultSet()));
+        isResultSet = statement.getMoreResults(Statement.KEEP_CURRENT_RESULT);
+      }
+    } catch (SQLException | RuntimeException ex) {
+      statement.close();
+      throw ex;
     }
     return result;
   }
 
-  protected abstract String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
+  /**
+   * Returns true if the JDBC driver can execute several semicolon separated queries on a single
+   * {@link Statement} and return their result sets with
+   * {@link Statement#getMoreResults(int) getMoreResults(KEEP_CURRENT_RESULT)}.
+   */
+  protected boolean isMultiStatementReadSupported() {
+    return false;
+  }
+
+  /**
+   * Returns true if dids are bound as a single {@link SqlHelper#createDidArray(Connection,
+   * Collection) did array} parameter on the statements returned by
+   * {@link #getDocPartStatement(MetaDatabase, MetaDocPart, Collection)}.
+   */
+  protected boolean isDidArrayParameterSupported() {
+    return false;
+  }
+
+  /**
+   * Returns the statement that reads the rows of the given doc part whose did is one of the given
+   * dids.
+   *
+   * <p>If {@link #isDidArrayParameterSupported()} returns true, the statement must read the dids
+   * from the did array bound to its only parameter instead of inlining them, so the driver and
+   * the database can reuse it.
+   */
+  protected abstract String getDocPartStatement(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
       Collection<Integer> dids);
 
+  /**
+   * Returns the number of rows fetched on each round trip by the statements whose result sets
+   * are wrapped on cursors, so they are streamed instead of read at once.
+   */
+  protected int getCursorFetchSize() {
+    return DEFAULT_CURSOR_FETCH_SIZE;
+  }
+
+  private PreparedStatement prepareCursorStatement(Connection connection, String statement)
+      throws SQLException {
+    PreparedStatement preparedStatement = connection.prepareStatement(statement,
+        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    preparedStatement.setFetchSize(getCursorFetchSize());
+    return preparedStatement;
+  }
+
   @Override
   public int getLastRowIdUsed(DSLContext dsl, MetaDatabase metaDatabase,
       MetaCollection metaCollection, MetaDocPart metaDocPart) {
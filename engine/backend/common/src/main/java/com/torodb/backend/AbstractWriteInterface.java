@@ -18,10 +18,16 @@
 
 package com.torodb.backend;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.tables.MetaDocPartTable;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
+import com.torodb.core.d2r.RootDocPartUpdate;
+import com.torodb.core.d2r.RootDocPartUpdate.Assignment;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -35,6 +41,7 @@ import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -42,6 +49,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.inject.Singleton;
@@ -54,10 +63,12 @@ import javax.inject.Singleton;
 public abstract class AbstractWriteInterface implements WriteInterface {
 
   private static final Logger LOGGER = LogManager.getLogger(AbstractWriteInterface.class);
+  private static final int MAX_CACHED_INSERT_STATEMENTS = 10000;
 
   private final MetaDataReadInterface metaDataReadInterface;
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
+  private final Cache<DocPartInsertShape, String> insertStatementCache;
 
   public AbstractWriteInterface(MetaDataReadInterface metaDataReadInterface,
       ErrorHandler errorHandler,
@@ -66,6 +77,9 @@ public abstract class AbstractWriteInterface implements WriteInterface {
     this.metaDataReadInterface = metaDataReadInterface;
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
+    this.insertStatementCache = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_INSERT_STATEMENTS)
+        .build();
   }
 
   @Override
@@ -106,18 +120,69 @@ public abstract class AbstractWriteInterface implements WriteInterface {
   private void deleteCollectionDocParts(Connection c, String schemaName,
       MetaCollection metaCollection,
       Collection<Integer> dids) {
-    Iterator<? extends MetaDocPart> iterator = metaCollection.streamContainedMetaDocParts()
-        .sorted(TableRefComparator.MetaDocPart.DESC).iterator();
-    while (iterator.hasNext()) {
-      MetaDocPart metaDocPart = iterator.next();
-      String statement = getDeleteDocPartsStatement(schemaName, metaDocPart.getIdentifier(), dids);
+    Array didArray = null;
+    if (isDidArrayParameterSupported()) {
+      try {
+        didArray = sqlHelper.createDidArray(c, dids);
+      } catch (SQLException ex) {
+        throw errorHandler.handleException(Context.DELETE, ex);
+      }
+    }
+    try {
+      Iterator<? extends MetaDocPart> iterator = metaCollection.streamContainedMetaDocParts()
+          .sorted(TableRefComparator.MetaDocPart.DESC).iterator();
+      while (iterator.hasNext()) {
+        MetaDocPart metaDocPart = iterator.next();
+        String statement = getDeleteDocPartsStatement(schemaName, metaDocPart.getIdentifier(),
+            dids);
+        if (didArray != null) {
+          executeDelete(c, statement, didArray);
+        } else {
+          sqlHelper.executeUpdate(c, statement, Context.DELETE);
+        }
 
-      sqlHelper.executeUpdate(c, statement, Context.DELETE);
+        LOGGER.trace("Executed {}", statement);
+      }
+    } finally {
+      if (didArray != null) {
+        freeDidArray(didArray);
+      }
+    }
+  }
 
-      LOGGER.trace("Executed {}", statement);
+  private void freeDidArray(Array didArray) {
+    try {
+      didArray.free();
+    } catch (SQLException ex) {
+      throw errorHandler.handleException(Context.DELETE, ex);
     }
   }
 
+  private void executeDelete(Connection c, String statement, Array didArray) {
+    try (PreparedStatement ps = c.prepareStatement(statement)) {
+      ps.setArray(1, didArray);
+      ps.executeUpdate();
+    } catch (SQLException ex) {
+      throw errorHandler.handleException(Context.DELETE, ex);
+    }
+  }
+
+  /**
+   * Returns true if dids are bound as a single {@link SqlHelper#createDidArray(Connection,
+   * Collection) did array} parameter on the statements returned by
+   * {@link #getDeleteDocPartsStatement(String, String, Collection)}.
+   */
+  protected boolean isDidArrayParameterSupported() {
+    return false;
+  }
+
+  /**
+   * Returns the statement that deletes the rows of the given table whose did is one of the given
+   * dids.
+   *
+   * <p>If {@link #isDidArrayParameterSupported()} returns true, the statement must read the dids
+   * from the did array bound to its only parameter instead of inlining them.
+   */
   protected abstract String getDeleteDocPartsStatement(String schemaName, String tableName,
       Collection<Integer> dids);
 
@@ -151,10 +216,18 @@ public abstract class AbstractWriteInterface implements WriteInterface {
     final int maxBatchSize = getMaxBatchSize();
     Collection<InternalField<?>> internalFields = metaDataReadInterface.getInternalFields(
         metaDocPart);
-    List<FieldType> fieldTypeList = new ArrayList<>();
-    String statement = getInsertDocPartDataStatement(schemaName, metaDocPart, metaFieldIterator,
-        metaScalarIterator,
-        internalFields, fieldTypeList);
+    DocPartInsertShape shape = DocPartInsertShape.of(schemaName, docPartData, 1);
+    List<FieldType> fieldTypeList = shape.getFieldTypes();
+    String statement = insertStatementCache.getIfPresent(shape);
+    if (statement == null) {
+      onInsertStatementCacheMiss();
+      statement = getInsertDocPartDataStatement(schemaName, metaDocPart, metaFieldIterator,
+          metaScalarIterator,
+          internalFields, new ArrayList<>());
+      insertStatementCache.put(shape, statement);
+    } else {
+      onInsertStatementCacheHit();
+    }
     assert assertFieldTypeListIsConsistent(docPartData, fieldTypeList) :
         "fieldTypeList should be an ordered list of FieldType"
         + " from MetaScalar and MetaField following the the ordering of "
@@ -205,6 +278,117 @@ public abstract class AbstractWriteInterface implements WriteInterface {
     }
   }
 
+  @Override
+  public void updateRootDocPart(DSLContext dsl, String schemaName, RootDocPartUpdate update)
+      throws UserException {
+    if (update.rowCount() == 0 || update.getAssignments().isEmpty()) {
+      return;
+    }
+
+    final int maxBatchSize = getMaxBatchSize();
+    String statement = getUpdateRootDocPartStatement(schemaName, update.getMetaDocPart(),
+        update.getAssignments());
+    List<FieldType> fieldTypeList = update.getAssignments().stream()
+        .filter(Assignment::requiresValue)
+        .map(assignment -> assignment.getMetaField().getType())
+        .collect(Collectors.toList());
+
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try (PreparedStatement preparedStatement = connection.prepareStatement(statement)) {
+      int rowCounter = 0;
+      Iterator<Map.Entry<Integer, ImmutableList<KvValue<?>>>> rowIterator = update.getRows()
+          .entrySet().iterator();
+      while (rowIterator.hasNext()) {
+        Map.Entry<Integer, ImmutableList<KvValue<?>>> row = rowIterator.next();
+        rowCounter++;
+        int parameterIndex = 1;
+        Iterator<FieldType> fieldTypeIterator = fieldTypeList.iterator();
+        for (KvValue<?> value : row.getValue()) {
+          sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex++,
+              fieldTypeIterator.next(), value);
+        }
+        preparedStatement.setInt(parameterIndex, row.getKey());
+        preparedStatement.addBatch();
+
+        if (rowCounter % maxBatchSize == 0 || !rowIterator.hasNext()) {
+          preparedStatement.executeBatch();
+
+          LOGGER.trace("Update batch executed");
+        }
+      }
+    } catch (SQLException ex) {
+      throw errorHandler.handleUserException(Context.UPDATE, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  protected String getUpdateRootDocPartStatement(String schemaName, MetaDocPart metaDocPart,
+      List<Assignment> assignments) {
+    final StringBuilder updateStatementBuilder = new StringBuilder(256);
+    updateStatementBuilder.append("UPDATE \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(metaDocPart.getIdentifier())
+        .append("\" SET ");
+    for (Assignment assignment : assignments) {
+      String columnIdentifier = assignment.getMetaField().getIdentifier();
+      updateStatementBuilder.append("\"")
+          .append(columnIdentifier)
+          .append("\" = ");
+      switch (assignment.getOperation()) {
+        case SET:
+          updateStatementBuilder
+              .append(getUpdatePlaceholder(assignment.getMetaField().getType()));
+          break;
+        case SET_NULL:
+          updateStatementBuilder.append("NULL");
+          break;
+        case INCREMENT:
+          updateStatementBuilder.append("COALESCE(\"")
+              .append(columnIdentifier)
+              .append("\", 0) + ")
+              .append(getUpdatePlaceholder(assignment.getMetaField().getType()));
+          break;
+        default:
+          throw new AssertionError("Unexpected operation " + assignment.getOperation());
+      }
+      updateStatementBuilder.append(',');
+    }
+    updateStatementBuilder.setLength(updateStatementBuilder.length() - 1);
+    updateStatementBuilder.append(" WHERE \"")
+        .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append("\" = ?");
+
+    return updateStatementBuilder.toString();
+  }
+
+  /**
+   * Returns the placeholder used to bind a value of the given type on an update statement.
+   */
+  protected String getUpdatePlaceholder(FieldType fieldType) {
+    return "?";
+  }
+
+  @Override
+  public void invalidateInsertStatements(String schemaName, String docPartIdentifier) {
+    insertStatementCache.asMap().keySet().removeIf(shape ->
+        shape.getDocPartIdentifier().equals(docPartIdentifier)
+        && shape.getSchemaName().equals(schemaName));
+  }
+
+  /**
+   * Called each time an insert statement is found on the statement cache.
+   */
+  protected void onInsertStatementCacheHit() {
+  }
+
+  /**
+   * Called each time an insert statement has to be generated because it was not cached.
+   */
+  protected void onInsertStatementCacheMiss() {
+  }
+
   protected abstract String getInsertDocPartDataStatement(
       String schemaName,
       MetaDocPart metaDocPart,
@@ -25,6 +25,7 @@ import com.torodb.core.backend.BackendTransaction;
 import com.torodb.core.backend.ExclusiveWriteBackendTransaction;
 import com.torodb.core.backend.ReadOnlyBackendTransaction;
 import com.torodb.core.backend.SharedWriteBackendTransaction;
+import com.torodb.core.concurrent.StreamExecutor;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import org.apache.logging.log4j.LogManager;
@@ -99,6 +100,10 @@ public class BackendConnectionImpl implements BackendConnection {
     return backend.getSchemaUpdater();
   }
 
+  StreamExecutor getStreamExecutor() {
+    return backend.getStreamExecutor();
+  }
+
   @Override
   public void close() {
     if (!closed) {
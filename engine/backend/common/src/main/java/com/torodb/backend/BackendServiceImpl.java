@@ -284,6 +284,10 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
     return metainfoHandler;
   }
 
+  StreamExecutor getStreamExecutor() {
+    return streamExecutor;
+  }
+
   SchemaUpdater getSchemaUpdater() {
     return schemaUpdater;
   }
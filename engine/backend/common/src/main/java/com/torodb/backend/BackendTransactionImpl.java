@@ -27,6 +27,8 @@ import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.exceptions.InvalidDatabaseException;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -88,6 +90,16 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
     return sqlInterface.getReadInterface().countAll(getDsl(), db, col);
   }
 
+  @Override
+  public long countByFilter(MetaDatabase db, MetaCollection col, Filter filter) {
+    return sqlInterface.getReadInterface().countByFilter(getDsl(), db, col, filter);
+  }
+
+  @Override
+  public long estimateCountAll(MetaDatabase db, MetaCollection col) {
+    return sqlInterface.getReadInterface().estimateCountAll(getDsl(), db, col);
+  }
+
   @Override
   public long getCollectionSize(MetaDatabase db, MetaCollection col) {
     return sqlInterface.getMetaDataReadInterface().getCollectionSize(getDsl(), db, col);
@@ -99,10 +111,10 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
   }
 
   @Override
-  public BackendCursor findAll(MetaDatabase db, MetaCollection col) {
+  public BackendCursor findAll(MetaDatabase db, MetaCollection col, Projection projection) {
     try {
       Cursor<Integer> allDids = sqlInterface.getReadInterface().getAllCollectionDids(dsl, db, col);
-      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, col);
+      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, projection.project(col));
     } catch (SQLException ex) {
       throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
     }
@@ -110,11 +122,26 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
 
   @Override
   public BackendCursor findByField(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
-      MetaField field, KvValue<?> value) {
+      MetaField field, KvValue<?> value, Projection projection) {
     try {
       Cursor<Integer> allDids = sqlInterface.getReadInterface().getCollectionDidsWithFieldEqualsTo(
           dsl, db, col, docPart, field, value);
-      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, col);
+      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, projection.project(col));
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col, Filter filter,
+      Projection projection) {
+    if (filter.isAll()) {
+      return findAll(db, col, projection);
+    }
+    try {
+      Cursor<Integer> allDids = sqlInterface.getReadInterface().getCollectionDidsWithFilter(dsl,
+          db, col, filter);
+      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, projection.project(col));
     } catch (SQLException ex) {
       throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
     }
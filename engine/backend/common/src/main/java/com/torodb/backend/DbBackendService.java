@@ -22,6 +22,7 @@ import com.torodb.core.services.TorodbService;
 
 import java.sql.Connection;
 
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 
 public interface DbBackendService extends TorodbService {
@@ -47,4 +48,16 @@ public interface DbBackendService extends TorodbService {
   public Connection createReadOnlyConnection();
 
   public Connection createWriteConnection();
+
+  /**
+   * Returns a connection that can be used to insert data in parallel with a write connection or
+   * null if data insert mode is disabled or there is no import connection available right now.
+   *
+   * <p>Connections returned by this method must be released with
+   * {@link #releaseImportConnection(java.sql.Connection)}.
+   */
+  @Nullable
+  public Connection tryCreateImportConnection();
+
+  public void releaseImportConnection(Connection connection);
 }
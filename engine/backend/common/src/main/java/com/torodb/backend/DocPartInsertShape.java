@@ -0,0 +1,143 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The shape of an INSERT statement on a doc part table: the table, the ordered list of scalar and
+ * field columns and the number of rows inserted by each execution of the statement.
+ *
+ * <p>Two {@link DocPartData} with the same shape can be inserted with the same statement text, so
+ * shapes are used as the key of statement caches. Column identifiers already include the type of
+ * the column, so the {@link #getFieldTypes() field types} are not part of the identity.
+ */
+@Immutable
+public final class DocPartInsertShape {
+
+  private final String schemaName;
+  private final String docPartIdentifier;
+  private final List<String> columnIdentifiers;
+  private final List<FieldType> fieldTypes;
+  private final int rowCount;
+  private final int hashCode;
+
+  private DocPartInsertShape(String schemaName, String docPartIdentifier,
+      List<String> columnIdentifiers, List<FieldType> fieldTypes, int rowCount) {
+    this.schemaName = schemaName;
+    this.docPartIdentifier = docPartIdentifier;
+    this.columnIdentifiers = Collections.unmodifiableList(columnIdentifiers);
+    this.fieldTypes = Collections.unmodifiableList(fieldTypes);
+    this.rowCount = rowCount;
+    int hash = schemaName.hashCode();
+    hash = 31 * hash + docPartIdentifier.hashCode();
+    hash = 31 * hash + columnIdentifiers.hashCode();
+    hash = 31 * hash + rowCount;
+    this.hashCode = hash;
+  }
+
+  /**
+   * Creates the shape of the statements that insert {@code rowCount} rows of the given
+   * {@link DocPartData}, following the ordering of
+   * {@link DocPartData#orderedMetaScalarIterator()} and
+   * {@link DocPartData#orderedMetaFieldIterator()}.
+   */
+  public static DocPartInsertShape of(String schemaName, DocPartData docPartData, int rowCount) {
+    int columns = docPartData.scalarColumnsCount() + docPartData.fieldColumnsCount();
+    List<String> columnIdentifiers = new ArrayList<>(columns);
+    List<FieldType> fieldTypes = new ArrayList<>(columns);
+    Iterator<MetaScalar> metaScalarIterator = docPartData.orderedMetaScalarIterator();
+    while (metaScalarIterator.hasNext()) {
+      MetaScalar metaScalar = metaScalarIterator.next();
+      columnIdentifiers.add(metaScalar.getIdentifier());
+      fieldTypes.add(metaScalar.getType());
+    }
+    Iterator<MetaField> metaFieldIterator = docPartData.orderedMetaFieldIterator();
+    while (metaFieldIterator.hasNext()) {
+      MetaField metaField = metaFieldIterator.next();
+      columnIdentifiers.add(metaField.getIdentifier());
+      fieldTypes.add(metaField.getType());
+    }
+    return new DocPartInsertShape(schemaName, docPartData.getMetaDocPart().getIdentifier(),
+        columnIdentifiers, fieldTypes, rowCount);
+  }
+
+  public String getSchemaName() {
+    return schemaName;
+  }
+
+  public String getDocPartIdentifier() {
+    return docPartIdentifier;
+  }
+
+  /**
+   * Returns the identifiers of the scalar columns followed by the identifiers of the field
+   * columns.
+   */
+  public List<String> getColumnIdentifiers() {
+    return columnIdentifiers;
+  }
+
+  /**
+   * Returns the types of the columns, in the same order as {@link #getColumnIdentifiers()}.
+   */
+  public List<FieldType> getFieldTypes() {
+    return fieldTypes;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof DocPartInsertShape)) {
+      return false;
+    }
+    DocPartInsertShape other = (DocPartInsertShape) obj;
+    return hashCode == other.hashCode
+        && rowCount == other.rowCount
+        && schemaName.equals(other.schemaName)
+        && docPartIdentifier.equals(other.docPartIdentifier)
+        && columnIdentifiers.equals(other.columnIdentifiers);
+  }
+
+  @Override
+  public String toString() {
+    return schemaName + '.' + docPartIdentifier + columnIdentifiers + 'x' + rowCount;
+  }
+}
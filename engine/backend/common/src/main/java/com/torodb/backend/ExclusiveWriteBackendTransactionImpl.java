@@ -63,6 +63,7 @@ public class ExclusiveWriteBackendTransactionImpl extends SharedWriteBackendTran
       MutableMetaDatabase toDb, MutableMetaCollection toColl) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
 
+    moveImportedData();
     copyMetaCollection(fromDb, fromColl, toDb, toColl);
     getSqlInterface().getStructureInterface().renameCollection(getDsl(), fromDb.getIdentifier(),
         fromColl,
@@ -72,11 +73,13 @@ public class ExclusiveWriteBackendTransactionImpl extends SharedWriteBackendTran
 
   @Override
   public void dropAll() throws RollbackException {
+    moveImportedData();
     getSqlInterface().getStructureInterface().dropAll(getDsl());
   }
 
   @Override
   public void dropUserData() throws RollbackException {
+    moveImportedData();
     getSqlInterface().getStructureInterface().dropUserData(getDsl());
   }
 
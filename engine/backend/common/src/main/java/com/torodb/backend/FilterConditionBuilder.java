@@ -0,0 +1,261 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Filter.AllFilter;
+import com.torodb.core.language.Filter.AndFilter;
+import com.torodb.core.language.Filter.AttributeFilter;
+import com.torodb.core.language.Filter.CompareFilter;
+import com.torodb.core.language.Filter.ExistsFilter;
+import com.torodb.core.language.Filter.InFilter;
+import com.torodb.core.language.Filter.OrFilter;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * Translates a {@link Filter} to a SQL condition on the root doc part table of a collection.
+ *
+ * <p>Restrictions on attributes stored on other doc parts are translated to correlated
+ * {@code EXISTS} subqueries on their tables, so the whole filter is evaluated by a single
+ * statement. Values are not inlined, they are added to {@link #getParameters()} in the same order
+ * their placeholders, given by {@link SqlHelper#getPlaceholder(FieldType)}, appear on the
+ * condition.
+ */
+class FilterConditionBuilder implements Filter.Visitor<Void, StringBuilder> {
+
+  private static final String TRUE = "1 = 1";
+  private static final String FALSE = "1 = 0";
+
+  private final MetaDatabase metaDatabase;
+  private final MetaCollection metaCollection;
+  private final MetaDocPart rootDocPart;
+  private final TableRefFactory tableRefFactory;
+  private final SqlHelper sqlHelper;
+  private final List<Tuple2<FieldType, KvValue<?>>> parameters = new ArrayList<>();
+
+  FilterConditionBuilder(MetaDatabase metaDatabase, MetaCollection metaCollection,
+      MetaDocPart rootDocPart, TableRefFactory tableRefFactory, SqlHelper sqlHelper) {
+    assert rootDocPart.getTableRef().isRoot();
+    this.metaDatabase = metaDatabase;
+    this.metaCollection = metaCollection;
+    this.rootDocPart = rootDocPart;
+    this.tableRefFactory = tableRefFactory;
+    this.sqlHelper = sqlHelper;
+  }
+
+  String build(Filter filter) {
+    StringBuilder sb = new StringBuilder();
+    filter.accept(this, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Returns the values that must be bound to the condition, each one with the type of the column
+   * it is compared with.
+   */
+  List<Tuple2<FieldType, KvValue<?>>> getParameters() {
+    return parameters;
+  }
+
+  @Override
+  public Void visit(AllFilter filter, StringBuilder sb) {
+    sb.append(TRUE);
+    return null;
+  }
+
+  @Override
+  public Void visit(CompareFilter filter, StringBuilder sb) {
+    MetaDocPart docPart = getDocPart(filter);
+    FieldType fieldType = FieldType.from(filter.getValue().getType());
+    MetaField field = docPart == null ? null :
+        docPart.getMetaFieldByNameAndType(getFieldName(filter), fieldType);
+    if (field == null) {
+      sb.append(FALSE);
+      return null;
+    }
+    appendOnDocPart(sb, docPart, () -> {
+      appendColumn(sb, field)
+          .append(' ')
+          .append(filter.getOperator().getSymbol())
+          .append(' ')
+          .append(sqlHelper.getPlaceholder(field.getType()));
+      parameters.add(new Tuple2<>(field.getType(), filter.getValue()));
+    });
+    return null;
+  }
+
+  @Override
+  public Void visit(InFilter filter, StringBuilder sb) {
+    MetaDocPart docPart = getDocPart(filter);
+    if (docPart == null) {
+      sb.append(FALSE);
+      return null;
+    }
+    String fieldName = getFieldName(filter);
+    Map<MetaField, List<KvValue<?>>> valuesByField = new LinkedHashMap<>();
+    for (KvValue<?> value : filter.getValues()) {
+      MetaField field = docPart.getMetaFieldByNameAndType(fieldName, FieldType.from(value
+          .getType()));
+      if (field != null) {
+        valuesByField.computeIfAbsent(field, f -> new ArrayList<>()).add(value);
+      }
+    }
+    if (valuesByField.isEmpty()) {
+      sb.append(FALSE);
+      return null;
+    }
+    appendOnDocPart(sb, docPart, () -> {
+      sb.append('(');
+      for (Map.Entry<MetaField, List<KvValue<?>>> entry : valuesByField.entrySet()) {
+        MetaField field = entry.getKey();
+        appendColumn(sb, field).append(" IN (");
+        for (KvValue<?> value : entry.getValue()) {
+          sb.append(sqlHelper.getPlaceholder(field.getType()))
+              .append(',');
+          parameters.add(new Tuple2<>(field.getType(), value));
+        }
+        sb.setCharAt(sb.length() - 1, ')');
+        sb.append(" OR ");
+      }
+      sb.setLength(sb.length() - " OR ".length());
+      sb.append(')');
+    });
+    return null;
+  }
+
+  @Override
+  public Void visit(ExistsFilter filter, StringBuilder sb) {
+    MetaDocPart docPart = getDocPart(filter);
+    List<MetaField> fields = docPart == null ? new ArrayList<>() :
+        docPart.streamMetaFieldByName(getFieldName(filter)).collect(Collectors.toList());
+    if (fields.isEmpty()) {
+      sb.append(filter.isExists() ? FALSE : TRUE);
+      return null;
+    }
+    if (!filter.isExists()) {
+      sb.append("NOT ");
+    }
+    appendOnDocPart(sb, docPart, () -> {
+      sb.append('(');
+      for (MetaField field : fields) {
+        appendColumn(sb, field).append(" IS NOT NULL OR ");
+      }
+      sb.setLength(sb.length() - " OR ".length());
+      sb.append(')');
+    });
+    return null;
+  }
+
+  @Override
+  public Void visit(AndFilter filter, StringBuilder sb) {
+    appendJunction(sb, filter.getChildren(), " AND ");
+    return null;
+  }
+
+  @Override
+  public Void visit(OrFilter filter, StringBuilder sb) {
+    appendJunction(sb, filter.getChildren(), " OR ");
+    return null;
+  }
+
+  private void appendJunction(StringBuilder sb, List<Filter> children, String operator) {
+    sb.append('(');
+    for (Filter child : children) {
+      child.accept(this, sb);
+      sb.append(operator);
+    }
+    sb.setLength(sb.length() - operator.length());
+    sb.append(')');
+  }
+
+  /**
+   * Appends the condition added by the given action, which only references columns of the given
+   * doc part, wrapping it on an {@code EXISTS} subquery when the doc part is not the root one.
+   */
+  private void appendOnDocPart(StringBuilder sb, MetaDocPart docPart, Runnable conditionAppender) {
+    if (docPart.getTableRef().isRoot()) {
+      conditionAppender.run();
+      return;
+    }
+    sb.append("EXISTS (SELECT 1 FROM \"")
+        .append(metaDatabase.getIdentifier())
+        .append("\".\"")
+        .append(docPart.getIdentifier())
+        .append("\" WHERE \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" = \"")
+        .append(metaDatabase.getIdentifier())
+        .append("\".\"")
+        .append(rootDocPart.getIdentifier())
+        .append("\".\"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" AND ");
+    conditionAppender.run();
+    sb.append(')');
+  }
+
+  private StringBuilder appendColumn(StringBuilder sb, MetaField field) {
+    return sb.append('"')
+        .append(field.getIdentifier())
+        .append('"');
+  }
+
+  @Nullable
+  private MetaDocPart getDocPart(AttributeFilter filter) {
+    List<Key<?>> keys = filter.getAttributeReference().getKeys();
+    TableRef ref = tableRefFactory.createRoot();
+    for (Key<?> key : keys.subList(0, keys.size() - 1)) {
+      ref = tableRefFactory.createChild(ref, getKeyName(key));
+    }
+    return metaCollection.getMetaDocPartByTableRef(ref);
+  }
+
+  private String getFieldName(AttributeFilter filter) {
+    AttributeReference attRef = filter.getAttributeReference();
+    return getKeyName(attRef.getKeys().get(attRef.getKeys().size() - 1));
+  }
+
+  private String getKeyName(Key<?> key) {
+    if (key instanceof ObjectKey) {
+      return ((ObjectKey) key).getKey();
+    } else {
+      throw new IllegalArgumentException("Keys whose type is not object are not valid");
+    }
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import com.google.common.base.Throwables;
+import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.core.concurrent.StreamExecutor;
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.exceptions.SystemException;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.transaction.RollbackException;
+import org.jooq.DSLContext;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The import connections used by a write transaction to insert doc parts in parallel with its own
+ * connection.
+ *
+ * <p>Each doc part table is always inserted by the same connection. Tables created or altered by
+ * the owner transaction are not visible to other connections until it commits, so they are
+ * inserted on the owner connection.
+ *
+ * <p>Import connections are only committed when the owner transaction commits and they are rolled
+ * back with it. The doc parts they inserted are kept until then: before the owner executes
+ * anything that may need the locks they hold, {@link #moveToOwner(DSLContext)} rolls them back and
+ * inserts their doc parts again on the owner connection. As import connections are committed just
+ * before the owner one, this group must only be used while data insert mode is enabled.
+ */
+class ImportConnectionGroup implements AutoCloseable {
+
+  private final SqlInterface sqlInterface;
+  private final StreamExecutor executor;
+  private final List<Connection> connections = new ArrayList<>();
+  private final List<DSLContext> dsls = new ArrayList<>();
+  private final Map<String, Integer> tableConnections = new HashMap<>();
+  private final Set<String> ownerTables = new HashSet<>();
+  private final Map<String, List<DocPartData>> importedData = new LinkedHashMap<>();
+  private boolean exhausted = false;
+
+  ImportConnectionGroup(SqlInterface sqlInterface, StreamExecutor executor) {
+    this.sqlInterface = sqlInterface;
+    this.executor = executor;
+  }
+
+  /**
+   * Marks the given table as created or altered by the owner transaction.
+   */
+  void addOwnerTable(String schemaName, String tableName) {
+    ownerTables.add(tableKey(schemaName, tableName));
+  }
+
+  /**
+   * Inserts the given doc parts, using the owner dsl for the ones that cannot be inserted by an
+   * import connection.
+   */
+  void insert(DSLContext ownerDsl, String schemaName, List<DocPartData> data)
+      throws UserException, RollbackException {
+    WriteInterface writeInterface = sqlInterface.getWriteInterface();
+    Map<Integer, List<DocPartData>> dataByConnection = new HashMap<>();
+    List<DocPartData> ownerData = new ArrayList<>();
+    for (DocPartData docPartData : data) {
+      Integer connectionIndex = getConnectionIndex(schemaName,
+          docPartData.getMetaDocPart().getIdentifier());
+      if (connectionIndex == null) {
+        ownerData.add(docPartData);
+      } else {
+        dataByConnection.computeIfAbsent(connectionIndex, i -> new ArrayList<>())
+            .add(docPartData);
+      }
+    }
+
+    dataByConnection.values().forEach(imported -> importedData
+        .computeIfAbsent(schemaName, key -> new ArrayList<>())
+        .addAll(imported));
+    CompletableFuture<?> importFuture = executor.execute(dataByConnection.entrySet().stream()
+        .map(entry -> (Callable<Void>) () -> {
+          DSLContext dsl = dsls.get(entry.getKey());
+          for (DocPartData docPartData : entry.getValue()) {
+            writeInterface.insertDocPartData(dsl, schemaName, docPartData);
+          }
+          return null;
+        }));
+    try {
+      for (DocPartData docPartData : ownerData) {
+        writeInterface.insertDocPartData(ownerDsl, schemaName, docPartData);
+      }
+    } finally {
+      try {
+        importFuture.join();
+      } catch (CompletionException ex) {
+        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+        Throwables.propagateIfPossible(cause, UserException.class, RollbackException.class);
+        throw new SystemException("Error while inserting on an import connection", cause);
+      }
+    }
+  }
+
+  /**
+   * Rollbacks and releases all import connections and inserts the doc parts they inserted on the
+   * owner dsl.
+   */
+  void moveToOwner(DSLContext ownerDsl) throws UserException, RollbackException {
+    if (importedData.isEmpty()) {
+      return;
+    }
+    Map<String, List<DocPartData>> toMove = new LinkedHashMap<>(importedData);
+    close();
+    WriteInterface writeInterface = sqlInterface.getWriteInterface();
+    for (Map.Entry<String, List<DocPartData>> entry : toMove.entrySet()) {
+      for (DocPartData docPartData : entry.getValue()) {
+        writeInterface.insertDocPartData(ownerDsl, entry.getKey(), docPartData);
+      }
+    }
+  }
+
+  /**
+   * Commits and releases all import connections.
+   *
+   * <p>It must only be called right before the owner transaction commits.
+   */
+  void commit() throws UserException, RollbackException {
+    try {
+      for (Connection connection : connections) {
+        try {
+          connection.commit();
+        } catch (SQLException ex) {
+          throw sqlInterface.getErrorHandler().handleUserException(Context.COMMIT, ex);
+        }
+      }
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Rollbacks and releases all import connections.
+   */
+  @Override
+  public void close() {
+    try {
+      for (Connection connection : connections) {
+        try {
+          connection.rollback();
+        } catch (SQLException ex) {
+          sqlInterface.getErrorHandler().handleException(Context.ROLLBACK, ex);
+        } finally {
+          sqlInterface.getDbBackend().releaseImportConnection(connection);
+        }
+      }
+    } finally {
+      for (DSLContext dsl : dsls) {
+        dsl.close();
+      }
+      connections.clear();
+      dsls.clear();
+      importedData.clear();
+      tableConnections.clear();
+      exhausted = false;
+    }
+  }
+
+  private Integer getConnectionIndex(String schemaName, String tableName) {
+    String tableKey = tableKey(schemaName, tableName);
+    if (ownerTables.contains(tableKey)) {
+      return null;
+    }
+    Integer connectionIndex = tableConnections.get(tableKey);
+    if (connectionIndex == null) {
+      if (!exhausted) {
+        Connection connection = sqlInterface.getDbBackend().tryCreateImportConnection();
+        if (connection != null) {
+          connections.add(connection);
+          dsls.add(sqlInterface.getDslContextFactory().createDslContext(connection));
+        } else {
+          exhausted = true;
+        }
+      }
+      if (connections.isEmpty()) {
+        return null;
+      }
+      connectionIndex = tableConnections.size() % connections.size();
+      tableConnections.put(tableKey, connectionIndex);
+    }
+    return connectionIndex;
+  }
+
+  private static String tableKey(String schemaName, String tableName) {
+    return schemaName + '.' + tableName;
+  }
+}
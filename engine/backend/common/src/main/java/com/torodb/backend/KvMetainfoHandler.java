@@ -20,6 +20,8 @@ package com.torodb.backend;
 
 import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
 import com.torodb.kvdocument.values.KvDouble;
 import com.torodb.kvdocument.values.KvInteger;
 import com.torodb.kvdocument.values.KvLong;
@@ -30,9 +32,19 @@ import com.torodb.kvdocument.values.KvValueAdaptor;
 import com.torodb.kvdocument.values.heap.StringKvString;
 import org.jooq.DSLContext;
 
+import java.io.StringReader;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Inject;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
 
 public class KvMetainfoHandler {
 
@@ -76,6 +88,13 @@ public class KvMetainfoHandler {
       return new StringKvString(value);
     }
     char c = value.charAt(0);
+    if (c == '{') {
+      try (JsonReader reader = Json.createReader(new StringReader(value))) {
+        return fromJson(reader.readObject());
+      } catch (JsonException | UnsupportedOperationException ignore) {
+        return new StringKvString(value);
+      }
+    }
     if (c < '0' || c > '9') {
       return new StringKvString(value);
     }
@@ -100,6 +119,43 @@ public class KvMetainfoHandler {
     return new StringKvString(value);
   }
 
+  private KvDocument fromJson(JsonObject object) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (Map.Entry<String, JsonValue> entry : object.entrySet()) {
+      builder.putValue(entry.getKey(), fromJson(entry.getValue()));
+    }
+    return builder.build();
+  }
+
+  private KvValue<?> fromJson(JsonValue value) {
+    switch (value.getValueType()) {
+      case OBJECT:
+        return fromJson((JsonObject) value);
+      case STRING:
+        return new StringKvString(((JsonString) value).getString());
+      case NUMBER: {
+        JsonNumber number = (JsonNumber) value;
+        if (!number.isIntegral()) {
+          return KvDouble.of(number.doubleValue());
+        }
+        long l = number.longValueExact();
+        if (l == (int) l) {
+          return KvInteger.of((int) l);
+        }
+        return KvLong.of(l);
+      }
+      case TRUE:
+        return KvBoolean.TRUE;
+      case FALSE:
+        return KvBoolean.FALSE;
+      case NULL:
+        return KvNull.getInstance();
+      default:
+        throw new UnsupportedOperationException(value.getValueType()
+            + " is not supported as metainf value yet.");
+    }
+  }
+
   private String toStorableString(KvValue<?> value) {
     return value.accept(SERIALIZER, null);
   }
@@ -143,6 +199,41 @@ public class KvMetainfoHandler {
       return Boolean.toString(value.getValue());
     }
 
+    /**
+     * Documents are stored as JSON objects, so only documents whose values are documents or
+     * the scalar types supported here can be stored.
+     */
+    @Override
+    public String visit(KvDocument value, Void arg) {
+      return toJson(value).toString();
+    }
+
+    private JsonObject toJson(KvDocument doc) {
+      JsonObjectBuilder builder = Json.createObjectBuilder();
+      for (DocEntry<?> entry : doc) {
+        String key = entry.getKey();
+        KvValue<?> value = entry.getValue();
+        if (value instanceof KvDocument) {
+          builder.add(key, toJson((KvDocument) value));
+        } else if (value instanceof KvString) {
+          builder.add(key, value.toString());
+        } else if (value instanceof KvDouble) {
+          builder.add(key, ((KvDouble) value).getValue());
+        } else if (value instanceof KvLong) {
+          builder.add(key, ((KvLong) value).getValue());
+        } else if (value instanceof KvInteger) {
+          builder.add(key, ((KvInteger) value).getValue());
+        } else if (value instanceof KvBoolean) {
+          builder.add(key, ((KvBoolean) value).getValue());
+        } else if (value instanceof KvNull) {
+          builder.addNull(key);
+        } else {
+          defaultCase(value, null);
+        }
+      }
+      return builder.build();
+    }
+
   }
 
 }
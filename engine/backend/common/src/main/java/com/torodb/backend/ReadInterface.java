@@ -21,6 +21,7 @@ package com.torodb.backend;
 import com.google.common.collect.Multimap;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.language.Filter;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -37,6 +38,15 @@ import javax.annotation.Nonnull;
 
 public interface ReadInterface {
 
+  /**
+   * Returns a cursor that iterates, sorted by did, over the dids of the documents that fulfill
+   * the given filter.
+   */
+  @Nonnull
+  Cursor<Integer> getCollectionDidsWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCol,
+      @Nonnull Filter filter) throws SQLException;
+
   @Nonnull
   Cursor<Integer> getCollectionDidsWithFieldEqualsTo(@Nonnull DSLContext dsl,
       @Nonnull MetaDatabase metaDatabase,
@@ -59,6 +69,21 @@ public interface ReadInterface {
   long countAll(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection);
 
+  /**
+   * Returns the number of documents on the given collection that fulfill the given filter.
+   */
+  long countByFilter(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection, @Nonnull Filter filter);
+
+  /**
+   * Returns an estimation of the number of documents on the given collection.
+   *
+   * <p>Backends that keep statistics of their tables use them instead of scanning the collection,
+   * so the returned value may be stale. Other backends return the exact count.
+   */
+  long estimateCountAll(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection);
+
   @Nonnull
   Cursor<Integer> getAllCollectionDids(@Nonnull DSLContext dsl, @Nonnull MetaDatabase metaDatabase,
       @Nonnull MetaCollection metaCollection)
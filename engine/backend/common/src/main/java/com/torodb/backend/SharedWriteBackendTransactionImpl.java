@@ -23,8 +23,11 @@ import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.core.TableRef;
 import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.backend.SharedWriteBackendTransaction;
+import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.IdentifierFactory;
+import com.torodb.core.d2r.RootDocPartUpdate;
+import com.torodb.core.exceptions.ToroRuntimeException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -57,6 +60,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   private static final Logger LOGGER = LogManager.getLogger(SharedWriteBackendTransactionImpl.class);
 
   private final IdentifierFactory identifierFactory;
+  private final ImportConnectionGroup importConnectionGroup;
 
   public SharedWriteBackendTransactionImpl(SqlInterface sqlInterface,
       BackendConnectionImpl backendConnection,
@@ -64,6 +68,8 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
     super(sqlInterface.getDbBackend().createWriteConnection(), sqlInterface, backendConnection);
 
     this.identifierFactory = identifierFactory;
+    this.importConnectionGroup = new ImportConnectionGroup(sqlInterface,
+        backendConnection.getStreamExecutor());
   }
 
   IdentifierFactory getIdentifierFactory() {
@@ -88,6 +94,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   @Override
   public void dropCollection(MetaDatabase db, MetaCollection coll) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
 
     dropMetaCollection(db, coll);
     getSqlInterface().getStructureInterface().dropCollection(getDsl(), db.getIdentifier(), coll);
@@ -96,6 +103,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   @Override
   public void dropDatabase(MetaDatabase db) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
 
     Iterator<? extends MetaCollection> metaCollectionIterator = db.streamMetaCollections()
         .iterator();
@@ -114,6 +122,8 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   @Override
   public void addDocPart(MetaDatabase db, MetaCollection col, MetaDocPart newDocPart) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
+    importConnectionGroup.addOwnerTable(db.getIdentifier(), newDocPart.getIdentifier());
 
     getSqlInterface().getMetaDataWriteInterface().addMetaDocPart(getDsl(), db, col,
         newDocPart);
@@ -149,12 +159,16 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   public void addField(MetaDatabase db, MetaCollection col, MutableMetaDocPart docPart,
       MetaField newField) throws UserException {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
+    importConnectionGroup.addOwnerTable(db.getIdentifier(), docPart.getIdentifier());
 
     getSqlInterface().getMetaDataWriteInterface().addMetaField(getDsl(), db, col, docPart,
         newField);
     getSqlInterface().getStructureInterface().addColumnToDocPartTable(getDsl(), db.getIdentifier(),
         docPart.getIdentifier(), newField.getIdentifier(), getSqlInterface().getDataTypeProvider()
         .getDataType(newField.getType()));
+    getSqlInterface().getWriteInterface().invalidateInsertStatements(db.getIdentifier(),
+        docPart.getIdentifier());
 
     List<Tuple2<MetaIndex, List<String>>> missingIndexes = col.getMissingIndexesForNewField(docPart,
         newField);
@@ -202,6 +216,8 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   public void addScalar(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
       MetaScalar newScalar) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
+    importConnectionGroup.addOwnerTable(db.getIdentifier(), docPart.getIdentifier());
 
     getSqlInterface().getMetaDataWriteInterface().addMetaScalar(getDsl(), db, col, docPart,
         newScalar);
@@ -209,6 +225,8 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
         docPart.getIdentifier(),
         newScalar.getIdentifier(), getSqlInterface().getDataTypeProvider().getDataType(newScalar
         .getType()));
+    getSqlInterface().getWriteInterface().invalidateInsertStatements(db.getIdentifier(),
+        docPart.getIdentifier());
   }
 
   @Override
@@ -226,9 +244,18 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
     getSqlInterface().getWriteInterface().insertDocPartData(getDsl(), db.getIdentifier(), data);
   }
 
+  @Override
+  public void insertAll(MetaDatabase db, MetaCollection col, List<DocPartData> data)
+      throws UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    importConnectionGroup.insert(getDsl(), db.getIdentifier(), data);
+  }
+
   @Override
   public void deleteDids(MetaDatabase db, MetaCollection col, Collection<Integer> dids) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
 
     if (dids.isEmpty()) {
       return;
@@ -238,10 +265,29 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
         .deleteCollectionDocParts(getDsl(), db.getIdentifier(), col, dids);
   }
 
+  @Override
+  public long deleteDids(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor) {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
+
+    return getSqlInterface().getWriteInterface()
+        .deleteCollectionDocParts(getDsl(), db.getIdentifier(), col, didCursor);
+  }
+
+  @Override
+  public void update(MetaDatabase db, MetaCollection col, RootDocPartUpdate update)
+      throws UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
+
+    getSqlInterface().getWriteInterface().updateRootDocPart(getDsl(), db.getIdentifier(), update);
+  }
+
   @Override
   public void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index) throws
       UserException {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
 
     Preconditions.checkArgument(!index.isUnique() || index.streamTableRefs().count() == 1,
         "composed unique indexes on fields of different subdocuments are not supported yet");
@@ -320,6 +366,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   @Override
   public void dropIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
+    moveImportedData();
 
     getSqlInterface().getMetaDataWriteInterface().deleteMetaIndex(getDsl(), db, col, index);
     Iterator<TableRef> tableRefIterator = index.streamTableRefs().iterator();
@@ -369,6 +416,9 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
     Preconditions.checkState(!isClosed(), "This transaction is closed");
 
     try {
+      //if the owner commit fails after this one, the imported rows are left without it. Data
+      //insert mode tolerates that because a failed import is restarted from scratch
+      importConnectionGroup.commit();
       getConnection().commit();
     } catch (SQLException ex) {
       getSqlInterface().getErrorHandler().handleUserException(Context.COMMIT, ex);
@@ -376,4 +426,32 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
       getDsl().configuration().connectionProvider().release(getConnection());
     }
   }
+
+  @Override
+  public void rollback() {
+    importConnectionGroup.close();
+    super.rollback();
+  }
+
+  @Override
+  public void close() {
+    if (!isClosed()) {
+      importConnectionGroup.close();
+    }
+    super.close();
+  }
+
+  /**
+   * Moves the rows inserted by the import connections of this transaction to its own connection,
+   * so they do not hold locks the following statements may need.
+   *
+   * <p>It must be called before any operation other than an insert is executed.
+   */
+  protected void moveImportedData() {
+    try {
+      importConnectionGroup.moveToOwner(getDsl());
+    } catch (UserException ex) {
+      throw new ToroRuntimeException(ex);
+    }
+  }
 }
@@ -32,10 +32,12 @@ import org.jooq.Record;
 import org.jooq.Result;
 import org.jooq.impl.DSL;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -44,6 +46,12 @@ import javax.inject.Singleton;
 @SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
 public class SqlHelper {
 
+  /**
+   * The SQL type of the elements of the arrays created by {@link #createDidArray(Connection,
+   * Collection)}.
+   */
+  public static final String DID_ARRAY_TYPE = "int4";
+
   private final DataTypeProvider dataTypeProvider;
   private final ErrorHandler errorHandler;
 
@@ -195,6 +203,16 @@ public class SqlHelper {
     return sqlBinding.getPlaceholder();
   }
 
+  /**
+   * Creates an array with the given dids that can be bound as a single statement parameter.
+   *
+   * <p>The caller must {@link Array#free() free} the returned array once it is not needed.
+   */
+  public Array createDidArray(Connection connection, Collection<Integer> dids)
+      throws SQLException {
+    return connection.createArrayOf(DID_ARRAY_TYPE, dids.toArray());
+  }
+
   @SuppressWarnings("rawtypes")
   public String getSqlTypeName(FieldType fieldType) {
     DataTypeForKv dataType = dataTypeProvider.getDataType(fieldType);
@@ -20,6 +20,7 @@ package com.torodb.backend;
 
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.d2r.RootDocPartUpdate;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import org.jooq.DSLContext;
@@ -39,4 +40,18 @@ public interface WriteInterface {
   void deleteCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull MetaCollection metaCollection, @Nonnull Collection<Integer> dids);
 
+  /**
+   * Applies the given in place modification on the root doc part table it references.
+   */
+  void updateRootDocPart(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull RootDocPartUpdate update) throws UserException;
+
+  /**
+   * Discards the cached insert statements of the given doc part table.
+   *
+   * <p>It must be called when a column is added to the table, as the cached statements that do
+   * not include the new column will not be used anymore.
+   */
+  void invalidateInsertStatements(@Nonnull String schemaName, @Nonnull String docPartIdentifier);
+
 }
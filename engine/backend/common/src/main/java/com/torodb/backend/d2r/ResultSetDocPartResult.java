@@ -24,10 +24,8 @@ import com.torodb.backend.ErrorHandler;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.InternalField;
 import com.torodb.backend.MetaDataReadInterface;
-import com.torodb.backend.SqlHelper;
 import com.torodb.backend.converters.jooq.DataTypeForKv;
-import com.torodb.backend.tables.MetaDocPartTable;
-import com.torodb.backend.tables.records.MetaDocPartRecord;
+import com.torodb.backend.converters.sql.SqlBinding;
 import com.torodb.core.d2r.DocPartResult;
 import com.torodb.core.d2r.DocPartResultRow;
 import com.torodb.core.d2r.IllegalDocPartRowException;
@@ -38,11 +36,12 @@ import org.jooq.Converter;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Collection;
+import java.util.stream.Stream;
 
 public class ResultSetDocPartResult implements DocPartResult {
 
-  private final MetaDataReadInterface metaDataReadInterface;
+  private static final int NO_COLUMN = -1;
+
   private final DataTypeProvider dataTypeProvider;
   private final ErrorHandler errorHandler;
   private final MetaDocPart metaDocPart;
@@ -52,17 +51,52 @@ public class ResultSetDocPartResult implements DocPartResult {
    */
   private boolean lastRowConsumed = true;
   private boolean hasNext = false;
-  private final SqlHelper sqlHelper;
+  private final int didColumnIndex;
+  private final int ridColumnIndex;
+  private final int pidColumnIndex;
+  private final int seqColumnIndex;
+  private final int firstUserColumnIndex;
+  private final UserColumnReader[] userColumnReaders;
 
   public ResultSetDocPartResult(MetaDataReadInterface metaDataReadInterface,
       DataTypeProvider dataTypeProvider, ErrorHandler errorHandler,
-      MetaDocPart metaDocPart, ResultSet rs, SqlHelper sqlHelper) {
-    this.metaDataReadInterface = metaDataReadInterface;
+      MetaDocPart metaDocPart, ResultSet rs) {
     this.dataTypeProvider = dataTypeProvider;
     this.errorHandler = errorHandler;
     this.metaDocPart = metaDocPart;
     this.rs = rs;
-    this.sqlHelper = sqlHelper;
+
+    int didIndex = NO_COLUMN;
+    int ridIndex = NO_COLUMN;
+    int pidIndex = NO_COLUMN;
+    int seqIndex = NO_COLUMN;
+    int columnIndex = 1;
+    for (InternalField<?> internalField : metaDataReadInterface.getInternalFields(metaDocPart)) {
+      if (internalField.isDid()) {
+        didIndex = columnIndex;
+      } else if (internalField.isRid()) {
+        ridIndex = columnIndex;
+      } else if (internalField.isPid()) {
+        pidIndex = columnIndex;
+      } else if (internalField.isSeq()) {
+        seqIndex = columnIndex;
+      }
+      columnIndex++;
+    }
+    if (didIndex == NO_COLUMN) {
+      throw new IllegalDocPartRowException(null, null, null, null,
+          "did was not found for doc part " + metaDocPart.getTableRef());
+    }
+    this.didColumnIndex = didIndex;
+    this.ridColumnIndex = ridIndex;
+    this.pidColumnIndex = pidIndex;
+    this.seqColumnIndex = seqIndex;
+    this.firstUserColumnIndex = columnIndex;
+    this.userColumnReaders = Stream.concat(
+        metaDocPart.streamScalars().map(metaScalar -> metaScalar.getType()),
+        metaDocPart.streamFields().map(metaField -> metaField.getType()))
+        .map(UserColumnReader::new)
+        .toArray(UserColumnReader[]::new);
   }
 
   @Override
@@ -88,7 +122,12 @@ public class ResultSetDocPartResult implements DocPartResult {
   public DocPartResultRow next() {
     Preconditions.checkState(hasNext());
 
-    ResultSetNewDocPartRow result = new ResultSetNewDocPartRow();
+    ResultSetNewDocPartRow result;
+    try {
+      result = new ResultSetNewDocPartRow();
+    } catch (SQLException sqlException) {
+      throw errorHandler.handleException(Context.FETCH, sqlException);
+    }
     lastRowConsumed = true;
 
     return result;
@@ -109,55 +148,17 @@ public class ResultSetDocPartResult implements DocPartResult {
     private final int rid;
     private final int pid;
     private final Integer seq;
-    private final int firstUserColumnIndex;
-
-    public ResultSetNewDocPartRow() throws IllegalDocPartRowException {
-      Collection<InternalField<?>> internalFields = metaDataReadInterface
-          .getInternalFields(metaDocPart);
-
-      Integer didTemp = null;
-      Integer pidTemp = null;
-      Integer ridTemp = null;
-      Integer seqTemp = null;
-      int columnIndex = 1;
-      MetaDocPartTable<Object, MetaDocPartRecord<Object>> metaDocPartTable = metaDataReadInterface
-          .getMetaDocPartTable();
-
-      for (InternalField<?> internalField : internalFields) {
-        try {
-          if (internalField.isDid()) {
-            didTemp = metaDocPartTable.DID.getValue(rs, columnIndex);
-          } else if (internalField.isRid()) {
-            ridTemp = metaDocPartTable.RID.getValue(rs, columnIndex);
-          } else if (internalField.isPid()) {
-            pidTemp = metaDocPartTable.PID.getValue(rs, columnIndex);
-          } else if (internalField.isSeq()) {
-            seqTemp = metaDocPartTable.SEQ.getValue(rs, columnIndex);
-          }
-        } catch (SQLException sqlException) {
-          throw errorHandler.handleException(Context.FETCH, sqlException);
-        }
-        columnIndex++;
-
-        if (didTemp == null) {
-          throw new IllegalDocPartRowException(null, ridTemp, pidTemp, seqTemp,
-              "did was not found for doc part " + metaDocPart.getTableRef());
-        }
 
-        if (ridTemp == null) {
-          ridTemp = didTemp;
-        }
-
-        if (pidTemp == null) {
-          pidTemp = didTemp;
-        }
+    public ResultSetNewDocPartRow() throws SQLException {
+      this.did = rs.getInt(didColumnIndex);
+      this.rid = ridColumnIndex == NO_COLUMN ? did : rs.getInt(ridColumnIndex);
+      this.pid = pidColumnIndex == NO_COLUMN ? did : rs.getInt(pidColumnIndex);
+      if (seqColumnIndex == NO_COLUMN) {
+        this.seq = null;
+      } else {
+        int seqValue = rs.getInt(seqColumnIndex);
+        this.seq = rs.wasNull() ? null : seqValue;
       }
-
-      this.did = didTemp;
-      this.rid = ridTemp;
-      this.pid = pidTemp;
-      this.seq = seqTemp;
-      this.firstUserColumnIndex = columnIndex;
     }
 
     @Override
@@ -182,24 +183,43 @@ public class ResultSetDocPartResult implements DocPartResult {
 
     @Override
     public KvValue<?> getUserValue(int fieldIndex, FieldType fieldType) {
-      Object databaseValue;
+      int columnIndex = fieldIndex + firstUserColumnIndex;
       try {
-        databaseValue = sqlHelper
-            .getResultSetValue(fieldType, rs, fieldIndex + firstUserColumnIndex);
+        if (fieldIndex < userColumnReaders.length
+            && userColumnReaders[fieldIndex].fieldType == fieldType) {
+          return userColumnReaders[fieldIndex].read(rs, columnIndex);
+        }
+        return new UserColumnReader(fieldType).read(rs, columnIndex);
       } catch (SQLException sqlException) {
         throw errorHandler.handleException(Context.FETCH, sqlException);
       }
+    }
+
+  }
+
+  /**
+   * Reads the values of a user column, resolving its binding and converter only once.
+   */
+  private class UserColumnReader {
 
+    private final FieldType fieldType;
+    private final SqlBinding<Object> sqlBinding;
+    private final Converter<Object, KvValue<?>> converter;
+
+    @SuppressWarnings("unchecked")
+    private UserColumnReader(FieldType fieldType) {
+      DataTypeForKv<?> dataType = dataTypeProvider.getDataType(fieldType);
+      this.fieldType = fieldType;
+      this.sqlBinding = (SqlBinding<Object>) dataType.getKvValueConverter().getSqlBinding();
+      this.converter = (Converter<Object, KvValue<?>>) dataType.getConverter();
+    }
+
+    private KvValue<?> read(ResultSet rs, int columnIndex) throws SQLException {
+      Object databaseValue = sqlBinding.get(rs, columnIndex);
       if (databaseValue == null) {
         return null;
       }
-
-      DataTypeForKv<?> dataType = dataTypeProvider.getDataType(fieldType);
-      @SuppressWarnings("unchecked")
-      Converter<Object, KvValue<?>> converter = (Converter<Object, KvValue<?>>) dataType
-          .getConverter();
       return converter.from(databaseValue);
     }
-
   }
 }
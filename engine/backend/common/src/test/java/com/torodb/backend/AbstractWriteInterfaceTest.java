@@ -0,0 +1,156 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.torodb.core.d2r.RootDocPartUpdate;
+import com.torodb.core.d2r.RootDocPartUpdate.Assignment;
+import com.torodb.core.d2r.RootDocPartUpdate.Operation;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.jooq.DSLContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class AbstractWriteInterfaceTest {
+
+  private MetaDocPart rootDocPart;
+  private SqlHelper sqlHelper;
+  private DSLContext dsl;
+  private Connection connection;
+  private PreparedStatement preparedStatement;
+  private AbstractWriteInterface writeInterface;
+
+  @Before
+  public void setUp() throws Exception {
+    rootDocPart = new ImmutableMetaDocPart.Builder(new TableRefFactoryImpl().createRoot(), "col")
+        .putField("a", "a_i", FieldType.INTEGER)
+        .putField("a", "a_s", FieldType.STRING)
+        .putField("d", "d_d", FieldType.DOUBLE)
+        .build();
+    sqlHelper = mock(SqlHelper.class);
+    dsl = mock(DSLContext.class, RETURNS_DEEP_STUBS);
+    connection = mock(Connection.class);
+    preparedStatement = mock(PreparedStatement.class);
+    given(dsl.configuration().connectionProvider().acquire()).willReturn(connection);
+    given(connection.prepareStatement(anyString())).willReturn(preparedStatement);
+
+    writeInterface = new AbstractWriteInterface(mock(MetaDataReadInterface.class),
+        mock(ErrorHandler.class), sqlHelper) {
+      @Override
+      protected String getDeleteDocPartsStatement(String schemaName, String tableName,
+          Collection<Integer> dids) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      protected String getInsertDocPartDataStatement(String schemaName, MetaDocPart metaDocPart,
+          Iterator<MetaField> metaFieldIterator, Iterator<MetaScalar> metaScalarIterator,
+          Collection<InternalField<?>> internalFields, List<FieldType> fieldTypeList) {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Test
+  public void testUpdateRootDocPart() throws Exception {
+    RootDocPartUpdate update = new RootDocPartUpdate.Builder(rootDocPart, Arrays.asList(
+        new Assignment(field("a_s"), Operation.SET),
+        new Assignment(field("a_i"), Operation.SET_NULL),
+        new Assignment(field("d_d"), Operation.INCREMENT)))
+        .addRow(7, Arrays.<KvValue<?>>asList(new StringKvString("x"), KvDouble.of(1.5)))
+        .build();
+
+    writeInterface.updateRootDocPart(dsl, "db", update);
+
+    verify(connection).prepareStatement("UPDATE \"db\".\"col\" SET \"a_s\" = ?,\"a_i\" = NULL,"
+        + "\"d_d\" = COALESCE(\"d_d\", 0) + ? WHERE \"did\" = ?");
+    InOrder inOrder = inOrder(sqlHelper, preparedStatement);
+    inOrder.verify(sqlHelper).setPreparedStatementValue(preparedStatement, 1, FieldType.STRING,
+        new StringKvString("x"));
+    inOrder.verify(sqlHelper).setPreparedStatementValue(preparedStatement, 2, FieldType.DOUBLE,
+        KvDouble.of(1.5));
+    inOrder.verify(preparedStatement).setInt(3, 7);
+    inOrder.verify(preparedStatement).addBatch();
+    inOrder.verify(preparedStatement).executeBatch();
+    verify(dsl.configuration().connectionProvider()).release(connection);
+  }
+
+  @Test
+  public void testUpdateRootDocPartBatches() throws Exception {
+    RootDocPartUpdate.Builder builder = new RootDocPartUpdate.Builder(rootDocPart,
+        Collections.singletonList(new Assignment(field("a_i"), Operation.SET_NULL)));
+    for (int did = 0; did < 31; did++) {
+      builder.addRow(did, Collections.emptyList());
+    }
+
+    writeInterface.updateRootDocPart(dsl, "db", builder.build());
+
+    verify(connection).prepareStatement("UPDATE \"db\".\"col\" SET \"a_i\" = NULL "
+        + "WHERE \"did\" = ?");
+    verify(preparedStatement).setInt(1, 30);
+    verify(preparedStatement, times(31)).addBatch();
+    verify(preparedStatement, times(2)).executeBatch();
+  }
+
+  @Test
+  public void testUpdateRootDocPartWithoutRows() throws UserException {
+    writeInterface.updateRootDocPart(dsl, "db", new RootDocPartUpdate.Builder(rootDocPart,
+        Collections.singletonList(new Assignment(field("a_i"), Operation.SET_NULL))).build());
+
+    verify(dsl.configuration().connectionProvider(), never()).acquire();
+  }
+
+  @Test
+  public void testUpdateRootDocPartWithoutAssignments() throws UserException {
+    writeInterface.updateRootDocPart(dsl, "db", new RootDocPartUpdate.Builder(rootDocPart,
+        Collections.emptyList()).addRow(7, Collections.emptyList()).build());
+
+    verify(dsl.configuration().connectionProvider(), never()).acquire();
+  }
+
+  private MetaField field(String identifier) {
+    return rootDocPart.getMetaFieldByIdentifier(identifier);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Filter.Operator;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.DefaultKvMongoTimestamp;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class FilterConditionBuilderTest {
+
+  private static final String EXISTS_ON_OBJ = "EXISTS (SELECT 1 FROM \"db\".\"col_obj\" WHERE "
+      + "\"did\" = \"db\".\"col\".\"did\" AND ";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private final AttributeReference a = attRef("a");
+  private final AttributeReference ts = attRef("ts");
+  private final AttributeReference objX = attRef("obj", "x");
+  private ImmutableMetaDatabase metaDatabase;
+  private ImmutableMetaCollection metaCollection;
+  private SqlHelper sqlHelper;
+
+  @Before
+  public void setUp() {
+    TableRef rootRef = tableRefFactory.createRoot();
+    TableRef objRef = tableRefFactory.createChild(rootRef, "obj");
+    metaDatabase = new ImmutableMetaDatabase.Builder("db", "db").build();
+    metaCollection = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("a", "a_s", FieldType.STRING)
+            .putField("ts", "ts_t", FieldType.MONGO_TIME_STAMP)
+            .putField("obj", "obj_e", FieldType.CHILD))
+        .put(new ImmutableMetaDocPart.Builder(objRef, "col_obj")
+            .putField("x", "x_i", FieldType.INTEGER))
+        .build();
+
+    sqlHelper = mock(SqlHelper.class);
+    given(sqlHelper.getPlaceholder(any())).willAnswer(invocation ->
+        invocation.getArgument(0) == FieldType.MONGO_TIME_STAMP ? "?::ts" : "?");
+  }
+
+  @Test
+  public void testCompare() {
+    FilterConditionBuilder builder = createBuilder();
+
+    assertEquals("\"a_i\" > ?",
+        builder.build(Filter.compare(a, Operator.GT, KvInteger.of(3))));
+    assertParameters(builder, ImmutableList.of(param(FieldType.INTEGER, KvInteger.of(3))));
+  }
+
+  @Test
+  public void testCompare_Placeholder() {
+    FilterConditionBuilder builder = createBuilder();
+    KvValue<?> timestamp = new DefaultKvMongoTimestamp(10, 1);
+
+    assertEquals("\"ts_t\" = ?::ts", builder.build(Filter.eq(ts, timestamp)));
+    assertParameters(builder, ImmutableList.of(param(FieldType.MONGO_TIME_STAMP, timestamp)));
+  }
+
+  @Test
+  public void testIn() {
+    FilterConditionBuilder builder = createBuilder();
+
+    assertEquals("(\"a_i\" IN (?,?) OR \"a_s\" IN (?))", builder.build(Filter.in(a,
+        ImmutableList.<KvValue<?>>of(KvInteger.of(1), new StringKvString("s"), KvLong.of(3),
+            KvInteger.of(2)))));
+    assertParameters(builder, ImmutableList.of(
+        param(FieldType.INTEGER, KvInteger.of(1)),
+        param(FieldType.INTEGER, KvInteger.of(2)),
+        param(FieldType.STRING, new StringKvString("s"))));
+  }
+
+  @Test
+  public void testExists() {
+    assertEquals("(\"ts_t\" IS NOT NULL)", createBuilder().build(Filter.exists(ts, true)));
+    assertEquals("NOT (\"ts_t\" IS NOT NULL)", createBuilder().build(Filter.exists(ts, false)));
+
+    String condition = createBuilder().build(Filter.exists(a, true));
+    assertTrue("All the columns of the attribute must be checked, but " + condition + " was found",
+        condition.equals("(\"a_i\" IS NOT NULL OR \"a_s\" IS NOT NULL)")
+        || condition.equals("(\"a_s\" IS NOT NULL OR \"a_i\" IS NOT NULL)"));
+  }
+
+  @Test
+  public void testNonRootDocPart() {
+    FilterConditionBuilder builder = createBuilder();
+
+    assertEquals(EXISTS_ON_OBJ + "\"x_i\" = ?)", builder.build(Filter.eq(objX, KvInteger.of(1))));
+    assertParameters(builder, ImmutableList.of(param(FieldType.INTEGER, KvInteger.of(1))));
+    assertEquals("NOT " + EXISTS_ON_OBJ + "(\"x_i\" IS NOT NULL))",
+        createBuilder().build(Filter.exists(objX, false)));
+  }
+
+  @Test
+  public void testAndOr() {
+    FilterConditionBuilder builder = createBuilder();
+    Filter filter = Filter.and(ImmutableList.of(
+        Filter.compare(a, Operator.LTE, KvInteger.of(5)),
+        Filter.or(ImmutableList.of(
+            Filter.eq(objX, KvInteger.of(1)),
+            Filter.eq(a, new StringKvString("s"))
+        ))
+    ));
+
+    assertEquals("(\"a_i\" <= ? AND (" + EXISTS_ON_OBJ + "\"x_i\" = ?) OR \"a_s\" = ?))",
+        builder.build(filter));
+    assertParameters(builder, ImmutableList.of(
+        param(FieldType.INTEGER, KvInteger.of(5)),
+        param(FieldType.INTEGER, KvInteger.of(1)),
+        param(FieldType.STRING, new StringKvString("s"))));
+  }
+
+  @Test
+  public void testMissingFields() {
+    AttributeReference unknownX = attRef("unknown", "x");
+
+    assertEquals("Unknown types must be false", "1 = 0",
+        createBuilder().build(Filter.eq(a, KvLong.of(3))));
+    assertEquals("Unknown doc parts must be false", "1 = 0",
+        createBuilder().build(Filter.eq(unknownX, KvInteger.of(1))));
+    assertEquals("1 = 0", createBuilder().build(Filter.in(a,
+        ImmutableList.<KvValue<?>>of(KvLong.of(3)))));
+    assertEquals("1 = 0", createBuilder().build(Filter.exists(attRef("b"), true)));
+    assertEquals("1 = 1", createBuilder().build(Filter.exists(unknownX, false)));
+    assertEquals("(1 = 0 OR \"a_i\" = ?)", createBuilder().build(Filter.or(ImmutableList.of(
+        Filter.eq(unknownX, KvInteger.of(1)),
+        Filter.eq(a, KvInteger.of(1))
+    ))));
+  }
+
+  private FilterConditionBuilder createBuilder() {
+    return new FilterConditionBuilder(metaDatabase, metaCollection,
+        metaCollection.getMetaDocPartByTableRef(tableRefFactory.createRoot()), tableRefFactory,
+        sqlHelper);
+  }
+
+  private static void assertParameters(FilterConditionBuilder builder,
+      List<Tuple2<FieldType, KvValue<?>>> expected) {
+    assertEquals(expected, builder.getParameters());
+  }
+
+  private static Tuple2<FieldType, KvValue<?>> param(FieldType type, KvValue<?> value) {
+    return new Tuple2<>(type, value);
+  }
+
+  private static AttributeReference attRef(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.torodb.core.concurrent.StreamExecutor;
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import org.jooq.DSLContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+public class ImportConnectionGroupTest {
+
+  private static final String SCHEMA = "db";
+
+  private WriteInterface writeInterface;
+  private DbBackendService dbBackend;
+  private Connection importConnection;
+  private DSLContext importDsl;
+  private DSLContext ownerDsl;
+  private DocPartData data;
+  private ImportConnectionGroup group;
+
+  @Before
+  public void setUp() throws Exception {
+    SqlInterface sqlInterface = mock(SqlInterface.class);
+    writeInterface = mock(WriteInterface.class);
+    dbBackend = mock(DbBackendService.class);
+    DslContextFactory dslContextFactory = mock(DslContextFactory.class);
+    importConnection = mock(Connection.class);
+    importDsl = mock(DSLContext.class);
+    ownerDsl = mock(DSLContext.class);
+    given(sqlInterface.getWriteInterface()).willReturn(writeInterface);
+    given(sqlInterface.getDbBackend()).willReturn(dbBackend);
+    given(sqlInterface.getDslContextFactory()).willReturn(dslContextFactory);
+    given(sqlInterface.getErrorHandler()).willReturn(mock(ErrorHandler.class));
+    given(dbBackend.tryCreateImportConnection()).willReturn(importConnection);
+    given(dslContextFactory.createDslContext(importConnection)).willReturn(importDsl);
+
+    StreamExecutor executor = mock(StreamExecutor.class);
+    willAnswer(invocation -> {
+      Stream<Callable<?>> callables = invocation.getArgument(0);
+      for (Callable<?> callable : (Iterable<Callable<?>>) callables::iterator) {
+        callable.call();
+      }
+      return CompletableFuture.completedFuture(null);
+    }).given(executor).execute(any());
+
+    data = mock(DocPartData.class);
+    given(data.getMetaDocPart()).willReturn(new ImmutableMetaDocPart.Builder(
+        new TableRefFactoryImpl().createRoot(), "col").build());
+
+    group = new ImportConnectionGroup(sqlInterface, executor);
+  }
+
+  @Test
+  public void testCommit() throws Exception {
+    group.insert(ownerDsl, SCHEMA, Collections.singletonList(data));
+    group.commit();
+
+    verify(writeInterface).insertDocPartData(importDsl, SCHEMA, data);
+    verify(importConnection).commit();
+    verify(dbBackend).releaseImportConnection(importConnection);
+  }
+
+  @Test
+  public void testRollback() throws Exception {
+    group.insert(ownerDsl, SCHEMA, Collections.singletonList(data));
+    group.close();
+    group.commit();
+
+    verify(importConnection).rollback();
+    verify(importConnection, never()).commit();
+    verify(dbBackend).releaseImportConnection(importConnection);
+  }
+
+  @Test
+  public void testMoveToOwner() throws Exception {
+    group.insert(ownerDsl, SCHEMA, Collections.singletonList(data));
+    group.moveToOwner(ownerDsl);
+    group.commit();
+
+    InOrder inOrder = inOrder(writeInterface, importConnection);
+    inOrder.verify(writeInterface).insertDocPartData(importDsl, SCHEMA, data);
+    inOrder.verify(importConnection).rollback();
+    inOrder.verify(writeInterface).insertDocPartData(ownerDsl, SCHEMA, data);
+    verify(importConnection, never()).commit();
+  }
+
+  @Test
+  public void testOwnerTable() throws Exception {
+    group.addOwnerTable(SCHEMA, "col");
+    group.insert(ownerDsl, SCHEMA, Collections.singletonList(data));
+
+    verify(writeInterface).insertDocPartData(ownerDsl, SCHEMA, data);
+    verify(dbBackend, never()).tryCreateImportConnection();
+  }
+
+}
@@ -49,6 +49,25 @@ public class DerbyReadInterface extends AbstractReadInterface {
     this.metaDataReadInterface = metaDataReadInterface;
   }
 
+  @Override
+  protected String getReadCollectionDidsWithFilterStatement(String schemaName,
+      String rootTableName, String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition)
+        .append(" ORDER BY \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadCollectionDidsWithFieldEqualsToStatement(String schemaName,
       String rootTableName,
@@ -167,7 +186,21 @@ public class DerbyReadInterface extends AbstractReadInterface {
   }
 
   @Override
-  protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
+  protected String getReadCountWithFilterStatement(String schemaName, String rootTableName,
+      String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT COUNT(1) FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition);
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getDocPartStatement(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
       Collection<Integer> dids) {
     StringBuilder sb = new StringBuilder()
         .append("SELECT ");
@@ -47,6 +47,8 @@ public class OfficialPostgreSqlDriver implements PostgreSqlDriverProvider {
       PGSimpleDataSource.class
   );
   private static final PrintWriter LOGGER_WRITER = new PrintWriter(new LoggerWriter());
+  private static final int PREPARE_THRESHOLD = 2;
+  private static final int PREPARED_STATEMENT_CACHE_QUERIES = 1024;
 
   {
     if (JDBC_LOGGER.isTraceEnabled()) {
@@ -72,8 +74,12 @@ public class OfficialPostgreSqlDriver implements PostgreSqlDriverProvider {
       dataSource.setLogWriter(LOGGER_WRITER);
     }
 
-    //TODO
-    
+    //Insert statements are cached by shape, so the same statement text is prepared again and
+    //again on each pooled connection: switch them to named server side statements on their
+    //second use and keep enough of them to hold the usual number of doc part shapes.
+    dataSource.setPrepareThreshold(PREPARE_THRESHOLD);
+    dataSource.setPreparedStatementCacheQueries(PREPARED_STATEMENT_CACHE_QUERIES);
+
     try (
         Connection conn = dataSource.getConnection();
         Statement stat = conn.createStatement();
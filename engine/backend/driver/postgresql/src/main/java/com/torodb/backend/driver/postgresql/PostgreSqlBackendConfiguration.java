@@ -20,6 +20,32 @@ package com.torodb.backend.driver.postgresql;
 
 import com.torodb.backend.BackendConfiguration;
 
+import javax.annotation.Nonnegative;
+
 public interface PostgreSqlBackendConfiguration extends BackendConfiguration {
 
+  /**
+   * Returns true if bulk inserts should use the binary format of the COPY protocol instead of the
+   * text one.
+   */
+  boolean useBinaryCopy();
+
+  /**
+   * Returns the size in bytes of the chunks that are sent to the server on each COPY write.
+   */
+  @Nonnegative
+  int getCopyChunkSize();
+
+  /**
+   * Returns the number of COPY chunks that can be in flight, including the one being rendered.
+   */
+  @Nonnegative
+  int getCopyBufferDepth();
+
+  /**
+   * Returns the number of extra connections that can be used to insert doc parts in parallel
+   * while data import mode is enabled. If it is 0, each transaction inserts on its own connection.
+   */
+  @Nonnegative
+  int getImportConnectionPoolSize();
 }
@@ -0,0 +1,183 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql;
+
+import com.codahale.metrics.Timer;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.core.exceptions.SystemException;
+import com.torodb.core.exceptions.SystemInterruptedException;
+import org.postgresql.copy.CopyIn;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pipe that feeds a single open {@link CopyIn} with chunks rendered by the caller.
+ *
+ * <p>The caller renders rows on {@link #buffer()} and calls {@link #flushIfFull()} after each row.
+ * Full chunks are written to the server by a task executed on another thread, so the rendering of
+ * a chunk overlaps with the socket write of the previous ones. The number of chunks that can be
+ * in flight is bounded by the buffer depth and the time the caller is blocked waiting for a free
+ * chunk is reported on the given timer.
+ *
+ * <p>This class is not thread safe: it must be used by a single rendering thread.
+ */
+class CopyPipe implements AutoCloseable {
+
+  private static final BinaryCopyBuffer END = new BinaryCopyBuffer(0);
+
+  private final CopyIn copyIn;
+  private final int chunkSize;
+  private final Timer blockedTimer;
+  private final BlockingQueue<BinaryCopyBuffer> freeChunks;
+  private final BlockingQueue<BinaryCopyBuffer> fullChunks;
+  private final FutureTask<Void> writerTask;
+  private volatile SQLException writeError;
+  private BinaryCopyBuffer current;
+  private boolean finished = false;
+
+  CopyPipe(CopyIn copyIn, Executor executor, int chunkSize, int bufferDepth, Timer blockedTimer) {
+    this.copyIn = copyIn;
+    this.chunkSize = chunkSize;
+    this.blockedTimer = blockedTimer;
+    this.freeChunks = new ArrayBlockingQueue<>(bufferDepth);
+    this.fullChunks = new ArrayBlockingQueue<>(bufferDepth + 1);
+    for (int i = 1; i < bufferDepth; i++) {
+      freeChunks.add(new BinaryCopyBuffer(chunkSize + chunkSize / 8));
+    }
+    this.current = new BinaryCopyBuffer(chunkSize + chunkSize / 8);
+    this.writerTask = new FutureTask<>(this::writeChunks, null);
+    executor.execute(writerTask);
+  }
+
+  /**
+   * Returns the chunk where the next row must be rendered.
+   */
+  BinaryCopyBuffer buffer() {
+    return current;
+  }
+
+  /**
+   * Sends the current chunk to the writer if it has reached the chunk size.
+   */
+  void flushIfFull() throws SQLException {
+    if (current.length() >= chunkSize) {
+      handOff();
+    }
+  }
+
+  /**
+   * Sends the last chunk, waits until all chunks have been written and ends the COPY operation.
+   *
+   * @return the number of rows updated by the COPY operation
+   */
+  long finish() throws SQLException {
+    if (current.length() > 0) {
+      handOff();
+    }
+    putFull(END);
+    finished = true;
+    awaitWriter();
+    if (writeError != null) {
+      throw writeError;
+    }
+    return copyIn.endCopy();
+  }
+
+  /**
+   * Cancels the COPY operation if it has not been finished.
+   */
+  @Override
+  public void close() throws SQLException {
+    if (!finished) {
+      finished = true;
+      putFull(END);
+      awaitWriter();
+    }
+    if (copyIn.isActive()) {
+      copyIn.cancelCopy();
+    }
+  }
+
+  private void handOff() throws SQLException {
+    if (writeError != null) {
+      throw writeError;
+    }
+    putFull(current);
+    try (Timer.Context ctx = blockedTimer.time()) {
+      BinaryCopyBuffer next;
+      while ((next = freeChunks.poll(100, TimeUnit.MILLISECONDS)) == null) {
+        if (writerTask.isDone()) {
+          throw new SystemException("The COPY writer finished unexpectedly");
+        }
+      }
+      current = next;
+    } catch (InterruptedException ex) {
+      throw new SystemInterruptedException("Interrupted while waiting for a COPY chunk", ex);
+    }
+  }
+
+  private void putFull(BinaryCopyBuffer chunk) {
+    try {
+      fullChunks.put(chunk);
+    } catch (InterruptedException ex) {
+      throw new SystemInterruptedException("Interrupted while sending a COPY chunk", ex);
+    }
+  }
+
+  private void awaitWriter() {
+    try {
+      writerTask.get();
+    } catch (InterruptedException ex) {
+      writerTask.cancel(true);
+      throw new SystemInterruptedException("Interrupted while waiting for a COPY writer", ex);
+    } catch (ExecutionException ex) {
+      throw new SystemException(ex.getCause());
+    }
+  }
+
+  private void writeChunks() {
+    try {
+      while (true) {
+        BinaryCopyBuffer chunk = fullChunks.take();
+        if (chunk == END) {
+          return;
+        }
+        //once a write has failed the remaining chunks are discarded, but they are still recycled
+        //so the rendering thread is never blocked forever
+        if (writeError == null) {
+          try {
+            copyIn.writeToCopy(chunk.array(), 0, chunk.length());
+          } catch (SQLException ex) {
+            writeError = ex;
+          }
+        }
+        chunk.clear();
+        freeChunks.put(chunk);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -60,6 +60,11 @@ public class PostgreSqlDbBackend extends AbstractDbBackendService<PostgreSqlBack
     return driverProvider.getConfiguredDataSource(configuration, poolName);
   }
 
+  @Override
+  protected int getImportConnectionPoolSize(PostgreSqlBackendConfiguration configuration) {
+    return configuration.getImportConnectionPoolSize();
+  }
+
   @Override
   @Nonnull
   protected TransactionIsolationLevel getCommonTransactionIsolation() {
@@ -34,7 +34,12 @@ public class PostgreSqlMetrics {
   public final Meter insertRows;
   public final Meter insertFields;
   public final Meter insertDefault;
+  public final Meter insertMultiRow;
   public final Meter insertCopy;
+  public final Meter insertBinaryCopy;
+  public final Timer insertCopyBlockedTimer;
+  public final Meter insertStatementCacheHit;
+  public final Meter insertStatementCacheMiss;
 
   @Inject
   public PostgreSqlMetrics(ToroMetricRegistry registry) {
@@ -42,7 +47,13 @@ public class PostgreSqlMetrics {
     insertRows = registry.meter(factory.createMetricName("insertRows"));
     insertFields = registry.meter(factory.createMetricName("insertFields"));
     insertDefault = registry.meter(factory.createMetricName("insertDefault"));
+    insertMultiRow = registry.meter(factory.createMetricName("insertMultiRow"));
     insertCopy = registry.meter(factory.createMetricName("insertCopy"));
+    insertBinaryCopy = registry.meter(factory.createMetricName("insertBinaryCopy"));
+    insertCopyBlockedTimer = registry.timer(factory.createMetricName("insertCopyBlockedTimer"));
+    insertStatementCacheHit = registry.meter(factory.createMetricName("insertStatementCacheHit"));
+    insertStatementCacheMiss = registry.meter(factory.createMetricName(
+        "insertStatementCacheMiss"));
   }
 
 }
@@ -26,7 +26,6 @@ import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
-import org.jooq.Converter;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
@@ -49,6 +48,25 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
     this.metaDataReadInterface = metaDataReadInterface;
   }
 
+  @Override
+  protected String getReadCollectionDidsWithFilterStatement(String schemaName,
+      String rootTableName, String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition)
+        .append(" ORDER BY \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadCollectionDidsWithFieldEqualsToStatement(String schemaName,
       String rootTableName,
@@ -165,10 +183,54 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
   }
 
   @Override
-  protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
-      Collection<Integer> dids) {
+  protected String getReadCountWithFilterStatement(String schemaName, String rootTableName,
+      String condition) {
     StringBuilder sb = new StringBuilder()
-        .append("SELECT ");
+        .append("SELECT COUNT(1) FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition);
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getEstimateCountAllStatement() {
+    //the same estimation the planner does: the tuple density of the last analyze multiplied by
+    //the current number of pages
+    return "SELECT CASE WHEN c.relpages > 0 AND c.reltuples >= 0"
+        + " THEN (c.reltuples / c.relpages"
+        + " * (pg_relation_size(c.oid) / current_setting('block_size')::integer))::bigint"
+        + " ELSE -1 END"
+        + " FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+        + " WHERE n.nspname = ? AND c.relname = ?";
+  }
+
+  @Override
+  protected boolean isMultiStatementReadSupported() {
+    return true;
+  }
+
+  @Override
+  protected boolean isDidArrayParameterSupported() {
+    return true;
+  }
+
+  @Override
+  protected String getDocPartStatement(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
+      Collection<Integer> dids) {
+    StringBuilder sb = new StringBuilder();
+    appendDocPartSelect(sb, metaDatabase, metaDocPart);
+    sb.append(" = ANY(?)");
+    appendDocPartOrderBy(sb, metaDocPart);
+    return sb.toString();
+  }
+
+  private void appendDocPartSelect(StringBuilder sb, MetaDatabase metaDatabase,
+      MetaDocPart metaDocPart) {
+    sb.append("SELECT ");
     Collection<InternalField<?>> internalFields = metaDataReadInterface.getInternalFields(
         metaDocPart);
     for (InternalField<?> internalField : internalFields) {
@@ -194,14 +256,10 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
         .append(metaDocPart.getIdentifier())
         .append("\" WHERE \"")
         .append(metaDataReadInterface.getMetaDocPartTable().DID.getName())
-        .append("\" IN (");
-    Converter<?, Integer> converter =
-        metaDataReadInterface.getMetaDocPartTable().DID.getDataType().getConverter();
-    for (Integer requestedDoc : dids) {
-      sb.append(converter.to(requestedDoc))
-          .append(',');
-    }
-    sb.setCharAt(sb.length() - 1, ')');
+        .append('"');
+  }
+
+  private void appendDocPartOrderBy(StringBuilder sb, MetaDocPart metaDocPart) {
     if (!metaDocPart.getTableRef().isRoot()) {
       sb.append(" ORDER BY ");
       Collection<InternalField<?>> internalFieldsIt =
@@ -214,7 +272,6 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
       }
       sb.deleteCharAt(sb.length() - 1);
     }
-    return sb.toString();
   }
 
   @Override
@@ -19,16 +19,23 @@
 package com.torodb.backend.postgresql;
 
 import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.torodb.backend.AbstractWriteInterface;
+import com.torodb.backend.DocPartInsertShape;
 import com.torodb.backend.ErrorHandler;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.InternalField;
 import com.torodb.backend.SqlHelper;
+import com.torodb.backend.driver.postgresql.PostgreSqlBackendConfiguration;
+import com.torodb.backend.postgresql.converters.PostgreSqlValueToBinaryCopyConverter;
 import com.torodb.backend.postgresql.converters.PostgreSqlValueToCopyConverter;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
 import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
-import com.torodb.core.exceptions.SystemException;
+import com.torodb.core.d2r.DocPartRow.ValueConsumer;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -42,14 +49,13 @@ import org.jooq.exception.DataAccessException;
 import org.postgresql.PGConnection;
 import org.postgresql.copy.CopyManager;
 
-import java.io.EOFException;
-import java.io.IOException;
-import java.io.Reader;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -58,22 +64,48 @@ import javax.inject.Singleton;
 public class PostgreSqlWriteInterface extends AbstractWriteInterface {
 
   private static final Logger LOGGER = LogManager.getLogger(PostgreSqlWriteInterface.class);
+  private static final int MAX_CACHED_MULTI_ROW_INSERT_STATEMENTS = 10000;
 
   private final PostgreSqlMetaDataReadInterface postgreSqlMetaDataReadInterface;
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
   private final PostgreSqlMetrics metrics;
+  private final boolean binaryCopy;
+  private final int copyChunkSize;
+  private final int copyBufferDepth;
+  private final ExecutorService copyExecutor;
+  private final Cache<DocPartInsertShape, String> multiRowInsertStatementCache;
 
   @Inject
   public PostgreSqlWriteInterface(PostgreSqlMetaDataReadInterface metaDataReadInterface,
       PostgreSqlErrorHandler errorHandler,
       SqlHelper sqlHelper,
-      PostgreSqlMetrics metrics) {
+      PostgreSqlMetrics metrics,
+      PostgreSqlBackendConfiguration configuration,
+      ConcurrentToolsFactory concurrentToolsFactory) {
     super(metaDataReadInterface, errorHandler, sqlHelper);
     this.postgreSqlMetaDataReadInterface = metaDataReadInterface;
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
     this.metrics = metrics;
+    this.binaryCopy = configuration.useBinaryCopy();
+    this.copyChunkSize = configuration.getCopyChunkSize();
+    this.copyBufferDepth = configuration.getCopyBufferDepth();
+    this.copyExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "postgresql-copy", configuration.getConnectionPoolSize());
+    this.multiRowInsertStatementCache = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_MULTI_ROW_INSERT_STATEMENTS)
+        .build();
+  }
+
+  @Override
+  protected boolean isDidArrayParameterSupported() {
+    return true;
+  }
+
+  @Override
+  protected String getUpdatePlaceholder(FieldType fieldType) {
+    return sqlHelper.getPlaceholder(fieldType);
   }
 
   @Override
@@ -86,12 +118,7 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
         .append(tableName)
         .append("\" WHERE \"")
         .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
-        .append("\" IN (");
-    for (Integer did : dids) {
-      sb.append(did)
-          .append(',');
-    }
-    sb.setCharAt(sb.length() - 1, ')');
+        .append("\" = ANY(?)");
     String statement = sb.toString();
     return statement;
   }
@@ -120,9 +147,9 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
               cappedSize);
         }
 
-        metrics.insertDefault.mark();
+        metrics.insertMultiRow.mark();
 
-        super.insertDocPartData(dsl, schemaName, docPartData);
+        multiRowInsertDocPartData(dsl, schemaName, docPartData);
       } else {
         Connection connection = dsl.configuration().connectionProvider().acquire();
         try {
@@ -134,7 +161,11 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
             super.insertDocPartData(dsl, schemaName, docPartData);
           } else {
             try {
-              metrics.insertCopy.mark();
+              if (binaryCopy) {
+                metrics.insertBinaryCopy.mark();
+              } else {
+                metrics.insertCopy.mark();
+              }
               copyInsertDocPartData(
                   connection.unwrap(PGConnection.class),
                   schemaName,
@@ -144,13 +175,6 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
               throw errorHandler.handleUserException(Context.INSERT, ex);
             } catch (SQLException ex) {
               throw errorHandler.handleUserException(Context.INSERT, ex);
-            } catch (IOException ex) {
-              if (ex instanceof EOFException && ex.getMessage() == null) {
-                LOGGER.debug(ex);
-                ex = new EOFException("End of file while COPYing data");
-              }
-
-              throw new SystemException(ex);
             }
           }
         } catch (SQLException ex) {
@@ -162,38 +186,166 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     }
   }
 
+  @Override
+  public void invalidateInsertStatements(String schemaName, String docPartIdentifier) {
+    super.invalidateInsertStatements(schemaName, docPartIdentifier);
+    multiRowInsertStatementCache.asMap().keySet().removeIf(shape ->
+        shape.getDocPartIdentifier().equals(docPartIdentifier)
+        && shape.getSchemaName().equals(schemaName));
+  }
+
+  @Override
+  protected void onInsertStatementCacheHit() {
+    metrics.insertStatementCacheHit.mark();
+  }
+
+  @Override
+  protected void onInsertStatementCacheMiss() {
+    metrics.insertStatementCacheMiss.mark();
+  }
+
+  /**
+   * Inserts all the rows of the given {@link DocPartData} with a single multi-row
+   * {@code INSERT ... VALUES (...),(...)} statement, so a small doc part costs one round trip.
+   *
+   * <p>Statement texts are cached by {@link DocPartInsertShape}, whose row count is the exact
+   * number of rows, as this path is only used for doc parts with less rows than the COPY window.
+   */
+  private void multiRowInsertDocPartData(DSLContext dsl, String schemaName,
+      DocPartData docPartData) throws UserException {
+    MetaDocPart metaDocPart = docPartData.getMetaDocPart();
+    Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
+        .getInternalFields(metaDocPart);
+    DocPartInsertShape shape = DocPartInsertShape.of(schemaName, docPartData,
+        docPartData.rowCount());
+    String statement = multiRowInsertStatementCache.getIfPresent(shape);
+    if (statement == null) {
+      onInsertStatementCacheMiss();
+      statement = getMultiRowInsertDocPartDataStatement(shape, internalFields);
+      multiRowInsertStatementCache.put(shape, statement);
+    } else {
+      onInsertStatementCacheHit();
+    }
+
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try (PreparedStatement preparedStatement = connection.prepareStatement(statement)) {
+      int parameterIndex = 1;
+      for (DocPartRow docPartRow : docPartData) {
+        for (InternalField<?> internalField : internalFields) {
+          internalField.set(preparedStatement, parameterIndex, docPartRow);
+          parameterIndex++;
+        }
+        Iterator<FieldType> fieldTypeIterator = shape.getFieldTypes().iterator();
+        for (KvValue<?> value : docPartRow.getScalarValues()) {
+          sqlHelper.setPreparedStatementNullableValue(
+              preparedStatement, parameterIndex++,
+              fieldTypeIterator.next(),
+              value);
+        }
+        for (KvValue<?> value : docPartRow.getFieldValues()) {
+          sqlHelper.setPreparedStatementNullableValue(
+              preparedStatement, parameterIndex++,
+              fieldTypeIterator.next(),
+              value);
+        }
+      }
+      preparedStatement.executeUpdate();
+    } catch (DataAccessException ex) {
+      throw errorHandler.handleUserException(Context.INSERT, ex);
+    } catch (SQLException ex) {
+      throw errorHandler.handleUserException(Context.INSERT, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  protected String getMultiRowInsertDocPartDataStatement(DocPartInsertShape shape,
+      Collection<InternalField<?>> internalFields) {
+    final StringBuilder insertStatementBuilder = new StringBuilder(2048);
+    final StringBuilder rowValuesBuilder = new StringBuilder(256);
+    insertStatementBuilder.append("INSERT INTO \"")
+        .append(shape.getSchemaName())
+        .append("\".\"")
+        .append(shape.getDocPartIdentifier())
+        .append("\" (");
+    rowValuesBuilder.append('(');
+    for (InternalField<?> internalField : internalFields) {
+      insertStatementBuilder.append("\"")
+          .append(internalField.getName())
+          .append("\",");
+      rowValuesBuilder.append("?,");
+    }
+    Iterator<FieldType> fieldTypeIterator = shape.getFieldTypes().iterator();
+    for (String columnIdentifier : shape.getColumnIdentifiers()) {
+      insertStatementBuilder.append("\"")
+          .append(columnIdentifier)
+          .append("\",");
+      rowValuesBuilder
+          .append(sqlHelper.getPlaceholder(fieldTypeIterator.next()))
+          .append(',');
+    }
+    insertStatementBuilder.setCharAt(insertStatementBuilder.length() - 1, ')');
+    rowValuesBuilder.setCharAt(rowValuesBuilder.length() - 1, ')');
+    insertStatementBuilder.append(" VALUES ");
+    for (int row = 0; row < shape.getRowCount(); row++) {
+      insertStatementBuilder.append(rowValuesBuilder)
+          .append(',');
+    }
+    insertStatementBuilder.setLength(insertStatementBuilder.length() - 1);
+
+    return insertStatementBuilder.toString();
+  }
+
+  /**
+   * Inserts all the rows of the given {@link DocPartData} with a single COPY operation.
+   *
+   * <p>Rows are rendered in chunks of {@code copyChunkSize} bytes that are sent to the server
+   * through a {@link CopyPipe}, so the rendering of a chunk overlaps with the write of the
+   * previous ones.
+   */
   private void copyInsertDocPartData(
       PGConnection connection,
       String schemaName,
-      DocPartData docPartData) throws SQLException, IOException {
+      DocPartData docPartData) throws SQLException {
 
-    final int maxBatchSize = 1024;
     final CopyManager copyManager = connection.getCopyAPI();
     final MetaDocPart metaDocPart = docPartData.getMetaDocPart();
     Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
         .getInternalFields(metaDocPart);
-    final StringBuilder sb = new StringBuilder(65536);
+    final int columnCount = internalFields.size() + docPartData.scalarColumnsCount()
+        + docPartData.fieldColumnsCount();
+    final StringBuilder sb = binaryCopy ? null : new StringBuilder(1024);
+    final BinaryCopyValueConsumer valueConsumer = binaryCopy ? new BinaryCopyValueConsumer() : null;
     final String copyStatement = getCopyInsertDocPartDataStatement(
-        schemaName, docPartData, metaDocPart, internalFields);
-
-    Iterator<DocPartRow> docPartRowIterator = docPartData.iterator();
-    int docCounter = 0;
-    while (docPartRowIterator.hasNext()) {
-      DocPartRow tableRow = docPartRowIterator.next();
-      docCounter++;
-
-      addValuesToCopy(sb, tableRow, internalFields);
-      assert sb.length() != 0;
+        schemaName, docPartData, metaDocPart, internalFields, binaryCopy);
 
-      if (docCounter % maxBatchSize == 0 || !docPartRowIterator.hasNext()) {
-        executeCopy(copyManager, copyStatement, sb);
-        sb.setLength(0);
+    try (CopyPipe pipe = new CopyPipe(copyManager.copyIn(copyStatement), copyExecutor,
+        copyChunkSize, copyBufferDepth, metrics.insertCopyBlockedTimer)) {
+      if (binaryCopy) {
+        pipe.buffer().writeHeader();
       }
+      for (DocPartRow tableRow : docPartData) {
+        if (binaryCopy) {
+          addValuesToBinaryCopy(pipe.buffer(), tableRow, internalFields, columnCount,
+              valueConsumer);
+        } else {
+          addValuesToCopy(sb, tableRow, internalFields);
+          assert sb.length() != 0;
+          pipe.buffer().writeUtf8(sb);
+          sb.setLength(0);
+        }
+        pipe.flushIfFull();
+      }
+      if (binaryCopy) {
+        pipe.buffer().writeTrailer();
+      }
+      pipe.finish();
     }
   }
 
   protected String getCopyInsertDocPartDataStatement(String schemaName, DocPartData docPartData,
-      final MetaDocPart metaDocPart, Collection<InternalField<?>> internalFields) {
+      final MetaDocPart metaDocPart, Collection<InternalField<?>> internalFields,
+      boolean binary) {
     final StringBuilder copyStatementBuilder = new StringBuilder();
     copyStatementBuilder.append("COPY \"")
         .append(schemaName)
@@ -221,6 +373,9 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     }
     copyStatementBuilder.setCharAt(copyStatementBuilder.length() - 1, ')');
     copyStatementBuilder.append(" FROM STDIN");
+    if (binary) {
+      copyStatementBuilder.append(" (FORMAT binary)");
+    }
     final String copyStatement = copyStatementBuilder.toString();
     return copyStatement;
   }
@@ -256,38 +411,71 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     sb.append('\t');
   }
 
-  private void executeCopy(CopyManager copyManager, String copyStatement, final StringBuilder sb)
-      throws SQLException, IOException {
-    Reader reader = new StringBuilderReader(sb);
+  private void addValuesToBinaryCopy(
+      BinaryCopyBuffer buffer,
+      DocPartRow docPartRow,
+      Collection<InternalField<?>> internalFields,
+      int columnCount,
+      BinaryCopyValueConsumer valueConsumer) {
+    buffer.startTuple(columnCount);
+    for (InternalField<?> internalField : internalFields) {
+      //all internal fields are int4 columns
+      Integer internalValue = (Integer) internalField.getValue(docPartRow);
+      if (internalValue == null) {
+        buffer.writeNullField();
+      } else {
+        buffer.writeIntField(internalValue);
+      }
+    }
+    valueConsumer.buffer = buffer;
+    docPartRow.consumeValues(valueConsumer);
+  }
 
-    copyManager.copyIn(copyStatement, reader);
+  protected void addValueToBinaryCopy(BinaryCopyBuffer buffer, KvValue<?> value) {
+    if (value != null) {
+      value.accept(PostgreSqlValueToBinaryCopyConverter.INSTANCE, buffer);
+    } else {
+      buffer.writeNullField();
+    }
   }
 
-  private static class StringBuilderReader extends Reader {
+  /**
+   * Writes the values of a row on a {@link BinaryCopyBuffer}, so primitive values do not need to
+   * be boxed on a {@link KvValue}.
+   */
+  private class BinaryCopyValueConsumer implements ValueConsumer {
 
-    private final StringBuilder sb;
-    private int readerIndex = 0;
+    private BinaryCopyBuffer buffer;
 
-    public StringBuilderReader(StringBuilder sb) {
-      this.sb = sb;
+    @Override
+    public void consumeNull() {
+      buffer.writeNullField();
     }
 
     @Override
-    public int read(char[] cbuf, int off, int len) throws IOException {
-      if (readerIndex == sb.length()) {
-        return -1;
-      }
-      int newReaderIndex = Math.min(sb.length(), readerIndex + len);
-      sb.getChars(readerIndex, newReaderIndex, cbuf, off);
-      int diff = newReaderIndex - readerIndex;
-      readerIndex = newReaderIndex;
-      return diff;
+    public void consumeInt(int value) {
+      buffer.writeIntField(value);
     }
 
     @Override
-    public void close() {
+    public void consumeLong(long value) {
+      buffer.writeLongField(value);
     }
 
+    @Override
+    public void consumeDouble(double value) {
+      buffer.writeDoubleField(value);
+    }
+
+    @Override
+    public void consumeBoolean(boolean value) {
+      buffer.writeBooleanField(value);
+    }
+
+    @Override
+    public void consumeValue(KvValue<?> value) {
+      addValueToBinaryCopy(buffer, value);
+    }
   }
 
   @Override
@@ -0,0 +1,174 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters;
+
+import static com.torodb.backend.postgresql.converters.util.EscapableConstants.SQL_ESCAPE_CHARACTER;
+import static com.torodb.backend.postgresql.converters.util.EscapableConstants.ZERO_CHARACTER;
+
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.backend.postgresql.converters.util.SqlEscaper;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvTime;
+import com.torodb.kvdocument.values.KvValueVisitor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Writes {@link com.torodb.kvdocument.values.KvValue values} as fields of the binary format of
+ * the COPY protocol, including the field length prefix.
+ */
+public class PostgreSqlValueToBinaryCopyConverter
+    implements KvValueVisitor<Void, BinaryCopyBuffer> {
+
+  public static final PostgreSqlValueToBinaryCopyConverter INSTANCE =
+      new PostgreSqlValueToBinaryCopyConverter();
+
+  /**
+   * Days between 1970-01-01 and the PostgreSQL epoch (2000-01-01).
+   */
+  static final long POSTGRES_EPOCH_DAYS = LocalDate.of(2000, 1, 1).toEpochDay();
+  /**
+   * Microseconds between 1970-01-01T00:00:00Z and the PostgreSQL epoch (2000-01-01T00:00:00Z).
+   */
+  static final long POSTGRES_EPOCH_MICROS = POSTGRES_EPOCH_DAYS * 24 * 60 * 60 * 1000_000L;
+  /**
+   * The oid of PostgreSQL int4 type, used to encode the attributes of mongo_timestamp.
+   */
+  private static final int INT4_OID = 23;
+
+  PostgreSqlValueToBinaryCopyConverter() {
+  }
+
+  @Override
+  public Void visit(KvBoolean value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(value.getPrimitiveValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvNull value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(true);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvArray value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Ouch this should not occur");
+  }
+
+  @Override
+  public Void visit(KvInteger value, BinaryCopyBuffer arg) {
+    arg.writeIntField(value.intValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvLong value, BinaryCopyBuffer arg) {
+    arg.writeLongField(value.longValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDouble value, BinaryCopyBuffer arg) {
+    arg.writeDoubleField(value.doubleValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvString value, BinaryCopyBuffer arg) {
+    String text = value.getValue();
+    if (needsSqlEscape(text)) {
+      text = SqlEscaper.INSTANCE.escape(text);
+    }
+    arg.writeUtf8Field(text);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoObjectId value, BinaryCopyBuffer arg) {
+    arg.writeBytesField(value.getArrayValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvBinary value, BinaryCopyBuffer arg) {
+    arg.writeBytesField(value.getByteSource().read());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvInstant value, BinaryCopyBuffer arg) {
+    Instant instant = value.getValue();
+    arg.writeLongField(instant.getEpochSecond() * 1000_000L + instant.getNano() / 1000
+        - POSTGRES_EPOCH_MICROS);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDate value, BinaryCopyBuffer arg) {
+    arg.writeIntField((int) (value.getValue().toEpochDay() - POSTGRES_EPOCH_DAYS));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvTime value, BinaryCopyBuffer arg) {
+    arg.writeLongField(value.getValue().toNanoOfDay() / 1000);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoTimestamp value, BinaryCopyBuffer arg) {
+    //a composite value is the number of attributes followed by (oid, length, value) per attribute
+    arg.writeInt(4 + 2 * (4 + 4 + 4));
+    arg.writeInt(2);
+    arg.writeInt(INT4_OID);
+    arg.writeIntField(value.getSecondsSinceEpoch());
+    arg.writeInt(INT4_OID);
+    arg.writeIntField(value.getOrdinal());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDocument value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Ouch this should not occur");
+  }
+
+  private static boolean needsSqlEscape(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == ZERO_CHARACTER || c == SQL_ESCAPE_CHARACTER) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters.util;
+
+import java.util.Arrays;
+
+/**
+ * A reusable and growable byte buffer that knows how to write the primitives used by the binary
+ * format of the PostgreSQL COPY protocol.
+ *
+ * <p>All values are written in network byte order, as required by the protocol.
+ *
+ * @see <a href="https://www.postgresql.org/docs/current/static/sql-copy.html">COPY binary
+ *      format</a>
+ */
+public class BinaryCopyBuffer {
+
+  private static final byte[] SIGNATURE = new byte[]{
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0
+  };
+
+  private byte[] buffer;
+  private int length;
+
+  public BinaryCopyBuffer(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+    this.length = 0;
+  }
+
+  /**
+   * Writes the COPY binary header: the signature, the flags field and an empty header extension.
+   */
+  public void writeHeader() {
+    writeBytes(SIGNATURE, 0, SIGNATURE.length);
+    writeInt(0);
+    writeInt(0);
+  }
+
+  /**
+   * Writes the COPY binary trailer, that must be sent after the last tuple.
+   */
+  public void writeTrailer() {
+    writeShort(-1);
+  }
+
+  public void startTuple(int fieldCount) {
+    writeShort(fieldCount);
+  }
+
+  public void writeNullField() {
+    writeInt(-1);
+  }
+
+  public void writeBooleanField(boolean value) {
+    writeInt(1);
+    writeByte(value ? 1 : 0);
+  }
+
+  public void writeIntField(int value) {
+    writeInt(4);
+    writeInt(value);
+  }
+
+  public void writeLongField(long value) {
+    writeInt(8);
+    writeLong(value);
+  }
+
+  public void writeDoubleField(double value) {
+    writeInt(8);
+    writeLong(Double.doubleToLongBits(value));
+  }
+
+  public void writeBytesField(byte[] value) {
+    writeInt(value.length);
+    writeBytes(value, 0, value.length);
+  }
+
+  /**
+   * Writes a text field encoded as UTF-8.
+   */
+  public void writeUtf8Field(String value) {
+    int lengthPosition = length;
+    writeInt(0);
+    int start = length;
+    writeUtf8(value);
+    setInt(lengthPosition, length - start);
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[length++] = (byte) value;
+  }
+
+  public void writeShort(int value) {
+    ensureCapacity(2);
+    buffer[length++] = (byte) (value >>> 8);
+    buffer[length++] = (byte) value;
+  }
+
+  public void writeInt(int value) {
+    ensureCapacity(4);
+    buffer[length++] = (byte) (value >>> 24);
+    buffer[length++] = (byte) (value >>> 16);
+    buffer[length++] = (byte) (value >>> 8);
+    buffer[length++] = (byte) value;
+  }
+
+  public void writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  public void writeBytes(byte[] bytes, int offset, int count) {
+    ensureCapacity(count);
+    System.arraycopy(bytes, offset, buffer, length, count);
+    length += count;
+  }
+
+  private void setInt(int position, int value) {
+    buffer[position] = (byte) (value >>> 24);
+    buffer[position + 1] = (byte) (value >>> 16);
+    buffer[position + 2] = (byte) (value >>> 8);
+    buffer[position + 3] = (byte) value;
+  }
+
+  /**
+   * Writes the given text encoded as UTF-8, without any length prefix.
+   */
+  public void writeUtf8(CharSequence value) {
+    int size = value.length();
+    for (int i = 0; i < size; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) c;
+      } else if (c < 0x800) {
+        ensureCapacity(2);
+        buffer[length++] = (byte) (0xc0 | (c >> 6));
+        buffer[length++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < size
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        ensureCapacity(4);
+        buffer[length++] = (byte) (0xf0 | (codePoint >> 18));
+        buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+        buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+        buffer[length++] = (byte) (0x80 | (codePoint & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        //unpaired surrogates are replaced, as String.getBytes(UTF_8) does
+        ensureCapacity(1);
+        buffer[length++] = (byte) '?';
+      } else {
+        ensureCapacity(3);
+        buffer[length++] = (byte) (0xe0 | (c >> 12));
+        buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buffer[length++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = length + extra;
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+    }
+  }
+
+  /**
+   * Returns the backing array. Only the first {@link #length()} bytes are meaningful.
+   */
+  public byte[] array() {
+    return buffer;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public void clear() {
+    length = 0;
+  }
+}
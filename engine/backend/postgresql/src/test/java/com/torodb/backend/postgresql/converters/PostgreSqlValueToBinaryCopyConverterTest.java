@@ -0,0 +1,146 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.LocalDateKvDate;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+public class PostgreSqlValueToBinaryCopyConverterTest {
+
+  private static final PostgreSqlValueToBinaryCopyConverter visitor =
+      PostgreSqlValueToBinaryCopyConverter.INSTANCE;
+  private final BinaryCopyBuffer buffer = new BinaryCopyBuffer(4);
+
+  @Before
+  public void clean() {
+    buffer.clear();
+  }
+
+  @Test
+  public void testBooleanTrue() {
+    KvBoolean.TRUE.accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 1, 1);
+  }
+
+  @Test
+  public void testBooleanFalse() {
+    KvBoolean.FALSE.accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 1, 0);
+  }
+
+  @Test
+  public void testNull() {
+    KvNull.getInstance().accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 1, 1);
+  }
+
+  @Test
+  public void testIntegerNegative() {
+    KvInteger.of(-2).accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 4, 0xff, 0xff, 0xff, 0xfe);
+  }
+
+  @Test
+  public void testLongPositive() {
+    KvLong.of(0x0102030405060708L).accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 8, 1, 2, 3, 4, 5, 6, 7, 8);
+  }
+
+  @Test
+  public void testDouble() {
+    KvDouble.of(1.0).accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 8, 0x3f, 0xf0, 0, 0, 0, 0, 0, 0);
+  }
+
+  @Test
+  public void testStringSimple() {
+    new StringKvString("a\tb").accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 3, 'a', '\t', 'b');
+  }
+
+  @Test
+  public void testStringMultibyte() {
+    new StringKvString("ñ€😀").accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 9, 0xc3, 0xb1, 0xe2, 0x82, 0xac, 0xf0, 0x9f, 0x98, 0x80);
+  }
+
+  @Test
+  public void testStringWithZero() {
+    new StringKvString("a\u0000").accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 3, 'a', 1, '0');
+  }
+
+  @Test
+  public void testMongoObjectId() {
+    new ByteArrayKvMongoObjectId(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0xa, 0xb, 0xc})
+        .accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 12, 1, 2, 3, 4, 5, 6, 7, 8, 9, 0xa, 0xb, 0xc);
+  }
+
+  @Test
+  public void testDateTimeValue() {
+    new InstantKvInstant(LocalDateTime.of(2000, Month.JANUARY, 1, 0, 0, 1).toInstant(
+        ZoneOffset.UTC))
+        .accept(visitor, buffer);
+    //one second after the PostgreSQL epoch: 1000000 microseconds
+    assertBuffer(0, 0, 0, 8, 0, 0, 0, 0, 0, 0x0f, 0x42, 0x40);
+  }
+
+  @Test
+  public void testDateValue() {
+    new LocalDateKvDate(LocalDate.of(1999, Month.DECEMBER, 31))
+        .accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 4, 0xff, 0xff, 0xff, 0xff);
+  }
+
+  @Test
+  public void testTimeValue() {
+    new LocalTimeKvTime(LocalTime.of(0, 0, 1))
+        .accept(visitor, buffer);
+    assertBuffer(0, 0, 0, 8, 0, 0, 0, 0, 0, 0x0f, 0x42, 0x40);
+  }
+
+  private void assertBuffer(int... expected) {
+    byte[] expectedBytes = new byte[expected.length];
+    for (int i = 0; i < expected.length; i++) {
+      expectedBytes[i] = (byte) expected[i];
+    }
+    assertArrayEquals(expectedBytes, Arrays.copyOf(buffer.array(), buffer.length()));
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks whose name matches the given regular expressions (or all of them) with the
+ * GC profiler, which reports the allocation rate.
+ *
+ * <p>The shaded {@code benchmarks.jar} can also be run directly with the usual JMH options, like
+ * {@code java -jar benchmarks.jar D2R -prof gc}.
+ */
+public class BenchmarksMain {
+
+  private BenchmarksMain() {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .addProfiler(GCProfiler.class);
+    if (args.length == 0) {
+      options.include(BenchmarksMain.class.getPackage().getName() + ".*");
+    }
+    for (String arg : args) {
+      options.include(arg);
+    }
+    new Runner(options.build()).run();
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks;
+
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic documents with the shapes that stress different parts of the translators.
+ *
+ * <p>The keys of each document are new string instances, like the ones a driver decodes.
+ */
+public enum DocumentCorpus {
+
+  /**
+   * Documents with many scalar fields and no children.
+   */
+  FLAT {
+    @Override
+    KvDocument createDocument(int id, Random random) {
+      KvDocument.Builder builder = new KvDocument.Builder()
+          .putValue(key("_id"), id);
+      for (int i = 0; i < 20; i++) {
+        switch (i % 4) {
+          case 0:
+            builder.putValue(key("int" + i), random.nextInt());
+            break;
+          case 1:
+            builder.putValue(key("str" + i), "value" + random.nextInt(1000));
+            break;
+          case 2:
+            builder.putValue(key("double" + i), random.nextDouble());
+            break;
+          default:
+            builder.putValue(key("bool" + i), random.nextBoolean());
+            break;
+        }
+      }
+      return builder.build();
+    }
+  },
+  /**
+   * Documents with a chain of nested subdocuments, each of them with a few scalars.
+   */
+  DEEP_NESTED {
+    private static final int DEPTH = 8;
+
+    @Override
+    KvDocument createDocument(int id, Random random) {
+      KvDocument child = null;
+      for (int level = DEPTH; level > 0; level--) {
+        KvDocument.Builder builder = new KvDocument.Builder()
+            .putValue(key("level"), level)
+            .putValue(key("name"), "node" + random.nextInt(100));
+        if (child != null) {
+          builder.putValue(key("child"), child);
+        }
+        child = builder.build();
+      }
+      return new KvDocument.Builder()
+          .putValue(key("_id"), id)
+          .putValue(key("root"), child)
+          .build();
+    }
+  },
+  /**
+   * Documents whose content is mostly on arrays of scalars, arrays of documents and arrays of
+   * arrays.
+   */
+  ARRAY_HEAVY {
+    @Override
+    KvDocument createDocument(int id, Random random) {
+      List<KvValue<?>> numbers = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        numbers.add(KvInteger.of(random.nextInt()));
+      }
+      List<KvValue<?>> items = new ArrayList<>();
+      for (int i = random.nextInt(5) + 5; i > 0; i--) {
+        items.add(new KvDocument.Builder()
+            .putValue(key("sku"), "sku" + random.nextInt(1000))
+            .putValue(key("qty"), random.nextInt(10))
+            .putValue(key("price"), random.nextDouble() * 100)
+            .build());
+      }
+      List<KvValue<?>> matrix = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        List<KvValue<?>> row = new ArrayList<>();
+        for (int j = 0; j < 4; j++) {
+          row.add(KvInteger.of(random.nextInt(10)));
+        }
+        matrix.add(new ListKvArray(row));
+      }
+      return new KvDocument.Builder()
+          .putValue(key("_id"), id)
+          .putValue(key("numbers"), new ListKvArray(numbers))
+          .putValue(key("items"), new ListKvArray(items))
+          .putValue(key("matrix"), new ListKvArray(matrix))
+          .build();
+    }
+  },
+  /**
+   * Documents whose fields change their type from one document to another, so each key is
+   * stored on several columns.
+   */
+  MIXED_TYPES {
+    @Override
+    KvDocument createDocument(int id, Random random) {
+      KvDocument.Builder builder = new KvDocument.Builder()
+          .putValue(key("_id"), id);
+      for (int i = 0; i < 10; i++) {
+        String key = key("field" + i);
+        switch (random.nextInt(7)) {
+          case 0:
+            builder.putValue(key, random.nextInt());
+            break;
+          case 1:
+            builder.putValue(key, random.nextLong());
+            break;
+          case 2:
+            builder.putValue(key, random.nextDouble());
+            break;
+          case 3:
+            builder.putValue(key, "value" + random.nextInt(1000));
+            break;
+          case 4:
+            builder.putValue(key, random.nextBoolean());
+            break;
+          case 5:
+            builder.putValue(key, Instant.ofEpochMilli(random.nextInt()));
+            break;
+          default:
+            builder.putNullValue(key);
+            break;
+        }
+      }
+      return builder.build();
+    }
+  };
+
+  abstract KvDocument createDocument(int id, Random random);
+
+  /**
+   * Creates the given number of documents, always the same for the same seed.
+   */
+  public List<KvDocument> createDocuments(int count, long seed) {
+    Random random = new Random(seed);
+    List<KvDocument> docs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      docs.add(createDocument(i, random));
+    }
+    return docs;
+  }
+
+  private static String key(String key) {
+    return new String(key);
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks;
+
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.d2r.CollectionData;
+import com.torodb.core.d2r.D2RTranslator;
+import com.torodb.core.d2r.DefaultIdentifierFactory;
+import com.torodb.core.d2r.IdentifierFactory;
+import com.torodb.core.d2r.ReservedIdGenerator;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MetainfoRepository.SnapshotStage;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
+import com.torodb.core.transaction.metainf.MutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MutableMetaSnapshot;
+import com.torodb.d2r.D2RTranslatorStack;
+import com.torodb.d2r.MockIdentifierInterface;
+import com.torodb.d2r.MockRidGenerator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.metainfo.cache.mvcc.MvccMetainfoRepository;
+
+/**
+ * A collection whose metadata is only stored in memory, so documents can be translated without a
+ * backend.
+ */
+public class InMemoryCollection {
+
+  private static final String DB = "db";
+  private static final String COLL = "coll";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private final IdentifierFactory identifierFactory =
+      new DefaultIdentifierFactory(new MockIdentifierInterface());
+  private final ReservedIdGenerator ridGenerator = new MockRidGenerator();
+  private final MutableMetaDatabase database;
+
+  public InMemoryCollection() {
+    ImmutableMetaSnapshot snapshot = new ImmutableMetaSnapshot.Builder()
+        .put(new ImmutableMetaDatabase.Builder(DB, DB)
+            .put(new ImmutableMetaCollection.Builder(COLL, COLL).build()).build())
+        .build();
+    MutableMetaSnapshot mutableSnapshot;
+    try (SnapshotStage stage = new MvccMetainfoRepository(snapshot).startSnapshotStage()) {
+      mutableSnapshot = stage.createMutableSnapshot();
+    }
+    database = mutableSnapshot.getMetaDatabaseByName(DB);
+  }
+
+  public MutableMetaCollection getMetaCollection() {
+    return database.getMetaCollectionByName(COLL);
+  }
+
+  /**
+   * Creates a translator like the one the insert pipeline uses for each batch.
+   */
+  public D2RTranslator createTranslator() {
+    return new D2RTranslatorStack(tableRefFactory, identifierFactory, ridGenerator, database,
+        getMetaCollection());
+  }
+
+  public CollectionData translate(Iterable<KvDocument> docs) {
+    D2RTranslator translator = createTranslator();
+    for (KvDocument doc : docs) {
+      translator.translate(doc);
+    }
+    return translator.getCollectionDataAccumulator();
+  }
+
+}
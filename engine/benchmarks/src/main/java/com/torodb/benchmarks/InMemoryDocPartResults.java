@@ -0,0 +1,210 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks;
+
+import com.torodb.core.d2r.CollectionData;
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.d2r.DocPartRow;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * The rows of a translated {@link CollectionData}, as a backend would read them.
+ *
+ * <p>Doc parts are returned from the deepest to the root and the values of each row follow the
+ * order of {@link MetaDocPart#streamScalars()} and {@link MetaDocPart#streamFields()}, as the
+ * {@link com.torodb.core.d2r.R2DTranslator} expects.
+ */
+public class InMemoryDocPartResults implements Iterable<DocPartResult> {
+
+  private final List<DocPartRows> docParts;
+
+  public InMemoryDocPartResults(CollectionData collectionData) {
+    List<DocPartData> docPartDatas = new ArrayList<>();
+    collectionData.orderedDocPartData().forEach(docPartDatas::add);
+    docPartDatas.sort(Comparator.comparingInt(
+        (DocPartData data) -> data.getMetaDocPart().getTableRef().getDepth()).reversed());
+
+    docParts = docPartDatas.stream()
+        .map(DocPartRows::new)
+        .collect(Collectors.toList());
+  }
+
+  public int getRowCount() {
+    return docParts.stream().mapToInt(docPart -> docPart.rows.size()).sum();
+  }
+
+  @Override
+  public Iterator<DocPartResult> iterator() {
+    return docParts.stream()
+        .map(docPart -> (DocPartResult) new Result(docPart))
+        .iterator();
+  }
+
+  private static class DocPartRows {
+
+    private final MetaDocPart metaDocPart;
+    private final List<Row> rows;
+
+    private DocPartRows(DocPartData docPartData) {
+      this.metaDocPart = docPartData.getMetaDocPart();
+
+      List<MetaScalar> dataScalars = new ArrayList<>();
+      docPartData.orderedMetaScalarIterator().forEachRemaining(dataScalars::add);
+      List<MetaField> dataFields = new ArrayList<>();
+      docPartData.orderedMetaFieldIterator().forEachRemaining(dataFields::add);
+
+      int[] scalarColumns = metaDocPart.streamScalars()
+          .mapToInt(scalar -> indexOfScalar(dataScalars, scalar.getType()))
+          .toArray();
+      int[] fieldColumns = metaDocPart.streamFields()
+          .mapToInt(field -> indexOfField(dataFields, field.getName(), field.getType()))
+          .toArray();
+
+      this.rows = new ArrayList<>(docPartData.rowCount());
+      for (DocPartRow docPartRow : docPartData) {
+        List<KvValue<?>> scalarValues = new ArrayList<>();
+        docPartRow.getScalarValues().forEach(scalarValues::add);
+        List<KvValue<?>> fieldValues = new ArrayList<>();
+        docPartRow.getFieldValues().forEach(fieldValues::add);
+
+        KvValue<?>[] values = new KvValue<?>[scalarColumns.length + fieldColumns.length];
+        for (int i = 0; i < scalarColumns.length; i++) {
+          values[i] = valueAt(scalarValues, scalarColumns[i]);
+        }
+        for (int i = 0; i < fieldColumns.length; i++) {
+          values[scalarColumns.length + i] = valueAt(fieldValues, fieldColumns[i]);
+        }
+        Integer pid = docPartRow.getPid();
+        rows.add(new Row(docPartRow.getDid(), docPartRow.getRid(),
+            pid == null ? docPartRow.getDid() : pid, docPartRow.getSeq(), values));
+      }
+    }
+
+    private static int indexOfScalar(List<MetaScalar> scalars, FieldType type) {
+      for (int i = 0; i < scalars.size(); i++) {
+        if (scalars.get(i).getType() == type) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private static int indexOfField(List<MetaField> fields, String name, FieldType type) {
+      for (int i = 0; i < fields.size(); i++) {
+        MetaField field = fields.get(i);
+        if (field.getType() == type && field.getName().equals(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private static KvValue<?> valueAt(List<KvValue<?>> values, int index) {
+      return index < 0 || index >= values.size() ? null : values.get(index);
+    }
+  }
+
+  private static class Row implements DocPartResultRow {
+
+    private final int did;
+    private final int rid;
+    private final int pid;
+    private final Integer seq;
+    private final KvValue<?>[] values;
+
+    private Row(int did, int rid, int pid, Integer seq, KvValue<?>[] values) {
+      this.did = did;
+      this.rid = rid;
+      this.pid = pid;
+      this.seq = seq;
+      this.values = values;
+    }
+
+    @Override
+    public int getDid() {
+      return did;
+    }
+
+    @Override
+    public int getRid() {
+      return rid;
+    }
+
+    @Override
+    public int getPid() {
+      return pid;
+    }
+
+    @Override
+    public Integer getSeq() {
+      return seq;
+    }
+
+    @Override
+    public KvValue<?> getUserValue(int fieldIndex, FieldType fieldType) {
+      return values[fieldIndex];
+    }
+  }
+
+  private static class Result implements DocPartResult {
+
+    private final DocPartRows docPart;
+    private int nextRow = 0;
+
+    private Result(DocPartRows docPart) {
+      this.docPart = docPart;
+    }
+
+    @Override
+    public MetaDocPart getMetaDocPart() {
+      return docPart.metaDocPart;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextRow < docPart.rows.size();
+    }
+
+    @Override
+    public DocPartResultRow next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return docPart.rows.get(nextRow++);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+}
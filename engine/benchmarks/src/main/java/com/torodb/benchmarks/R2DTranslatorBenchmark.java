@@ -0,0 +1,118 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks;
+
+import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.d2r.R2DTranslatorImpl;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.kvdocument.values.KvValue;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reconstruction of documents from the doc part rows a backend would return. Scores
+ * are documents per second.
+ *
+ * <p>The reconstructed fields are reported by the {@code fields} counter, so the bytes allocated
+ * per field are the {@code gc.alloc.rate.norm} of the GC profiler times the documents per second
+ * divided by the fields per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class R2DTranslatorBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+
+  @Param
+  private DocumentCorpus corpus;
+
+  private final R2DTranslator translator = new R2DTranslatorImpl();
+  private InMemoryDocPartResults results;
+
+  private long fieldsPerBatch;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    InMemoryCollection collection = new InMemoryCollection();
+    List<KvDocument> documents = corpus.createDocuments(BATCH_SIZE, 0);
+    results = new InMemoryDocPartResults(collection.translate(documents));
+    fieldsPerBatch = documents.stream()
+        .mapToLong(R2DTranslatorBenchmark::countFields)
+        .sum();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<ToroDocument> translate(FieldCounter counter) {
+    counter.fields += fieldsPerBatch;
+    return translator.translate(results.iterator());
+  }
+
+  /**
+   * Counts the document entries and array elements contained by the given value.
+   */
+  private static long countFields(KvValue<?> value) {
+    long fields = 0;
+    if (value instanceof KvDocument) {
+      for (DocEntry<?> entry : (KvDocument) value) {
+        fields += 1 + countFields(entry.getValue());
+      }
+    } else if (value instanceof KvArray) {
+      for (KvValue<?> element : (KvArray) value) {
+        fields += 1 + countFields(element);
+      }
+    }
+    return fields;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters
+  public static class FieldCounter {
+
+    public long fields;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      fields = 0;
+    }
+  }
+
+}
@@ -0,0 +1,4 @@
+package com.torodb.benchmarks.generated;
+public class D2RTranslatorBenchmark_jmhType extends D2RTranslatorBenchmark_jmhType_B3 {
+}
+
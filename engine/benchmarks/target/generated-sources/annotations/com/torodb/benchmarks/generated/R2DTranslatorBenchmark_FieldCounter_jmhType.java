@@ -0,0 +1,4 @@
+package com.torodb.benchmarks.generated;
+public class R2DTranslatorBenchmark_FieldCounter_jmhType extends R2DTranslatorBenchmark_FieldCounter_jmhType_B3 {
+}
+
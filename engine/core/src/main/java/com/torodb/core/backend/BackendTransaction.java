@@ -21,6 +21,8 @@ package com.torodb.core.backend;
 import com.google.common.collect.Multimap;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.InvalidDatabaseException;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -39,16 +41,53 @@ public interface BackendTransaction extends AutoCloseable {
 
   public long countAll(MetaDatabase db, MetaCollection col);
 
+  /**
+   * Returns the number of documents of the given collection that fulfill the given filter.
+   */
+  public long countByFilter(MetaDatabase db, MetaCollection col, Filter filter);
+
+  /**
+   * Returns an estimation of the number of documents of the given collection, which can be
+   * calculated without reading it and may be stale.
+   */
+  public long estimateCountAll(MetaDatabase db, MetaCollection col);
+
   public long getCollectionSize(MetaDatabase db, MetaCollection col);
 
   public long getDocumentsSize(MetaDatabase db, MetaCollection col);
 
   public BackendCursor fetch(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor);
 
-  public BackendCursor findAll(MetaDatabase db, MetaCollection col);
+  public default BackendCursor findAll(MetaDatabase db, MetaCollection col) {
+    return findAll(db, col, Projection.all());
+  }
+
+  /**
+   * Like {@link #findAll(MetaDatabase, MetaCollection)}, but the doc parts and columns that are
+   * not included on the given projection are not read.
+   */
+  public BackendCursor findAll(MetaDatabase db, MetaCollection col, Projection projection);
+
+  public default BackendCursor findByField(MetaDatabase db, MetaCollection col,
+      MetaDocPart docPart, MetaField field, KvValue<?> value) {
+    return findByField(db, col, docPart, field, value, Projection.all());
+  }
 
+  /**
+   * Like {@link #findByField(MetaDatabase, MetaCollection, MetaDocPart, MetaField, KvValue)},
+   * but the doc parts and columns that are not included on the given projection are not read.
+   */
   public BackendCursor findByField(MetaDatabase db, MetaCollection col,
-      MetaDocPart docPart, MetaField field, KvValue<?> value);
+      MetaDocPart docPart, MetaField field, KvValue<?> value, Projection projection);
+
+  /**
+   * Returns a cursor that iterates over all documents that fulfill the given filter.
+   *
+   * <p>The filter is evaluated by the backend, so only the matching documents are read. The doc
+   * parts and columns that are not included on the given projection are not read either.
+   */
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col, Filter filter,
+      Projection projection);
 
   /**
    * Return a cursor that iterates over all documents that fulfill the query.
@@ -18,7 +18,9 @@
 
 package com.torodb.core.backend;
 
+import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.d2r.RootDocPartUpdate;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -33,6 +35,7 @@ import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 import com.torodb.kvdocument.values.KvValue;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface WriteBackendTransaction extends BackendTransaction {
 
@@ -143,8 +146,49 @@ public interface WriteBackendTransaction extends BackendTransaction {
   public void insert(MetaDatabase db, MetaCollection col, DocPartData data) 
       throws RollbackException, UserException;
 
+  /**
+   * Inserts the rows of several doc parts of the same collection.
+   *
+   * <p>Implementations may insert the given doc parts in parallel, so all the tables and columns
+   * they use must have been added before calling this method.
+   *
+   * @param db   the database that contains the given collection
+   * @param col  the collection that contains the given data
+   * @param data the rows to be inserted, grouped by doc part
+   * @throws com.torodb.core.exceptions.user.UserException
+   * @throws RollbackException
+   */
+  public default void insertAll(MetaDatabase db, MetaCollection col, List<DocPartData> data)
+      throws RollbackException, UserException {
+    for (DocPartData docPartData : data) {
+      insert(db, col, docPartData);
+    }
+  }
+
   public void deleteDids(MetaDatabase db, MetaCollection col, Collection<Integer> dids);
 
+  /**
+   * Deletes the documents whose dids are returned by the given cursor, reading and deleting them
+   * by batches instead of loading all of them in memory.
+   *
+   * @return the number of deleted documents
+   */
+  public long deleteDids(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor);
+
+  /**
+   * Modifies in place some columns of the root doc part rows of the given collection.
+   *
+   * <p>All the columns used by the update must have been added before calling this method.
+   *
+   * @param db     the database that contains the given collection
+   * @param col    the collection that contains the given data
+   * @param update the modification to apply
+   * @throws com.torodb.core.exceptions.user.UserException
+   * @throws RollbackException
+   */
+  public void update(MetaDatabase db, MetaCollection col, RootDocPartUpdate update)
+      throws RollbackException, UserException;
+
   /**
    * Create a logical index on doc part. If not yet existing, a physical index will be created for
    * each existent and future doc part fields and scalars that satisfy logical index definition.
@@ -0,0 +1,78 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.cursors;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A cursor that iterates the given cursors one after the other.
+ *
+ * <p>Cursors are pulled from the iterator lazily, when the previous one has been exhausted, and
+ * each one is closed as soon as it has no more elements. Closing this cursor closes the current
+ * one and the cursors that have not been pulled yet are never opened.
+ */
+public class ConcatCursor<E> implements Cursor<E> {
+
+  private final Iterator<? extends Cursor<E>> cursors;
+  private Cursor<E> current;
+  private boolean closed = false;
+
+  public ConcatCursor(Iterator<? extends Cursor<E>> cursors) {
+    this.cursors = cursors;
+  }
+
+  @Override
+  public boolean hasNext() {
+    Preconditions.checkState(!closed, "The cursor is closed");
+    while (current == null || !current.hasNext()) {
+      if (current != null) {
+        current.close();
+        current = null;
+      }
+      if (!cursors.hasNext()) {
+        return false;
+      }
+      current = cursors.next();
+    }
+    return true;
+  }
+
+  @Override
+  public E next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      if (current != null) {
+        current.close();
+        current = null;
+      }
+    }
+  }
+
+}
@@ -18,6 +18,7 @@
 
 package com.torodb.core.d2r;
 
+import com.google.common.collect.Iterables;
 import com.torodb.kvdocument.values.KvValue;
 
 public interface DocPartRow {
@@ -36,4 +37,39 @@ public interface DocPartRow {
 
   Iterable<KvValue<?>> getScalarValues();
 
+  /**
+   * Sends the scalar values and then the field values of this row to the given consumer, in the
+   * same order than {@link #getScalarValues()} and {@link #getFieldValues()}.
+   *
+   * <p>Implementations that store primitive values can send them without creating a
+   * {@link KvValue}. The default implementation sends each value as returned by those methods.
+   */
+  default void consumeValues(ValueConsumer consumer) {
+    for (KvValue<?> value : Iterables.concat(getScalarValues(), getFieldValues())) {
+      if (value == null) {
+        consumer.consumeNull();
+      } else {
+        consumer.consumeValue(value);
+      }
+    }
+  }
+
+  /**
+   * Receives the values of a row, one call per column.
+   */
+  public static interface ValueConsumer {
+
+    void consumeNull();
+
+    void consumeInt(int value);
+
+    void consumeLong(long value);
+
+    void consumeDouble(double value);
+
+    void consumeBoolean(boolean value);
+
+    void consumeValue(KvValue<?> value);
+  }
+
 }
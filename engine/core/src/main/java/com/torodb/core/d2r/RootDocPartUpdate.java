@@ -0,0 +1,169 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An in place modification of some columns of the rows of a root doc part, which are identified
+ * by their did.
+ *
+ * <p>All rows are modified with the same {@link Assignment assignments}, so they can be applied
+ * with a single statement. Each row contains the values required by the assignments, in the same
+ * order.
+ */
+@Immutable
+public class RootDocPartUpdate {
+
+  private final MetaDocPart metaDocPart;
+  private final ImmutableList<Assignment> assignments;
+  private final ImmutableMap<Integer, ImmutableList<KvValue<?>>> rows;
+
+  private RootDocPartUpdate(MetaDocPart metaDocPart, ImmutableList<Assignment> assignments,
+      ImmutableMap<Integer, ImmutableList<KvValue<?>>> rows) {
+    this.metaDocPart = metaDocPart;
+    this.assignments = assignments;
+    this.rows = rows;
+  }
+
+  public MetaDocPart getMetaDocPart() {
+    return metaDocPart;
+  }
+
+  public ImmutableList<Assignment> getAssignments() {
+    return assignments;
+  }
+
+  /**
+   * Returns the values of each modified row, indexed by its did.
+   */
+  public ImmutableMap<Integer, ImmutableList<KvValue<?>>> getRows() {
+    return rows;
+  }
+
+  public int rowCount() {
+    return rows.size();
+  }
+
+  public static enum Operation {
+    /**
+     * The column is set to the row value.
+     */
+    SET,
+    /**
+     * The column is set to null. It does not consume a row value.
+     */
+    SET_NULL,
+    /**
+     * The row value is added to the column, which is treated as zero if it is null.
+     */
+    INCREMENT;
+  }
+
+  @Immutable
+  public static class Assignment {
+
+    private final MetaField metaField;
+    private final Operation operation;
+
+    public Assignment(MetaField metaField, Operation operation) {
+      this.metaField = metaField;
+      this.operation = operation;
+    }
+
+    public MetaField getMetaField() {
+      return metaField;
+    }
+
+    public Operation getOperation() {
+      return operation;
+    }
+
+    public boolean requiresValue() {
+      return operation != Operation.SET_NULL;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(metaField.getIdentifier(), operation);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      Assignment other = (Assignment) obj;
+      return operation == other.operation
+          && metaField.getIdentifier().equals(other.metaField.getIdentifier());
+    }
+
+    @Override
+    public String toString() {
+      return metaField.getIdentifier() + ' ' + operation;
+    }
+  }
+
+  public static class Builder {
+
+    private final MetaDocPart metaDocPart;
+    private final ImmutableList<Assignment> assignments;
+    private final int valuesPerRow;
+    private final ImmutableMap.Builder<Integer, ImmutableList<KvValue<?>>> rows =
+        ImmutableMap.builder();
+
+    public Builder(MetaDocPart metaDocPart, List<Assignment> assignments) {
+      Preconditions.checkArgument(metaDocPart.getTableRef().isRoot(),
+          "Only root doc parts can be updated by did");
+      this.metaDocPart = metaDocPart;
+      this.assignments = ImmutableList.copyOf(assignments);
+      this.valuesPerRow = (int) assignments.stream()
+          .filter(Assignment::requiresValue)
+          .count();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the number of values is not the number of assignments
+     *                                  that {@link Assignment#requiresValue() require a value}
+     */
+    public Builder addRow(int did, List<KvValue<?>> values) {
+      Preconditions.checkArgument(values.size() == valuesPerRow, "%s values were expected but %s "
+          + "were found", valuesPerRow, values.size());
+      rows.put(did, ImmutableList.copyOf(values));
+      return this;
+    }
+
+    public RootDocPartUpdate build() {
+      return new RootDocPartUpdate(metaDocPart, assignments, rows.build());
+    }
+  }
+}
@@ -19,8 +19,11 @@
 package com.torodb.core.dsl.backend;
 
 import com.torodb.core.backend.WriteBackendTransaction;
+import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.exceptions.user.UserException;
 
+import java.util.Optional;
+
 /**
  *
  */
@@ -28,4 +31,14 @@ public interface BackendTransactionJob {
 
   public void execute(WriteBackendTransaction connection) throws UserException;
 
+  /**
+   * Returns the doc part data inserted by this job, if it only inserts data.
+   *
+   * <p>The data inserted by the jobs of a batch can be written together with
+   * {@link WriteBackendTransaction#insertAll}, while the other jobs must be executed in order.
+   */
+  public default Optional<DocPartData> getInsertedData() {
+    return Optional.empty();
+  }
+
 }
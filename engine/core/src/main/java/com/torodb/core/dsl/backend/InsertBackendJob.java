@@ -22,6 +22,8 @@ import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 
+import java.util.Optional;
+
 /**
  *
  */
@@ -33,4 +35,9 @@ public interface InsertBackendJob extends BackendTransactionJob {
 
   DocPartData getDataToInsert();
 
+  @Override
+  public default Optional<DocPartData> getInsertedData() {
+    return Optional.of(getDataToInsert());
+  }
+
 }
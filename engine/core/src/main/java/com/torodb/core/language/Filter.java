@@ -0,0 +1,420 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A condition that documents must fulfill to be selected by a query.
+ *
+ * <p>Filters are trees whose leaves are restrictions on the value of an attribute and whose inner
+ * nodes are conjunctions or disjunctions. Backends translate them to their own query language,
+ * but they can also be evaluated on memory with {@link #matches(KvDocument)}.
+ *
+ * <p>Comparisons are only true when the attribute value has the same {@link KvValue#getType()
+ * type} as the compared value.
+ *
+ * <p>Like backends, that store arrays on their own tables, arrays found while resolving an
+ * attribute are traversed, so {@code a.b} is fulfilled if the restriction is fulfilled by the
+ * {@code b} attribute of any document on the array {@code a}. Arrays are not traversed on the last
+ * key, nor when they are nested on other arrays.
+ */
+@Immutable
+public abstract class Filter {
+
+  private static final Filter ALL = new AllFilter();
+
+  Filter() {
+  }
+
+  /**
+   * Returns the filter that is fulfilled by all documents.
+   */
+  public static Filter all() {
+    return ALL;
+  }
+
+  public static Filter compare(AttributeReference attRef, Operator operator, KvValue<?> value) {
+    return new CompareFilter(attRef, operator, value);
+  }
+
+  public static Filter eq(AttributeReference attRef, KvValue<?> value) {
+    return compare(attRef, Operator.EQ, value);
+  }
+
+  public static Filter in(AttributeReference attRef, Collection<KvValue<?>> values) {
+    return new InFilter(attRef, ImmutableList.copyOf(values));
+  }
+
+  public static Filter exists(AttributeReference attRef, boolean exists) {
+    return new ExistsFilter(attRef, exists);
+  }
+
+  /**
+   * Returns a filter that is fulfilled when all the given filters are fulfilled.
+   */
+  public static Filter and(List<Filter> filters) {
+    List<Filter> children = filters.stream()
+        .filter(filter -> !filter.isAll())
+        .collect(Collectors.toList());
+    if (children.isEmpty()) {
+      return ALL;
+    }
+    if (children.size() == 1) {
+      return children.get(0);
+    }
+    return new AndFilter(ImmutableList.copyOf(children));
+  }
+
+  /**
+   * Returns a filter that is fulfilled when at least one of the given filters is fulfilled.
+   */
+  public static Filter or(List<Filter> filters) {
+    if (filters.isEmpty()) {
+      throw new IllegalArgumentException("At least one filter is required");
+    }
+    if (filters.stream().anyMatch(Filter::isAll)) {
+      return ALL;
+    }
+    if (filters.size() == 1) {
+      return filters.get(0);
+    }
+    return new OrFilter(ImmutableList.copyOf(filters));
+  }
+
+  public boolean isAll() {
+    return false;
+  }
+
+  /**
+   * Evaluates this filter on the given document.
+   */
+  public abstract boolean matches(@Nonnull KvDocument doc);
+
+  public abstract <R, A> R accept(Visitor<R, A> visitor, A arg);
+
+  public static enum Operator {
+    EQ("="),
+    LT("<"),
+    LTE("<="),
+    GT(">"),
+    GTE(">=");
+
+    private final String symbol;
+
+    private Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    /**
+     * Returns the SQL symbol of this operator.
+     */
+    public String getSymbol() {
+      return symbol;
+    }
+
+    boolean evaluate(KvValue<?> attValue, KvValue<?> value) {
+      if (attValue.getType() != value.getType()) {
+        return false;
+      }
+      if (this == EQ) {
+        return attValue.equals(value);
+      }
+      if (!(attValue.getValue() instanceof Comparable)) {
+        return false;
+      }
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      int comparison = ((Comparable) attValue.getValue()).compareTo(value.getValue());
+      switch (this) {
+        case LT:
+          return comparison < 0;
+        case LTE:
+          return comparison <= 0;
+        case GT:
+          return comparison > 0;
+        case GTE:
+          return comparison >= 0;
+        default:
+          throw new AssertionError("Unexpected operator " + this);
+      }
+    }
+  }
+
+  public static interface Visitor<R, A> {
+
+    public R visit(AllFilter filter, A arg);
+
+    public R visit(CompareFilter filter, A arg);
+
+    public R visit(InFilter filter, A arg);
+
+    public R visit(ExistsFilter filter, A arg);
+
+    public R visit(AndFilter filter, A arg);
+
+    public R visit(OrFilter filter, A arg);
+  }
+
+  public static final class AllFilter extends Filter {
+
+    private AllFilter() {
+    }
+
+    @Override
+    public boolean isAll() {
+      return true;
+    }
+
+    @Override
+    public boolean matches(KvDocument doc) {
+      return true;
+    }
+
+    @Override
+    public <R, A> R accept(Visitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+
+    @Override
+    public String toString() {
+      return "{}";
+    }
+  }
+
+  /**
+   * A restriction on the value of a single attribute.
+   */
+  public abstract static class AttributeFilter extends Filter {
+
+    private final AttributeReference attRef;
+
+    private AttributeFilter(AttributeReference attRef) {
+      if (attRef.getKeys().isEmpty()) {
+        throw new IllegalArgumentException("The empty attribute reference is not valid");
+      }
+      this.attRef = attRef;
+    }
+
+    public AttributeReference getAttributeReference() {
+      return attRef;
+    }
+
+    /**
+     * Returns the values of the attribute on the given document, which can be more than one when
+     * arrays are traversed.
+     */
+    protected Stream<KvValue<?>> resolve(KvDocument doc) {
+      return resolve(doc, 0);
+    }
+
+    private Stream<KvValue<?>> resolve(KvDocument doc, int pos) {
+      List<Key<?>> keys = attRef.getKeys();
+      Key<?> key = keys.get(pos);
+      if (!(key instanceof ObjectKey)) {
+        return Stream.empty();
+      }
+      KvValue<?> value = doc.get(((ObjectKey) key).getKey());
+      if (value == null) {
+        return Stream.empty();
+      }
+      if (pos == keys.size() - 1) {
+        return Stream.of(value);
+      }
+      if (value instanceof KvDocument) {
+        return resolve((KvDocument) value, pos + 1);
+      }
+      if (value instanceof KvArray) {
+        return StreamSupport.stream(((KvArray) value).spliterator(), false)
+            .filter(element -> element instanceof KvDocument)
+            .flatMap(element -> resolve((KvDocument) element, pos + 1));
+      }
+      return Stream.empty();
+    }
+  }
+
+  public static final class CompareFilter extends AttributeFilter {
+
+    private final Operator operator;
+    private final KvValue<?> value;
+
+    private CompareFilter(AttributeReference attRef, Operator operator, KvValue<?> value) {
+      super(attRef);
+      this.operator = operator;
+      this.value = value;
+    }
+
+    public Operator getOperator() {
+      return operator;
+    }
+
+    public KvValue<?> getValue() {
+      return value;
+    }
+
+    @Override
+    public boolean matches(KvDocument doc) {
+      return resolve(doc).anyMatch(attValue -> operator.evaluate(attValue, value));
+    }
+
+    @Override
+    public <R, A> R accept(Visitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+
+    @Override
+    public String toString() {
+      return getAttributeReference() + " " + operator.getSymbol() + " " + value;
+    }
+  }
+
+  public static final class InFilter extends AttributeFilter {
+
+    private final ImmutableList<KvValue<?>> values;
+
+    private InFilter(AttributeReference attRef, ImmutableList<KvValue<?>> values) {
+      super(attRef);
+      this.values = values;
+    }
+
+    public ImmutableList<KvValue<?>> getValues() {
+      return values;
+    }
+
+    @Override
+    public boolean matches(KvDocument doc) {
+      return resolve(doc).anyMatch(attValue -> values.stream()
+          .anyMatch(value -> Operator.EQ.evaluate(attValue, value)));
+    }
+
+    @Override
+    public <R, A> R accept(Visitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+
+    @Override
+    public String toString() {
+      return getAttributeReference() + " in " + values;
+    }
+  }
+
+  public static final class ExistsFilter extends AttributeFilter {
+
+    private final boolean exists;
+
+    private ExistsFilter(AttributeReference attRef, boolean exists) {
+      super(attRef);
+      this.exists = exists;
+    }
+
+    /**
+     * Returns true if the attribute must exist or false if it must not exist.
+     */
+    public boolean isExists() {
+      return exists;
+    }
+
+    @Override
+    public boolean matches(KvDocument doc) {
+      return resolve(doc).findAny().isPresent() == exists;
+    }
+
+    @Override
+    public <R, A> R accept(Visitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+
+    @Override
+    public String toString() {
+      return (exists ? "exists " : "not exists ") + getAttributeReference();
+    }
+  }
+
+  public static final class AndFilter extends Filter {
+
+    private final ImmutableList<Filter> children;
+
+    private AndFilter(ImmutableList<Filter> children) {
+      this.children = children;
+    }
+
+    public ImmutableList<Filter> getChildren() {
+      return children;
+    }
+
+    @Override
+    public boolean matches(KvDocument doc) {
+      return children.stream().allMatch(child -> child.matches(doc));
+    }
+
+    @Override
+    public <R, A> R accept(Visitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+
+    @Override
+    public String toString() {
+      return children.stream()
+          .map(Object::toString)
+          .collect(Collectors.joining(" and ", "(", ")"));
+    }
+  }
+
+  public static final class OrFilter extends Filter {
+
+    private final ImmutableList<Filter> children;
+
+    private OrFilter(ImmutableList<Filter> children) {
+      this.children = children;
+    }
+
+    public ImmutableList<Filter> getChildren() {
+      return children;
+    }
+
+    @Override
+    public boolean matches(KvDocument doc) {
+      return children.stream().anyMatch(child -> child.matches(doc));
+    }
+
+    @Override
+    public <R, A> R accept(Visitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+
+    @Override
+    public String toString() {
+      return children.stream()
+          .map(Object::toString)
+          .collect(Collectors.joining(" or ", "(", ")"));
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import com.google.common.collect.ImmutableSet;
+import com.torodb.core.TableRef;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The set of top level attributes a query wants to read.
+ *
+ * <p>It is used to skip the doc parts and columns whose attributes are not read, so the returned
+ * documents only contain the projected attributes.
+ */
+@Immutable
+public class Projection {
+
+  private static final Projection ALL = new Projection(null, false);
+
+  /**
+   * The included (or excluded, if {@link #exclusion} is true) top level keys or null if all keys
+   * are included.
+   */
+  @Nullable
+  private final ImmutableSet<String> keys;
+  private final boolean exclusion;
+
+  private Projection(@Nullable ImmutableSet<String> keys, boolean exclusion) {
+    this.keys = keys;
+    this.exclusion = exclusion;
+  }
+
+  /**
+   * Returns the projection that includes all attributes.
+   */
+  public static Projection all() {
+    return ALL;
+  }
+
+  /**
+   * Returns a projection that only includes the given top level keys.
+   */
+  public static Projection include(@Nonnull Collection<String> keys) {
+    return new Projection(ImmutableSet.copyOf(keys), false);
+  }
+
+  /**
+   * Returns a projection that includes all top level keys but the given ones.
+   */
+  public static Projection exclude(@Nonnull Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return ALL;
+    }
+    return new Projection(ImmutableSet.copyOf(keys), true);
+  }
+
+  public boolean isAll() {
+    return keys == null;
+  }
+
+  public boolean includesKey(String key) {
+    return keys == null || keys.contains(key) != exclusion;
+  }
+
+  /**
+   * Returns true if the doc part of the given table ref contains projected attributes.
+   */
+  public boolean includes(@Nonnull TableRef tableRef) {
+    if (keys == null || tableRef.isRoot()) {
+      return true;
+    }
+    TableRef topLevelRef = tableRef;
+    while (!topLevelRef.getParent().get().isRoot()) {
+      topLevelRef = topLevelRef.getParent().get();
+    }
+    return includesKey(topLevelRef.getName());
+  }
+
+  /**
+   * Returns a collection that only contains the doc parts and root fields included on this
+   * projection.
+   *
+   * <p>The root doc part is always included, as it is the one that defines which documents are
+   * read.
+   */
+  public MetaCollection project(@Nonnull MetaCollection metaCollection) {
+    if (keys == null) {
+      return metaCollection;
+    }
+    ImmutableMetaCollection.Builder builder = new ImmutableMetaCollection.Builder(
+        metaCollection.getName(), metaCollection.getIdentifier());
+    metaCollection.streamContainedMetaDocParts()
+        .filter(metaDocPart -> includes(metaDocPart.getTableRef()))
+        .forEach(metaDocPart -> builder.put(project(metaDocPart)));
+    return builder.build();
+  }
+
+  private ImmutableMetaDocPart project(MetaDocPart metaDocPart) {
+    TableRef tableRef = metaDocPart.getTableRef();
+    ImmutableMetaDocPart.Builder builder = new ImmutableMetaDocPart.Builder(tableRef,
+        metaDocPart.getIdentifier());
+    metaDocPart.streamScalars().forEach(metaScalar -> builder.putScalar(metaScalar.getType(),
+        metaScalar.getIdentifier()));
+    metaDocPart.streamFields()
+        .filter(metaField -> !tableRef.isRoot() || includesKey(metaField.getName()))
+        .forEach(metaField -> builder.putField(metaField.getName(), metaField.getIdentifier(),
+            metaField.getType()));
+    return builder.build();
+  }
+
+  /**
+   * Returns a document that only contains the top level entries of the given one that are included
+   * on this projection.
+   */
+  public KvDocument project(@Nonnull KvDocument document) {
+    if (keys == null) {
+      return document;
+    }
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : document) {
+      if (includesKey(entry.getKey())) {
+        builder.putValue(entry.getKey(), entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    if (keys == null) {
+      return "all";
+    }
+    return exclusion ? "all but " + keys : keys.toString();
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.cursors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ConcatCursorTest {
+
+  @Test
+  public void testConcat() {
+    List<CountingCursor> cursors = Lists.newArrayList(
+        new CountingCursor(1, 2),
+        new CountingCursor(),
+        new CountingCursor(3));
+    ConcatCursor<Integer> cursor = new ConcatCursor<>(cursors.iterator());
+
+    assertEquals(Arrays.asList(1, 2, 3), cursor.getRemaining());
+    assertTrue(cursors.stream().allMatch(c -> c.closed));
+    cursor.close();
+  }
+
+  @Test
+  public void testLazyOpen() {
+    List<CountingCursor> opened = new ArrayList<>();
+    List<Integer> seeds = Arrays.asList(1, 2, 3);
+    ConcatCursor<Integer> cursor = new ConcatCursor<>(seeds.stream()
+        .map(seed -> {
+          CountingCursor c = new CountingCursor(seed);
+          opened.add(c);
+          return c;
+        })
+        .iterator());
+
+    assertEquals(Integer.valueOf(1), cursor.next());
+    cursor.close();
+
+    assertEquals("Only the first cursor must be opened", 1, opened.size());
+    assertTrue(opened.get(0).closed);
+  }
+
+  private static class CountingCursor extends IteratorCursor<Integer> {
+
+    private boolean closed = false;
+
+    private CountingCursor(Integer... values) {
+      super(Arrays.asList(values).iterator());
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      super.close();
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.Filter.Operator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+
+public class FilterTest {
+
+  private final AttributeReference a = new AttributeReference.Builder()
+      .addObjectKey("a")
+      .build();
+  private final AttributeReference objX = new AttributeReference.Builder()
+      .addObjectKey("obj")
+      .addObjectKey("x")
+      .build();
+
+  private final KvDocument doc = new KvDocument.Builder()
+      .putValue("a", 2)
+      .putValue("obj", new KvDocument.Builder()
+          .putValue("x", "foo")
+          .build())
+      .build();
+
+  @Test
+  public void testCompare() {
+    assertTrue(Filter.eq(a, KvInteger.of(2)).matches(doc));
+    assertTrue(Filter.compare(a, Operator.GT, KvInteger.of(1)).matches(doc));
+    assertTrue(Filter.compare(a, Operator.LTE, KvInteger.of(2)).matches(doc));
+    assertFalse(Filter.compare(a, Operator.LT, KvInteger.of(2)).matches(doc));
+    assertTrue(Filter.eq(objX, new StringKvString("foo")).matches(doc));
+    assertFalse("Values of different types must not be compared",
+        Filter.compare(a, Operator.GT, KvLong.of(1)).matches(doc));
+  }
+
+  @Test
+  public void testInAndExists() {
+    assertTrue(Filter.in(a, ImmutableList.<KvValue<?>>of(KvInteger.of(1), KvInteger.of(2)))
+        .matches(doc));
+    assertFalse(Filter.in(a, ImmutableList.<KvValue<?>>of(KvInteger.of(1))).matches(doc));
+    assertTrue(Filter.exists(objX, true).matches(doc));
+    assertTrue(Filter.exists(new AttributeReference.Builder().addObjectKey("b").build(), false)
+        .matches(doc));
+  }
+
+  @Test
+  public void testAndOr() {
+    Filter matching = Filter.eq(a, KvInteger.of(2));
+    Filter notMatching = Filter.eq(a, KvInteger.of(3));
+
+    assertTrue(Filter.and(ImmutableList.of(matching, Filter.all())).matches(doc));
+    assertFalse(Filter.and(ImmutableList.of(matching, notMatching)).matches(doc));
+    assertTrue(Filter.or(ImmutableList.of(notMatching, matching)).matches(doc));
+    assertSame(Filter.all(), Filter.and(ImmutableList.of(Filter.all())));
+    assertSame(Filter.all(), Filter.or(ImmutableList.of(notMatching, Filter.all())));
+  }
+
+  @Test
+  public void testArrays() {
+    AttributeReference arrX = new AttributeReference.Builder()
+        .addObjectKey("arr")
+        .addObjectKey("x")
+        .build();
+    AttributeReference scalars = new AttributeReference.Builder()
+        .addObjectKey("scalars")
+        .build();
+    KvDocument arrDoc = new KvDocument.Builder()
+        .putValue("arr", new ListKvArray(ImmutableList.<KvValue<?>>of(
+            new KvDocument.Builder().putValue("x", 1).build(),
+            KvInteger.of(5),
+            new ListKvArray(ImmutableList.<KvValue<?>>of(
+                new KvDocument.Builder().putValue("x", 3).build())),
+            new KvDocument.Builder().putValue("x", 2).build())))
+        .putValue("scalars", new ListKvArray(ImmutableList.<KvValue<?>>of(KvInteger.of(1))))
+        .build();
+
+    assertTrue(Filter.eq(arrX, KvInteger.of(2)).matches(arrDoc));
+    assertTrue(Filter.compare(arrX, Operator.GT, KvInteger.of(1)).matches(arrDoc));
+    assertFalse(Filter.compare(arrX, Operator.GT, KvInteger.of(2)).matches(arrDoc));
+    assertTrue(Filter.in(arrX, ImmutableList.<KvValue<?>>of(KvInteger.of(2), KvInteger.of(7)))
+        .matches(arrDoc));
+    assertTrue(Filter.exists(arrX, true).matches(arrDoc));
+    assertFalse("Arrays nested on arrays must not be traversed",
+        Filter.eq(arrX, KvInteger.of(3)).matches(arrDoc));
+    assertFalse("Arrays must not be traversed on the last key",
+        Filter.eq(scalars, KvInteger.of(1)).matches(arrDoc));
+    assertFalse(Filter.exists(arrX, true).matches(doc));
+  }
+
+}
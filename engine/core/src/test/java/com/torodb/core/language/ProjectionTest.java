@@ -0,0 +1,132 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvDocument;
+import org.junit.Test;
+
+public class ProjectionTest {
+
+  private final TableRefFactoryImpl tableRefFactory = new TableRefFactoryImpl();
+  private final TableRef rootRef = tableRefFactory.createRoot();
+  private final TableRef objRef = tableRefFactory.createChild(rootRef, "obj");
+  private final TableRef objArrRef = tableRefFactory.createChild(objRef, "arr");
+  private final TableRef otherRef = tableRefFactory.createChild(rootRef, "other");
+
+  private final ImmutableMetaCollection metaCollection = new ImmutableMetaCollection.Builder(
+      "col", "col")
+      .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+          .putField("_id", "_id_s", FieldType.STRING)
+          .putField("a", "a_i", FieldType.INTEGER)
+          .putField("obj", "obj_e", FieldType.CHILD)
+          .putField("other", "other_e", FieldType.CHILD))
+      .put(new ImmutableMetaDocPart.Builder(objRef, "col_obj")
+          .putField("x", "x_i", FieldType.INTEGER)
+          .putField("arr", "arr_e", FieldType.CHILD))
+      .put(new ImmutableMetaDocPart.Builder(objArrRef, "col_obj_arr")
+          .putScalar(FieldType.INTEGER, "v_i"))
+      .put(new ImmutableMetaDocPart.Builder(otherRef, "col_other")
+          .putField("y", "y_i", FieldType.INTEGER))
+      .build();
+
+  @Test
+  public void testAllDoesNotChangeTheCollection() {
+    assertSame(metaCollection, Projection.all().project(metaCollection));
+  }
+
+  @Test
+  public void testIncludedKeysKeepTheirSubtree() {
+    Projection projection = Projection.include(ImmutableList.of("_id", "obj"));
+
+    assertTrue(projection.includes(rootRef));
+    assertTrue(projection.includes(objArrRef));
+    assertFalse(projection.includes(otherRef));
+
+    MetaCollection projected = projection.project(metaCollection);
+    assertEquals(3, projected.streamContainedMetaDocParts().count());
+    assertNull(projected.getMetaDocPartByTableRef(otherRef));
+    assertNotNull(projected.getMetaDocPartByTableRef(objArrRef).getScalar(FieldType.INTEGER));
+    assertEquals(2, projected.getMetaDocPartByTableRef(objRef).streamFields().count());
+
+    MetaDocPart root = projected.getMetaDocPartByTableRef(rootRef);
+    assertEquals(2, root.streamFields().count());
+    assertNotNull(root.getMetaFieldByNameAndType("obj", FieldType.CHILD));
+    assertNull(root.getMetaFieldByNameAndType("a", FieldType.INTEGER));
+    assertNull(root.getMetaFieldByNameAndType("other", FieldType.CHILD));
+  }
+
+  @Test
+  public void testExcludedKeysLoseTheirSubtree() {
+    Projection projection = Projection.exclude(ImmutableList.of("_id", "obj"));
+
+    assertTrue(projection.includes(rootRef));
+    assertFalse(projection.includes(objArrRef));
+    assertTrue(projection.includes(otherRef));
+
+    MetaCollection projected = projection.project(metaCollection);
+    assertEquals(2, projected.streamContainedMetaDocParts().count());
+    assertNull(projected.getMetaDocPartByTableRef(objRef));
+    assertNotNull(projected.getMetaDocPartByTableRef(otherRef));
+
+    MetaDocPart root = projected.getMetaDocPartByTableRef(rootRef);
+    assertEquals(2, root.streamFields().count());
+    assertNull(root.getMetaFieldByNameAndType("_id", FieldType.STRING));
+    assertNotNull(root.getMetaFieldByNameAndType("a", FieldType.INTEGER));
+    assertNull(root.getMetaFieldByNameAndType("obj", FieldType.CHILD));
+  }
+
+  @Test
+  public void testExcludeNothingIsAll() {
+    assertTrue(Projection.exclude(ImmutableList.of()).isAll());
+  }
+
+  @Test
+  public void testProjectDocument() {
+    KvDocument doc = new KvDocument.Builder()
+        .putValue("_id", 1)
+        .putValue("a", 2)
+        .putValue("b", 3)
+        .build();
+
+    KvDocument projected = Projection.include(ImmutableList.of("a", "c")).project(doc);
+
+    assertEquals(1, projected.size());
+    assertTrue(projected.containsKey("a"));
+
+    projected = Projection.exclude(ImmutableList.of("_id")).project(doc);
+
+    assertEquals(2, projected.size());
+    assertFalse(projected.containsKey("_id"));
+  }
+
+}
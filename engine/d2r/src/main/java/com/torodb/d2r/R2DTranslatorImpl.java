@@ -18,9 +18,7 @@
 
 package com.torodb.d2r;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Table;
 import com.torodb.core.TableRef;
 import com.torodb.core.d2r.DocPartResult;
 import com.torodb.core.d2r.DocPartResultRow;
@@ -29,29 +27,32 @@ import com.torodb.core.d2r.R2DTranslator;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDocPart;
-import com.torodb.core.transaction.metainf.MetaField;
-import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.kvdocument.values.KvBoolean;
-import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ArrayKvDocument;
 import com.torodb.kvdocument.values.heap.ListKvArray;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 public class R2DTranslatorImpl implements R2DTranslator {
 
+  private static final String[] NO_KEYS = new String[0];
+  private static final KvValue<?>[] NO_VALUES = new KvValue<?>[0];
+
   @Override
   public List<ToroDocument> translate(Iterator<DocPartResult> docPartResultIt) {
-    ImmutableList.Builder<ToroDocument> readedDocuments = ImmutableList.builder();
+    List<ToroDocument> readedDocuments = new ArrayList<>();
 
-    Table<TableRef, Integer, Map<String, List<KvValue<?>>>> currentFieldDocPartTable =
-        HashBasedTable.<TableRef, Integer, Map<String, List<KvValue<?>>>>create();
-    Table<TableRef, Integer, Map<String, List<KvValue<?>>>> childFieldDocPartTable =
-        HashBasedTable.<TableRef, Integer, Map<String, List<KvValue<?>>>>create();
+    //values read from the doc parts of the current depth and from the ones of the previous depth
+    Map<TableRef, RidSlots> currentDepthValues = new HashMap<>();
+    Map<TableRef, RidSlots> childDepthValues = new HashMap<>();
 
     int previousDepth = -1;
 
@@ -61,67 +62,48 @@ public class R2DTranslatorImpl implements R2DTranslator {
       TableRef tableRef = metaDocPart.getTableRef();
 
       if (previousDepth != -1 && previousDepth != tableRef.getDepth()) {
-        Table<TableRef, Integer, Map<String, List<KvValue<?>>>> previousFieldChildDocPartTable =
-            childFieldDocPartTable;
-        childFieldDocPartTable = currentFieldDocPartTable;
-        currentFieldDocPartTable = previousFieldChildDocPartTable;
-
-        if (!tableRef.isRoot()) {
-          currentFieldDocPartTable.clear();
-        }
+        Map<TableRef, RidSlots> previousChildDepthValues = childDepthValues;
+        childDepthValues = currentDepthValues;
+        currentDepthValues = previousChildDepthValues;
+        currentDepthValues.clear();
       }
       previousDepth = tableRef.getDepth();
 
-      Map<Integer, Map<String, List<KvValue<?>>>> childFieldDocPartRow =
-          childFieldDocPartTable.row(tableRef);
-      Map<Integer, Map<String, List<KvValue<?>>>> currentFieldDocPartRow;
-
+      DocPartLayout layout = new DocPartLayout(metaDocPart, childDepthValues);
       if (tableRef.isRoot()) {
-        currentFieldDocPartRow = null;
+        readResult(layout, docPartResult, null, readedDocuments);
       } else {
-        currentFieldDocPartRow = currentFieldDocPartTable.row(tableRef.getParent().get());
+        RidSlots values = new RidSlots();
+        currentDepthValues.put(tableRef, values);
+        readResult(layout, docPartResult, values, readedDocuments);
       }
-
-      readResult(metaDocPart, tableRef, docPartResult,
-          currentFieldDocPartRow, childFieldDocPartRow, readedDocuments);
     }
 
-    return readedDocuments.build();
+    return readedDocuments;
   }
 
-  private void readResult(MetaDocPart metaDocPart, TableRef tableRef, DocPartResult docPartResult,
-      Map<Integer, Map<String, List<KvValue<?>>>> currentFieldDocPartRow,
-      Map<Integer, Map<String, List<KvValue<?>>>> childFieldDocPartRow,
-      ImmutableList.Builder<ToroDocument> readedDocuments) {
-    while (docPartResult.hasNext()) {
-      KvDocument.Builder documentBuilder = new KvDocument.Builder();
+  private void readResult(DocPartLayout layout, DocPartResult docPartResult,
+      @Nullable RidSlots values, List<ToroDocument> readedDocuments) {
+    KvValue<?>[] rowValues = new KvValue<?>[layout.fieldNames.length];
 
+    while (docPartResult.hasNext()) {
       DocPartResultRow row = docPartResult.next();
 
-      Integer did = row.getDid();
-      Integer rid = row.getRid();
-      Integer pid = row.getPid();
+      int rid = row.getRid();
       Integer seq = row.getSeq();
 
-      Map<String, List<KvValue<?>>> childFieldDocPartCell = childFieldDocPartRow.get(rid);
-      //TODO: ensure MetaField order using ResultSet meta data
-      Iterator<? extends MetaScalar> metaScalarIterator = metaDocPart
-          .streamScalars().iterator();
-
       boolean wasScalar = false;
-      int fieldIndex = 0;
-      while (metaScalarIterator.hasNext() && !wasScalar) {
+      for (int i = 0; i < layout.scalarTypes.length && !wasScalar; i++) {
         assert seq != null : "found scalar value outside of an array";
 
-        MetaScalar metaScalar = metaScalarIterator.next();
-        KvValue<?> value = row.getUserValue(fieldIndex, metaScalar.getType());
-        fieldIndex++;
-
+        KvValue<?> value = row.getUserValue(i, layout.scalarTypes[i]);
         if (value != null) {
-          if (metaScalar.getType() == FieldType.CHILD) {
-            value = getChildValue(value, getDocPartCellName(tableRef), childFieldDocPartCell);
+          if (layout.scalarTypes[i] == FieldType.CHILD) {
+            value = getChildValue(value, layout.scalarChildren, rid);
+          }
+          if (value != null) {
+            values.add(row.getPid(), seq, value);
           }
-          addValueToDocPartRow(currentFieldDocPartRow, tableRef, pid, seq, value);
           wasScalar = true;
         }
       }
@@ -130,92 +112,235 @@ public class R2DTranslatorImpl implements R2DTranslator {
         continue;
       }
 
-      Iterator<? extends MetaField> metaFieldIterator = metaDocPart
-          .streamFields().iterator();
-      while (metaFieldIterator.hasNext()) {
-        MetaField metaField = metaFieldIterator.next();
-        KvValue<?> value = row.getUserValue(fieldIndex, metaField.getType());
+      int fieldIndex = layout.scalarTypes.length;
+      int valueCount = 0;
+      for (int i = 0; i < layout.fieldNames.length; i++) {
+        KvValue<?> value = row.getUserValue(fieldIndex, layout.fieldTypes[i]);
         fieldIndex++;
+        if (value != null && layout.fieldTypes[i] == FieldType.CHILD) {
+          value = getChildValue(value, layout.fieldChildren[i], rid);
+        }
+        rowValues[i] = value;
         if (value != null) {
-          if (metaField.getType() == FieldType.CHILD) {
-            value = getChildValue(value, metaField.getName(), childFieldDocPartCell);
-          }
-          documentBuilder.putValue(metaField.getName(), value);
+          valueCount++;
         }
       }
+      ArrayKvDocument document = createDocument(layout.fieldNames, rowValues, valueCount);
 
-      if (tableRef.isRoot()) {
-        readedDocuments.add(new ToroDocument(did, documentBuilder.build()));
+      if (values == null) {
+        readedDocuments.add(new ToroDocument(row.getDid(), document));
       } else {
-        addValueToDocPartRow(currentFieldDocPartRow, tableRef, pid, seq, documentBuilder.build());
+        values.add(row.getPid(), seq, document);
       }
     }
   }
 
-  private KvValue<?> getChildValue(KvValue<?> value, String key,
-      Map<String, List<KvValue<?>>> childDocPartCell) {
+  /**
+   * Copies the not null values of the given row on a new document.
+   *
+   * <p>The keys array is shared by all the rows that contain a value for each field.
+   */
+  private ArrayKvDocument createDocument(String[] fieldNames, KvValue<?>[] rowValues,
+      int valueCount) {
+    if (valueCount == 0) {
+      return new ArrayKvDocument(NO_KEYS, NO_VALUES);
+    }
+    if (valueCount == fieldNames.length) {
+      return new ArrayKvDocument(fieldNames, Arrays.copyOf(rowValues, valueCount));
+    }
+    String[] keys = new String[valueCount];
+    KvValue<?>[] values = new KvValue<?>[valueCount];
+    int index = 0;
+    for (int i = 0; i < rowValues.length; i++) {
+      if (rowValues[i] != null) {
+        keys[index] = fieldNames[i];
+        values[index] = rowValues[i];
+        index++;
+      }
+    }
+    return new ArrayKvDocument(keys, values);
+  }
+
+  /**
+   * Returns the child value of the given key or null if its doc part has not been read, which
+   * happens when the doc part is not included on the read projection.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private KvValue<?> getChildValue(KvValue<?> value, @Nullable RidSlots childValues, int rid) {
     KvBoolean child = (KvBoolean) value;
+    Object slot = childValues == null ? null : childValues.get(rid);
     if (child.getValue() == InternalFields.CHILD_ARRAY_VALUE) {
-      List<KvValue<?>> elements;
-      if (childDocPartCell == null || (elements = childDocPartCell.get(key)) == null) {
-        value = new ListKvArray(ImmutableList.of());
-      } else {
-        value = new ListKvArray(elements);
+      if (slot == null) {
+        return new ListKvArray(ImmutableList.of());
+      }
+      if (slot instanceof List) {
+        return new ListKvArray((List<KvValue<?>>) slot);
       }
+      return new ListKvArray(ImmutableList.of((KvValue<?>) slot));
     } else {
-      value = childDocPartCell.get(key).get(0);
+      if (slot instanceof List) {
+        return ((List<KvValue<?>>) slot).get(0);
+      }
+      return (KvValue<?>) slot;
     }
-    return value;
   }
 
-  private void addValueToDocPartRow(Map<Integer, Map<String, List<KvValue<?>>>> currentDocPartRow,
-      TableRef tableRef,
-      Integer pid, Integer seq, KvValue<?> value) {
-    if (seq == null) {
-      setDocPartRowValue(currentDocPartRow, tableRef, pid, null, ImmutableList.of(value));
-    } else {
-      addToDocPartRow(currentDocPartRow, tableRef, pid, seq, value);
+  /**
+   * The columns of a doc part in the order its results return them, resolved once per doc part
+   * instead of once per row.
+   */
+  private static class DocPartLayout {
+
+    private final FieldType[] scalarTypes;
+    /**
+     * The values of the arrays contained by the arrays of this doc part.
+     */
+    @Nullable
+    private final RidSlots scalarChildren;
+    private final String[] fieldNames;
+    private final FieldType[] fieldTypes;
+    private final RidSlots[] fieldChildren;
+
+    private DocPartLayout(MetaDocPart metaDocPart, Map<TableRef, RidSlots> childDepthValues) {
+      TableRef tableRef = metaDocPart.getTableRef();
+      this.scalarTypes = metaDocPart.streamScalars()
+          .map(metaScalar -> metaScalar.getType())
+          .toArray(FieldType[]::new);
+      this.fieldNames = metaDocPart.streamFields()
+          .map(metaField -> metaField.getName())
+          .toArray(String[]::new);
+      this.fieldTypes = metaDocPart.streamFields()
+          .map(metaField -> metaField.getType())
+          .toArray(FieldType[]::new);
+      this.fieldChildren = new RidSlots[fieldNames.length];
+
+      RidSlots scalarChildrenTemp = null;
+      for (Map.Entry<TableRef, RidSlots> entry : childDepthValues.entrySet()) {
+        TableRef childRef = entry.getKey();
+        if (!childRef.getParent().get().equals(tableRef)) {
+          continue;
+        }
+        if (childRef.isInArray()) {
+          scalarChildrenTemp = entry.getValue();
+        } else {
+          for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldTypes[i] == FieldType.CHILD && fieldNames[i].equals(childRef.getName())) {
+              fieldChildren[i] = entry.getValue();
+            }
+          }
+        }
+      }
+      this.scalarChildren = scalarChildrenTemp;
     }
   }
 
-  private void setDocPartRowValue(
-      Map<Integer, Map<String, List<KvValue<?>>>> docPartRow, TableRef tableRef, Integer pid,
-      Integer seq, ImmutableList<KvValue<?>> elements) {
-    Map<String, List<KvValue<?>>> docPartCell = getDocPartCell(docPartRow, pid);
-    String name = getDocPartCellName(tableRef);
-    docPartCell.put(name, elements);
-  }
+  /**
+   * The values read from the rows of a child doc part, indexed by the rid of the row that
+   * contains them.
+   *
+   * <p>Each slot contains a value or, if the rows were elements of an array, the list of elements
+   * sorted by seq. Slots are stored on a dense array indexed by the offset of the rid, as
+   * rows are read sorted by did and the rids of a batch of documents are usually close, and on a
+   * map when the rids are too sparse.
+   */
+  private static class RidSlots {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_UNUSED_SLOTS = 1024;
+
+    private int base;
+    private Object[] dense;
+    private int used;
+    private Map<Integer, Object> sparse;
+
+    @Nullable
+    private Object get(int rid) {
+      if (dense != null) {
+        int offset = rid - base;
+        return offset < 0 || offset >= dense.length ? null : dense[offset];
+      }
+      return sparse == null ? null : sparse.get(rid);
+    }
 
-  private void addToDocPartRow(
-      Map<Integer, Map<String, List<KvValue<?>>>> docPartRow, TableRef tableRef, Integer pid,
-      Integer seq, KvValue<?> value) {
-    String name = getDocPartCellName(tableRef);
+    @SuppressWarnings("unchecked")
+    private void add(int rid, @Nullable Integer seq, KvValue<?> value) {
+      if (seq == null) {
+        set(rid, value);
+      } else {
+        Object slot = get(rid);
+        List<KvValue<?>> elements;
+        if (slot instanceof List) {
+          elements = (List<KvValue<?>>) slot;
+        } else {
+          elements = new ArrayList<>();
+          set(rid, elements);
+        }
+        if (seq < elements.size()) {
+          elements.set(seq, value);
+        } else {
+          for (int i = elements.size(); i < seq; i++) {
+            elements.add(null);
+          }
+          elements.add(value);
+        }
+      }
+    }
 
-    Map<String, List<KvValue<?>>> docPartCell = getDocPartCell(docPartRow, pid);
+    private void set(int rid, Object slot) {
+      if (dense == null && sparse == null) {
+        base = rid;
+        dense = new Object[INITIAL_CAPACITY];
+      }
+      if (dense != null) {
+        int offset = rid - base;
+        if (offset < 0 || offset >= dense.length) {
+          if (!growDense(rid)) {
+            toSparse();
+            sparse.put(rid, slot);
+            return;
+          }
+          offset = rid - base;
+        }
+        if (dense[offset] == null) {
+          used++;
+        }
+        dense[offset] = slot;
+      } else {
+        sparse.put(rid, slot);
+      }
+    }
 
-    List<KvValue<?>> elements = docPartCell
-        .computeIfAbsent(name, n -> new ArrayList<KvValue<?>>());
-    final int size = elements.size();
-    if (seq < size) {
-      elements.set(seq, value);
-    } else {
-      for (int i = elements.size(); i < seq; i++) {
-        elements.add(null);
+    /**
+     * Grows the dense array to contain the given rid, unless that would leave too many unused
+     * slots.
+     *
+     * @return true iff the dense array contains the given rid
+     */
+    private boolean growDense(int rid) {
+      long newBase = Math.min(base, rid);
+      long newEnd = Math.max((long) base + dense.length, (long) rid + 1);
+      long needed = newEnd - newBase;
+      if (needed - used > Math.max(MAX_UNUSED_SLOTS, 4L * used)) {
+        return false;
       }
-      elements.add(value);
+      int capacity = (int) Math.max(needed, Math.min(2L * dense.length, needed + MAX_UNUSED_SLOTS));
+      Object[] newDense = new Object[capacity];
+      System.arraycopy(dense, 0, newDense, (int) (base - newBase), dense.length);
+      dense = newDense;
+      base = (int) newBase;
+      return true;
     }
-  }
 
-  private String getDocPartCellName(TableRef tableRef) {
-    while (tableRef.isInArray()) {
-      tableRef = tableRef.getParent().get();
+    private void toSparse() {
+      sparse = new HashMap<>(used * 2);
+      for (int i = 0; i < dense.length; i++) {
+        if (dense[i] != null) {
+          sparse.put(base + i, dense[i]);
+        }
+      }
+      dense = null;
     }
-    return tableRef.getName();
   }
 
-  private Map<String, List<KvValue<?>>> getDocPartCell(
-      Map<Integer, Map<String, List<KvValue<?>>>> docPartRow,
-      Integer pid) {
-    return docPartRow.computeIfAbsent(pid, p -> new HashMap<String, List<KvValue<?>>>());
-  }
 }
@@ -20,21 +20,52 @@ package com.torodb.d2r.model;
 
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
+import com.torodb.core.d2r.DocPartRow.ValueConsumer;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvValue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+/**
+ * The rows of a doc part, stored by column.
+ *
+ * <p>Internal fields are stored on primitive arrays, with a bitmap for the null pids and seqs.
+ * Each scalar or field column is only allocated once a row sets it and, depending on its
+ * {@link FieldType}, it stores its values on an int, long, double or bit array with a bitmap of
+ * the rows that are not null, so they can be copied to the database without boxing them. Other
+ * types are stored as {@link KvValue values}. {@link DocPartRowImpl rows} are just views of a row
+ * index.
+ */
 public class DocPartDataImpl implements DocPartData {
 
-  private List<DocPartRow> docPartRows = new ArrayList<>();
-  private TableMetadata metadata;
-  private DocPartDataImpl parent;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final TableMetadata metadata;
+  private final DocPartDataImpl parent;
   private List<DocPartDataImpl> childs = null;
 
+  private int rowCount = 0;
+  private int[] dids = new int[INITIAL_CAPACITY];
+  private int[] rids = new int[INITIAL_CAPACITY];
+  private int[] pids = new int[INITIAL_CAPACITY];
+  private int[] seqs = new int[INITIAL_CAPACITY];
+  private final BitSet nullPids = new BitSet();
+  private final BitSet nullSeqs = new BitSet();
+  private final ArrayList<Column> fieldColumns = new ArrayList<>();
+  private final ArrayList<Column> scalarColumns = new ArrayList<>();
+
   public DocPartDataImpl(TableMetadata metadata, DocPartDataImpl parent) {
     this.metadata = metadata;
     this.parent = parent;
@@ -44,9 +75,31 @@ public class DocPartDataImpl implements DocPartData {
   }
 
   public DocPartRowImpl newRowObject(Integer index, DocPartRowImpl parentRow) {
-    DocPartRowImpl docPartRow = new DocPartRowImpl(metadata, index, parentRow, this);
-    docPartRows.add(docPartRow);
-    return docPartRow;
+    int row = rowCount;
+    if (row == rids.length) {
+      int newCapacity = row * 2;
+      dids = Arrays.copyOf(dids, newCapacity);
+      rids = Arrays.copyOf(rids, newCapacity);
+      pids = Arrays.copyOf(pids, newCapacity);
+      seqs = Arrays.copyOf(seqs, newCapacity);
+    }
+    int rid = metadata.getNextRowId();
+    metadata.startRow();
+    rids[row] = rid;
+    if (index == null) {
+      nullSeqs.set(row);
+    } else {
+      seqs[row] = index;
+    }
+    if (parentRow == null) {
+      dids[row] = rid;
+      nullPids.set(row);
+    } else {
+      dids[row] = parentRow.getDid();
+      pids[row] = parentRow.getRid();
+    }
+    rowCount++;
+    return new DocPartRowImpl(this, row);
   }
 
   public MetaDocPart getMetaDocPart() {
@@ -68,6 +121,79 @@ public class DocPartDataImpl implements DocPartData {
     childs.add(child);
   }
 
+  int findFieldPosition(String key, FieldType fieldType) {
+    return metadata.findFieldPosition(key, fieldType);
+  }
+
+  int findScalarPosition(FieldType fieldType) {
+    return metadata.findScalarPosition(fieldType);
+  }
+
+  void setFieldValue(int row, int position, FieldType fieldType, KvValue<?> value) {
+    getColumn(fieldColumns, position, fieldType).set(row, value);
+  }
+
+  void setScalarValue(int row, int position, FieldType fieldType, KvValue<?> value) {
+    getColumn(scalarColumns, position, fieldType).set(row, value);
+  }
+
+  private Column getColumn(ArrayList<Column> columns, int position, FieldType fieldType) {
+    while (columns.size() <= position) {
+      columns.add(null);
+    }
+    Column column = columns.get(position);
+    if (column == null) {
+      column = Column.create(fieldType, rids.length);
+      columns.set(position, column);
+    }
+    return column;
+  }
+
+  int getDid(int row) {
+    return dids[row];
+  }
+
+  int getRid(int row) {
+    return rids[row];
+  }
+
+  Integer getPid(int row) {
+    return nullPids.get(row) ? null : pids[row];
+  }
+
+  Integer getSeq(int row) {
+    return nullSeqs.get(row) ? null : seqs[row];
+  }
+
+  Iterable<KvValue<?>> getFieldValues(int row) {
+    return () -> new RowValuesIterator(fieldColumns, row, fieldColumnsCount());
+  }
+
+  Iterable<KvValue<?>> getScalarValues(int row) {
+    return () -> new RowValuesIterator(scalarColumns, row, scalarColumnsCount());
+  }
+
+  void consumeValues(int row, ValueConsumer consumer) {
+    consumeValues(scalarColumns, row, scalarColumnsCount(), consumer);
+    consumeValues(fieldColumns, row, fieldColumnsCount(), consumer);
+  }
+
+  private static void consumeValues(List<Column> columns, int row, int columnCount,
+      ValueConsumer consumer) {
+    int allocated = Math.min(columns.size(), columnCount);
+    for (int i = 0; i < allocated; i++) {
+      Column column = columns.get(i);
+      if (column == null) {
+        consumer.consumeNull();
+      } else {
+        column.consume(row, consumer);
+      }
+    }
+    for (int i = allocated; i < columnCount; i++) {
+      consumer.consumeNull();
+    }
+  }
+
   @Override
   public String toString() {
     return metadata.getMetaDocPart().getTableRef().toString();
@@ -75,7 +201,22 @@ public class DocPartDataImpl implements DocPartData {
 
   @Override
   public Iterator<DocPartRow> iterator() {
-    return docPartRows.iterator();
+    return new Iterator<DocPartRow>() {
+      private int row = 0;
+
+      @Override
+      public boolean hasNext() {
+        return row < rowCount;
+      }
+
+      @Override
+      public DocPartRow next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return new DocPartRowImpl(DocPartDataImpl.this, row++);
+      }
+    };
   }
 
   @Override
@@ -90,7 +231,7 @@ public class DocPartDataImpl implements DocPartData {
 
   @Override
   public int rowCount() {
-    return docPartRows.size();
+    return rowCount;
   }
 
   @Override
@@ -103,4 +244,219 @@ public class DocPartDataImpl implements DocPartData {
     return metadata.getOrdererdScalars().iterator();
   }
 
+  /**
+   * Iterates the values of a row on the given columns, returning null for the columns that have
+   * not been set on that row.
+   */
+  private static class RowValuesIterator implements Iterator<KvValue<?>> {
+
+    private final List<Column> columns;
+    private final int row;
+    private final int columnCount;
+    private int column = 0;
+
+    public RowValuesIterator(List<Column> columns, int row, int columnCount) {
+      this.columns = columns;
+      this.row = row;
+      this.columnCount = columnCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return column < columnCount;
+    }
+
+    @Override
+    public KvValue<?> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int current = column++;
+      if (current >= columns.size()) {
+        return null;
+      }
+      Column values = columns.get(current);
+      return values == null ? null : values.get(row);
+    }
+  }
+
+  /**
+   * The values of a column. Rows whose bit is not set on {@link #notNull} are null.
+   */
+  private abstract static class Column {
+
+    protected final BitSet notNull = new BitSet();
+
+    static Column create(FieldType fieldType, int capacity) {
+      switch (fieldType) {
+        case INTEGER:
+          return new IntColumn(capacity);
+        case LONG:
+          return new LongColumn(capacity);
+        case DOUBLE:
+          return new DoubleColumn(capacity);
+        case BOOLEAN:
+        case CHILD:
+          return new BooleanColumn();
+        default:
+          return new ValueColumn(capacity);
+      }
+    }
+
+    void set(int row, KvValue<?> value) {
+      setNotNull(row, value);
+      notNull.set(row);
+    }
+
+    KvValue<?> get(int row) {
+      return notNull.get(row) ? getNotNull(row) : null;
+    }
+
+    void consume(int row, ValueConsumer consumer) {
+      if (notNull.get(row)) {
+        consumeNotNull(row, consumer);
+      } else {
+        consumer.consumeNull();
+      }
+    }
+
+    protected static int grow(int length, int row) {
+      return Math.max(length * 2, row + 1);
+    }
+
+    protected abstract void setNotNull(int row, KvValue<?> value);
+
+    protected abstract KvValue<?> getNotNull(int row);
+
+    protected abstract void consumeNotNull(int row, ValueConsumer consumer);
+  }
+
+  private static class IntColumn extends Column {
+
+    private int[] values;
+
+    IntColumn(int capacity) {
+      values = new int[capacity];
+    }
+
+    @Override
+    protected void setNotNull(int row, KvValue<?> value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = ((KvInteger) value).intValue();
+    }
+
+    @Override
+    protected KvValue<?> getNotNull(int row) {
+      return KvInteger.of(values[row]);
+    }
+
+    @Override
+    protected void consumeNotNull(int row, ValueConsumer consumer) {
+      consumer.consumeInt(values[row]);
+    }
+  }
+
+  private static class LongColumn extends Column {
+
+    private long[] values;
+
+    LongColumn(int capacity) {
+      values = new long[capacity];
+    }
+
+    @Override
+    protected void setNotNull(int row, KvValue<?> value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = ((KvLong) value).longValue();
+    }
+
+    @Override
+    protected KvValue<?> getNotNull(int row) {
+      return KvLong.of(values[row]);
+    }
+
+    @Override
+    protected void consumeNotNull(int row, ValueConsumer consumer) {
+      consumer.consumeLong(values[row]);
+    }
+  }
+
+  private static class DoubleColumn extends Column {
+
+    private double[] values;
+
+    DoubleColumn(int capacity) {
+      values = new double[capacity];
+    }
+
+    @Override
+    protected void setNotNull(int row, KvValue<?> value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = ((KvDouble) value).doubleValue();
+    }
+
+    @Override
+    protected KvValue<?> getNotNull(int row) {
+      return KvDouble.of(values[row]);
+    }
+
+    @Override
+    protected void consumeNotNull(int row, ValueConsumer consumer) {
+      consumer.consumeDouble(values[row]);
+    }
+  }
+
+  private static class BooleanColumn extends Column {
+
+    private final BitSet values = new BitSet();
+
+    @Override
+    protected void setNotNull(int row, KvValue<?> value) {
+      values.set(row, ((KvBoolean) value).getPrimitiveValue());
+    }
+
+    @Override
+    protected KvValue<?> getNotNull(int row) {
+      return KvBoolean.from(values.get(row));
+    }
+
+    @Override
+    protected void consumeNotNull(int row, ValueConsumer consumer) {
+      consumer.consumeBoolean(values.get(row));
+    }
+  }
+
+  private static class ValueColumn extends Column {
+
+    private KvValue<?>[] values;
+
+    ValueColumn(int capacity) {
+      values = new KvValue<?>[capacity];
+    }
+
+    @Override
+    protected void setNotNull(int row, KvValue<?> value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = value;
+    }
+
+    @Override
+    protected KvValue<?> getNotNull(int row) {
+      return values[row];
+    }
+
+    @Override
+    protected void consumeNotNull(int row, ValueConsumer consumer) {
+      consumer.consumeValue(values[row]);
+    }
+  }
+
 }
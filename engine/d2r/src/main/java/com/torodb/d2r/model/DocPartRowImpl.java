@@ -18,7 +18,6 @@
 
 package com.torodb.d2r.model;
 
-import com.google.common.collect.Iterators;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
 import com.torodb.core.d2r.InternalFields;
@@ -28,94 +27,58 @@ import com.torodb.kvdocument.values.KvBoolean;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
-
+/**
+ * A row of a {@link DocPartDataImpl}, whose values are stored on the doc part data columns.
+ */
 public class DocPartRowImpl implements DocPartRow {
 
-  private final int did;
-  private final int rid;
-  private final Integer pid;
-  private final Integer seq;
-
-  private final ArrayList<KvValue<?>> fieldAttributes;
-  private final ArrayList<KvValue<?>> scalarAttributes;
-  private final TableMetadata tableMetadata;
   private final DocPartDataImpl tableInfo;
+  private final int row;
 
-  public DocPartRowImpl(TableMetadata tableMetadata, Integer seq, DocPartRowImpl parentRow,
-      DocPartDataImpl tableInfo) {
+  DocPartRowImpl(DocPartDataImpl tableInfo, int row) {
     this.tableInfo = tableInfo;
-    this.rid = tableMetadata.getNextRowId();
-    this.seq = seq;
-    if (parentRow == null) {
-      this.did = this.rid;
-      this.pid = null;
-    } else {
-      this.did = parentRow.did;
-      this.pid = parentRow.rid;
-    }
-    this.tableMetadata = tableMetadata;
-    this.fieldAttributes = new ArrayList<KvValue<?>>(); //initialize with metadata current size?
-    this.scalarAttributes = new ArrayList<KvValue<?>>();
+    this.row = row;
   }
 
   private static final KvBoolean IS_ARRAY = KvBoolean.from(InternalFields.CHILD_ARRAY_VALUE);
   private static final KvBoolean IS_SUBDOCUMENT = KvBoolean.from(InternalFields.CHILD_OBJECT_VALUE);
 
   public void addScalar(String key, KvValue<?> value) {
-    final int position = findFieldPosition(key, FieldType.from(value.getType()));
-    fieldAttributes.set(position, value);
+    final FieldType fieldType = FieldType.from(value.getType());
+    final int position = tableInfo.findFieldPosition(key, fieldType);
+    tableInfo.setFieldValue(row, position, fieldType, value);
   }
 
   public void addChild(String key, KvValue<?> value) {
-    final int position = findFieldPosition(key, FieldType.from(value.getType()));
+    final FieldType fieldType = FieldType.from(value.getType());
+    final int position = tableInfo.findFieldPosition(key, fieldType);
     if (value instanceof KvArray) {
-      fieldAttributes.set(position, IS_ARRAY);
+      tableInfo.setFieldValue(row, position, fieldType, IS_ARRAY);
     } else if (value instanceof KvDocument) {
-      fieldAttributes.set(position, IS_SUBDOCUMENT);
+      tableInfo.setFieldValue(row, position, fieldType, IS_SUBDOCUMENT);
     } else {
       throw new IllegalArgumentException("Child value is not KVArray or KVDocument");
     }
   }
 
   public void addArrayItem(KvValue<?> value) {
-    Integer position = findScalarPosition(FieldType.from(value.getType()));
-    scalarAttributes.set(position, value);
+    final FieldType fieldType = FieldType.from(value.getType());
+    final int position = tableInfo.findScalarPosition(fieldType);
+    tableInfo.setScalarValue(row, position, fieldType, value);
   }
 
   public void addChildToArray(KvValue<?> value) {
-    final int position = findScalarPosition(FieldType.from(value.getType()));
+    final FieldType fieldType = FieldType.from(value.getType());
+    final int position = tableInfo.findScalarPosition(fieldType);
     if (value instanceof KvArray) {
-      scalarAttributes.set(position, IS_ARRAY);
+      tableInfo.setScalarValue(row, position, fieldType, IS_ARRAY);
     } else if (value instanceof KvDocument) {
-      scalarAttributes.set(position, IS_SUBDOCUMENT);
+      tableInfo.setScalarValue(row, position, fieldType, IS_SUBDOCUMENT);
     } else {
       throw new IllegalArgumentException("Child value is not KVArray or KVDocument");
     }
   }
 
-  private int findFieldPosition(String key, FieldType fieldType) {
-    final int position = tableMetadata.findFieldPosition(key, fieldType);
-    if (position >= fieldAttributes.size()) {
-      for (int index = fieldAttributes.size(); index <= position; index++) {
-        fieldAttributes.add(null);
-      }
-    }
-    return position;
-  }
-
-  private int findScalarPosition(FieldType fieldType) {
-    final int position = tableMetadata.findScalarPosition(fieldType);
-    if (position >= scalarAttributes.size()) {
-      for (int index = scalarAttributes.size(); index <= position; index++) {
-        scalarAttributes.add(null);
-      }
-    }
-    return position;
-  }
-
   @Override
   public DocPartData getDocPartData() {
     return tableInfo;
@@ -123,71 +86,37 @@ public class DocPartRowImpl implements DocPartRow {
 
   @Override
   public Integer getSeq() {
-    return seq;
+    return tableInfo.getSeq(row);
   }
 
   @Override
   public int getDid() {
-    return did;
+    return tableInfo.getDid(row);
   }
 
   @Override
   public int getRid() {
-    return rid;
+    return tableInfo.getRid(row);
   }
 
   @Override
   public Integer getPid() {
-    return pid;
+    return tableInfo.getPid(row);
   }
 
   @Override
   public Iterable<KvValue<?>> getFieldValues() {
-    int columns = this.getDocPartData().fieldColumnsCount();
-    int attrs = this.fieldAttributes.size();
-    if (columns == attrs) {
-      return fieldAttributes;
-    }
-    NumberNullIterator<KvValue<?>> itTail = new NumberNullIterator<>(columns - attrs);
-    return () -> Iterators.concat(fieldAttributes.iterator(), itTail);
+    return tableInfo.getFieldValues(row);
   }
 
   @Override
   public Iterable<KvValue<?>> getScalarValues() {
-    int columns = this.getDocPartData().scalarColumnsCount();
-    int attrs = this.scalarAttributes.size();
-    if (columns == attrs) {
-      return scalarAttributes;
-    }
-    NumberNullIterator<KvValue<?>> itTail = new NumberNullIterator<>(columns - attrs);
-    return () -> Iterators.concat(scalarAttributes.iterator(), itTail);
+    return tableInfo.getScalarValues(row);
   }
 
-  private static class NumberNullIterator<R> implements Iterator<R> {
-
-    private final int n;
-
-    private int idx;
-
-    public NumberNullIterator(int n) {
-      this.n = n;
-      this.idx = 0;
-    }
-
-    @Override
-    public boolean hasNext() {
-      return idx < n;
-    }
-
-    @Override
-    public R next() {
-      if (hasNext()) {
-        idx++;
-        return null;
-      }
-      throw new NoSuchElementException();
-    }
-
+  @Override
+  public void consumeValues(ValueConsumer consumer) {
+    tableInfo.consumeValues(row, consumer);
   }
 
 }
@@ -0,0 +1,111 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.d2r.model;
+
+import com.torodb.core.transaction.metainf.FieldType;
+
+/**
+ * An open addressing map from (key, {@link FieldType}) to a non negative int position.
+ *
+ * <p>Keys are compared by reference before calling {@link String#equals(Object)}, as the keys of
+ * documents with the same shape are usually the same instances.
+ */
+class FieldPositionMap {
+
+  private static final int NOT_FOUND = -1;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private String[] keys = new String[INITIAL_CAPACITY];
+  private FieldType[] types = new FieldType[INITIAL_CAPACITY];
+  private int[] hashes = new int[INITIAL_CAPACITY];
+  private int[] positions = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /**
+   * Returns the position associated to the given key and type or a negative number if there is
+   * none.
+   */
+  int get(String key, FieldType type) {
+    int hash = hash(key, type);
+    int mask = keys.length - 1;
+    for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+      if (hashes[slot] == hash && types[slot] == type && matches(keys[slot], key)) {
+        return positions[slot];
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Associates a position to a key and type that are not on the map yet.
+   */
+  void put(String key, FieldType type, int position) {
+    assert position >= 0;
+    if ((size + 1) * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    insert(key, type, hash(key, type), position);
+    size++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void insert(String key, FieldType type, int hash, int position) {
+    int mask = keys.length - 1;
+    int slot = hash & mask;
+    while (keys[slot] != null) {
+      assert hashes[slot] != hash || types[slot] != type || !matches(keys[slot], key) :
+          "Key " + key + " with type " + type + " is already on the map";
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    types[slot] = type;
+    hashes[slot] = hash;
+    positions[slot] = position;
+  }
+
+  private void resize(int newCapacity) {
+    String[] oldKeys = keys;
+    FieldType[] oldTypes = types;
+    int[] oldHashes = hashes;
+    int[] oldPositions = positions;
+
+    keys = new String[newCapacity];
+    types = new FieldType[newCapacity];
+    hashes = new int[newCapacity];
+    positions = new int[newCapacity];
+    for (int slot = 0; slot < oldKeys.length; slot++) {
+      if (oldKeys[slot] != null) {
+        insert(oldKeys[slot], oldTypes[slot], oldHashes[slot], oldPositions[slot]);
+      }
+    }
+  }
+
+  private static boolean matches(String stored, String key) {
+    return stored == key || stored.equals(key);
+  }
+
+  private static int hash(String key, FieldType type) {
+    int hash = key.hashCode() * 31 + type.ordinal();
+    return hash ^ (hash >>> 16);
+  }
+
+}
@@ -18,8 +18,6 @@
 
 package com.torodb.d2r.model;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.torodb.core.TableRef;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaField;
@@ -28,6 +26,7 @@ import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 import com.torodb.d2r.CollectionMetaInfo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -38,17 +37,27 @@ public class TableMetadata {
   private final TableRef tableRef;
   private final MutableMetaDocPart metaDocPart;
 
-  private final Table<String, FieldType, Integer> fieldOrder;
+  private final FieldPositionMap fieldOrder;
   private final Map<FieldType, Integer> scalarOrder;
 
   private final List<MetaField> orderedFields;
   private final List<MetaScalar> orderedScalars;
 
+  /*
+   * The (key, type, position) sequence looked up by the last rows, so rows with the same shape
+   * than the previous one do not need to go to the map.
+   */
+  private String[] shapeKeys = new String[16];
+  private FieldType[] shapeTypes = new FieldType[16];
+  private int[] shapePositions = new int[16];
+  private int shapeLength = 0;
+  private int shapeCursor = 0;
+
   public TableMetadata(CollectionMetaInfo collectionMetaInfo, TableRef tableRef) {
     this.collectionMetaInfo = collectionMetaInfo;
     this.tableRef = tableRef;
     this.metaDocPart = collectionMetaInfo.findMetaDocPart(tableRef);
-    this.fieldOrder = HashBasedTable.create();
+    this.fieldOrder = new FieldPositionMap();
     this.scalarOrder = new EnumMap<>(FieldType.class);
     this.orderedFields = new ArrayList<>(64);
     this.orderedScalars = new ArrayList<>(64);
@@ -70,16 +79,48 @@ public class TableMetadata {
     return collectionMetaInfo.getNextRowId(tableRef);
   }
 
+  /**
+   * Notifies that the following calls to {@link #findFieldPosition(String, FieldType)} belong to
+   * a new row.
+   */
+  protected void startRow() {
+    shapeCursor = 0;
+  }
+
   protected int findFieldPosition(String key, FieldType type) {
-    Integer idx = fieldOrder.get(key, type);
-    if (idx == null) {
+    int cursor = shapeCursor;
+    if (cursor < shapeLength && shapeTypes[cursor] == type) {
+      String shapeKey = shapeKeys[cursor];
+      if (shapeKey == key || shapeKey.equals(key)) {
+        shapeCursor = cursor + 1;
+        return shapePositions[cursor];
+      }
+    }
+
+    int idx = fieldOrder.get(key, type);
+    if (idx < 0) {
       idx = orderedFields.size();
       fieldOrder.put(key, type, idx);
       orderedFields.add(findMetaField(key, type));
     }
+    addToShape(cursor, key, type, idx);
     return idx;
   }
 
+  private void addToShape(int cursor, String key, FieldType type, int idx) {
+    if (cursor == shapeKeys.length) {
+      int newLength = cursor * 2;
+      shapeKeys = Arrays.copyOf(shapeKeys, newLength);
+      shapeTypes = Arrays.copyOf(shapeTypes, newLength);
+      shapePositions = Arrays.copyOf(shapePositions, newLength);
+    }
+    shapeKeys[cursor] = key;
+    shapeTypes[cursor] = type;
+    shapePositions[cursor] = idx;
+    shapeLength = cursor + 1;
+    shapeCursor = cursor + 1;
+  }
+
   protected int findScalarPosition(FieldType type) {
     Integer idx = scalarOrder.get(type);
     if (idx == null) {
@@ -191,6 +191,35 @@ public class R2DTranslatorTest {
     assertTrue(kvValue instanceof KvDocument);
   }
 
+  /*
+   * Documents { "address" : { "street" : "street<did>" } } whose rids are far from each other
+   */
+  @Test
+  public void readDocumentsWithSparseRids() {
+    int[] dids = new int[]{1, 5_000_000, 2, Integer.MAX_VALUE};
+
+    MetaDocPartBuilder builder = new MetaDocPartBuilder(rootRef);
+    builder.addMetaField("address", "address_e", FieldType.CHILD);
+    TableRef secondRef = fact.createChild(rootRef, "address");
+    MetaDocPartBuilder secondBuilder = new MetaDocPartBuilder(secondRef);
+    secondBuilder.addMetaField("street", "street_s", FieldType.STRING);
+    for (int did : dids) {
+      builder.addRow(did, null, did, null, IsDocument);
+      secondBuilder.addRow(did, did, did, null, "street" + did);
+    }
+
+    List<DocPartResult> lst = Lists.newArrayList(secondBuilder.getResultSet(),
+        builder.getResultSet());
+
+    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    List<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
+    assertEquals(dids.length, readedDocuments.size());
+    for (int i = 0; i < dids.length; i++) {
+      KvDocument address = (KvDocument) readedDocuments.get(i).getRoot().get("address");
+      assertEquals("street" + dids[i], address.get("street").getValue());
+    }
+  }
+
   /*
    * Document: { "name" : "jero", "numbers" : [4, 8, 15, 16] }
    */
@@ -0,0 +1,217 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.d2r.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.d2r.DefaultIdentifierFactory;
+import com.torodb.core.d2r.DocPartRow;
+import com.torodb.core.d2r.DocPartRow.ValueConsumer;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.WrapperMutableMetaDatabase;
+import com.torodb.d2r.CollectionMetaInfo;
+import com.torodb.d2r.MockIdentifierInterface;
+import com.torodb.d2r.MockRidGenerator;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DocPartDataImplTest {
+
+  private static final String DB = "db";
+  private static final String COL = "col";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private CollectionMetaInfo collectionMetaInfo;
+
+  @Before
+  public void setUp() {
+    WrapperMutableMetaDatabase db = new WrapperMutableMetaDatabase(
+        new ImmutableMetaDatabase.Builder(DB, DB)
+            .put(new ImmutableMetaCollection.Builder(COL, COL).build())
+            .build(),
+        changed -> {
+        });
+    collectionMetaInfo = new CollectionMetaInfo(db, db.getMetaCollectionByName(COL),
+        new DefaultIdentifierFactory(new MockIdentifierInterface()), new MockRidGenerator());
+  }
+
+  @Test
+  public void testRowViews() {
+    TableRef rootRef = tableRefFactory.createRoot();
+    DocPartDataImpl root = new DocPartDataImpl(
+        new TableMetadata(collectionMetaInfo, rootRef), null);
+    DocPartDataImpl child = new DocPartDataImpl(
+        new TableMetadata(collectionMetaInfo, tableRefFactory.createChild(rootRef, "a")), root);
+
+    DocPartRowImpl firstRoot = root.newRowObject(null, null);
+    DocPartRowImpl secondRoot = root.newRowObject(null, null);
+    DocPartRowImpl arrayChild = child.newRowObject(7, secondRoot);
+    DocPartRowImpl objectChild = child.newRowObject(null, firstRoot);
+
+    assertEquals(2, root.rowCount());
+    assertEquals(Collections.singletonList(child), root.getChilds());
+    assertEquals(root, child.getParentDocPartRow());
+
+    assertEquals(firstRoot.getRid(), firstRoot.getDid());
+    assertEquals(secondRoot.getRid(), secondRoot.getDid());
+    assertEquals(firstRoot.getRid() + 1, secondRoot.getRid());
+    assertNull(firstRoot.getPid());
+    assertNull(firstRoot.getSeq());
+
+    assertEquals(secondRoot.getDid(), arrayChild.getDid());
+    assertEquals(Integer.valueOf(secondRoot.getRid()), arrayChild.getPid());
+    assertEquals(Integer.valueOf(7), arrayChild.getSeq());
+    assertEquals(firstRoot.getDid(), objectChild.getDid());
+    assertEquals(Integer.valueOf(firstRoot.getRid()), objectChild.getPid());
+    assertNull(objectChild.getSeq());
+  }
+
+  @Test
+  public void testRowViewsAfterGrowing() {
+    TableRef rootRef = tableRefFactory.createRoot();
+    DocPartDataImpl root = new DocPartDataImpl(
+        new TableMetadata(collectionMetaInfo, rootRef), null);
+    DocPartDataImpl child = new DocPartDataImpl(
+        new TableMetadata(collectionMetaInfo, tableRefFactory.createChild(rootRef, "a")), root);
+    DocPartRowImpl parent = root.newRowObject(null, null);
+
+    int rows = 100;
+    for (int i = 0; i < rows; i++) {
+      DocPartRowImpl row = child.newRowObject(i % 2 == 0 ? i : null, parent);
+      row.addScalar("a", KvInteger.of(i));
+    }
+
+    assertEquals(rows, child.rowCount());
+    int i = 0;
+    for (DocPartRow row : child) {
+      assertEquals(parent.getDid(), row.getDid());
+      assertEquals(Integer.valueOf(parent.getRid()), row.getPid());
+      assertEquals(i % 2 == 0 ? Integer.valueOf(i) : null, row.getSeq());
+      assertEquals(Collections.singletonList(KvInteger.of(i)),
+          Lists.newArrayList(row.getFieldValues()));
+      i++;
+    }
+    assertEquals(rows, i);
+  }
+
+  @Test
+  public void testLazyColumns() {
+    DocPartDataImpl root = new DocPartDataImpl(
+        new TableMetadata(collectionMetaInfo, tableRefFactory.createRoot()), null);
+    DocPartRowImpl first = root.newRowObject(null, null);
+    first.addScalar("a", KvInteger.of(1));
+    DocPartRowImpl second = root.newRowObject(null, null);
+    second.addScalar("b", new StringKvString("x"));
+    for (int i = 0; i < 40; i++) {
+      root.newRowObject(null, null);
+    }
+    DocPartRowImpl last = root.newRowObject(null, null);
+    last.addScalar("c", KvLong.of(3));
+
+    assertEquals(3, root.fieldColumnsCount());
+    assertEquals(Arrays.asList(KvInteger.of(1), null, null),
+        Lists.newArrayList(first.getFieldValues()));
+    assertEquals(Arrays.asList(null, new StringKvString("x"), null),
+        Lists.newArrayList(second.getFieldValues()));
+    assertEquals(Arrays.asList(null, null, KvLong.of(3)),
+        Lists.newArrayList(last.getFieldValues()));
+    assertEquals(Collections.emptyList(), Lists.newArrayList(last.getScalarValues()));
+    assertEquals(Arrays.asList("null", "null", "null"), consume(Iterables.get(root, 2)));
+  }
+
+  @Test
+  public void testTypedValues() {
+    DocPartDataImpl root = new DocPartDataImpl(
+        new TableMetadata(collectionMetaInfo, tableRefFactory.createRoot()), null);
+    DocPartRowImpl row = root.newRowObject(null, null);
+    row.addScalar("i", KvInteger.of(1));
+    row.addScalar("l", KvLong.of(2));
+    row.addScalar("d", KvDouble.of(3.5));
+    row.addScalar("b", KvBoolean.FALSE);
+    row.addScalar("s", new StringKvString("x"));
+    row.addChild("arr", new ListKvArray(Collections.emptyList()));
+    row.addChild("doc", new KvDocument.Builder().build());
+    row.addArrayItem(KvInteger.of(4));
+
+    assertEquals(Arrays.asList(KvInteger.of(1), KvLong.of(2), KvDouble.of(3.5), KvBoolean.FALSE,
+        new StringKvString("x"), KvBoolean.TRUE, KvBoolean.FALSE),
+        Lists.newArrayList(row.getFieldValues()));
+    assertEquals(Collections.singletonList(KvInteger.of(4)),
+        Lists.newArrayList(row.getScalarValues()));
+    assertEquals(Arrays.asList("int 4", "int 1", "long 2", "double 3.5", "boolean false",
+        "value x", "boolean true", "boolean false"), consume(row));
+  }
+
+  private static List<String> consume(DocPartRow row) {
+    List<String> consumed = new ArrayList<>();
+    row.consumeValues(new ValueConsumer() {
+      @Override
+      public void consumeNull() {
+        consumed.add("null");
+      }
+
+      @Override
+      public void consumeInt(int value) {
+        consumed.add("int " + value);
+      }
+
+      @Override
+      public void consumeLong(long value) {
+        consumed.add("long " + value);
+      }
+
+      @Override
+      public void consumeDouble(double value) {
+        consumed.add("double " + value);
+      }
+
+      @Override
+      public void consumeBoolean(boolean value) {
+        consumed.add("boolean " + value);
+      }
+
+      @Override
+      public void consumeValue(KvValue<?> value) {
+        consumed.add("value " + value);
+      }
+    });
+    return consumed;
+  }
+
+}
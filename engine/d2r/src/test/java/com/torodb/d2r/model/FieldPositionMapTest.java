@@ -0,0 +1,63 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.d2r.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.core.transaction.metainf.FieldType;
+import org.junit.Test;
+
+public class FieldPositionMapTest {
+
+  @Test
+  public void missingKeyIsNotFound() {
+    FieldPositionMap map = new FieldPositionMap();
+    map.put("a", FieldType.STRING, 0);
+
+    assertTrue(map.get("b", FieldType.STRING) < 0);
+    assertTrue(map.get("a", FieldType.INTEGER) < 0);
+  }
+
+  @Test
+  public void sameKeyWithDifferentTypesHasDifferentPositions() {
+    FieldPositionMap map = new FieldPositionMap();
+    map.put("a", FieldType.STRING, 0);
+    map.put("a", FieldType.INTEGER, 1);
+
+    assertEquals(0, map.get("a", FieldType.STRING));
+    assertEquals(1, map.get(new String("a"), FieldType.INTEGER));
+  }
+
+  @Test
+  public void positionsSurviveResize() {
+    FieldPositionMap map = new FieldPositionMap();
+    FieldType[] types = FieldType.values();
+    int position = 0;
+    for (int i = 0; i < 1000; i++) {
+      map.put("field" + i, types[i % types.length], position++);
+    }
+
+    assertEquals(1000, map.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, map.get("field" + i, types[i % types.length]));
+    }
+  }
+
+}
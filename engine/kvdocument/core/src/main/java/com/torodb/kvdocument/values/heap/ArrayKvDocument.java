@@ -0,0 +1,95 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.kvdocument.values.heap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.UnmodifiableIterator;
+import com.torodb.kvdocument.annotations.NotMutable;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link KvDocument} whose keys and values are stored on two parallel arrays.
+ *
+ * <p>Keys must be unique and values must not be null. As the arrays are not modified, the same
+ * keys array can be shared by all documents with the same keys.
+ */
+public class ArrayKvDocument extends KvDocument {
+
+  private static final long serialVersionUID = 6385620781306178419L;
+
+  private final String[] keys;
+  private final KvValue<?>[] values;
+
+  public ArrayKvDocument(@NotMutable String[] keys, @NotMutable KvValue<?>[] values) {
+    Preconditions.checkArgument(keys.length == values.length,
+        "There are %s keys but %s values", keys.length, values.length);
+    this.keys = keys;
+    this.values = values;
+  }
+
+  @Override
+  public UnmodifiableIterator<DocEntry<?>> iterator() {
+    return new UnmodifiableIterator<DocEntry<?>>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < keys.length;
+      }
+
+      @Override
+      public DocEntry<?> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        DocEntry<?> entry = new SimpleDocEntry<>(keys[index], values[index]);
+        index++;
+        return entry;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  @Override
+  public boolean containsKey(String key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public KvValue<?> get(String key) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i].equals(key)) {
+        return values[i];
+      }
+    }
+    return null;
+  }
+}
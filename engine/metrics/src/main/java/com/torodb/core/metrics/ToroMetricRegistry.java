@@ -125,6 +125,8 @@ public class ToroMetricRegistry extends MetricRegistry {
 
   public boolean remove(MetricName name) {
     boolean removed = remove(name.getMetricName());
+    //the JMX reporter has already used the registered name to unregister the mbean
+    mbeanNameFactory.unregisterName(name);
     return removed;
   }
 
@@ -136,6 +138,10 @@ public class ToroMetricRegistry extends MetricRegistry {
       names.put(name.getMetricName(), name.getMBeanName());
     }
 
+    private void unregisterName(MetricName name) {
+      names.remove(name.getMetricName());
+    }
+
     @Override
     public ObjectName createName(String type, String domain, String name) {
       return names.computeIfAbsent(name, n -> {
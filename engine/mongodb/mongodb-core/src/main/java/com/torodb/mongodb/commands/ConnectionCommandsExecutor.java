@@ -33,6 +33,7 @@ import com.torodb.mongodb.commands.impl.diagnostic.BuildInfoImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.GetLogImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.PingImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.ServerStatusImplementation;
+import com.torodb.mongodb.commands.impl.general.CursorFindImplementation;
 import com.torodb.mongodb.commands.impl.internal.WhatsMyUriImplementation;
 import com.torodb.mongodb.commands.impl.replication.IsMasterImplementation;
 import com.torodb.mongodb.commands.pojos.ReplicaSetConfig;
@@ -257,7 +258,7 @@ public class ConnectionCommandsExecutor {
 
     @Override
     public CommandImplementation<FindArgument, FindResult, MongodConnection> getFindImplementation() {
-      return NotImplementedCommandImplementation.build();
+      return new CursorFindImplementation();
     }
 
     @Override
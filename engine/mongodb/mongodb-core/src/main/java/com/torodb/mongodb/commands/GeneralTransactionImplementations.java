@@ -129,7 +129,7 @@ public class GeneralTransactionImplementations {
     public MapFactory(Injector injector) {
       super(
           new MyAdminCommandsImplementationBuilder(),
-          new MyAggregationCommandsImplementationBuilder(),
+          new MyAggregationCommandsImplementationBuilder(injector),
           new MyAuthenticationCommandsImplementationsBuilder(injector),
           new MyDiagnosticCommandsImplementationBuilder(),
           new MyGeneralCommandsImplementationBuilder(),
@@ -191,9 +191,15 @@ public class GeneralTransactionImplementations {
 
   static class MyAggregationCommandsImplementationBuilder extends AggregationCommandsImplementationsBuilder<MongodTransaction> {
 
+    private final Injector injector;
+
+    private MyAggregationCommandsImplementationBuilder(Injector injector) {
+      this.injector = injector;
+    }
+
     @Override
     public CommandImplementation<CountArgument, Long, ? super MongodTransaction> getCountImplementation() {
-      return new CountImplementation();
+      return injector.getInstance(CountImplementation.class);
     }
 
   }
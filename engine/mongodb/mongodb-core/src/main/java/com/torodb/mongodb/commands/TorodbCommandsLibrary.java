@@ -123,7 +123,11 @@ public class TorodbCommandsLibrary implements CommandsLibrary {
 
   private void classifyCommand(Command<?, ?> c, @Nonnull RequiredTransaction rt) {
     RequiredTransaction oldRequiredTrans = requiredTranslationMap.put(c, rt);
-    if (oldRequiredTrans != null) {
+    if (oldRequiredTrans != null && rt == RequiredTransaction.NO_TRANSACTION) {
+      //connection implementations intentionally take precedence over the transactional ones
+      LOGGER.debug("The command {} is executed without transaction instead of on a {}", c,
+          oldRequiredTrans);
+    } else if (oldRequiredTrans != null) {
       LOGGER.warn("The command {} is classified as it requires {} but also {}", c, rt, 
           oldRequiredTrans);
     }
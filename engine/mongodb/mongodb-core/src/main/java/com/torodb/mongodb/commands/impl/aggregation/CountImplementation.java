@@ -19,12 +19,19 @@
 package com.torodb.mongodb.commands.impl.aggregation;
 
 import com.eightkdata.mongowp.Status;
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.exceptions.CommandFailed;
 import com.eightkdata.mongowp.server.api.Command;
 import com.eightkdata.mongowp.server.api.Request;
+import com.torodb.core.language.Filter;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
 import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
+import com.torodb.mongodb.core.MongodServerConfig;
 import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongodb.language.FilterTranslator;
+import com.torodb.torod.TorodTransaction;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 /**
@@ -33,13 +40,37 @@ import javax.inject.Singleton;
 @Singleton
 public class CountImplementation implements ReadTorodbCommandImpl<CountArgument, Long> {
 
+  private final boolean fastCount;
+
+  @Inject
+  public CountImplementation(MongodServerConfig config) {
+    this.fastCount = config.isFastCount();
+  }
+
   @Override
   public Status<Long> apply(Request req, Command<? super CountArgument, ? super Long> command,
       CountArgument arg, MongodTransaction context) {
-    return Status.ok(
-        context.getTorodTransaction()
-            .countAll(req.getDatabase(), arg.getCollection())
-    );
+    BsonDocument query = arg.getQuery();
+    Filter filter;
+    try {
+      filter = query == null ? Filter.all() : FilterTranslator.translate("count", query);
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
+    }
+
+    TorodTransaction transaction = context.getTorodTransaction();
+    long count;
+    if (filter.isAll() && fastCount) {
+      count = transaction.estimateCountAll(req.getDatabase(), arg.getCollection());
+    } else {
+      count = transaction.countByFilter(req.getDatabase(), arg.getCollection(), filter);
+    }
+
+    count = Math.max(0, count - arg.getSkip());
+    if (arg.getLimit() > 0) {
+      count = Math.min(count, arg.getLimit());
+    }
+    return Status.ok(count);
   }
 
 }
@@ -41,6 +41,7 @@ import com.torodb.mongodb.commands.signatures.diagnostic.ServerStatusCommand.Sec
 import com.torodb.mongodb.commands.signatures.diagnostic.ServerStatusCommand.ServerStatusArgument;
 import com.torodb.mongodb.commands.signatures.diagnostic.ServerStatusCommand.ServerStatusReply;
 import com.torodb.mongodb.commands.signatures.diagnostic.ServerStatusCommand.StorageEngine;
+import com.torodb.mongodb.core.CursorManager;
 import com.torodb.mongodb.core.MongoLayerConstants;
 import com.torodb.mongodb.core.MongodConnection;
 import com.torodb.mongodb.core.MongodServerConfig;
@@ -131,7 +132,10 @@ public class ServerStatusImplementation
       replyBuilder.setBackgroundFlushing(new BackgroundFlushing(0, 0, 0, 0, Instant.now()));
     }
     if (arg.isCursors()) {
-      replyBuilder.setCursors(new Cursors("", 0, 0, 0, 0, 0));
+      CursorManager cursorManager = context.getServer().getCursorManager();
+      replyBuilder.setCursors(new Cursors("", cursorManager.getOpenCursors(),
+          cursorManager.getOpenCursors(), cursorManager.getTimedOutCursors(),
+          cursorManager.getNoTimeoutCursors(), cursorManager.getPinnedCursors()));
     }
     if (arg.isNetwork()) {
       replyBuilder.setNetwork(new Network(0, 0, 0));
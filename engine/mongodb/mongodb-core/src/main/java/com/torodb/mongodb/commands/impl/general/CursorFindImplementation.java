@@ -0,0 +1,67 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.general;
+
+import com.eightkdata.mongowp.Status;
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.server.api.Command;
+import com.eightkdata.mongowp.server.api.Request;
+import com.torodb.mongodb.commands.impl.ConnectionTorodbCommandImpl;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
+import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
+import com.torodb.mongodb.core.CursorManager;
+import com.torodb.mongodb.core.MongodConnection;
+
+/**
+ * A {@link FindImplementation} that keeps the cursor open on the {@link CursorManager} when the
+ * result does not fit on the first batch.
+ */
+public class CursorFindImplementation
+    extends ConnectionTorodbCommandImpl<FindArgument, FindResult> {
+
+  @Override
+  public Status<FindResult> apply(Request req,
+      Command<? super FindArgument, ? super FindResult> command, FindArgument arg,
+      MongodConnection context) {
+    FindImplementation.logFindCommand(arg);
+
+    Status<FindResult> unsupported = FindImplementation.checkSupported(arg);
+    if (unsupported != null) {
+      return unsupported;
+    }
+
+    CursorManager cursorManager = context.getServer().getCursorManager();
+    Status<CursorResult<BsonDocument>> status = cursorManager.openCursor(
+        context.getConnectionId(),
+        req.getDatabase(),
+        arg.getCollection(),
+        FindImplementation.getFirstBatchSize(arg),
+        arg.getLimit(),
+        arg.isWantMore(),
+        arg.isNoCursorTimeout(),
+        trans -> FindImplementation.createCursor(trans, req.getDatabase(), arg)
+    );
+    if (!status.isOk()) {
+      return Status.from(status.getErrorCode(), status.getErrorMsg());
+    }
+    return Status.ok(new FindResult(status.getResult()));
+  }
+
+}
@@ -18,21 +18,18 @@
 
 package com.torodb.mongodb.commands.impl.general;
 
-import com.eightkdata.mongowp.ErrorCode;
 import com.eightkdata.mongowp.Status;
 import com.eightkdata.mongowp.bson.BsonDocument;
 import com.eightkdata.mongowp.exceptions.CommandFailed;
 import com.eightkdata.mongowp.server.api.Command;
 import com.eightkdata.mongowp.server.api.Request;
-import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
-import com.torodb.kvdocument.values.KvValue;
+import com.torodb.core.language.Filter;
 import com.torodb.mongodb.commands.impl.WriteTorodbCommandImpl;
 import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteArgument;
 import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteStatement;
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.WriteMongodTransaction;
-import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.mongodb.language.FilterTranslator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -63,29 +60,23 @@ public class DeleteImplementation implements WriteTorodbCommandImpl<DeleteArgume
       WriteMongodTransaction context) {
     Long deleted = 0L;
 
+    logDeleteCommand(arg);
+
     for (DeleteStatement deleteStatement : arg.getStatements()) {
       BsonDocument query = deleteStatement.getQuery();
 
-      switch (query.size()) {
-        case 0: {
-          deleted += context.getTorodTransaction()
-              .deleteAll(req.getDatabase(), arg.getCollection());
-          break;
-        }
-        case 1: {
-          try {
-            logDeleteCommand(arg);
-            deleted += deleteByAttribute(context.getTorodTransaction(), req.getDatabase(), arg
-                .getCollection(), query);
-          } catch (CommandFailed ex) {
-            return Status.from(ex);
-          }
-          break;
-        }
-        default: {
-          return Status.from(ErrorCode.COMMAND_FAILED,
-              "The given query is not supported right now");
+      if (query.isEmpty()) {
+        deleted += context.getTorodTransaction()
+            .deleteAll(req.getDatabase(), arg.getCollection());
+      } else {
+        Filter filter;
+        try {
+          filter = FilterTranslator.translate("delete", query);
+        } catch (CommandFailed ex) {
+          return Status.from(ex);
         }
+        deleted += context.getTorodTransaction()
+            .deleteByFilter(req.getDatabase(), arg.getCollection(), filter);
       }
     }
     mongodMetrics.getDeletes().mark(deleted);
@@ -93,13 +84,6 @@ public class DeleteImplementation implements WriteTorodbCommandImpl<DeleteArgume
 
   }
 
-  private long deleteByAttribute(SharedWriteTorodTransaction transaction, String db, String col,
-      BsonDocument query) throws CommandFailed {
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(query, refBuilder);
-    return transaction.deleteByAttRef(db, col, refBuilder.build(), kvValue);
-  }
-
   private void logDeleteCommand(DeleteArgument arg) {
     if (LOGGER.isTraceEnabled()) {
       String collection = arg.getCollection();
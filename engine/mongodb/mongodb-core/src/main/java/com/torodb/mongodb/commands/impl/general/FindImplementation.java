@@ -21,36 +21,46 @@ package com.torodb.mongodb.commands.impl.general;
 import com.eightkdata.mongowp.ErrorCode;
 import com.eightkdata.mongowp.Status;
 import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonDocument.Entry;
+import com.eightkdata.mongowp.bson.BsonValue;
 import com.eightkdata.mongowp.exceptions.CommandFailed;
 import com.eightkdata.mongowp.server.api.Command;
 import com.eightkdata.mongowp.server.api.Request;
 import com.torodb.core.cursors.Cursor;
-import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.kvdocument.conversion.mongowp.ToBsonDocumentTranslator;
-import com.torodb.kvdocument.values.KvDocument;
-import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
 import com.torodb.mongodb.commands.pojos.CursorResult;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
 import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongodb.language.Constants;
+import com.torodb.mongodb.language.FilterTranslator;
 import com.torodb.torod.TorodTransaction;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
 
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 
 /**
+ * Executes a find on the transaction of the caller.
  *
+ * <p>The cursor cannot outlive that transaction, so it is not kept open on the
+ * {@link com.torodb.mongodb.core.CursorManager} and all the documents that match the find (up to
+ * its limit) are returned on a single batch. Finds sent by clients are executed by
+ * {@link CursorFindImplementation}.
  */
 @Singleton
 public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, FindResult> {
 
   private static final Logger LOGGER = LogManager.getLogger(FindImplementation.class);
+  private static final int DEFAULT_FIRST_BATCH_SIZE = 101;
 
   @Override
   public Status<FindResult> apply(Request req,
@@ -58,60 +68,112 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
       MongodTransaction context) {
     logFindCommand(arg);
 
-    BsonDocument filter = arg.getFilter();
-
-    Cursor<BsonDocument> cursor;
+    Status<FindResult> unsupported = checkSupported(arg);
+    if (unsupported != null) {
+      return unsupported;
+    }
 
-    switch (filter.size()) {
-      case 0: {
-        cursor = context.getTorodTransaction().findAll(req.getDatabase(), arg.getCollection())
-            .asDocCursor()
-            .transform(t -> t.getRoot())
-            .transform(ToBsonDocumentTranslator.getInstance());
-        break;
-      }
-      case 1: {
-        try {
-          cursor = getByAttributeCursor(context.getTorodTransaction(), req.getDatabase(), arg
-              .getCollection(), filter)
-              .transform(ToBsonDocumentTranslator.getInstance());
-        } catch (CommandFailed ex) {
-          return Status.from(ex);
-        }
-        break;
-      }
-      default: {
-        return Status.from(ErrorCode.COMMAND_FAILED, "The given query is not supported right now");
+    List<BsonDocument> docs = new ArrayList<>();
+    long limit = arg.getLimit();
+    try (Cursor<BsonDocument> cursor = createCursor(context.getTorodTransaction(),
+        req.getDatabase(), arg)) {
+      while (cursor.hasNext() && (limit <= 0 || docs.size() < limit)) {
+        docs.add(cursor.next());
       }
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
     }
 
+    return Status.ok(new FindResult(CursorResult.createSingleBatchCursor(req.getDatabase(), arg
+        .getCollection(), docs.iterator())));
+
+  }
+
+  /**
+   * Creates a cursor that iterates over the documents that match the filter of the given find.
+   *
+   * @throws CommandFailed if the filter is not supported
+   */
+  static Cursor<BsonDocument> createCursor(TorodTransaction transaction, String db,
+      FindArgument arg) throws CommandFailed {
+    Filter filter = FilterTranslator.translate("find", arg.getFilter());
+    Projection projection = getProjection(arg.getProjection());
+
+    return transaction.findByFilter(db, arg.getCollection(), filter, projection)
+        .asDocCursor()
+        .transform(t -> t.getRoot())
+        .transform(ToBsonDocumentTranslator.getInstance());
+  }
+
+  /**
+   * Returns an error status if the given find cannot be executed or null otherwise.
+   */
+  @Nullable
+  static Status<FindResult> checkSupported(FindArgument arg) {
     if (Long.valueOf(arg.getBatchSize()) > (long) Integer.MAX_VALUE) {
       return Status.from(ErrorCode.COMMAND_FAILED, "Only batchSize equals or lower than "
           + Integer.MAX_VALUE + " is supported");
     }
+    return null;
+  }
 
+  static int getFirstBatchSize(FindArgument arg) {
     OptionalLong batchSize = arg.getEffectiveBatchSize();
-    List<BsonDocument> batch = cursor.getNextBatch(batchSize.isPresent() ? (int) batchSize
-        .getAsLong() : 101);
-    cursor.close();
-
-    return Status.ok(new FindResult(CursorResult.createSingleBatchCursor(req.getDatabase(), arg
-        .getCollection(), batch.iterator())));
-
+    return batchSize.isPresent() ? (int) batchSize.getAsLong() : DEFAULT_FIRST_BATCH_SIZE;
   }
 
-  private Cursor<KvDocument> getByAttributeCursor(TorodTransaction transaction, String db,
-      String col, BsonDocument filter) throws CommandFailed {
-
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(filter, refBuilder);
-
-    return transaction.findByAttRef(db, col, refBuilder.build(), kvValue)
-        .asDocCursor()
-        .transform(t -> t.getRoot());
+  /**
+   * Returns the projection that is pushed down to the backend.
+   *
+   * <p>Only inclusions or exclusions of top level keys are pushed down, where {@code _id} can be
+   * excluded on an inclusion projection. Other projections are not supported yet, so all
+   * attributes are returned.
+   */
+  static Projection getProjection(@Nullable BsonDocument projection) {
+    if (projection == null || projection.isEmpty()) {
+      return Projection.all();
+    }
+    List<String> includedKeys = new ArrayList<>(projection.size() + 1);
+    List<String> excludedKeys = new ArrayList<>(projection.size());
+    boolean includeId = true;
+    for (Entry<?> entry : projection) {
+      String key = entry.getKey();
+      BsonValue<?> value = entry.getValue();
+      boolean included;
+      if (value.isNumber()) {
+        included = value.asNumber().longValue() != 0;
+      } else if (value.isBoolean()) {
+        included = value.asBoolean().getPrimitiveValue();
+      } else {
+        return Projection.all();
+      }
+      if (key.startsWith("$") || key.contains(".")) {
+        return Projection.all();
+      }
+      if (key.equals(Constants.ID)) {
+        includeId = included;
+      } else if (included) {
+        includedKeys.add(key);
+      } else {
+        excludedKeys.add(key);
+      }
+    }
+    if (!includedKeys.isEmpty()) {
+      if (!excludedKeys.isEmpty()) {
+        return Projection.all();
+      }
+      if (includeId) {
+        includedKeys.add(Constants.ID);
+      }
+      return Projection.include(includedKeys);
+    }
+    if (!includeId) {
+      excludedKeys.add(Constants.ID);
+    }
+    return Projection.exclude(excludedKeys);
   }
 
-  private void logFindCommand(FindArgument arg) {
+  static void logFindCommand(FindArgument arg) {
     if (LOGGER.isTraceEnabled()) {
       String collection = arg.getCollection();
       String filter = arg.getFilter().toString();
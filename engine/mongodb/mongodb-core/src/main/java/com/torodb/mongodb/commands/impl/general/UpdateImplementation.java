@@ -21,6 +21,8 @@ package com.torodb.mongodb.commands.impl.general;
 import com.eightkdata.mongowp.ErrorCode;
 import com.eightkdata.mongowp.Status;
 import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonDocument.Entry;
+import com.eightkdata.mongowp.bson.BsonValue;
 import com.eightkdata.mongowp.exceptions.CommandFailed;
 import com.eightkdata.mongowp.server.api.Command;
 import com.eightkdata.mongowp.server.api.Request;
@@ -31,9 +33,9 @@ import com.torodb.core.exceptions.UserWrappedException;
 import com.torodb.core.exceptions.user.UpdateException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
 import com.torodb.core.language.AttributeReference.Key;
 import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.Filter;
 import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
 import com.torodb.kvdocument.values.KvDocument;
@@ -47,13 +49,13 @@ import com.torodb.mongodb.commands.signatures.general.UpdateCommand.UpsertResult
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.WriteMongodTransaction;
 import com.torodb.mongodb.language.Constants;
+import com.torodb.mongodb.language.FilterTranslator;
 import com.torodb.mongodb.language.ObjectIdFactory;
 import com.torodb.mongodb.language.UpdateActionTranslator;
 import com.torodb.mongodb.language.update.SetDocumentUpdateAction;
 import com.torodb.mongodb.language.update.UpdateAction;
 import com.torodb.mongodb.language.update.UpdatedToroDocumentBuilder;
 import com.torodb.torod.IndexFieldInfo;
-import com.torodb.torod.SharedWriteTorodTransaction;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -100,28 +102,15 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
       for (UpdateStatement updateStatement : arg.getStatements()) {
         BsonDocument query = updateStatement.getQuery();
         UpdateAction updateAction = UpdateActionTranslator.translate(updateStatement.getUpdate());
-        Cursor<ToroDocument> candidatesCursor;
-        switch (query.size()) {
-          case 0: {
-            candidatesCursor = context.getTorodTransaction()
-                .findAll(req.getDatabase(), arg.getCollection())
-                .asDocCursor();
-            break;
-          }
-          case 1: {
-            try {
-              candidatesCursor = findByAttribute(context.getTorodTransaction(), req.getDatabase(),
-                  arg.getCollection(), query);
-            } catch (CommandFailed ex) {
-              return Status.from(ex);
-            }
-            break;
-          }
-          default: {
-            return Status.from(ErrorCode.COMMAND_FAILED,
-                "The given query is not supported right now");
-          }
+        Filter filter;
+        try {
+          filter = FilterTranslator.translate("update", query);
+        } catch (CommandFailed ex) {
+          return Status.from(ex);
         }
+        Cursor<ToroDocument> candidatesCursor = context.getTorodTransaction()
+            .findByFilter(req.getDatabase(), arg.getCollection(), filter)
+            .asDocCursor();
 
         if (candidatesCursor.hasNext()) {
           try {
@@ -160,8 +149,7 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
             toInsertCandidate = ((SetDocumentUpdateAction) updateAction).getNewValue();
           } else {
             toInsertCandidate =
-                update(updateAction,
-                    new ToroDocument(-1, (KvDocument) MongoWpConverter.translate(query)));
+                update(updateAction, new ToroDocument(-1, createUpsertSeed(query)));
           }
           if (!toInsertCandidate.containsKey(Constants.ID)) {
             KvDocument.Builder builder = new KvDocument.Builder();
@@ -212,6 +200,31 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
     }
   }
 
+  /**
+   * Creates the document an upsert update action is applied to, which only contains the top
+   * level equality predicates of the query. Operators and dotted paths are not copied.
+   */
+  static KvDocument createUpsertSeed(BsonDocument query) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (Entry<?> entry : query) {
+      String key = entry.getKey();
+      if (key.startsWith("$") || key.contains(".")) {
+        continue;
+      }
+      BsonValue<?> value = entry.getValue();
+      if (value.isDocument() && !value.asDocument().isEmpty()
+          && value.asDocument().getFirstEntry().getKey().startsWith("$")) {
+        BsonDocument operators = value.asDocument();
+        if (operators.size() != 1 || !operators.containsKey("$eq")) {
+          continue;
+        }
+        value = operators.get("$eq");
+      }
+      builder.putValue(key, MongoWpConverter.translate(value));
+    }
+    return builder.build();
+  }
+
   protected KvDocument update(UpdateAction updateAction, ToroDocument candidate) throws
       UpdateException {
     UpdatedToroDocumentBuilder builder =
@@ -220,12 +233,4 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
     return builder.build();
   }
 
-  private Cursor<ToroDocument> findByAttribute(SharedWriteTorodTransaction transaction, String db,
-      String col, BsonDocument query) throws CommandFailed, UserException {
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(query, refBuilder);
-
-    return transaction.findByAttRef(db, col, refBuilder.build(), kvValue).asDocCursor();
-  }
-
 }
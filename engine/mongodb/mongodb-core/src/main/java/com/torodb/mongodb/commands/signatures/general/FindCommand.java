@@ -578,7 +578,7 @@ public class FindCommand extends AbstractNotAliasableCommand<FindArgument, FindR
       return oplogReplay;
     }
 
-    boolean isNoCursorTimeout() {
+    public boolean isNoCursorTimeout() {
       return noCursorTimeout;
     }
 
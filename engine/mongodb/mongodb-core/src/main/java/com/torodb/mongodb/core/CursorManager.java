@@ -0,0 +1,480 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.core;
+
+import com.eightkdata.mongowp.ErrorCode;
+import com.eightkdata.mongowp.Status;
+import com.eightkdata.mongowp.bson.BsonArray;
+import com.eightkdata.mongowp.bson.BsonBinary;
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonDocument.Entry;
+import com.eightkdata.mongowp.bson.BsonValue;
+import com.eightkdata.mongowp.exceptions.CommandFailed;
+import com.eightkdata.mongowp.exceptions.MongoException;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.cursors.CursorId;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.torod.ReadOnlyTorodTransaction;
+import com.torodb.torod.TorodConnection;
+import com.torodb.torod.TorodServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ * Keeps the cursors whose results do not fit on a single batch open between requests.
+ *
+ * <p>Each cursor has its own {@link TorodConnection} and {@link ReadOnlyTorodTransaction}, so it
+ * keeps a connection of the backend read pool while it is open. Cursors are closed when they are
+ * exhausted, killed, their connection is closed or they have been idle for longer than
+ * {@link MongodServerConfig#getCursorTimeout()}.
+ */
+@ThreadSafe
+public class CursorManager {
+
+  private static final Logger LOGGER = LogManager.getLogger(CursorManager.class);
+  private static final long MIN_REAP_PERIOD_MILLIS = 1000;
+  private static final long MAX_REAP_PERIOD_MILLIS = 60 * 1000;
+  /**
+   * The size after which no more documents are added to a getMore reply, as MongoDB does.
+   */
+  private static final int MAX_REPLY_BYTES = MongoLayerConstants.MAX_BSON_DOCUMENT_SIZE;
+
+  private final TorodServer torodServer;
+  private final Clock clock;
+  private final ConcurrentToolsFactory concurrentToolsFactory;
+  private final long cursorTimeout;
+  private final int maxCursorsPerConnection;
+  private final int maxCursors;
+  private final ConcurrentMap<CursorId, ServerCursor> cursors = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Integer, AtomicInteger> cursorsByConnection =
+      new ConcurrentHashMap<>();
+  private final AtomicInteger openCursors = new AtomicInteger();
+  private final AtomicInteger timedOutCursors = new AtomicInteger();
+  private final SecureRandom cursorIdRandom = new SecureRandom();
+  private ScheduledExecutorService reaper;
+
+  @Inject
+  public CursorManager(TorodServer torodServer, MongodServerConfig config, Clock clock,
+      ConcurrentToolsFactory concurrentToolsFactory) {
+    this.torodServer = torodServer;
+    this.clock = clock;
+    this.concurrentToolsFactory = concurrentToolsFactory;
+    this.cursorTimeout = config.getCursorTimeout();
+    this.maxCursorsPerConnection = config.getMaxCursorsPerConnection();
+    this.maxCursors = config.getMaxCursors();
+  }
+
+  synchronized void start() {
+    if (reaper == null) {
+      long period = Math.max(MIN_REAP_PERIOD_MILLIS,
+          Math.min(cursorTimeout / 2, MAX_REAP_PERIOD_MILLIS));
+      reaper = concurrentToolsFactory.createScheduledExecutorServiceWithMaxThreads(
+          "cursor-reaper", 1);
+      reaper.scheduleWithFixedDelay(this::closeTimedOutCursors, period, period,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  synchronized void stop() {
+    if (reaper != null) {
+      reaper.shutdownNow();
+      reaper = null;
+    }
+    for (ServerCursor cursor : new ArrayList<>(cursors.values())) {
+      remove(cursor);
+    }
+  }
+
+  /**
+   * Opens a cursor on a new read only transaction and reads its first batch.
+   *
+   * <p>If there are more documents than the ones on the first batch (and the caller wants more),
+   * the cursor is kept open and its id is returned on the result. Otherwise it is closed and the
+   * returned cursor id is 0.
+   *
+   * @param connectionId    the connection that opens the cursor
+   * @param batchSize       the max number of documents on the first batch
+   * @param limit           the max number of documents the cursor will return or 0 if there is
+   *                        no limit
+   * @param wantMore        false if the cursor must be closed after the first batch
+   * @param noCursorTimeout true if the cursor should not be closed when it is idle
+   */
+  public Status<CursorResult<BsonDocument>> openCursor(int connectionId, String database,
+      String collection, int batchSize, long limit, boolean wantMore, boolean noCursorTimeout,
+      CursorOpener opener) {
+    boolean kept = false;
+    TorodConnection torodConnection = torodServer.openConnection();
+    ReadOnlyTorodTransaction transaction = null;
+    Cursor<BsonDocument> cursor = null;
+    try {
+      transaction = torodConnection.openReadOnlyTransaction();
+      cursor = opener.open(transaction);
+
+      int firstBatchSize = limit > 0 ? (int) Math.min(batchSize, limit) : batchSize;
+      List<BsonDocument> firstBatch = cursor.getNextBatch(firstBatchSize);
+      long remaining = limit > 0 ? limit - firstBatch.size() : Long.MAX_VALUE;
+
+      long cursorId = 0;
+      if (wantMore && remaining > 0 && cursor.hasNext()) {
+        if (!tryReserve(connectionId)) {
+          return Status.from(ErrorCode.COMMAND_FAILED, "Cannot keep the cursor open: there are "
+              + "already " + openCursors.get() + " open cursors (max " + maxCursors + ") and at "
+              + "most " + maxCursorsPerConnection + " are allowed per connection");
+        }
+        ServerCursor serverCursor;
+        do {
+          serverCursor = new ServerCursor(new CursorId(nextCursorId()), connectionId, database,
+              collection, torodConnection, transaction, cursor, remaining, noCursorTimeout,
+              firstBatch.size(), clock.millis());
+        } while (cursors.putIfAbsent(serverCursor.cursorId, serverCursor) != null);
+        cursorId = serverCursor.cursorId.getNumericId();
+        kept = true;
+      }
+      return Status.ok(CursorResult.create(database, collection, cursorId,
+          firstBatch.iterator()));
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
+    } finally {
+      if (!kept) {
+        close(cursor, transaction, torodConnection);
+      }
+    }
+  }
+
+  /**
+   * Reads the next batch of the given cursor, closing it if it is exhausted.
+   *
+   * <p>The batch is also limited to the documents that fit on a reply, so a batch size of 0 reads
+   * as many documents as fit on it. A negative batch size reads up to its absolute value and then
+   * closes the cursor.
+   *
+   * @param batchSize the numberToReturn of the request
+   * @return the read batch or null if there is no open cursor with the given id
+   * @throws MongoException if the cursor belongs to a different namespace or it is being used by
+   *                        another request
+   */
+  @Nullable
+  public CursorBatch getMore(String database, String collection, long cursorId, int batchSize)
+      throws MongoException {
+    CursorId id = new CursorId(cursorId);
+    ServerCursor cursor = cursors.get(id);
+    if (cursor == null) {
+      return null;
+    }
+    if (!cursor.database.equals(database) || !cursor.collection.equals(collection)) {
+      throw new MongoException(ErrorCode.UNAUTHORIZED, "Requested getMore on namespace '"
+          + database + '.' + collection + "', but cursor " + cursorId + " belongs to a different "
+          + "namespace");
+    }
+    if (!cursor.pinned.compareAndSet(false, true)) {
+      if (cursors.get(id) != cursor) {
+        return null;
+      }
+      throw new MongoException(ErrorCode.OPERATION_FAILED, "Cursor " + cursorId
+          + " is already in use");
+    }
+    if (cursors.get(id) != cursor) {
+      unpin(cursor);
+      return null;
+    }
+    boolean exhausted = true;
+    try {
+      long maxSize = batchSize == 0 ? cursor.remaining
+          : Math.min(Math.abs((long) batchSize), cursor.remaining);
+      int startingFrom = cursor.returned;
+      List<BsonDocument> batch = new ArrayList<>();
+      long replyBytes = 0;
+      while (batch.size() < maxSize && replyBytes < MAX_REPLY_BYTES && cursor.cursor.hasNext()) {
+        BsonDocument doc = cursor.cursor.next();
+        batch.add(doc);
+        replyBytes += estimateSize(doc);
+      }
+      cursor.returned += batch.size();
+      cursor.remaining -= batch.size();
+      cursor.lastUse = clock.millis();
+      exhausted = batchSize < 0 || cursor.remaining <= 0 || !cursor.cursor.hasNext();
+      return new CursorBatch(exhausted ? 0 : cursorId, startingFrom, batch);
+    } finally {
+      if (exhausted && cursors.remove(id, cursor)) {
+        release(cursor.connectionId);
+      }
+      unpin(cursor);
+    }
+  }
+
+  /**
+   * Closes the given cursor if it has been opened by the given connection.
+   *
+   * <p>OP_KILL_CURSORS does not carry a namespace, so the cursors of other connections cannot be
+   * checked and are not killed.
+   *
+   * @return true if there was an open cursor with the given id that has been closed
+   */
+  public boolean killCursor(int connectionId, long cursorId) {
+    ServerCursor cursor = cursors.get(new CursorId(cursorId));
+    if (cursor == null) {
+      return false;
+    }
+    if (cursor.connectionId != connectionId) {
+      LOGGER.debug("Connection {} tried to kill cursor {}, which belongs to another connection",
+          connectionId, cursorId);
+      return false;
+    }
+    return remove(cursor);
+  }
+
+  void closeCursors(int connectionId) {
+    for (ServerCursor cursor : cursors.values()) {
+      if (cursor.connectionId == connectionId) {
+        remove(cursor);
+      }
+    }
+  }
+
+  public int getOpenCursors() {
+    return openCursors.get();
+  }
+
+  public int getTimedOutCursors() {
+    return timedOutCursors.get();
+  }
+
+  public int getNoTimeoutCursors() {
+    return (int) cursors.values().stream().filter(cursor -> cursor.noTimeout).count();
+  }
+
+  public int getPinnedCursors() {
+    return (int) cursors.values().stream().filter(cursor -> cursor.pinned.get()).count();
+  }
+
+  private void closeTimedOutCursors() {
+    long now = clock.millis();
+    for (ServerCursor cursor : cursors.values()) {
+      if (!cursor.noTimeout && !cursor.pinned.get() && now - cursor.lastUse > cursorTimeout) {
+        if (remove(cursor)) {
+          timedOutCursors.incrementAndGet();
+          LOGGER.debug("Cursor {} on {}.{} closed after being idle for more than {} ms",
+              cursor.cursorId.getNumericId(), cursor.database, cursor.collection, cursorTimeout);
+        }
+      }
+    }
+  }
+
+  private long nextCursorId() {
+    long id;
+    do {
+      id = cursorIdRandom.nextLong();
+    } while (id == 0);
+    return id;
+  }
+
+  /**
+   * Estimates the size of the given value once it is encoded as BSON.
+   */
+  private static long estimateSize(BsonValue<?> value) {
+    switch (value.getType()) {
+      case DOCUMENT: {
+        long size = 5;
+        for (Entry<?> entry : (BsonDocument) value) {
+          size += 2 + entry.getKey().length() + estimateSize(entry.getValue());
+        }
+        return size;
+      }
+      case ARRAY: {
+        long size = 5;
+        int index = 0;
+        for (BsonValue<?> element : (BsonArray) value) {
+          size += 2 + Integer.toString(index++).length() + estimateSize(element);
+        }
+        return size;
+      }
+      case STRING:
+        return 5 + value.asString().getValue().length();
+      case BINARY:
+        return 5 + ((BsonBinary) value).getByteSource().getDelegate().sizeIfKnown().or(0L);
+      case DOUBLE:
+      case INT64:
+      case DATETIME:
+      case TIMESTAMP:
+        return 8;
+      case INT32:
+        return 4;
+      case OBJECT_ID:
+        return 12;
+      case BOOLEAN:
+        return 1;
+      case NULL:
+      case UNDEFINED:
+      case MIN:
+      case MAX:
+        return 0;
+      default:
+        return value.toString().length();
+    }
+  }
+
+  private boolean tryReserve(int connectionId) {
+    if (openCursors.incrementAndGet() > maxCursors) {
+      openCursors.decrementAndGet();
+      return false;
+    }
+    AtomicInteger connectionCursors = cursorsByConnection.computeIfAbsent(connectionId,
+        id -> new AtomicInteger());
+    if (connectionCursors.incrementAndGet() > maxCursorsPerConnection) {
+      connectionCursors.decrementAndGet();
+      openCursors.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  private void release(int connectionId) {
+    openCursors.decrementAndGet();
+    cursorsByConnection.computeIfPresent(connectionId,
+        (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+  }
+
+  /**
+   * Removes the given cursor from the open ones and closes it, unless it is pinned, in which case
+   * it is closed when it is unpinned.
+   */
+  private boolean remove(ServerCursor cursor) {
+    if (!cursors.remove(cursor.cursorId, cursor)) {
+      return false;
+    }
+    release(cursor.connectionId);
+    if (cursor.pinned.compareAndSet(false, true)) {
+      close(cursor.cursor, cursor.transaction, cursor.torodConnection);
+    }
+    return true;
+  }
+
+  private void unpin(ServerCursor cursor) {
+    cursor.pinned.set(false);
+    if (cursors.get(cursor.cursorId) != cursor && cursor.pinned.compareAndSet(false, true)) {
+      close(cursor.cursor, cursor.transaction, cursor.torodConnection);
+    }
+  }
+
+  private void close(@Nullable Cursor<BsonDocument> cursor,
+      @Nullable ReadOnlyTorodTransaction transaction, TorodConnection torodConnection) {
+    try {
+      if (cursor != null) {
+        cursor.close();
+      }
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Error while closing a cursor", ex);
+    }
+    try {
+      if (transaction != null) {
+        transaction.close();
+      }
+    } finally {
+      torodConnection.close();
+    }
+  }
+
+  @FunctionalInterface
+  public static interface CursorOpener {
+
+    public Cursor<BsonDocument> open(ReadOnlyTorodTransaction transaction) throws CommandFailed;
+  }
+
+  public static class CursorBatch {
+
+    private final long cursorId;
+    private final int startingFrom;
+    private final List<BsonDocument> docs;
+
+    CursorBatch(long cursorId, int startingFrom, List<BsonDocument> docs) {
+      this.cursorId = cursorId;
+      this.startingFrom = startingFrom;
+      this.docs = Collections.unmodifiableList(docs);
+    }
+
+    /**
+     * The id of the cursor or 0 if it has been closed after returning this batch.
+     */
+    public long getCursorId() {
+      return cursorId;
+    }
+
+    /**
+     * The number of documents the cursor returned before this batch.
+     */
+    public int getStartingFrom() {
+      return startingFrom;
+    }
+
+    public List<BsonDocument> getDocs() {
+      return docs;
+    }
+  }
+
+  private static class ServerCursor {
+
+    private final CursorId cursorId;
+    private final int connectionId;
+    private final String database;
+    private final String collection;
+    private final TorodConnection torodConnection;
+    private final ReadOnlyTorodTransaction transaction;
+    private final Cursor<BsonDocument> cursor;
+    private final boolean noTimeout;
+    private final AtomicBoolean pinned = new AtomicBoolean();
+    private volatile long remaining;
+    private volatile int returned;
+    private volatile long lastUse;
+
+    public ServerCursor(CursorId cursorId, int connectionId, String database, String collection,
+        TorodConnection torodConnection, ReadOnlyTorodTransaction transaction,
+        Cursor<BsonDocument> cursor, long remaining, boolean noTimeout, int returned,
+        long lastUse) {
+      this.cursorId = cursorId;
+      this.connectionId = connectionId;
+      this.database = database;
+      this.collection = collection;
+      this.torodConnection = torodConnection;
+      this.transaction = transaction;
+      this.cursor = cursor;
+      this.remaining = remaining;
+      this.noTimeout = noTimeout;
+      this.returned = returned;
+      this.lastUse = lastUse;
+    }
+  }
+
+}
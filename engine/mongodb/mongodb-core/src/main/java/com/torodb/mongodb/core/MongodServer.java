@@ -43,13 +43,16 @@ public class MongodServer extends IdleTorodbService {
   private final TorodServer torodServer;
   private final Cache<Integer, MongodConnection> openConnections;
   private final CommandsExecutorClassifier commandsExecutorClassifier;
+  private final CursorManager cursorManager;
 
   @Inject
   public MongodServer(@TorodbIdleService ThreadFactory threadFactory,
       TorodServer torodServer,
-      CommandsExecutorClassifier commandsExecutorClassifier) {
+      CommandsExecutorClassifier commandsExecutorClassifier,
+      CursorManager cursorManager) {
     super(threadFactory);
     this.torodServer = torodServer;
+    this.cursorManager = cursorManager;
     openConnections = CacheBuilder.newBuilder()
         .weakValues()
         .removalListener(this::onConnectionInvalidated)
@@ -72,19 +75,26 @@ public class MongodServer extends IdleTorodbService {
   protected void startUp() throws Exception {
     LOGGER.debug("Waiting for Torod server to be running");
     torodServer.awaitRunning();
+    cursorManager.start();
     LOGGER.debug("MongodServer ready to run");
   }
 
   @Override
   protected void shutDown() throws Exception {
     openConnections.invalidateAll();
+    cursorManager.stop();
   }
 
   public CommandsExecutorClassifier getCommandsExecutorClassifier() {
     return commandsExecutorClassifier;
   }
 
+  public CursorManager getCursorManager() {
+    return cursorManager;
+  }
+
   void onConnectionClose(MongodConnection connection) {
+    cursorManager.closeCursors(connection.getConnectionId());
     openConnections.invalidate(connection.getConnectionId());
   }
 
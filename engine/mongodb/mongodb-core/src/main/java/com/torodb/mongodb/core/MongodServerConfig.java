@@ -27,18 +27,75 @@ import com.google.common.net.HostAndPort;
  */
 public class MongodServerConfig implements MongoServerConfig {
 
+  public static final long DEFAULT_CURSOR_TIMEOUT = 10L * 60 * 1000;
+  public static final int DEFAULT_MAX_CURSORS_PER_CONNECTION = 8;
+  public static final int DEFAULT_MAX_CURSORS = 16;
+  public static final boolean DEFAULT_FAST_COUNT = false;
+
   private final HostAndPort hostAndPort;
+  private final long cursorTimeout;
+  private final int maxCursorsPerConnection;
+  private final int maxCursors;
+  private final boolean fastCount;
 
   public MongodServerConfig(HostAndPort hostAndPort) {
+    this(hostAndPort, DEFAULT_CURSOR_TIMEOUT, DEFAULT_MAX_CURSORS_PER_CONNECTION,
+        DEFAULT_MAX_CURSORS);
+  }
+
+  /**
+   * @param hostAndPort             the host and port this server listens on
+   * @param cursorTimeout           milliseconds an idle cursor is kept open
+   * @param maxCursorsPerConnection the max number of open cursors each connection can have
+   * @param maxCursors              the max number of open cursors. Each open cursor keeps a
+   *                                connection of the backend read pool
+   */
+  public MongodServerConfig(HostAndPort hostAndPort, long cursorTimeout,
+      int maxCursorsPerConnection, int maxCursors) {
+    this(hostAndPort, cursorTimeout, maxCursorsPerConnection, maxCursors, DEFAULT_FAST_COUNT);
+  }
+
+  /**
+   * @param fastCount true if counts without a query can be answered with an estimation that is
+   *                  calculated without reading the collection
+   * @see #MongodServerConfig(HostAndPort, long, int, int)
+   */
+  public MongodServerConfig(HostAndPort hostAndPort, long cursorTimeout,
+      int maxCursorsPerConnection, int maxCursors, boolean fastCount) {
     this.hostAndPort = hostAndPort;
+    this.cursorTimeout = cursorTimeout;
+    this.maxCursorsPerConnection = maxCursorsPerConnection;
+    this.maxCursors = maxCursors;
+    this.fastCount = fastCount;
     Preconditions.checkArgument(hostAndPort.hasPort(),
         "The host and port of a given mongod server must have a port");
+    Preconditions.checkArgument(cursorTimeout > 0, "The cursor timeout must be positive");
+    Preconditions.checkArgument(maxCursorsPerConnection >= 0,
+        "The max number of cursors per connection must be non negative");
+    Preconditions.checkArgument(maxCursors >= 0,
+        "The max number of cursors must be non negative");
   }
 
   public HostAndPort getHostAndPort() {
     return hostAndPort;
   }
 
+  public long getCursorTimeout() {
+    return cursorTimeout;
+  }
+
+  public int getMaxCursorsPerConnection() {
+    return maxCursorsPerConnection;
+  }
+
+  public int getMaxCursors() {
+    return maxCursors;
+  }
+
+  public boolean isFastCount() {
+    return fastCount;
+  }
+
   @Override
   public int getPort() {
     return hostAndPort.getPort();
@@ -24,6 +24,7 @@ import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.torodb.mongodb.commands.CommandImplementionsModule;
 import com.torodb.mongodb.commands.TorodbCommandsLibrary;
+import com.torodb.mongodb.core.CursorManager;
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.language.ObjectIdFactory;
@@ -63,6 +64,9 @@ public class MongoLayerModule extends PrivateModule {
 
     bind(MongodMetrics.class)
         .in(Singleton.class);
+
+    bind(CursorManager.class)
+        .in(Singleton.class);
   }
 
   @Provides
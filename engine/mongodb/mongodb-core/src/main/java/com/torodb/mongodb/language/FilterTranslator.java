@@ -0,0 +1,179 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.language;
+
+import com.eightkdata.mongowp.bson.BsonArray;
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonDocument.Entry;
+import com.eightkdata.mongowp.bson.BsonValue;
+import com.eightkdata.mongowp.exceptions.CommandFailed;
+import com.google.common.base.Splitter;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Filter.Operator;
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the filter document of a query to a {@link Filter}.
+ *
+ * <p>Equality and the {@code $eq}, {@code $gt}, {@code $gte}, {@code $lt}, {@code $lte},
+ * {@code $in}, {@code $exists}, {@code $and} and {@code $or} operators are supported. Comparisons
+ * with arrays are not supported yet.
+ */
+public class FilterTranslator {
+
+  private FilterTranslator() {
+  }
+
+  /**
+   * @param commandName the name of the command whose filter is translated, used to report errors
+   * @throws CommandFailed if the filter is not valid or it is not supported
+   */
+  public static Filter translate(String commandName, BsonDocument filter) throws CommandFailed {
+    List<Filter> conjuncts = new ArrayList<>(filter.size());
+    for (Entry<?> entry : filter) {
+      String key = entry.getKey();
+      if (key.startsWith("$")) {
+        conjuncts.add(translateLogicalOperator(commandName, key, entry.getValue()));
+      } else {
+        translateAttribute(commandName, createAttRef(key), entry.getValue(), conjuncts);
+      }
+    }
+    return Filter.and(conjuncts);
+  }
+
+  private static Filter translateLogicalOperator(String commandName, String operator,
+      BsonValue<?> value) throws CommandFailed {
+    if (!operator.equals("$and") && !operator.equals("$or")) {
+      throw new CommandFailed(commandName, "The operator " + operator
+          + " is not supported right now");
+    }
+    if (!value.isArray() || value.asArray().size() == 0) {
+      throw new CommandFailed(commandName, operator + " must be a nonempty array");
+    }
+    List<Filter> children = new ArrayList<>();
+    for (BsonValue<?> child : value.asArray()) {
+      if (!child.isDocument()) {
+        throw new CommandFailed(commandName, operator + " entries need to be full objects");
+      }
+      children.add(translate(commandName, child.asDocument()));
+    }
+    if (operator.equals("$and")) {
+      return Filter.and(children);
+    } else {
+      return Filter.or(children);
+    }
+  }
+
+  private static void translateAttribute(String commandName, AttributeReference attRef,
+      BsonValue<?> value, List<Filter> conjuncts) throws CommandFailed {
+    if (!value.isDocument()) {
+      conjuncts.add(Filter.eq(attRef, translateValue(commandName, value)));
+      return;
+    }
+    BsonDocument doc = value.asDocument();
+    if (doc.isEmpty()) {
+      throw new CommandFailed(commandName, "Filters with empty documents are not supported right "
+          + "now");
+    }
+    if (!doc.getFirstEntry().getKey().startsWith("$")) {
+      //subdocuments are compared attribute by attribute
+      for (Entry<?> entry : doc) {
+        if (entry.getKey().startsWith("$")) {
+          throw new CommandFailed(commandName, "unknown operator: " + entry.getKey());
+        }
+        translateAttribute(commandName, attRef.append(createAttRef(entry.getKey()).getKeys()),
+            entry.getValue(), conjuncts);
+      }
+      return;
+    }
+    for (Entry<?> entry : doc) {
+      conjuncts.add(translateOperator(commandName, attRef, entry.getKey(), entry.getValue()));
+    }
+  }
+
+  private static Filter translateOperator(String commandName, AttributeReference attRef,
+      String operator, BsonValue<?> value) throws CommandFailed {
+    switch (operator) {
+      case "$eq":
+        return Filter.eq(attRef, translateValue(commandName, value));
+      case "$gt":
+        return Filter.compare(attRef, Operator.GT, translateValue(commandName, value));
+      case "$gte":
+        return Filter.compare(attRef, Operator.GTE, translateValue(commandName, value));
+      case "$lt":
+        return Filter.compare(attRef, Operator.LT, translateValue(commandName, value));
+      case "$lte":
+        return Filter.compare(attRef, Operator.LTE, translateValue(commandName, value));
+      case "$in": {
+        if (!value.isArray()) {
+          throw new CommandFailed(commandName, "$in needs an array");
+        }
+        BsonArray array = value.asArray();
+        List<KvValue<?>> values = new ArrayList<>(array.size());
+        for (BsonValue<?> element : array) {
+          values.add(translateValue(commandName, element));
+        }
+        return Filter.in(attRef, values);
+      }
+      case "$exists":
+        return Filter.exists(attRef, isTrue(value));
+      default:
+        if (!operator.startsWith("$")) {
+          throw new CommandFailed(commandName, "unknown operator: " + operator);
+        }
+        throw new CommandFailed(commandName, "The operator " + operator
+            + " is not supported right now");
+    }
+  }
+
+  private static KvValue<?> translateValue(String commandName, BsonValue<?> value)
+      throws CommandFailed {
+    if (value.isArray()) {
+      throw new CommandFailed(commandName, "Filters with arrays are not supported right now");
+    }
+    if (value.isDocument()) {
+      throw new CommandFailed(commandName, "Comparisons with documents are not supported right "
+          + "now");
+    }
+    return MongoWpConverter.translate(value);
+  }
+
+  private static boolean isTrue(BsonValue<?> value) {
+    if (value.isBoolean()) {
+      return value.asBoolean().getPrimitiveValue();
+    }
+    if (value.isNumber()) {
+      return value.asNumber().doubleValue() != 0;
+    }
+    return true;
+  }
+
+  private static AttributeReference createAttRef(String key) {
+    AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+    for (String subKey : Splitter.on('.').split(key)) {
+      refBuilder.addObjectKey(subKey);
+    }
+    return refBuilder.build();
+  }
+
+}
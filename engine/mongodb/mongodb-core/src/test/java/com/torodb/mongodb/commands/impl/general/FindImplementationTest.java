@@ -0,0 +1,64 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.general;
+
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newBoolean;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.eightkdata.mongowp.utils.BsonDocumentBuilder;
+import org.junit.Test;
+
+public class FindImplementationTest {
+
+  @Test
+  public void testIncludedKeys() {
+    assertEquals("[a, _id]",
+        FindImplementation.getProjection(newDocument("a", newInt(1))).toString());
+    assertEquals("[a]", FindImplementation.getProjection(new BsonDocumentBuilder()
+        .appendUnsafe("a", newBoolean(true))
+        .appendUnsafe("_id", newInt(0))
+        .build()).toString());
+  }
+
+  @Test
+  public void testExcludedKeys() {
+    assertEquals("all but [_id]",
+        FindImplementation.getProjection(newDocument("_id", newInt(0))).toString());
+    assertEquals("all but [a, _id]", FindImplementation.getProjection(new BsonDocumentBuilder()
+        .appendUnsafe("_id", newBoolean(false))
+        .appendUnsafe("a", newInt(0))
+        .build()).toString());
+    assertTrue(FindImplementation.getProjection(newDocument("_id", newInt(1))).isAll());
+  }
+
+  @Test
+  public void testUnsupported() {
+    assertTrue(FindImplementation.getProjection(new BsonDocumentBuilder()
+        .appendUnsafe("a", newInt(1))
+        .appendUnsafe("b", newInt(0))
+        .build()).isAll());
+    assertTrue(FindImplementation.getProjection(newDocument("a.b", newInt(1))).isAll());
+    assertTrue(FindImplementation.getProjection(newDocument("a", newDocument("$slice", newInt(1))))
+        .isAll());
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.general;
+
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newArray;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newString;
+import static org.junit.Assert.assertEquals;
+
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonValue;
+import com.eightkdata.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class UpdateImplementationTest {
+
+  @Test
+  public void testUpsertSeedWithEqualities() {
+    BsonDocument query = new BsonDocumentBuilder()
+        .appendUnsafe("a", newInt(1))
+        .appendUnsafe("b", newDocument("c", newString("x")))
+        .build();
+
+    assertEquals(new KvDocument.Builder()
+        .putValue("a", KvInteger.of(1))
+        .putValue("b", new KvDocument.Builder()
+            .putValue("c", new StringKvString("x"))
+            .build())
+        .build(), UpdateImplementation.createUpsertSeed(query));
+  }
+
+  @Test
+  public void testUpsertSeedWithOperators() {
+    BsonDocument query = new BsonDocumentBuilder()
+        .appendUnsafe("a", newInt(1))
+        .appendUnsafe("b", newDocument("$gt", newInt(2)))
+        .appendUnsafe("c", newDocument("$eq", newInt(3)))
+        .appendUnsafe("d", newDocument("$in",
+            newArray(Arrays.<BsonValue<?>>asList(newInt(4), newInt(5)))))
+        .appendUnsafe("e.f", newInt(6))
+        .appendUnsafe("$or", newArray(Arrays.<BsonValue<?>>asList(
+            newDocument("g", newInt(7)),
+            newDocument("h", newInt(8)))))
+        .appendUnsafe("$and", newArray(Arrays.<BsonValue<?>>asList(
+            newDocument("i", newDocument("$lt", newInt(9))))))
+        .build();
+
+    assertEquals(new KvDocument.Builder()
+        .putValue("a", KvInteger.of(1))
+        .putValue("c", KvInteger.of(3))
+        .build(), UpdateImplementation.createUpsertSeed(query));
+  }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.core;
+
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.eightkdata.mongowp.ErrorCode;
+import com.eightkdata.mongowp.Status;
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.exceptions.MongoException;
+import com.eightkdata.mongowp.utils.BsonDocumentBuilder;
+import com.google.common.base.Strings;
+import com.google.common.net.HostAndPort;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.cursors.IteratorCursor;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.core.CursorManager.CursorBatch;
+import com.torodb.torod.ReadOnlyTorodTransaction;
+import com.torodb.torod.TorodConnection;
+import com.torodb.torod.TorodServer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorManagerTest {
+
+  private static final String DB = "db";
+  private static final String COL = "col";
+  private static final int CONNECTION_ID = 1;
+
+  private CursorManager cursorManager;
+  private TorodConnection torodConnection;
+
+  @Before
+  public void setUp() {
+    TorodServer torodServer = mock(TorodServer.class);
+    torodConnection = mock(TorodConnection.class);
+    given(torodServer.openConnection()).willReturn(torodConnection);
+    given(torodConnection.openReadOnlyTransaction())
+        .willReturn(mock(ReadOnlyTorodTransaction.class));
+
+    MongodServerConfig config = new MongodServerConfig(HostAndPort.fromParts("localhost", 27017),
+        MongodServerConfig.DEFAULT_CURSOR_TIMEOUT, 8, 16);
+    cursorManager = new CursorManager(torodServer, config, Clock.systemUTC(),
+        mock(ConcurrentToolsFactory.class));
+  }
+
+  @Test
+  public void testGetMoreWithoutBatchSize() throws MongoException {
+    long cursorId = openCursor(createDocs(1000, 0));
+
+    CursorBatch batch = cursorManager.getMore(DB, COL, cursorId, 0);
+
+    assertEquals(999, batch.getDocs().size());
+    assertEquals(1, batch.getStartingFrom());
+    assertEquals(0, batch.getCursorId());
+    verify(torodConnection).close();
+  }
+
+  @Test
+  public void testGetMoreWithoutBatchSizeIsLimitedByReplySize() throws MongoException {
+    int docSize = 1024 * 1024;
+    long cursorId = openCursor(createDocs(20, docSize));
+
+    CursorBatch batch = cursorManager.getMore(DB, COL, cursorId, 0);
+
+    assertEquals(MongoLayerConstants.MAX_BSON_DOCUMENT_SIZE / docSize, batch.getDocs().size());
+    assertEquals(cursorId, batch.getCursorId());
+
+    batch = cursorManager.getMore(DB, COL, cursorId, 0);
+    assertEquals(20 - 1 - MongoLayerConstants.MAX_BSON_DOCUMENT_SIZE / docSize,
+        batch.getDocs().size());
+    assertEquals(0, batch.getCursorId());
+  }
+
+  @Test
+  public void testGetMoreWithNegativeBatchSize() throws MongoException {
+    long cursorId = openCursor(createDocs(100, 0));
+
+    CursorBatch batch = cursorManager.getMore(DB, COL, cursorId, -5);
+
+    assertEquals(5, batch.getDocs().size());
+    assertEquals(0, batch.getCursorId());
+    verify(torodConnection).close();
+    assertNull(cursorManager.getMore(DB, COL, cursorId, 5));
+  }
+
+  @Test
+  public void testGetMoreOnDifferentNamespace() {
+    long cursorId = openCursor(createDocs(100, 0));
+
+    try {
+      cursorManager.getMore(DB, "other", cursorId, 5);
+      fail("A getMore on a different namespace must fail");
+    } catch (MongoException ex) {
+      assertEquals(ErrorCode.UNAUTHORIZED, ex.getErrorCode());
+    }
+  }
+
+  @Test
+  public void testGetMoreOnPinnedCursor() throws MongoException {
+    List<Long> cursorIds = new ArrayList<>();
+    List<ErrorCode> errors = new ArrayList<>();
+    //the cursor tries to read itself while it is pinned by the first getMore
+    Cursor<BsonDocument> cursor = new IteratorCursor<BsonDocument>(createDocs(100, 0).iterator()) {
+      @Override
+      public BsonDocument next() {
+        if (!cursorIds.isEmpty() && errors.isEmpty()) {
+          try {
+            cursorManager.getMore(DB, COL, cursorIds.get(0), 1);
+          } catch (MongoException ex) {
+            errors.add(ex.getErrorCode());
+          }
+        }
+        return super.next();
+      }
+    };
+    cursorIds.add(openCursor(cursor));
+
+    CursorBatch batch = cursorManager.getMore(DB, COL, cursorIds.get(0), 10);
+
+    assertEquals(10, batch.getDocs().size());
+    assertEquals(1, errors.size());
+    assertEquals(ErrorCode.OPERATION_FAILED, errors.get(0));
+    assertEquals(10, cursorManager.getMore(DB, COL, cursorIds.get(0), 10).getDocs().size());
+  }
+
+  @Test
+  public void testKillCursor() {
+    long cursorId = openCursor(createDocs(100, 0));
+
+    assertEquals(false, cursorManager.killCursor(CONNECTION_ID + 1, cursorId));
+    assertEquals(1, cursorManager.getOpenCursors());
+    assertTrue(cursorManager.killCursor(CONNECTION_ID, cursorId));
+    assertEquals(0, cursorManager.getOpenCursors());
+    verify(torodConnection, times(1)).close();
+  }
+
+  @Test
+  public void testCursorIdsAreNotSequential() {
+    long first = openCursor(createDocs(100, 0));
+    long second = openCursor(createDocs(100, 0));
+
+    assertNotEquals(0, first);
+    assertNotEquals(0, second);
+    assertNotEquals(first + 1, second);
+  }
+
+  private long openCursor(List<BsonDocument> docs) {
+    return openCursor(new IteratorCursor<>(docs.iterator()));
+  }
+
+  private long openCursor(Cursor<BsonDocument> cursor) {
+    Status<CursorResult<BsonDocument>> status = cursorManager.openCursor(CONNECTION_ID, DB, COL,
+        1, 0, true, false, trans -> cursor);
+    assertTrue(status.isOk());
+    return status.getResult().getCursorId();
+  }
+
+  private List<BsonDocument> createDocs(int count, int stringSize) {
+    String string = Strings.repeat("a", stringSize);
+    List<BsonDocument> docs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      docs.add(new BsonDocumentBuilder()
+          .appendUnsafe("_id", newInt(i))
+          .appendUnsafe("s", newString(string))
+          .build());
+    }
+    return docs;
+  }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.language;
+
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.EMPTY_DOC;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newArray;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newBoolean;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.eightkdata.mongowp.bson.utils.DefaultBsonValues.newString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonValue;
+import com.eightkdata.mongowp.exceptions.CommandFailed;
+import com.eightkdata.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Filter.CompareFilter;
+import com.torodb.core.language.Filter.ExistsFilter;
+import com.torodb.core.language.Filter.Operator;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class FilterTranslatorTest {
+
+  private static final String COMMAND = "find";
+
+  @Test
+  public void testEmpty() throws CommandFailed {
+    assertTrue(FilterTranslator.translate(COMMAND, EMPTY_DOC).isAll());
+  }
+
+  @Test
+  public void testEquality() throws CommandFailed {
+    Filter filter = FilterTranslator.translate(COMMAND, newDocument("a", newInt(1)));
+
+    assertTrue(filter instanceof CompareFilter);
+    CompareFilter compare = (CompareFilter) filter;
+    assertEquals("a", compare.getAttributeReference().toString());
+    assertEquals(Operator.EQ, compare.getOperator());
+    assertEquals("1", compare.getValue().toString());
+  }
+
+  @Test
+  public void testCompareOperators() throws CommandFailed {
+    BsonDocument operators = new BsonDocumentBuilder()
+        .appendUnsafe("$eq", newInt(1))
+        .appendUnsafe("$gt", newInt(2))
+        .appendUnsafe("$gte", newInt(3))
+        .appendUnsafe("$lt", newInt(4))
+        .appendUnsafe("$lte", newInt(5))
+        .build();
+
+    assertEquals("(a = 1 and a > 2 and a >= 3 and a < 4 and a <= 5)",
+        translate(newDocument("a", operators)));
+  }
+
+  @Test
+  public void testSeveralAttributes() throws CommandFailed {
+    BsonDocument filter = new BsonDocumentBuilder()
+        .appendUnsafe("a", newInt(1))
+        .appendUnsafe("b", newString("x"))
+        .build();
+
+    assertEquals("(a = 1 and b = x)", translate(filter));
+  }
+
+  @Test
+  public void testDottedKeysAndSubdocuments() throws CommandFailed {
+    assertEquals("a.b.c = 1", translate(newDocument("a.b.c", newInt(1))));
+    assertEquals("a.b.c = 1",
+        translate(newDocument("a", newDocument("b", newDocument("c", newInt(1))))));
+    assertEquals("a.b.c > 1",
+        translate(newDocument("a", newDocument("b.c", newDocument("$gt", newInt(1))))));
+  }
+
+  @Test
+  public void testIn() throws CommandFailed {
+    BsonDocument filter = newDocument("a", newDocument("$in",
+        newArray(Arrays.<BsonValue<?>>asList(newInt(1), newInt(2)))));
+
+    assertEquals("a in [1, 2]", translate(filter));
+  }
+
+  @Test
+  public void testExists() throws CommandFailed {
+    assertExists(newBoolean(true), true);
+    assertExists(newBoolean(false), false);
+    assertExists(newInt(1), true);
+    assertExists(newInt(0), false);
+    assertExists(newString("false"), true);
+  }
+
+  @Test
+  public void testAndOr() throws CommandFailed {
+    BsonDocument or = newDocument("$or", newArray(Arrays.<BsonValue<?>>asList(
+        newDocument("a", newInt(1)),
+        newDocument("b", newDocument("$exists", newBoolean(false))))));
+    BsonDocument and = newDocument("$and", newArray(Arrays.<BsonValue<?>>asList(
+        or,
+        newDocument("c", newDocument("$lt", newInt(3))))));
+
+    assertEquals("((a = 1 or not exists b) and c < 3)", translate(and));
+  }
+
+  @Test
+  public void testUnsupported() {
+    assertFails(newDocument("$nor", newArray(Arrays.<BsonValue<?>>asList(EMPTY_DOC))));
+    assertFails(newDocument("$and", newArray(Arrays.<BsonValue<?>>asList())));
+    assertFails(newDocument("$or", newInt(1)));
+    assertFails(newDocument("$or", newArray(Arrays.<BsonValue<?>>asList(newInt(1)))));
+    assertFails(newDocument("a", newDocument("$ne", newInt(1))));
+    assertFails(newDocument("a", newDocument("$in", newInt(1))));
+    assertFails(newDocument("a", EMPTY_DOC));
+    assertFails(newDocument("a", newArray(Arrays.<BsonValue<?>>asList(newInt(1)))));
+    assertFails(newDocument("a", newDocument("$eq", newDocument("b", newInt(1)))));
+    assertFails(newDocument("a", new BsonDocumentBuilder()
+        .appendUnsafe("b", newInt(1))
+        .appendUnsafe("$gt", newInt(1))
+        .build()));
+    assertFails(newDocument("a", new BsonDocumentBuilder()
+        .appendUnsafe("$gt", newInt(1))
+        .appendUnsafe("b", newInt(1))
+        .build()));
+  }
+
+  private static String translate(BsonDocument filter) throws CommandFailed {
+    return FilterTranslator.translate(COMMAND, filter).toString();
+  }
+
+  private static void assertExists(BsonValue<?> value, boolean expected) throws CommandFailed {
+    Filter filter = FilterTranslator.translate(COMMAND,
+        newDocument("a", newDocument("$exists", value)));
+
+    assertTrue(filter instanceof ExistsFilter);
+    assertEquals(expected, ((ExistsFilter) filter).isExists());
+  }
+
+  private static void assertFails(BsonDocument filter) {
+    try {
+      FilterTranslator.translate(COMMAND, filter);
+      fail("The filter " + filter + " should not be supported");
+    } catch (CommandFailed ex) {
+      //expected
+    }
+  }
+
+}
@@ -36,12 +36,18 @@ import com.eightkdata.mongowp.utils.BsonDocumentBuilder;
 import com.eightkdata.mongowp.utils.BsonReaderTool;
 import com.google.common.base.Preconditions;
 import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.retrier.Retrier;
 import com.torodb.core.retrier.Retrier.Hint;
 import com.torodb.core.retrier.RetrierAbortException;
 import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.services.IdleTorodbService;
+import com.torodb.core.transaction.RollbackException;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.annotations.Locked;
 import com.torodb.mongodb.commands.signatures.general.DeleteCommand;
 import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteArgument;
@@ -61,6 +67,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.Closeable;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -76,9 +83,13 @@ public class OplogManager extends IdleTorodbService {
 
   private static final Logger LOGGER = LogManager.getLogger(OplogManager.class);
   private static final String KEY = "lastAppliedOplogEntry";
+  private static final String HASH_KEY = "hash";
+  private static final String OPTIME_I_KEY = "optime_i";
+  private static final String OPTIME_T_KEY = "optime_t";
   private static final BsonDocument DOC_QUERY = EMPTY_DOC;
   private static final String OPLOG_DB = "torodb";
   private static final String OPLOG_COL = "oplog.replication";
+  private static final MetaInfoKey CHECKPOINT_KEY = () -> "repl.lastAppliedOplogEntry";
 
   private final ReadWriteLock lock = new ReentrantReadWriteLock();
   private long lastAppliedHash;
@@ -86,14 +97,17 @@ public class OplogManager extends IdleTorodbService {
   private final MongodConnection connection;
   private final Retrier retrier;
   private final ReplMetrics metrics;
+  private final CheckpointMode checkpointMode;
 
   @Inject
   public OplogManager(@TorodbIdleService ThreadFactory threadFactory,
-      MongodServer mongodServer, Retrier retrier, ReplMetrics metrics) {
+      MongodServer mongodServer, Retrier retrier, ReplMetrics metrics,
+      CheckpointMode checkpointMode) {
     super(threadFactory);
     this.connection = mongodServer.openConnection();
     this.retrier = retrier;
     this.metrics = metrics;
+    this.checkpointMode = checkpointMode;
   }
 
   public ReadOplogTransaction createReadTransaction() {
@@ -106,6 +120,27 @@ public class OplogManager extends IdleTorodbService {
     return new WriteOplogTransaction(lock.writeLock());
   }
 
+  /**
+   * Returns true iff the checkpoint can be written with
+   * {@link #writeCheckpoint(WriteMongodTransaction, long, OpTime)} on the transaction that
+   * applies the last oplog operations.
+   */
+  public boolean isTransactionalCheckpoint() {
+    return checkpointMode == CheckpointMode.META_INFO;
+  }
+
+  /**
+   * Writes the given checkpoint on the given transaction.
+   *
+   * <p>Once the transaction is committed, the new value must be notified with
+   * {@link WriteOplogTransaction#notifyStoredValue(long, OpTime)}.
+   */
+  public void writeCheckpoint(WriteMongodTransaction transaction, long hash, OpTime opTime) {
+    Preconditions.checkState(isTransactionalCheckpoint(), "The checkpoint mode is "
+        + checkpointMode);
+    transaction.getTorodTransaction().writeMetaInfo(CHECKPOINT_KEY, toCheckpoint(hash, opTime));
+  }
+
   private void notifyLastAppliedOpTimeChange() {
     metrics.getLastOpTimeApplied().setValue(lastAppliedOpTime.toString());
   }
@@ -133,43 +168,38 @@ public class OplogManager extends IdleTorodbService {
   private void storeState(long hash, OpTime opTime) throws OplogManagerPersistException {
     Preconditions.checkState(isRunning(), "The service is not running");
 
+    if (checkpointMode == CheckpointMode.META_INFO) {
+      storeMetaInfoState(hash, opTime);
+    } else {
+      storeCollectionState(hash, opTime);
+    }
+  }
+
+  @Locked(exclusive = true)
+  private void storeMetaInfoState(long hash, OpTime opTime) throws OplogManagerPersistException {
+    KvDocument checkpoint = toCheckpoint(hash, opTime);
     try {
       retrier.retry(() -> {
         try (WriteMongodTransaction transaction = connection.openWriteTransaction()) {
-          Status<Long> deleteResult = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              DeleteCommand.INSTANCE,
-              new DeleteArgument.Builder(OPLOG_COL)
-                  .addStatement(new DeleteStatement(DOC_QUERY, false))
-                  .build()
-          );
-          if (!deleteResult.isOk()) {
-            throw new RetrierAbortException(new MongoException(deleteResult));
-          }
-          //TODO: This should be stored as timestamp once TORODB-189 is resolved
-          long optimeAsLong = opTime.toOldBson().getMillisFromUnix();
+          transaction.getTorodTransaction().writeMetaInfo(CHECKPOINT_KEY, checkpoint);
+          transaction.commit();
+          return Empty.getInstance();
+        } catch (UserException ex) {
+          throw new RetrierAbortException(ex);
+        }
+      }, Hint.INFREQUENT_ROLLBACK);
+    } catch (RetrierGiveUpException ex) {
+      throw new OplogManagerPersistException(ex);
+    }
+  }
 
-          Status<InsertResult> insertResult = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              InsertCommand.INSTANCE,
-              new InsertArgument.Builder(OPLOG_COL)
-                  .addDocument(
-                      new BsonDocumentBuilder()
-                          .appendUnsafe(KEY, new BsonDocumentBuilder()
-                              .appendUnsafe("hash", newLong(hash))
-                              .appendUnsafe("optime_i", DefaultBsonValues.newLong(optimeAsLong))
-                              .appendUnsafe("optime_t", newLong(opTime.getTerm()))
-                              .build()
-                          ).build()
-                  ).build()
-          );
-          if (insertResult.isOk() && insertResult.getResult().getN() != 1) {
-            throw new RetrierAbortException(new MongoException(ErrorCode.OPERATION_FAILED,
-                "More than one element inserted"));
-          }
-          if (!insertResult.isOk()) {
-            throw new RetrierAbortException(new MongoException(insertResult));
-          }
+  @Locked(exclusive = true)
+  private void storeCollectionState(long hash, OpTime opTime)
+      throws OplogManagerPersistException {
+    try {
+      retrier.retry(() -> {
+        try (WriteMongodTransaction transaction = connection.openWriteTransaction()) {
+          writeCollectionState(transaction, hash, opTime);
           transaction.commit();
           return Empty.getInstance();
         } catch (UserException ex) {
@@ -181,11 +211,105 @@ public class OplogManager extends IdleTorodbService {
     }
   }
 
+  /**
+   * Moves a checkpoint stored on the meta info to the collection, so the meta info is not read
+   * again until a new checkpoint is stored there.
+   */
   @Locked(exclusive = true)
-  private void loadState() throws OplogManagerPersistException {
+  private void moveMetaInfoStateToCollection(long hash, OpTime opTime)
+      throws OplogManagerPersistException {
     try {
       retrier.retry(() -> {
+        try (WriteMongodTransaction transaction = connection.openWriteTransaction()) {
+          writeCollectionState(transaction, hash, opTime);
+          transaction.getTorodTransaction().writeMetaInfo(CHECKPOINT_KEY, KvNull.getInstance());
+          transaction.commit();
+          return Empty.getInstance();
+        } catch (UserException ex) {
+          throw new RetrierAbortException(ex);
+        }
+      }, Hint.INFREQUENT_ROLLBACK);
+    } catch (RetrierGiveUpException ex) {
+      throw new OplogManagerPersistException(ex);
+    }
+  }
+
+  private void writeCollectionState(WriteMongodTransaction transaction, long hash, OpTime opTime)
+      throws RollbackException {
+    Status<Long> deleteResult = transaction.execute(
+        new Request(OPLOG_DB, null, true, null),
+        DeleteCommand.INSTANCE,
+        new DeleteArgument.Builder(OPLOG_COL)
+            .addStatement(new DeleteStatement(DOC_QUERY, false))
+            .build()
+    );
+    if (!deleteResult.isOk()) {
+      throw new RetrierAbortException(new MongoException(deleteResult));
+    }
+    //TODO: This should be stored as timestamp once TORODB-189 is resolved
+    long optimeAsLong = opTime.toOldBson().getMillisFromUnix();
+
+    Status<InsertResult> insertResult = transaction.execute(
+        new Request(OPLOG_DB, null, true, null),
+        InsertCommand.INSTANCE,
+        new InsertArgument.Builder(OPLOG_COL)
+            .addDocument(
+                new BsonDocumentBuilder()
+                    .appendUnsafe(KEY, new BsonDocumentBuilder()
+                        .appendUnsafe(HASH_KEY, newLong(hash))
+                        .appendUnsafe(OPTIME_I_KEY, DefaultBsonValues.newLong(optimeAsLong))
+                        .appendUnsafe(OPTIME_T_KEY, newLong(opTime.getTerm()))
+                        .build()
+                    ).build()
+            ).build()
+    );
+    if (insertResult.isOk() && insertResult.getResult().getN() != 1) {
+      throw new RetrierAbortException(new MongoException(ErrorCode.OPERATION_FAILED,
+          "More than one element inserted"));
+    }
+    if (!insertResult.isOk()) {
+      throw new RetrierAbortException(new MongoException(insertResult));
+    }
+  }
+
+  /**
+   * Loads the last stored checkpoint.
+   *
+   * <p>A checkpoint stored on the meta info is always newer than the one stored on the collection,
+   * as the meta info checkpoint is cleared when it is moved to the collection. This way the mode
+   * can be changed between executions without resuming from a stale checkpoint.
+   */
+  @Locked(exclusive = true)
+  private void loadState() throws OplogManagerPersistException {
+    boolean fromMetaInfo = loadStoredState();
+    if (fromMetaInfo && checkpointMode == CheckpointMode.COLLECTION) {
+      moveMetaInfoStateToCollection(lastAppliedHash, lastAppliedOpTime);
+    }
+    notifyLastAppliedOpTimeChange();
+  }
+
+  /**
+   * Reads the last stored checkpoint.
+   *
+   * @return true iff the checkpoint has been read from the meta info
+   */
+  @Locked(exclusive = true)
+  private boolean loadStoredState() throws OplogManagerPersistException {
+    try {
+      return retrier.retry(() -> {
         try (ReadOnlyMongodTransaction transaction = connection.openReadOnlyTransaction()) {
+          Optional<KvValue<?>> checkpoint = transaction.getTorodTransaction()
+              .readMetaInfo(CHECKPOINT_KEY);
+          if (checkpoint.isPresent() && checkpoint.get() instanceof KvDocument) {
+            KvDocument checkpointDoc = (KvDocument) checkpoint.get();
+            lastAppliedHash = getLong(checkpointDoc, HASH_KEY);
+            lastAppliedOpTime = toOpTime(
+                getLong(checkpointDoc, OPTIME_I_KEY),
+                getLong(checkpointDoc, OPTIME_T_KEY)
+            );
+            return true;
+          }
+
           Status<FindResult> status = transaction.execute(
               new Request(OPLOG_DB, null, true, null),
               FindCommand.INSTANCE,
@@ -206,18 +330,14 @@ public class OplogManager extends IdleTorodbService {
             BsonDocument doc = batch.next();
 
             BsonDocument subDoc = BsonReaderTool.getDocument(doc, KEY);
-            lastAppliedHash = BsonReaderTool.getLong(subDoc, "hash");
+            lastAppliedHash = BsonReaderTool.getLong(subDoc, HASH_KEY);
 
-            long optimeAsLong = BsonReaderTool.getLong(subDoc, "optime_i");
-            BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
-
-            lastAppliedOpTime = new OpTime(
-                TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
-                BsonReaderTool.getLong(subDoc, "optime_t")
+            lastAppliedOpTime = toOpTime(
+                BsonReaderTool.getLong(subDoc, OPTIME_I_KEY),
+                BsonReaderTool.getLong(subDoc, OPTIME_T_KEY)
             );
           }
-          notifyLastAppliedOpTimeChange();
-          return Empty.getInstance();
+          return false;
         }
       }, Hint.INFREQUENT_ROLLBACK);
     } catch (RetrierGiveUpException ex) {
@@ -225,6 +345,53 @@ public class OplogManager extends IdleTorodbService {
     }
   }
 
+  private static KvDocument toCheckpoint(long hash, OpTime opTime) {
+    //TODO: This should be stored as timestamp once TORODB-189 is resolved
+    return new KvDocument.Builder()
+        .putValue(HASH_KEY, hash)
+        .putValue(OPTIME_I_KEY, opTime.toOldBson().getMillisFromUnix())
+        .putValue(OPTIME_T_KEY, opTime.getTerm())
+        .build();
+  }
+
+  private static long getLong(KvDocument doc, String key) {
+    KvValue<?> value = doc.get(key);
+    if (!(value instanceof KvNumeric)) {
+      throw new IllegalStateException("The checkpoint " + doc + " has no numeric " + key);
+    }
+    return ((KvNumeric<?>) value).longValue();
+  }
+
+  private static OpTime toOpTime(long optimeAsLong, long term) {
+    BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
+    return new OpTime(
+        TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
+        term
+    );
+  }
+
+  /**
+   * Where the last applied oplog entry is persisted.
+   */
+  public enum CheckpointMode {
+    /**
+     * The checkpoint is stored as a document on torodb.oplog.replication, replacing it with a
+     * delete and an insert each time it changes.
+     */
+    COLLECTION,
+    /**
+     * The checkpoint is stored on the backend meta info store, which only needs a single row
+     * upsert each time it changes. The collection is still read on start up if no checkpoint has
+     * been stored this way yet.
+     *
+     * <p>Writing the checkpoint on the same transaction that applies the oplog operations is best
+     * effort: it is only done when the whole batch is a single namespace job applied on one
+     * transaction. Otherwise the checkpoint is stored after the batch is applied, like on
+     * {@link #COLLECTION}, so the last operations may be applied again after a crash.
+     */
+    META_INFO
+  }
+
   public static class OplogManagerPersistException extends Exception {
 
     private static final long serialVersionUID = -2352073393613989057L;
@@ -331,6 +498,19 @@ public class OplogManager extends IdleTorodbService {
       notifyLastAppliedOpTimeChange();
     }
 
+    /**
+     * Changes the last applied values without storing them, as they have been already stored with
+     * {@link OplogManager#writeCheckpoint(WriteMongodTransaction, long, OpTime)}.
+     */
+    public void notifyStoredValue(long newHash, OpTime newOptime) {
+      if (closed) {
+        throw new IllegalStateException("Transaction closed");
+      }
+      OplogManager.this.lastAppliedHash = newHash;
+      OplogManager.this.lastAppliedOpTime = newOptime;
+      notifyLastAppliedOpTimeChange();
+    }
+
     @Override
     public void close() {
       if (!closed) {
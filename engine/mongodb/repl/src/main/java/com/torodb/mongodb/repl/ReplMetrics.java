@@ -39,6 +39,8 @@ public class ReplMetrics {
   private final ImmutableMap<MemberState, Counter> memberStateCounters;
   private final SettableGauge<String> lastOpTimeFetched;
   private final SettableGauge<String> lastOpTimeApplied;
+  private final SettableGauge<Long> fetchLag;
+  private final SettableGauge<Integer> fetchQueueSize;
 
   @Inject
   public ReplMetrics(ToroMetricRegistry registry) {
@@ -53,6 +55,8 @@ public class ReplMetrics {
     memberStateCounters = Maps.immutableEnumMap(memberStateCountersBuilder.build());
     lastOpTimeFetched = registry.gauge(factory.createMetricName("lastOpTimeFetched"));
     lastOpTimeApplied = registry.gauge(factory.createMetricName("lastOpTimeApplied"));
+    fetchLag = registry.gauge(factory.createMetricName("fetchLagMillis"));
+    fetchQueueSize = registry.gauge(factory.createMetricName("fetchQueueSize"));
   }
 
   public SettableGauge<String> getMemberState() {
@@ -70,4 +74,19 @@ public class ReplMetrics {
   public SettableGauge<String> getLastOpTimeApplied() {
     return lastOpTimeApplied;
   }
+
+  /**
+   * Milliseconds between the last fetched operation was written on the sync source and the moment
+   * it was fetched.
+   */
+  public SettableGauge<Long> getFetchLag() {
+    return fetchLag;
+  }
+
+  /**
+   * Number of fetched batches that are waiting to be applied.
+   */
+  public SettableGauge<Integer> getFetchQueueSize() {
+    return fetchQueueSize;
+  }
 }
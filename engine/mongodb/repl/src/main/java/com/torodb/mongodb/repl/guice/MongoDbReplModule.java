@@ -29,6 +29,7 @@ import com.torodb.core.supervision.Supervisor;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.guice.MongoLayerModule;
 import com.torodb.mongodb.repl.OplogManager;
+import com.torodb.mongodb.repl.OplogManager.CheckpointMode;
 import com.torodb.mongodb.repl.OplogReaderProvider;
 import com.torodb.mongodb.repl.RecoveryService;
 import com.torodb.mongodb.repl.ReplCoordinator;
@@ -46,6 +47,7 @@ import com.torodb.mongodb.repl.oplogreplier.OplogApplierMetrics;
 import com.torodb.mongodb.repl.oplogreplier.OplogApplierService;
 import com.torodb.mongodb.repl.oplogreplier.OplogOperationApplier;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpReducer;
+import com.torodb.mongodb.repl.oplogreplier.batch.AdaptiveSubBatchHeuristic;
 import com.torodb.mongodb.repl.oplogreplier.batch.AnalyzedOplogBatchExecutor;
 import com.torodb.mongodb.repl.oplogreplier.batch.BatchAnalyzer;
 import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor;
@@ -130,6 +132,10 @@ public class MongoDbReplModule extends PrivateModule {
         .annotatedWith(DocsPerTransaction.class)
         .toInstance(1000);
 
+    bind(Integer.class)
+        .annotatedWith(OplogPrefetchSize.class)
+        .toInstance(4);
+
     bind(ConcurrentOplogBatchExecutor.class)
         .in(Singleton.class);
 
@@ -143,7 +149,8 @@ public class MongoDbReplModule extends PrivateModule {
         .to(ConcurrentOplogBatchExecutorMetrics.class);
 
     bind(ConcurrentOplogBatchExecutor.SubBatchHeuristic.class)
-        .toInstance((ConcurrentOplogBatchExecutorMetrics metrics) -> 100);
+        .to(AdaptiveSubBatchHeuristic.class)
+        .in(Singleton.class);
 
     install(new FactoryModuleBuilder()
         .implement(BatchAnalyzer.class, BatchAnalyzer.class)
@@ -197,6 +204,11 @@ public class MongoDbReplModule extends PrivateModule {
     return config.getReplSetName();
   }
 
+  @Provides
+  CheckpointMode getOplogCheckpointMode(MongodbReplConfig config) {
+    return config.getOplogCheckpointMode();
+  }
+
   @Provides
   @RemoteSeed
   HostAndPort getRemoteSeed(MongodbReplConfig config) {
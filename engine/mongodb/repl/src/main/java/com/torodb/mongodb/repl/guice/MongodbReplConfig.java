@@ -19,6 +19,7 @@
 package com.torodb.mongodb.repl.guice;
 
 import com.eightkdata.mongowp.client.wrapper.MongoClientConfiguration;
+import com.torodb.mongodb.repl.OplogManager.CheckpointMode;
 import com.torodb.mongodb.repl.ReplicationFilters;
 
 /**
@@ -32,4 +33,8 @@ public interface MongodbReplConfig {
 
   public String getReplSetName();
 
+  public default CheckpointMode getOplogCheckpointMode() {
+    return CheckpointMode.COLLECTION;
+  }
+
 }
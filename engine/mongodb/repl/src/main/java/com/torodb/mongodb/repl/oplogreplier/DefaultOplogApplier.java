@@ -40,6 +40,7 @@ import com.google.common.base.Throwables;
 import com.torodb.concurrent.akka.BatchFlow;
 import com.torodb.core.Shutdowner;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.mongodb.repl.OplogManager;
 import com.torodb.mongodb.repl.OplogManager.OplogManagerPersistException;
 import com.torodb.mongodb.repl.OplogManager.WriteOplogTransaction;
@@ -109,12 +110,7 @@ public class DefaultOplogApplier implements OplogApplier {
         .via(createBatcherFlow(applierContext))
         .viaMat(KillSwitches.single(), Keep.right())
         .async()
-        .map(analyzedElem -> {
-          for (AnalyzedOplogBatch analyzedOplogBatch : analyzedElem.analyzedBatch) {
-            batchExecutor.apply(analyzedOplogBatch, applierContext);
-          }
-          return analyzedElem;
-        })
+        .map(analyzedElem -> applyBatch(analyzedElem, applierContext))
         .map(this::metricExecution)
         .toMat(
             Sink.foreach(this::storeLastAppliedOp),
@@ -221,12 +217,33 @@ public class DefaultOplogApplier implements OplogApplier {
         });
   }
 
+  /**
+   * Applies the analyzed batches of the given element, writing the checkpoint on the same
+   * transaction when the {@link OplogManager} and the executor support it.
+   */
+  private AnalyzedStreamElement applyBatch(AnalyzedStreamElement streamElement,
+      ApplierContext applierContext) throws RetrierGiveUpException {
+    if (!oplogManager.isTransactionalCheckpoint()) {
+      batchExecutor.applyAll(streamElement.analyzedBatch, applierContext);
+      return streamElement;
+    }
+    OplogOperation lastOp = streamElement.rawBatch.getLastOperation();
+    boolean checkpointStored = batchExecutor.applyAll(streamElement.analyzedBatch,
+        applierContext, transaction -> oplogManager.writeCheckpoint(transaction,
+            lastOp.getHash(), lastOp.getOpTime()));
+    return checkpointStored ? streamElement.withCheckpointStored() : streamElement;
+  }
+
   private AnalyzedStreamElement storeLastAppliedOp(AnalyzedStreamElement streamElement) throws
       OplogManagerPersistException {
     assert !streamElement.rawBatch.isEmpty();
     OplogOperation lastOp = streamElement.rawBatch.getLastOperation();
     try (WriteOplogTransaction writeTrans = oplogManager.createWriteTransaction()) {
-      writeTrans.forceNewValue(lastOp.getHash(), lastOp.getOpTime());
+      if (streamElement.checkpointStored) {
+        writeTrans.notifyStoredValue(lastOp.getHash(), lastOp.getOpTime());
+      } else {
+        writeTrans.forceNewValue(lastOp.getHash(), lastOp.getOpTime());
+      }
     }
     return streamElement;
   }
@@ -304,12 +321,25 @@ public class DefaultOplogApplier implements OplogApplier {
     private final OplogBatch rawBatch;
     private final long startFetchTimestamp;
     private final List<AnalyzedOplogBatch> analyzedBatch;
+    private final boolean checkpointStored;
 
     AnalyzedStreamElement(RawStreamElement rawStreamElement,
         List<AnalyzedOplogBatch> analyzedBatches) {
       this.rawBatch = rawStreamElement.rawBatch;
       this.startFetchTimestamp = rawStreamElement.startFetchTimestamp;
       this.analyzedBatch = analyzedBatches;
+      this.checkpointStored = false;
+    }
+
+    private AnalyzedStreamElement(AnalyzedStreamElement other) {
+      this.rawBatch = other.rawBatch;
+      this.startFetchTimestamp = other.startFetchTimestamp;
+      this.analyzedBatch = other.analyzedBatch;
+      this.checkpointStored = true;
+    }
+
+    private AnalyzedStreamElement withCheckpointStored() {
+      return new AnalyzedStreamElement(this);
     }
 
   }
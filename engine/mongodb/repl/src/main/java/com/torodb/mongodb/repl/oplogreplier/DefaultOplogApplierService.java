@@ -24,11 +24,14 @@ import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.mongodb.repl.OplogManager;
 import com.torodb.mongodb.repl.OplogManager.ReadOplogTransaction;
+import com.torodb.mongodb.repl.ReplMetrics;
 import com.torodb.mongodb.repl.ReplicationFilters;
+import com.torodb.mongodb.repl.guice.OplogPrefetchSize;
 import com.torodb.mongodb.repl.oplogreplier.OplogApplier.ApplyingJob;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.ContinuousOplogFetcher;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.ContinuousOplogFetcher.ContinuousOplogFetcherFactory;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.OplogFetcher;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.PrefetchingOplogFetcher;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -43,7 +46,8 @@ import javax.inject.Inject;
  * A {@link OplogApplierService} that delegate on an {@link OplogApplier}.
  *
  * A new {@link ContinuousOplogFetcher} and a new {@link ApplyingJob} are created when this service
- * start up and they are finished once the service stop.
+ * start up and they are finished once the service stop. The fetcher is wrapped on a
+ * {@link PrefetchingOplogFetcher}, so the remote oplog is read while previous batches are applied.
  */
 public class DefaultOplogApplierService extends IdleTorodbService implements OplogApplierService {
 
@@ -57,6 +61,9 @@ public class DefaultOplogApplierService extends IdleTorodbService implements Opl
   private ApplyingJob applyJob;
   private final ReplicationFilters replFilters;
   private final ExecutorService selfExecutor;
+  private final ThreadFactory threadFactory;
+  private final int prefetchSize;
+  private final ReplMetrics metrics;
   private CompletableFuture<Void> onFinishFuture;
 
   @Inject
@@ -64,7 +71,8 @@ public class DefaultOplogApplierService extends IdleTorodbService implements Opl
       OplogApplier oplogApplier, OplogManager oplogManager,
       ContinuousOplogFetcherFactory oplogFetcherFactory,
       @Assisted Callback callback, ReplicationFilters replFilters,
-      ConcurrentToolsFactory concurrentToolsFactory) {
+      ConcurrentToolsFactory concurrentToolsFactory, @OplogPrefetchSize int prefetchSize,
+      ReplMetrics metrics) {
     super(threadFactory);
     this.oplogApplier = oplogApplier;
     this.oplogFetcherFactory = oplogFetcherFactory;
@@ -73,6 +81,9 @@ public class DefaultOplogApplierService extends IdleTorodbService implements Opl
     this.replFilters = replFilters;
     this.selfExecutor = concurrentToolsFactory.createExecutorService("oplog-applier-service", true,
         1);
+    this.threadFactory = threadFactory;
+    this.prefetchSize = prefetchSize;
+    this.metrics = metrics;
   }
 
   @Override
@@ -156,8 +167,9 @@ public class DefaultOplogApplierService extends IdleTorodbService implements Opl
       lastAppliedHash = oplogReadTrans.getLastAppliedHash();
     }
 
-    return replFilters.filterOplogFetcher(
+    OplogFetcher filteredFetcher = replFilters.filterOplogFetcher(
         oplogFetcherFactory.createFetcher(lastAppliedHash, lastAppliedOptime)
     );
+    return new PrefetchingOplogFetcher(filteredFetcher, prefetchSize, threadFactory, metrics);
   }
 }
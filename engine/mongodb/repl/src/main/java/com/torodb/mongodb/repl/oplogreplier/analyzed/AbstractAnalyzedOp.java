@@ -25,6 +25,7 @@ import com.eightkdata.mongowp.server.api.oplog.UpdateOplogOperation;
 import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongodb.language.update.UpdateAction;
 
 import java.util.function.Function;
 
@@ -114,4 +115,14 @@ public abstract class AbstractAnalyzedOp extends AnalyzedOp {
         UpdateActionsTool.parseUpdateAction(op)
     );
   }
+
+  protected final Function<KvDocument, KvDocument> createUpdateMergeChain(
+      UpdateAction updateAction) {
+    assert calculateFun != null;
+
+    return (fetch) -> UpdateActionsTool.applyModification(
+        calculateFun.apply(fetch),
+        updateAction
+    );
+  }
 }
@@ -25,6 +25,7 @@ import com.torodb.kvdocument.values.KvValue;
 import com.torodb.kvdocument.values.heap.MapKvDocument;
 import com.torodb.mongodb.language.update.UpdateAction;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.function.Function;
 
@@ -44,15 +45,13 @@ public class NoopAnalyzedOp extends AbstractAnalyzedOp {
 
   @Override
   public AnalyzedOp andThenUpdateMod(UpdateOplogOperation op) {
-    //A simple assertion to fail before the callback is called when an illegal update is recived
-    assert UpdateActionsTool.parseUpdateAction(op) != null;
+    UpdateAction updateAction = UpdateActionsTool.parseUpdateAction(op);
 
-    Function<KvDocument, KvDocument> calculateFun = (fetched) -> {
-      UpdateAction updateAction = UpdateActionsTool.parseUpdateAction(op);
-      return UpdateActionsTool.applyModification(fetched, updateAction);
-    };
+    Function<KvDocument, KvDocument> calculateFun = (fetched) ->
+        UpdateActionsTool.applyModification(fetched, updateAction);
 
-    return new UpdateModAnalyzedOp(getMongoDocId(), calculateFun);
+    return new UpdateModAnalyzedOp(getMongoDocId(), calculateFun,
+        Collections.singletonList(updateAction));
   }
 
   @Override
@@ -20,9 +20,13 @@ package com.torodb.mongodb.repl.oplogreplier.analyzed;
 
 import com.eightkdata.mongowp.server.api.oplog.DeleteOplogOperation;
 import com.eightkdata.mongowp.server.api.oplog.UpdateOplogOperation;
+import com.google.common.collect.ImmutableList;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongodb.language.update.UpdateAction;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -30,8 +34,24 @@ import java.util.function.Function;
  */
 public class UpdateModAnalyzedOp extends AbstractAnalyzedOp {
 
+  private final ImmutableList<UpdateAction> updateActions;
+
   public UpdateModAnalyzedOp(KvValue<?> mongoDocId, Function<KvDocument, KvDocument> calculateFun) {
+    this(mongoDocId, calculateFun, ImmutableList.of());
+  }
+
+  public UpdateModAnalyzedOp(KvValue<?> mongoDocId, Function<KvDocument, KvDocument> calculateFun,
+      List<UpdateAction> updateActions) {
     super(mongoDocId, AnalyzedOpType.UPDATE_MOD, calculateFun);
+    this.updateActions = ImmutableList.copyOf(updateActions);
+  }
+
+  /**
+   * Returns the update actions this operation applies on the fetched document, in the order they
+   * have to be applied, or an empty list if they are unknown.
+   */
+  public ImmutableList<UpdateAction> getUpdateActions() {
+    return updateActions;
   }
 
   @Override
@@ -41,7 +61,16 @@ public class UpdateModAnalyzedOp extends AbstractAnalyzedOp {
 
   @Override
   public AnalyzedOp andThenUpdateMod(UpdateOplogOperation op) {
-    return new UpdateModAnalyzedOp(getMongoDocId(), createUpdateMergeChain(op));
+    UpdateAction updateAction = UpdateActionsTool.parseUpdateAction(op);
+    List<UpdateAction> newUpdateActions = Collections.emptyList();
+    if (!updateActions.isEmpty()) {
+      newUpdateActions = ImmutableList.<UpdateAction>builder()
+          .addAll(updateActions)
+          .add(updateAction)
+          .build();
+    }
+    return new UpdateModAnalyzedOp(getMongoDocId(), createUpdateMergeChain(updateAction),
+        newUpdateActions);
   }
 
   @Override
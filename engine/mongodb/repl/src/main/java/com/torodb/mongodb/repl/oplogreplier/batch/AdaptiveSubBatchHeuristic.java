@@ -0,0 +1,193 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.ConcurrentOplogBatchExecutorMetrics;
+import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.NamespaceGauges;
+import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.SubBatchHeuristic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ * A {@link SubBatchHeuristic} that adapts the size of the sub batches and the number of them that
+ * are executed concurrently on each namespace to the latency observed while applying them.
+ *
+ * <p>The sub batch size is chosen so each sub batch takes around {@link #TARGET_LATENCY_NANOS},
+ * given the cost per op measured on previous sub batches of the same namespace. The parallelism
+ * follows an additive increase/multiplicative decrease policy: it grows by one each time as many
+ * sub batches as the current parallelism finish and it is halved when a sub batch is rolled back
+ * or when the time spent waiting for a transaction becomes a significant part of the time spent
+ * applying sub batches.
+ */
+@ThreadSafe
+public class AdaptiveSubBatchHeuristic implements SubBatchHeuristic {
+
+  static final int INITIAL_SUB_BATCH_SIZE = 100;
+  static final int MIN_SUB_BATCH_SIZE = 10;
+  static final int MAX_SUB_BATCH_SIZE = 1000;
+  static final long TARGET_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+  private static final double EWMA_WEIGHT = 0.2;
+  private static final double MAX_WAIT_RATIO = 0.2;
+
+  private final int maxParallelism;
+  private final ConcurrentMap<String, NamespaceState> states = new ConcurrentHashMap<>();
+
+  @Inject
+  public AdaptiveSubBatchHeuristic(ConcurrentToolsFactory concurrentToolsFactory) {
+    this(concurrentToolsFactory.getDefaultMaxThreads());
+  }
+
+  AdaptiveSubBatchHeuristic(int maxParallelism) {
+    this.maxParallelism = Math.max(1, maxParallelism);
+  }
+
+  @Override
+  public int getSubBatchSize(ConcurrentOplogBatchExecutorMetrics metrics) {
+    return INITIAL_SUB_BATCH_SIZE;
+  }
+
+  @Override
+  public int getSubBatchSize(ConcurrentOplogBatchExecutorMetrics metrics,
+      NamespaceJob namespaceJob) {
+    NamespaceState state = getState(namespaceJob);
+    int parallelism;
+    long opCostNanos;
+    int size;
+    synchronized (state) {
+      parallelism = state.getParallelism();
+      opCostNanos = Math.round(state.nanosPerOp);
+      size = state.getLatencyBoundSize();
+    }
+    //spreads big jobs over the allowed parallelism, but never beyond the maximum size
+    int jobs = namespaceJob.getJobs().size();
+    size = Math.max(size, (jobs + parallelism - 1) / parallelism);
+    size = Math.min(size, MAX_SUB_BATCH_SIZE);
+
+    NamespaceGauges gauges = metrics.getNamespaceGauges(namespaceJob.getDatabase(),
+        namespaceJob.getCollection());
+    gauges.getSubBatchSize().setValue(size);
+    gauges.getSubBatchParallelism().setValue(parallelism);
+    gauges.getOpCost().setValue(TimeUnit.NANOSECONDS.toMicros(opCostNanos));
+    return size;
+  }
+
+  @Override
+  public int getParallelism(NamespaceJob namespaceJob) {
+    NamespaceState state = getState(namespaceJob);
+    synchronized (state) {
+      return state.getParallelism();
+    }
+  }
+
+  @Override
+  public void onTransactionWait(NamespaceJob subBatch, long waitNanos) {
+    NamespaceState state = getState(subBatch);
+    synchronized (state) {
+      state.waitNanos = ewma(state.waitNanos, waitNanos);
+    }
+  }
+
+  @Override
+  public void onSubBatchFinished(NamespaceJob subBatch, long elapsedNanos, boolean rolledBack) {
+    NamespaceState state = getState(subBatch);
+    int ops = subBatch.getJobs().size();
+    synchronized (state) {
+      state.elapsedNanos = ewma(state.elapsedNanos, elapsedNanos);
+      if (!rolledBack && ops > 0) {
+        state.nanosPerOp = ewma(state.nanosPerOp, (double) elapsedNanos / ops);
+      }
+      state.finishedSinceDecrease = Math.min(maxParallelism, state.finishedSinceDecrease + 1);
+      if (rolledBack || state.waitNanos > MAX_WAIT_RATIO * state.elapsedNanos) {
+        state.decreaseParallelism();
+      } else {
+        state.increaseParallelism();
+      }
+    }
+  }
+
+  @Override
+  public void onCollectionDropped(String database, String collection) {
+    states.remove(getNamespace(database, collection));
+  }
+
+  @Override
+  public void onDatabaseDropped(String database) {
+    String prefix = getNamespace(database, "");
+    states.keySet().removeIf(namespace -> namespace.startsWith(prefix));
+  }
+
+  private NamespaceState getState(NamespaceJob job) {
+    return states.computeIfAbsent(getNamespace(job.getDatabase(), job.getCollection()),
+        ns -> new NamespaceState());
+  }
+
+  private static String getNamespace(String database, String collection) {
+    return database + '.' + collection;
+  }
+
+  private static double ewma(double current, double sample) {
+    if (current < 0) {
+      return sample;
+    }
+    return current + EWMA_WEIGHT * (sample - current);
+  }
+
+  private class NamespaceState {
+
+    private double nanosPerOp = -1;
+    private double elapsedNanos = -1;
+    private double waitNanos = -1;
+    private double parallelism = maxParallelism;
+    //the first decrease is always allowed
+    private int finishedSinceDecrease = maxParallelism;
+
+    private int getParallelism() {
+      return Math.min(maxParallelism, (int) parallelism);
+    }
+
+    private int getLatencyBoundSize() {
+      if (nanosPerOp <= 0) {
+        return INITIAL_SUB_BATCH_SIZE;
+      }
+      long size = Math.round(TARGET_LATENCY_NANOS / nanosPerOp);
+      return (int) Math.max(MIN_SUB_BATCH_SIZE, Math.min(MAX_SUB_BATCH_SIZE, size));
+    }
+
+    private void increaseParallelism() {
+      parallelism = Math.min(maxParallelism, parallelism + 1d / getParallelism());
+    }
+
+    private void decreaseParallelism() {
+      //at most once per round, as the sub batches that were already running when the previous
+      //decrease happened were still using the old parallelism
+      if (finishedSinceDecrease < getParallelism()) {
+        return;
+      }
+      parallelism = Math.max(1, parallelism / 2);
+      finishedSinceDecrease = 0;
+    }
+  }
+
+}
@@ -29,9 +29,11 @@ import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.core.retrier.RetrierAbortException;
 import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.transaction.RollbackException;
+import com.torodb.mongodb.core.WriteMongodTransaction;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
 import com.torodb.mongodb.repl.oplogreplier.OplogOperationApplier.OplogApplyingException;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -59,6 +61,39 @@ public interface AnalyzedOplogBatchExecutor extends
     return batch.accept(this, replContext);
   }
 
+  /**
+   * Applies the given batches with the same effect as applying them one after the other on the
+   * given order.
+   */
+  public default void applyAll(List<AnalyzedOplogBatch> batches, ApplierContext replContext)
+      throws RetrierGiveUpException, RetrierAbortException {
+    for (AnalyzedOplogBatch batch : batches) {
+      apply(batch, replContext);
+    }
+  }
+
+  /**
+   * Like {@link #applyAll(List, ApplierContext)}, but when the batches are applied on a single
+   * write transaction the given checkpoint writer is called on that transaction before it is
+   * committed.
+   *
+   * @return true iff the checkpoint has been written and committed with the batches
+   */
+  public default boolean applyAll(List<AnalyzedOplogBatch> batches, ApplierContext replContext,
+      CheckpointWriter checkpointWriter) throws RetrierGiveUpException, RetrierAbortException {
+    applyAll(batches, replContext);
+    return false;
+  }
+
+  /**
+   * Writes the replication checkpoint on the transaction that applies the last batch.
+   */
+  @FunctionalInterface
+  public static interface CheckpointWriter {
+
+    public void write(WriteMongodTransaction transaction);
+  }
+
   public static class AnalyzedOplogBatchExecutorMetrics {
 
     protected static final MetricNameFactory NAME_FACTORY =
@@ -68,6 +103,7 @@ public interface AnalyzedOplogBatchExecutor extends
     private final Histogram cudBatchSize;
     private final Timer cudBatchTimer;
     private final Timer namespaceBatchTimer;
+    private final Timer transactionWaitTimer;
 
     @Inject
     public AnalyzedOplogBatchExecutorMetrics(ToroMetricRegistry metricRegistry) {
@@ -76,6 +112,8 @@ public interface AnalyzedOplogBatchExecutor extends
       this.cudBatchTimer = metricRegistry.timer(NAME_FACTORY.createMetricName("cudTimer"));
       this.namespaceBatchTimer = metricRegistry.timer(NAME_FACTORY
           .createMetricName("namespaceTimer"));
+      this.transactionWaitTimer = metricRegistry.timer(NAME_FACTORY
+          .createMetricName("transactionWaitTimer"));
     }
 
     /**
@@ -105,6 +143,14 @@ public interface AnalyzedOplogBatchExecutor extends
       return namespaceBatchTimer;
     }
 
+    /**
+     * Returns the timer that measures how long the namespace jobs wait to open their write
+     * transactions, which includes the time spent waiting for a pooled connection.
+     */
+    public Timer getTransactionWaitTimer() {
+      return transactionWaitTimer;
+    }
+
     @Nonnull
     private String getMapKey(OplogOperation oplogOp) {
       if (oplogOp instanceof DbCmdOplogOperation) {
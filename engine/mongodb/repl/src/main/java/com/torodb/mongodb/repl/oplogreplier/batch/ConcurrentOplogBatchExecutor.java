@@ -20,26 +20,37 @@ package com.torodb.mongodb.repl.oplogreplier.batch;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonValue;
+import com.eightkdata.mongowp.server.api.oplog.DbCmdOplogOperation;
+import com.eightkdata.mongowp.server.api.oplog.OplogOperation;
 import com.eightkdata.mongowp.server.api.tools.Empty;
 import com.google.common.base.Supplier;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.concurrent.StreamExecutor;
 import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.metrics.SettableGauge;
 import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.core.retrier.Retrier;
+import com.torodb.core.retrier.Retrier.Hint;
+import com.torodb.core.retrier.RetrierAbortException;
+import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.mongodb.core.MongodConnection;
 import com.torodb.mongodb.core.MongodServer;
-import com.torodb.mongodb.repl.OplogManager.OplogManagerPersistException;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
 import com.torodb.mongodb.repl.oplogreplier.OplogOperationApplier;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongodb.repl.oplogreplier.batch.NamespaceJobScheduler.Task;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -49,6 +60,7 @@ import javax.inject.Inject;
 public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecutor {
 
   private final StreamExecutor streamExecutor;
+  private final ExecutorService schedulerExecutor;
   private final ConcurrentOplogBatchExecutorMetrics concurrentMetrics;
   private final SubBatchHeuristic subBatchHeuristic;
 
@@ -60,6 +72,8 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     super(concurrentMetrics, oplogOperationApplier, server, retrier, namespaceJobExecutor);
     this.streamExecutor = concurrentToolsFactory.createStreamExecutor(
         "concurrent-oplog-batch-executor", true);
+    this.schedulerExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "oplog-namespace-scheduler", concurrentToolsFactory.getDefaultMaxThreads());
     this.concurrentMetrics = concurrentMetrics;
     this.subBatchHeuristic = subBatchHeuristic;
   }
@@ -75,20 +89,25 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
   protected void doStop() {
     streamExecutor.stopAsync();
     streamExecutor.awaitTerminated();
+    schedulerExecutor.shutdown();
 
     super.doStop();
   }
 
   @Override
   public void execute(CudAnalyzedOplogBatch cudBatch, ApplierContext context) throws UserException {
-    List<NamespaceJob> namespaceJobList = cudBatch.streamNamespaceJobs().flatMap(this::split)
+    List<List<NamespaceJob>> lanes = cudBatch.streamNamespaceJobs()
+        .flatMap(namespaceJob -> splitOnLanes(namespaceJob).stream())
         .collect(Collectors.toList());
-    concurrentMetrics.getSubBatchSizeMeter().mark(namespaceJobList.size());
-    concurrentMetrics.getSubBatchSizeHistogram().update(namespaceJobList.size());
+    int subBatches = lanes.stream().mapToInt(List::size).sum();
+    concurrentMetrics.getSubBatchSizeMeter().mark(subBatches);
+    concurrentMetrics.getSubBatchSizeHistogram().update(subBatches);
 
-    Stream<Callable<Empty>> callables = namespaceJobList.stream()
-        .map((Function<NamespaceJob, Callable<Empty>>) (NamespaceJob namespaceJob) -> () -> {
-          execute(namespaceJob, context);
+    Stream<Callable<Empty>> callables = lanes.stream()
+        .map((Function<List<NamespaceJob>, Callable<Empty>>) (List<NamespaceJob> lane) -> () -> {
+          for (NamespaceJob namespaceJob : lane) {
+            execute(namespaceJob, context);
+          }
           return Empty.getInstance();
         });
     try {
@@ -105,17 +124,156 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     }
   }
 
+  /**
+   * Applies the given batches scheduling their namespace jobs and commands with a
+   * {@link NamespaceJobScheduler}, so a command only waits for the jobs on the namespaces it
+   * affects and jobs on other namespaces keep being executed.
+   */
+  @Override
+  public void applyAll(List<AnalyzedOplogBatch> batches, ApplierContext context)
+      throws RetrierGiveUpException, RetrierAbortException {
+    if (batches.size() <= 1) {
+      for (AnalyzedOplogBatch batch : batches) {
+        apply(batch, context);
+      }
+      return;
+    }
+    NamespaceJobScheduler scheduler = new NamespaceJobScheduler(schedulerExecutor);
+    SchedulerVisitor visitor = new SchedulerVisitor(context);
+    for (AnalyzedOplogBatch batch : batches) {
+      batch.accept(visitor, scheduler);
+    }
+    try {
+      scheduler.whenAllFinished().join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RetrierGiveUpException) {
+        throw (RetrierGiveUpException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RetrierGiveUpException("Unexpected exception while replying", cause);
+    }
+  }
+
+  private void executeRetrying(NamespaceJob job, ApplierContext context)
+      throws RetrierGiveUpException {
+    try {
+      execute(job, context);
+    } catch (UserException | NamespaceJobExecutionException ex) {
+      throw new RetrierGiveUpException("Unexpected exception while replying", ex);
+    } catch (RollbackException ex) {
+      ApplierContext retryingReplingContext = new ApplierContext.Builder()
+          .setReapplying(true)
+          .setUpdatesAsUpserts(true)
+          .build();
+      getRetrier().retry(() -> {
+        try {
+          execute(job, retryingReplingContext);
+          return Empty.getInstance();
+        } catch (UserException | NamespaceJobExecutionException ex2) {
+          throw new RetrierAbortException("Unexpected user exception while applying "
+              + "the job " + job, ex2);
+        }
+      }, Hint.CRITICAL, Hint.TIME_SENSIBLE);
+    }
+  }
+
   private void execute(NamespaceJob job, ApplierContext applierContext)
-      throws OplogManagerPersistException, UserException, NamespaceJobExecutionException {
+      throws UserException, NamespaceJobExecutionException {
+    long start = System.nanoTime();
+    boolean rolledBack = false;
     try (MongodConnection connection = getServer().openConnection()) {
       execute(job, applierContext, connection);
+    } catch (RollbackException ex) {
+      rolledBack = true;
+      throw ex;
+    } finally {
+      subBatchHeuristic.onSubBatchFinished(job, System.nanoTime() - start, rolledBack);
+    }
+  }
+
+  @Override
+  public OplogOperation visit(SingleOpAnalyzedOplogBatch batch, ApplierContext arg)
+      throws RetrierGiveUpException {
+    OplogOperation operation = super.visit(batch, arg);
+    if (operation instanceof DbCmdOplogOperation) {
+      releaseDroppedNamespaces((DbCmdOplogOperation) operation);
+    }
+    return operation;
+  }
+
+  /**
+   * Releases the heuristic state and the gauges of the namespaces dropped by the given command.
+   */
+  private void releaseDroppedNamespaces(DbCmdOplogOperation cmdOp) {
+    String commandName = cmdOp.getCommandName().orElse(null);
+    BsonDocument request = cmdOp.getRequest();
+    if (commandName == null || request == null || request.isEmpty()) {
+      return;
+    }
+    BsonValue<?> target = request.getFirstEntry().getValue();
+    switch (commandName) {
+      case "drop":
+        if (target.isString()) {
+          releaseCollection(cmdOp.getDatabase(), target.asString().getValue());
+        }
+        break;
+      case "renameCollection":
+        //the source is given as a full namespace
+        if (target.isString()) {
+          String namespace = target.asString().getValue();
+          int dotIndex = namespace.indexOf('.');
+          if (dotIndex > 0) {
+            releaseCollection(namespace.substring(0, dotIndex), namespace.substring(dotIndex + 1));
+          }
+        }
+        break;
+      case "dropDatabase":
+        subBatchHeuristic.onDatabaseDropped(cmdOp.getDatabase());
+        concurrentMetrics.removeDatabaseGauges(cmdOp.getDatabase());
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void releaseCollection(String database, String collection) {
+    subBatchHeuristic.onCollectionDropped(database, collection);
+    concurrentMetrics.removeNamespaceGauges(database, collection);
+  }
+
+  @Override
+  protected boolean isAppliedOnOneTransaction(NamespaceJob job) {
+    return job.getJobs().size() <= subBatchHeuristic.getSubBatchSize(concurrentMetrics, job);
+  }
+
+  @Override
+  protected void executeWithCheckpoint(NamespaceJob job, ApplierContext applierContext,
+      CheckpointWriter checkpointWriter) throws RollbackException, UserException,
+      NamespaceJobExecutionException {
+    long start = System.nanoTime();
+    boolean rolledBack = false;
+    try {
+      super.executeWithCheckpoint(job, applierContext, checkpointWriter);
+    } catch (RollbackException ex) {
+      rolledBack = true;
+      throw ex;
+    } finally {
+      subBatchHeuristic.onSubBatchFinished(job, System.nanoTime() - start, rolledBack);
     }
   }
 
+  @Override
+  protected void onWriteTransactionOpened(NamespaceJob job, long waitNanos) {
+    super.onWriteTransactionOpened(job, waitNanos);
+    subBatchHeuristic.onTransactionWait(job, waitNanos);
+  }
+
   private Stream<NamespaceJob> split(NamespaceJob namespaceJob) {
     Collection<AnalyzedOp> jobs = namespaceJob.getJobs();
 
-    int subBatchSize = subBatchHeuristic.getSubBatchSize(concurrentMetrics);
+    int subBatchSize = subBatchHeuristic.getSubBatchSize(concurrentMetrics, namespaceJob);
 
     assert subBatchSize > 0 : "Sub batch size must be positive";
 
@@ -146,15 +304,82 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     return result.stream();
   }
 
+  /**
+   * Splits the given job on sub batches and distributes them on as many lanes as sub batches of
+   * its namespace can be applied concurrently. The sub batches of each lane are applied one after
+   * the other.
+   */
+  private List<List<NamespaceJob>> splitOnLanes(NamespaceJob namespaceJob) {
+    List<NamespaceJob> subBatches = split(namespaceJob).collect(Collectors.toList());
+    int parallelism = subBatchHeuristic.getParallelism(namespaceJob);
+
+    assert parallelism > 0 : "Parallelism must be positive";
+
+    int laneCount = Math.min(parallelism, subBatches.size());
+    List<List<NamespaceJob>> lanes = new ArrayList<>(laneCount);
+    for (int i = 0; i < laneCount; i++) {
+      lanes.add(new ArrayList<>(subBatches.size() / laneCount + 1));
+    }
+    for (int i = 0; i < subBatches.size(); i++) {
+      lanes.get(i % laneCount).add(subBatches.get(i));
+    }
+    return lanes;
+  }
+
+  private class SchedulerVisitor
+      implements AnalyzedOplogBatchVisitor<Void, NamespaceJobScheduler, RuntimeException> {
+
+    private final ApplierContext context;
+
+    private SchedulerVisitor(ApplierContext context) {
+      this.context = context;
+    }
+
+    @Override
+    public Void visit(SingleOpAnalyzedOplogBatch batch, NamespaceJobScheduler scheduler) {
+      scheduler.schedule(batch.getOperation(), () -> ConcurrentOplogBatchExecutor.this.visit(
+          batch, context));
+      return null;
+    }
+
+    @Override
+    public Void visit(CudAnalyzedOplogBatch batch, NamespaceJobScheduler scheduler) {
+      concurrentMetrics.getCudBatchSize().update(batch.getOriginalBatch().size());
+      int subBatches = 0;
+      List<NamespaceJob> namespaceJobs = batch.streamNamespaceJobs()
+          .collect(Collectors.toList());
+      for (NamespaceJob namespaceJob : namespaceJobs) {
+        List<List<NamespaceJob>> lanes = splitOnLanes(namespaceJob);
+        List<Task> tasks = lanes.stream()
+            .map(lane -> (Task) () -> {
+              for (NamespaceJob subJob : lane) {
+                executeRetrying(subJob, context);
+              }
+            })
+            .collect(Collectors.toList());
+        subBatches += lanes.stream().mapToInt(List::size).sum();
+        scheduler.scheduleOnNamespace(namespaceJob.getDatabase(), namespaceJob.getCollection(),
+            tasks);
+      }
+      concurrentMetrics.getSubBatchSizeMeter().mark(subBatches);
+      concurrentMetrics.getSubBatchSizeHistogram().update(subBatches);
+      return null;
+    }
+  }
+
   public static class ConcurrentOplogBatchExecutorMetrics
       extends AnalyzedOplogBatchExecutorMetrics {
 
+    private final ToroMetricRegistry metricRegistry;
     private final Meter subBatchSizeMeter;
     private final Histogram subBatchSizeHistogram;
+    private final ConcurrentMap<String, NamespaceGauges> namespaceGauges =
+        new ConcurrentHashMap<>();
 
     @Inject
     public ConcurrentOplogBatchExecutorMetrics(ToroMetricRegistry metricRegistry) {
       super(metricRegistry);
+      this.metricRegistry = metricRegistry;
       this.subBatchSizeMeter = metricRegistry.meter(NAME_FACTORY.createMetricName(
           "subBatchSizeMeter"));
       this.subBatchSizeHistogram = metricRegistry.histogram(NAME_FACTORY.createMetricName(
@@ -168,6 +393,89 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     public Histogram getSubBatchSizeHistogram() {
       return subBatchSizeHistogram;
     }
+
+    /**
+     * Returns the gauges that show the decisions of the {@link SubBatchHeuristic} on the given
+     * namespace.
+     */
+    public NamespaceGauges getNamespaceGauges(String database, String collection) {
+      return namespaceGauges.computeIfAbsent(getNamespace(database, collection),
+          this::registerNamespaceGauges);
+    }
+
+    /**
+     * Unregisters the gauges of the given namespace.
+     */
+    public void removeNamespaceGauges(String database, String collection) {
+      String namespace = getNamespace(database, collection);
+      if (namespaceGauges.remove(namespace) != null) {
+        unregisterNamespaceGauges(namespace);
+      }
+    }
+
+    /**
+     * Unregisters the gauges of all the namespaces of the given database.
+     */
+    public void removeDatabaseGauges(String database) {
+      String prefix = getNamespace(database, "");
+      for (String namespace : new ArrayList<>(namespaceGauges.keySet())) {
+        if (namespace.startsWith(prefix) && namespaceGauges.remove(namespace) != null) {
+          unregisterNamespaceGauges(namespace);
+        }
+      }
+    }
+
+    private NamespaceGauges registerNamespaceGauges(String namespace) {
+      NamespaceGauges gauges = new NamespaceGauges();
+      metricRegistry.register(NAME_FACTORY.createMetricName("subBatchSize." + namespace),
+          gauges.subBatchSize);
+      metricRegistry.register(NAME_FACTORY.createMetricName("subBatchParallelism." + namespace),
+          gauges.subBatchParallelism);
+      metricRegistry.register(NAME_FACTORY.createMetricName("opCostMicros." + namespace),
+          gauges.opCost);
+      return gauges;
+    }
+
+    private void unregisterNamespaceGauges(String namespace) {
+      metricRegistry.remove(NAME_FACTORY.createMetricName("subBatchSize." + namespace));
+      metricRegistry.remove(NAME_FACTORY.createMetricName("subBatchParallelism." + namespace));
+      metricRegistry.remove(NAME_FACTORY.createMetricName("opCostMicros." + namespace));
+    }
+
+    private static String getNamespace(String database, String collection) {
+      return database + '.' + collection;
+    }
+  }
+
+  public static class NamespaceGauges {
+
+    private final SettableGauge<Integer> subBatchSize = new SettableGauge<>();
+    private final SettableGauge<Integer> subBatchParallelism = new SettableGauge<>();
+    private final SettableGauge<Long> opCost = new SettableGauge<>();
+
+    /**
+     * Returns the gauge that shows the number of ops per sub batch chosen by the
+     * {@link SubBatchHeuristic} for the last split job of the namespace.
+     */
+    public SettableGauge<Integer> getSubBatchSize() {
+      return subBatchSize;
+    }
+
+    /**
+     * Returns the gauge that shows how many sub batches of the namespace the
+     * {@link SubBatchHeuristic} allows to execute concurrently.
+     */
+    public SettableGauge<Integer> getSubBatchParallelism() {
+      return subBatchParallelism;
+    }
+
+    /**
+     * Returns the gauge that shows the estimated cost to apply an op of the namespace, in
+     * microseconds.
+     */
+    public SettableGauge<Long> getOpCost() {
+      return opCost;
+    }
   }
 
   public static interface SubBatchHeuristic {
@@ -180,6 +488,59 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
      * @return a positive integer
      */
     public int getSubBatchSize(ConcurrentOplogBatchExecutorMetrics metrics);
+
+    /**
+     * Returns the number of {@link AnalyzedOp ops} that each sub batch of the given namespace job
+     * should have.
+     *
+     * <p>The default implementation ignores the job and delegates on
+     * {@link #getSubBatchSize(ConcurrentOplogBatchExecutorMetrics)}.
+     *
+     * @return a positive integer
+     */
+    public default int getSubBatchSize(ConcurrentOplogBatchExecutorMetrics metrics,
+        NamespaceJob namespaceJob) {
+      return getSubBatchSize(metrics);
+    }
+
+    /**
+     * Returns how many sub batches of the given namespace job can be applied concurrently.
+     *
+     * <p>The default implementation does not limit them.
+     *
+     * @return a positive integer
+     */
+    public default int getParallelism(NamespaceJob namespaceJob) {
+      return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Called each time the transaction used to apply a sub batch is opened, with the time spent
+     * opening it.
+     */
+    public default void onTransactionWait(NamespaceJob subBatch, long waitNanos) {
+    }
+
+    /**
+     * Called each time a sub batch has been applied or has failed, with the time spent on it.
+     */
+    public default void onSubBatchFinished(NamespaceJob subBatch, long elapsedNanos,
+        boolean rolledBack) {
+    }
+
+    /**
+     * Called when a collection has been dropped or renamed, so the state kept for it can be
+     * released.
+     */
+    public default void onCollectionDropped(String database, String collection) {
+    }
+
+    /**
+     * Called when a database has been dropped, so the state kept for its collections can be
+     * released.
+     */
+    public default void onDatabaseDropped(String database) {
+    }
   }
 
 }
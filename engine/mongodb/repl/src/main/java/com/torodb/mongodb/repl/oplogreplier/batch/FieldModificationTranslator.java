@@ -0,0 +1,166 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongodb.language.Constants;
+import com.torodb.mongodb.language.update.CompositeUpdateAction;
+import com.torodb.mongodb.language.update.IncrementUpdateAction;
+import com.torodb.mongodb.language.update.MoveUpdateAction;
+import com.torodb.mongodb.language.update.MultiplyUpdateAction;
+import com.torodb.mongodb.language.update.SetCurrentDateUpdateAction;
+import com.torodb.mongodb.language.update.SetDocumentUpdateAction;
+import com.torodb.mongodb.language.update.SetFieldUpdateAction;
+import com.torodb.mongodb.language.update.SingleFieldUpdateAction;
+import com.torodb.mongodb.language.update.UnsetFieldUpdateAction;
+import com.torodb.mongodb.language.update.UpdateAction;
+import com.torodb.mongodb.language.update.UpdateActionVisitor;
+import com.torodb.torod.FieldModification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Translates {@link UpdateAction update actions} to the {@link FieldModification field
+ * modifications} that can be applied in place.
+ *
+ * Only sets, unsets and increments of top level fields are supported. Sets of subdocuments or
+ * arrays and modifications on nested paths must be applied by rewriting the whole document.
+ */
+public class FieldModificationTranslator {
+
+  private static final Translator TRANSLATOR = new Translator();
+
+  private FieldModificationTranslator() {
+  }
+
+  /**
+   * Returns the field modifications equivalent to the given update actions or null if at least
+   * one of them cannot be translated.
+   */
+  @Nullable
+  public static List<FieldModification> translate(List<UpdateAction> updateActions) {
+    if (updateActions.isEmpty()) {
+      return null;
+    }
+    List<FieldModification> result = new ArrayList<>();
+    for (UpdateAction updateAction : updateActions) {
+      if (!updateAction.accept(TRANSLATOR, result)) {
+        return null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the name of the top level field modified by the given action or null if it modifies
+   * something else.
+   */
+  @Nullable
+  private static String getTopLevelFieldName(SingleFieldUpdateAction action) {
+    if (action.getModifiedField().size() != 1) {
+      return null;
+    }
+    AttributeReference attRef = action.getModifiedField().iterator().next();
+    if (attRef.getKeys().size() != 1) {
+      return null;
+    }
+    Key<?> key = attRef.getKeys().get(0);
+    if (!(key instanceof ObjectKey)) {
+      return null;
+    }
+    String fieldName = ((ObjectKey) key).getKey();
+    if (fieldName.equals(Constants.ID)) {
+      return null;
+    }
+    return fieldName;
+  }
+
+  private static class Translator implements
+      UpdateActionVisitor<Boolean, List<FieldModification>> {
+
+    @Override
+    public Boolean visit(CompositeUpdateAction action, List<FieldModification> arg) {
+      for (SingleFieldUpdateAction subAction : action.getActions().values()) {
+        if (!subAction.accept(this, arg)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public Boolean visit(IncrementUpdateAction action, List<FieldModification> arg) {
+      String fieldName = getTopLevelFieldName(action);
+      if (fieldName == null) {
+        return false;
+      }
+      arg.add(FieldModification.increment(fieldName, action.getDelta()));
+      return true;
+    }
+
+    @Override
+    public Boolean visit(MoveUpdateAction action, List<FieldModification> arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(MultiplyUpdateAction action, List<FieldModification> arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(SetCurrentDateUpdateAction action, List<FieldModification> arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(SetDocumentUpdateAction action, List<FieldModification> arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(SetFieldUpdateAction action, List<FieldModification> arg) {
+      String fieldName = getTopLevelFieldName(action);
+      KvValue<?> newValue = action.getNewValue();
+      if (fieldName == null || newValue instanceof KvDocument || newValue instanceof KvArray) {
+        return false;
+      }
+      arg.add(FieldModification.set(fieldName, newValue));
+      return true;
+    }
+
+    @Override
+    public Boolean visit(UnsetFieldUpdateAction action, List<FieldModification> arg) {
+      String fieldName = getTopLevelFieldName(action);
+      if (fieldName == null) {
+        return false;
+      }
+      arg.add(FieldModification.unset(fieldName));
+      return true;
+    }
+  }
+}
@@ -32,10 +32,15 @@ import com.torodb.mongodb.core.WriteMongodTransaction;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpType;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.UpdateModAnalyzedOp;
+import com.torodb.torod.FieldModification;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -64,9 +69,14 @@ public class NamespaceJobExecutor {
       throw new NamespaceJobExecutionException(job, errors);
     }
     if (errors.isEmpty()) {
-      Map<AnalyzedOp, ToroDocument> fetchDocs = fetchDocs(job, transaction, fetchDids);
-      deleteDocs(job, transaction, fetchDids);
-      insertDocs(job, transaction, fetchDocs);
+      Set<AnalyzedOp> updatedInPlace = updateInPlace(job, transaction, fetchDids);
+      List<AnalyzedOp> toRewrite = job.getJobs().stream()
+          .filter(op -> !updatedInPlace.contains(op))
+          .collect(Collectors.toList());
+
+      Map<AnalyzedOp, ToroDocument> fetchDocs = fetchDocs(job, toRewrite, transaction, fetchDids);
+      deleteDocs(job, toRewrite, transaction, fetchDids);
+      insertDocs(job, toRewrite, transaction, fetchDocs);
     }
 
   }
@@ -124,9 +134,44 @@ public class NamespaceJobExecutor {
         .collect(Collectors.toList());
   }
 
-  private Map<AnalyzedOp, ToroDocument> fetchDocs(NamespaceJob job,
+  /**
+   * Applies the update operations whose modifications can be applied without fetching the
+   * documents they modify.
+   *
+   * @return the operations that have been applied
+   * @see FieldModificationTranslator
+   */
+  private Set<AnalyzedOp> updateInPlace(NamespaceJob job, WriteMongodTransaction transaction,
+      Map<AnalyzedOp, Integer> fetchDids) throws RollbackException, UserException {
+    Map<Integer, AnalyzedOp> didToOps = new HashMap<>();
+    Map<Integer, List<FieldModification>> modifications = new HashMap<>();
+    for (AnalyzedOp op : job.getJobs()) {
+      Integer did = fetchDids.get(op);
+      if (!(op instanceof UpdateModAnalyzedOp) || did == null) {
+        continue;
+      }
+      List<FieldModification> opModifications = FieldModificationTranslator.translate(
+          ((UpdateModAnalyzedOp) op).getUpdateActions());
+      if (opModifications != null) {
+        didToOps.put(did, op);
+        modifications.put(did, opModifications);
+      }
+    }
+    if (modifications.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    Set<Integer> notApplied = transaction.getTorodTransaction()
+        .updateInPlace(job.getDatabase(), job.getCollection(), modifications);
+    return didToOps.entrySet().stream()
+        .filter(entry -> !notApplied.contains(entry.getKey()))
+        .map(Map.Entry::getValue)
+        .collect(Collectors.toSet());
+  }
+
+  private Map<AnalyzedOp, ToroDocument> fetchDocs(NamespaceJob job, List<AnalyzedOp> ops,
       WriteMongodTransaction transaction, Map<AnalyzedOp, Integer> fetchDids) {
-    Map<Integer, AnalyzedOp> didToOps = job.getJobs().stream()
+    Map<Integer, AnalyzedOp> didToOps = ops.stream()
         .filter(AnalyzedOp::requiresFetch) //only care about ops that requires a fetch
         .collect(Collectors.toMap(
             op -> fetchDids.get(op),
@@ -145,13 +190,13 @@ public class NamespaceJobExecutor {
         );
   }
 
-  private void deleteDocs(NamespaceJob job, WriteMongodTransaction transaction,
-      Map<AnalyzedOp, Integer> fetchDids) {
+  private void deleteDocs(NamespaceJob job, List<AnalyzedOp> ops,
+      WriteMongodTransaction transaction, Map<AnalyzedOp, Integer> fetchDids) {
     if (fetchDids.isEmpty()) {
       return;
     }
 
-    Stream<Integer> didsToDelete = job.getJobs().stream()
+    Stream<Integer> didsToDelete = ops.stream()
         .filter(AnalyzedOp::deletes)
         .map(op -> fetchDids.get(op))
         .filter(did -> did != null);
@@ -160,8 +205,9 @@ public class NamespaceJobExecutor {
         new IteratorCursor<>(didsToDelete.iterator()));
   }
 
-  private void insertDocs(NamespaceJob job, WriteMongodTransaction transaction,
-      Map<AnalyzedOp, ToroDocument> fetchDocs) throws UserException {
+  private void insertDocs(NamespaceJob job, List<AnalyzedOp> ops,
+      WriteMongodTransaction transaction, Map<AnalyzedOp, ToroDocument> fetchDocs)
+      throws UserException {
     Function<AnalyzedOp, KvDocument> getFetchDocFun = op -> {
       ToroDocument fetchToroDoc = fetchDocs.get(op);
       if (fetchToroDoc == null) {
@@ -170,7 +216,7 @@ public class NamespaceJobExecutor {
         return fetchToroDoc.getRoot();
       }
     };
-    Stream<KvDocument> docsToInsert = job.getJobs().stream()
+    Stream<KvDocument> docsToInsert = ops.stream()
         .map(op -> op.calculateDocToInsert(getFetchDocFun))
         .filter(doc -> doc != null);
 
@@ -0,0 +1,193 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import com.eightkdata.mongowp.bson.BsonDocument;
+import com.eightkdata.mongowp.bson.BsonValue;
+import com.eightkdata.mongowp.server.api.oplog.CollectionOplogOperation;
+import com.eightkdata.mongowp.server.api.oplog.DbCmdOplogOperation;
+import com.eightkdata.mongowp.server.api.oplog.OplogOperation;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Schedules the tasks that apply a sequence of {@link AnalyzedOplogBatch analyzed batches} on an
+ * executor, running concurrently the ones that affect different namespaces.
+ *
+ * Each task is submitted once the previous tasks it depends on have finished. A task depends on
+ * the previous ones that affect its namespace, so the operations on a namespace are applied in
+ * oplog order. Commands that affect a whole database work as barriers for the namespaces of that
+ * database, and commands whose scope is unknown work as barriers for all of them.
+ */
+@NotThreadSafe
+public class NamespaceJobScheduler {
+
+  private static final ImmutableSet<String> COLLECTION_COMMANDS = ImmutableSet.of(
+      "create", "drop", "createIndexes", "dropIndexes", "deleteIndexes", "collMod",
+      "emptycapped", "convertToCapped");
+  private static final ImmutableSet<String> DATABASE_COMMANDS = ImmutableSet.of(
+      "dropDatabase");
+
+  private final Executor executor;
+  private final List<CompletableFuture<?>> scheduled = new ArrayList<>();
+  private final Table<String, String, CompletableFuture<?>> namespaceTails =
+      HashBasedTable.create();
+  private final Map<String, CompletableFuture<?>> databaseBarriers = new HashMap<>();
+  private CompletableFuture<?> globalBarrier = CompletableFuture.completedFuture(null);
+
+  public NamespaceJobScheduler(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Schedules a group of tasks that affect the given namespace and that can be executed
+   * concurrently between them.
+   */
+  public void scheduleOnNamespace(String database, String collection, Collection<Task> tasks) {
+    CompletableFuture<?> dependency = getNamespaceTail(database, collection);
+    CompletableFuture<?>[] submitted = tasks.stream()
+        .map(task -> submit(dependency, task))
+        .toArray(CompletableFuture<?>[]::new);
+    if (submitted.length == 1) {
+      namespaceTails.put(database, collection, submitted[0]);
+    } else if (submitted.length > 1) {
+      namespaceTails.put(database, collection, CompletableFuture.allOf(submitted));
+    }
+  }
+
+  /**
+   * Schedules a task that can affect any namespace of the given database.
+   */
+  public void scheduleOnDatabase(String database, Task task) {
+    CompletableFuture<?> dependency = allOf(Stream.concat(
+        Stream.of(getDatabaseBarrier(database)),
+        namespaceTails.row(database).values().stream()
+    ));
+    namespaceTails.row(database).clear();
+    databaseBarriers.put(database, submit(dependency, task));
+  }
+
+  /**
+   * Schedules a task that can affect any namespace.
+   */
+  public void scheduleOnAll(Task task) {
+    CompletableFuture<?> dependency = allOf(Stream.concat(
+        Stream.concat(Stream.of(globalBarrier), databaseBarriers.values().stream()),
+        namespaceTails.values().stream()
+    ));
+    namespaceTails.clear();
+    databaseBarriers.clear();
+    globalBarrier = submit(dependency, task);
+  }
+
+  /**
+   * Schedules a task that applies the given operation, using the namespaces it affects as its
+   * dependencies.
+   */
+  public void schedule(OplogOperation op, Task task) {
+    if (op instanceof CollectionOplogOperation) {
+      //CUD operations on system collections can modify any collection of their database
+      scheduleOnDatabase(((CollectionOplogOperation) op).getDatabase(), task);
+    } else if (op instanceof DbCmdOplogOperation) {
+      DbCmdOplogOperation cmdOp = (DbCmdOplogOperation) op;
+      String commandName = cmdOp.getCommandName().orElse(null);
+      String collection = getTargetCollection(commandName, cmdOp.getRequest());
+      if (collection != null) {
+        scheduleOnNamespace(cmdOp.getDatabase(), collection, Collections.singleton(task));
+      } else if (DATABASE_COMMANDS.contains(commandName)) {
+        scheduleOnDatabase(cmdOp.getDatabase(), task);
+      } else {
+        scheduleOnAll(task);
+      }
+    } else {
+      scheduleOnAll(task);
+    }
+  }
+
+  /**
+   * Returns a future that is completed once all scheduled tasks have finished. If one of them
+   * fails, the future is completed exceptionally with its error as cause.
+   */
+  public CompletableFuture<?> whenAllFinished() {
+    return CompletableFuture.allOf(scheduled.toArray(new CompletableFuture<?>[scheduled.size()]));
+  }
+
+  @Nullable
+  private static String getTargetCollection(@Nullable String commandName,
+      @Nullable BsonDocument request) {
+    if (commandName == null || request == null || !COLLECTION_COMMANDS.contains(commandName)
+        || request.isEmpty()) {
+      return null;
+    }
+    BsonValue<?> target = request.getFirstEntry().getValue();
+    if (!target.isString()) {
+      return null;
+    }
+    return target.asString().getValue();
+  }
+
+  private CompletableFuture<?> getNamespaceTail(String database, String collection) {
+    CompletableFuture<?> tail = namespaceTails.get(database, collection);
+    if (tail == null) {
+      return getDatabaseBarrier(database);
+    }
+    return tail;
+  }
+
+  private CompletableFuture<?> getDatabaseBarrier(String database) {
+    return databaseBarriers.getOrDefault(database, globalBarrier);
+  }
+
+  private CompletableFuture<?> submit(CompletableFuture<?> dependency, Task task) {
+    CompletableFuture<?> result = dependency.thenRunAsync(() -> {
+      try {
+        task.run();
+      } catch (Exception ex) {
+        throw new CompletionException(ex);
+      }
+    }, executor);
+    scheduled.add(result);
+    return result;
+  }
+
+  private static CompletableFuture<?> allOf(Stream<CompletableFuture<?>> futures) {
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new));
+  }
+
+  @FunctionalInterface
+  public static interface Task {
+
+    public void run() throws Exception;
+  }
+}
@@ -40,7 +40,10 @@ import com.torodb.mongodb.repl.oplogreplier.batch.AnalyzedOplogBatchExecutor.Ana
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 /**
@@ -104,28 +107,120 @@ public class SimpleAnalyzedOplogBatchExecutor extends AbstractService
   protected void execute(NamespaceJob job, ApplierContext applierContext,
       MongodConnection connection) throws RollbackException, UserException,
       NamespaceJobExecutionException {
+    execute(job, applierContext, connection, (CheckpointWriter) null);
+  }
+
+  private void execute(NamespaceJob job, ApplierContext applierContext,
+      MongodConnection connection, @Nullable CheckpointWriter checkpointWriter)
+      throws RollbackException, UserException, NamespaceJobExecutionException {
     try (Context timerContext = metrics.getNamespaceBatchTimer().time()) {
       boolean optimisticDeleteAndCreate = applierContext.isReapplying().orElse(true);
       try {
-        execute(job, applierContext, connection, optimisticDeleteAndCreate);
+        execute(job, applierContext, connection, optimisticDeleteAndCreate, checkpointWriter);
       } catch (UniqueIndexViolationException ex) {
         assert optimisticDeleteAndCreate : "Unique index violations should not happen when "
             + "pesimistic delete and create is executed";
-        execute(job, applierContext, connection, false);
+        execute(job, applierContext, connection, false, checkpointWriter);
       }
     }
   }
 
   private void execute(NamespaceJob job, ApplierContext applierContext,
-      MongodConnection connection, boolean optimisticDeleteAndCreate)
+      MongodConnection connection, boolean optimisticDeleteAndCreate,
+      @Nullable CheckpointWriter checkpointWriter)
       throws RollbackException, UserException, NamespaceJobExecutionException,
       UniqueIndexViolationException {
+    long waitStart = System.nanoTime();
     try (WriteMongodTransaction mongoTransaction = connection.openWriteTransaction()) {
+      onWriteTransactionOpened(job, System.nanoTime() - waitStart);
       namespaceJobExecutor.apply(job, mongoTransaction, applierContext, optimisticDeleteAndCreate);
+      if (checkpointWriter != null) {
+        checkpointWriter.write(mongoTransaction);
+      }
       mongoTransaction.commit();
     }
   }
 
+  /**
+   * Applies the given job on a single write transaction and calls the checkpoint writer on it
+   * before it is committed.
+   */
+  protected void executeWithCheckpoint(NamespaceJob job, ApplierContext applierContext,
+      CheckpointWriter checkpointWriter) throws RollbackException, UserException,
+      NamespaceJobExecutionException {
+    try (MongodConnection connection = server.openConnection()) {
+      execute(job, applierContext, connection, checkpointWriter);
+    }
+  }
+
+  /**
+   * Returns true iff the given job is applied on a single write transaction.
+   */
+  protected boolean isAppliedOnOneTransaction(NamespaceJob job) {
+    return true;
+  }
+
+  /**
+   * The checkpoint is written on the transaction that applies the batches when they are a single
+   * {@link CudAnalyzedOplogBatch} with a single {@link NamespaceJob} that is
+   * {@link #isAppliedOnOneTransaction(NamespaceJob) applied on one transaction}.
+   */
+  @Override
+  public boolean applyAll(List<AnalyzedOplogBatch> batches, ApplierContext replContext,
+      CheckpointWriter checkpointWriter) throws RetrierGiveUpException, RetrierAbortException {
+    NamespaceJob job = getSingleTransactionJob(batches);
+    if (job == null) {
+      applyAll(batches, replContext);
+      return false;
+    }
+    CudAnalyzedOplogBatch batch = (CudAnalyzedOplogBatch) batches.get(0);
+    metrics.getCudBatchSize().update(batch.getOriginalBatch().size());
+    try (Context context = metrics.getCudBatchTimer().time()) {
+      try {
+        executeWithCheckpoint(job, replContext, checkpointWriter);
+      } catch (UserException | NamespaceJobExecutionException ex) {
+        throw new RetrierGiveUpException("Unexpected exception while replying", ex);
+      } catch (RollbackException ex) {
+        ApplierContext retryingReplingContext = new ApplierContext.Builder()
+            .setReapplying(true)
+            .setUpdatesAsUpserts(true)
+            .build();
+        retrier.retry(() -> {
+          try {
+            executeWithCheckpoint(job, retryingReplingContext, checkpointWriter);
+            return Empty.getInstance();
+          } catch (UserException | NamespaceJobExecutionException ex2) {
+            throw new RetrierAbortException("Unexpected user exception while applying "
+                + "the batch " + batch, ex2);
+          }
+        }, Hint.CRITICAL, Hint.TIME_SENSIBLE);
+      }
+    }
+    return true;
+  }
+
+  @Nullable
+  private NamespaceJob getSingleTransactionJob(List<AnalyzedOplogBatch> batches) {
+    if (batches.size() != 1 || !(batches.get(0) instanceof CudAnalyzedOplogBatch)) {
+      return null;
+    }
+    List<NamespaceJob> jobs = ((CudAnalyzedOplogBatch) batches.get(0)).streamNamespaceJobs()
+        .limit(2)
+        .collect(Collectors.toList());
+    if (jobs.size() != 1 || !isAppliedOnOneTransaction(jobs.get(0))) {
+      return null;
+    }
+    return jobs.get(0);
+  }
+
+  /**
+   * Called once the write transaction used to apply the given job has been opened, with the time
+   * spent opening it.
+   */
+  protected void onWriteTransactionOpened(NamespaceJob job, long waitNanos) {
+    metrics.getTransactionWaitTimer().update(waitNanos, TimeUnit.NANOSECONDS);
+  }
+
   @Override
   public OplogOperation visit(SingleOpAnalyzedOplogBatch batch, ApplierContext arg) throws
       RetrierGiveUpException {
@@ -188,4 +283,8 @@ public class SimpleAnalyzedOplogBatchExecutor extends AbstractService
   protected MongodServer getServer() {
     return server;
   }
+
+  protected Retrier getRetrier() {
+    return retrier;
+  }
 }
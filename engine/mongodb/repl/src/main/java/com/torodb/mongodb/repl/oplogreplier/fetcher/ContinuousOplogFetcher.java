@@ -102,12 +102,13 @@ public class ContinuousOplogFetcher implements OplogFetcher {
           MongoCursor<OplogOperation> cursor = state.getLastUsedMongoCursor();
           Batch<OplogOperation> batch = cursor.tryFetchBatch();
 
+          if ((batch == null || !batch.hasNext()) && cursor.isTailable()) {
+            //the cursor awaits data, so the sync source holds this request until new entries
+            //are written on its oplog or its await timeout expires
+            batch = cursor.fetchBatch();
+          }
           if (batch == null || !batch.hasNext()) {
-            Thread.sleep(1000);
-            batch = cursor.tryFetchBatch();
-            if (batch == null || !batch.hasNext()) {
-              return NotReadyForMoreOplogBatch.getInstance();
-            }
+            return NotReadyForMoreOplogBatch.getInstance();
           }
           List<OplogOperation> fetchedOps = null;
           long fetchTime = 0;
@@ -367,6 +368,8 @@ public class ContinuousOplogFetcher implements OplogFetcher {
       lastFetchedOpTime = lastOp.getOpTime();
 
       metrics.getLastOpTimeFetched().setValue(state.lastFetchedOpTime.toString());
+      metrics.getFetchLag().setValue(
+          System.currentTimeMillis() - lastFetchedOpTime.toOldBson().getMillisFromUnix());
     }
 
   }
@@ -0,0 +1,162 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import com.google.common.base.Preconditions;
+import com.torodb.mongodb.repl.ReplMetrics;
+import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.OplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.RollbackReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.StopReplicationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.Nullable;
+
+/**
+ * An {@link OplogFetcher} that fetches from a delegate on its own thread, so up to a given number
+ * of batches are already fetched when {@link #fetch()} is called.
+ *
+ * The delegate is only accessed by the prefetching thread. When this fetcher is closed, the
+ * prefetching thread is interrupted and the delegate is closed once it finishes, or after a
+ * bounded wait if it is blocked on something that cannot be interrupted.
+ */
+public class PrefetchingOplogFetcher implements OplogFetcher {
+
+  private static final Logger LOGGER = LogManager.getLogger(PrefetchingOplogFetcher.class);
+  private static final Prefetched FINISHED = new Prefetched(FinishedOplogBatch.getInstance(), null);
+  private static final long PREFETCHER_JOIN_MILLIS = 10_000;
+
+  private final OplogFetcher delegate;
+  private final BlockingQueue<Prefetched> queue;
+  private final ThreadFactory threadFactory;
+  private final ReplMetrics metrics;
+  private volatile boolean closed = false;
+  private Thread prefetcher;
+  private boolean finished = false;
+
+  public PrefetchingOplogFetcher(OplogFetcher delegate, int prefetchedBatches,
+      ThreadFactory threadFactory, ReplMetrics metrics) {
+    Preconditions.checkArgument(prefetchedBatches > 0, "At least one batch must be prefetched");
+    this.delegate = delegate;
+    this.queue = new ArrayBlockingQueue<>(prefetchedBatches);
+    this.threadFactory = threadFactory;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public OplogBatch fetch() throws StopReplicationException, RollbackReplicationException {
+    if (finished || closed) {
+      return FinishedOplogBatch.getInstance();
+    }
+    if (prefetcher == null) {
+      prefetcher = threadFactory.newThread(this::prefetch);
+      prefetcher.start();
+    }
+    Prefetched prefetched;
+    try {
+      prefetched = queue.take();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new StopReplicationException("Interrupted while waiting for the next batch", ex);
+    }
+    metrics.getFetchQueueSize().setValue(queue.size());
+
+    if (prefetched.isTerminal()) {
+      finished = true;
+    }
+    return prefetched.get();
+  }
+
+  private void prefetch() {
+    try {
+      Prefetched prefetched;
+      do {
+        try {
+          prefetched = new Prefetched(delegate.fetch(), null);
+        } catch (StopReplicationException | RollbackReplicationException ex) {
+          prefetched = new Prefetched(null, ex);
+        } catch (RuntimeException ex) {
+          prefetched = new Prefetched(null, new StopReplicationException(
+              "Unexpected error while fetching the remote oplog", ex));
+        }
+        queue.put(prefetched);
+        metrics.getFetchQueueSize().setValue(queue.size());
+      } while (!prefetched.isTerminal() && !closed);
+    } catch (InterruptedException ex) {
+      LOGGER.debug("Oplog prefetcher interrupted");
+    }
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (prefetcher != null) {
+      prefetcher.interrupt();
+      try {
+        prefetcher.join(PREFETCHER_JOIN_MILLIS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      if (prefetcher.isAlive()) {
+        LOGGER.warn("The oplog prefetcher did not finish in {} ms. Its fetcher is going to be "
+            + "closed while it is being used", PREFETCHER_JOIN_MILLIS);
+      }
+    }
+    delegate.close();
+    //wakes up a consumer that could be waiting for a batch that is not going to be fetched
+    queue.clear();
+    queue.offer(FINISHED);
+  }
+
+  private static class Prefetched {
+
+    @Nullable
+    private final OplogBatch batch;
+    @Nullable
+    private final Exception error;
+
+    private Prefetched(@Nullable OplogBatch batch, @Nullable Exception error) {
+      this.batch = batch;
+      this.error = error;
+    }
+
+    private boolean isTerminal() {
+      return error != null || batch.isLastOne();
+    }
+
+    private OplogBatch get() throws StopReplicationException, RollbackReplicationException {
+      if (error instanceof StopReplicationException) {
+        throw (StopReplicationException) error;
+      }
+      if (error instanceof RollbackReplicationException) {
+        throw (RollbackReplicationException) error;
+      }
+      assert batch != null;
+      return batch;
+    }
+  }
+}
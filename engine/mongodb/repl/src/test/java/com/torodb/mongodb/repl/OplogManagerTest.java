@@ -0,0 +1,180 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.eightkdata.mongowp.OpTime;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.core.retrier.NeverRetryRetrier;
+import com.torodb.mongodb.core.MongodConnection;
+import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.core.WriteMongodTransaction;
+import com.torodb.mongodb.repl.OplogManager.CheckpointMode;
+import com.torodb.mongodb.repl.OplogManager.ReadOplogTransaction;
+import com.torodb.mongodb.repl.OplogManager.WriteOplogTransaction;
+import com.torodb.mongodb.repl.oplogreplier.DefaultOplogApplierTest.DefaultMongodModule;
+import com.torodb.mongodb.repl.oplogreplier.OpTimeFactory;
+import com.torodb.mongodb.repl.oplogreplier.OplogTestContextResourceRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+public class OplogManagerTest {
+
+  @Rule
+  public OplogTestContextResourceRule testContextResource =
+      new OplogTestContextResourceRule(DefaultMongodModule::new);
+  private final OpTimeFactory opTimeFactory = new OpTimeFactory();
+  private final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+      .setNameFormat("oplog-manager-test-%d")
+      .build();
+  private final ReplMetrics metrics = new ReplMetrics(new DisabledMetricRegistry());
+  private MongodServer mongodServer;
+
+  @Before
+  public void setUp() {
+    mongodServer = testContextResource.getTestContext().getMongodServer();
+  }
+
+  @Test
+  public void testResumeWithoutCheckpoint() throws Exception {
+    assertResumes(CheckpointMode.COLLECTION, 0, OpTime.EPOCH);
+    assertResumes(CheckpointMode.META_INFO, 0, OpTime.EPOCH);
+  }
+
+  @Test
+  public void testStoreAndResume_Collection() throws Exception {
+    testStoreAndResume(CheckpointMode.COLLECTION);
+  }
+
+  @Test
+  public void testStoreAndResume_MetaInfo() throws Exception {
+    testStoreAndResume(CheckpointMode.META_INFO);
+  }
+
+  private void testStoreAndResume(CheckpointMode mode) throws Exception {
+    OpTime opTime1 = opTimeFactory.newOpTime(10);
+    OpTime opTime2 = opTimeFactory.newOpTime(20);
+
+    store(mode, 1, opTime1);
+    assertResumes(mode, 1, opTime1);
+
+    store(mode, 2, opTime2);
+    assertResumes(mode, 2, opTime2);
+  }
+
+  @Test
+  public void testSwitchModes() throws Exception {
+    OpTime opTime1 = opTimeFactory.newOpTime(10);
+    OpTime opTime2 = opTimeFactory.newOpTime(20);
+    OpTime opTime3 = opTimeFactory.newOpTime(30);
+
+    store(CheckpointMode.COLLECTION, 1, opTime1);
+    assertResumes(CheckpointMode.META_INFO, 1, opTime1);
+
+    store(CheckpointMode.META_INFO, 2, opTime2);
+    assertResumes(CheckpointMode.COLLECTION, 2, opTime2);
+
+    store(CheckpointMode.COLLECTION, 3, opTime3);
+    assertResumes(CheckpointMode.META_INFO, 3, opTime3);
+    assertResumes(CheckpointMode.COLLECTION, 3, opTime3);
+  }
+
+  @Test
+  public void testTransactionalCheckpoint() throws Exception {
+    OpTime opTime1 = opTimeFactory.newOpTime(10);
+    OpTime opTime2 = opTimeFactory.newOpTime(20);
+
+    store(CheckpointMode.META_INFO, 1, opTime1);
+
+    OplogManager oplogManager = start(CheckpointMode.META_INFO);
+    try (MongodConnection connection = mongodServer.openConnection()) {
+      assertTrue(oplogManager.isTransactionalCheckpoint());
+
+      try (WriteMongodTransaction transaction = connection.openWriteTransaction()) {
+        oplogManager.writeCheckpoint(transaction, 2, opTime2);
+      }
+      assertResumes(CheckpointMode.META_INFO, 1, opTime1);
+
+      try (WriteMongodTransaction transaction = connection.openWriteTransaction()) {
+        oplogManager.writeCheckpoint(transaction, 2, opTime2);
+        transaction.commit();
+      }
+      try (WriteOplogTransaction writeTrans = oplogManager.createWriteTransaction()) {
+        writeTrans.notifyStoredValue(2, opTime2);
+        assertEquals(2, writeTrans.getLastAppliedHash());
+        assertEquals(opTime2, writeTrans.getLastAppliedOptime());
+      }
+    } finally {
+      stop(oplogManager);
+    }
+    assertResumes(CheckpointMode.META_INFO, 2, opTime2);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTransactionalCheckpoint_Collection() throws Exception {
+    OplogManager oplogManager = start(CheckpointMode.COLLECTION);
+    try (MongodConnection connection = mongodServer.openConnection();
+        WriteMongodTransaction transaction = connection.openWriteTransaction()) {
+      assertFalse(oplogManager.isTransactionalCheckpoint());
+      oplogManager.writeCheckpoint(transaction, 1, opTimeFactory.newOpTime(10));
+    } finally {
+      stop(oplogManager);
+    }
+  }
+
+  private OplogManager start(CheckpointMode mode) {
+    OplogManager oplogManager = new OplogManager(threadFactory, mongodServer,
+        NeverRetryRetrier.getInstance(), metrics, mode);
+    oplogManager.startAsync();
+    oplogManager.awaitRunning();
+    return oplogManager;
+  }
+
+  private void stop(OplogManager oplogManager) {
+    oplogManager.stopAsync();
+    oplogManager.awaitTerminated();
+  }
+
+  private void store(CheckpointMode mode, long hash, OpTime opTime) throws Exception {
+    OplogManager oplogManager = start(mode);
+    try (WriteOplogTransaction writeTrans = oplogManager.createWriteTransaction()) {
+      writeTrans.forceNewValue(hash, opTime);
+    } finally {
+      stop(oplogManager);
+    }
+  }
+
+  private void assertResumes(CheckpointMode mode, long hash, OpTime opTime) {
+    OplogManager oplogManager = start(mode);
+    try (ReadOplogTransaction readTrans = oplogManager.createReadTransaction()) {
+      assertEquals("Unexpected hash resumed on " + mode, hash, readTrans.getLastAppliedHash());
+      assertEquals("Unexpected optime resumed on " + mode, opTime,
+          readTrans.getLastAppliedOptime());
+    } finally {
+      stop(oplogManager);
+    }
+  }
+}
@@ -44,7 +44,7 @@ public abstract class DefaultOplogApplierTest extends AbstractOplogApplierTest {
     return new DefaultMongodModule();
   }
 
-  private static class DefaultMongodModule extends PrivateModule {
+  public static class DefaultMongodModule extends PrivateModule {
 
     @Override
     protected void configure() {
@@ -47,6 +47,7 @@ import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.core.MongodServerConfig;
 import com.torodb.mongodb.guice.MongoLayerModule;
 import com.torodb.mongodb.repl.OplogManager;
+import com.torodb.mongodb.repl.OplogManager.CheckpointMode;
 import com.torodb.mongodb.repl.commands.ReplCommandsGuiceModule;
 import com.torodb.mongodb.repl.guice.AkkaDbClonerProvider;
 import com.torodb.mongodb.repl.guice.DocsPerTransaction;
@@ -234,6 +235,9 @@ public class OplogTestContextResourceRule extends ExternalResource {
           .annotatedWith(MongoDbRepl.class)
           .to(TestReplSupervisor.class);
 
+      bind(CheckpointMode.class)
+          .toInstance(CheckpointMode.COLLECTION);
+
       install(new ReplCommandsGuiceModule());
     }
 
@@ -0,0 +1,145 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.ConcurrentOplogBatchExecutorMetrics;
+import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.NamespaceGauges;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class AdaptiveSubBatchHeuristicTest {
+
+  private static final int MAX_PARALLELISM = 8;
+  private AdaptiveSubBatchHeuristic heuristic;
+  private ConcurrentOplogBatchExecutorMetrics metrics;
+  private NamespaceGauges gauges;
+  private NamespaceGauges otherGauges;
+
+  @Before
+  public void setUp() {
+    heuristic = new AdaptiveSubBatchHeuristic(MAX_PARALLELISM);
+    metrics = mock(ConcurrentOplogBatchExecutorMetrics.class);
+    gauges = new NamespaceGauges();
+    otherGauges = new NamespaceGauges();
+    given(metrics.getNamespaceGauges("db", "col")).willReturn(gauges);
+    given(metrics.getNamespaceGauges("db", "other")).willReturn(otherGauges);
+  }
+
+  @Test
+  public void testInitialSize() {
+    assertEquals(AdaptiveSubBatchHeuristic.INITIAL_SUB_BATCH_SIZE,
+        heuristic.getSubBatchSize(metrics, createJob("col", 20)));
+    assertEquals(1000 / MAX_PARALLELISM,
+        heuristic.getSubBatchSize(metrics, createJob("col", 1000)));
+  }
+
+  @Test
+  public void testSizeIsBounded() {
+    int jobs = 2 * MAX_PARALLELISM * AdaptiveSubBatchHeuristic.MAX_SUB_BATCH_SIZE;
+    assertEquals(AdaptiveSubBatchHeuristic.MAX_SUB_BATCH_SIZE,
+        heuristic.getSubBatchSize(metrics, createJob("col", jobs)));
+    assertEquals(MAX_PARALLELISM, heuristic.getParallelism(createJob("col", jobs)));
+  }
+
+  @Test
+  public void testSizeFollowsOpCost() {
+    NamespaceJob subBatch = createJob("col", 100);
+    for (int i = 0; i < 50; i++) {
+      //each op takes 5% of the target latency
+      finish(subBatch, AdaptiveSubBatchHeuristic.TARGET_LATENCY_NANOS * 5, 0);
+    }
+    assertEquals(20, heuristic.getSubBatchSize(metrics, createJob("col", 20)));
+
+    for (int i = 0; i < 50; i++) {
+      finish(subBatch, AdaptiveSubBatchHeuristic.TARGET_LATENCY_NANOS * 100, 0);
+    }
+    assertEquals(AdaptiveSubBatchHeuristic.MIN_SUB_BATCH_SIZE,
+        heuristic.getSubBatchSize(metrics, createJob("col", 20)));
+  }
+
+  @Test
+  public void testParallelismDecreasesOnTransactionWait() {
+    NamespaceJob subBatch = createJob("col", 10);
+    for (int i = 0; i < 20; i++) {
+      finish(subBatch, 1_000_000, 900_000);
+    }
+    heuristic.getSubBatchSize(metrics, subBatch);
+    assertEquals(1, (int) gauges.getSubBatchParallelism().getValue());
+
+    for (int i = 0; i < 100; i++) {
+      finish(subBatch, 1_000_000, 0);
+    }
+    heuristic.getSubBatchSize(metrics, subBatch);
+    assertEquals(MAX_PARALLELISM, (int) gauges.getSubBatchParallelism().getValue());
+  }
+
+  @Test
+  public void testParallelismDecreasesOnRollback() {
+    NamespaceJob subBatch = createJob("col", 10);
+    heuristic.onSubBatchFinished(subBatch, 1_000_000, true);
+    heuristic.getSubBatchSize(metrics, subBatch);
+    assertEquals(MAX_PARALLELISM / 2, (int) gauges.getSubBatchParallelism().getValue());
+    assertEquals(MAX_PARALLELISM / 2, heuristic.getParallelism(subBatch));
+
+    //the sub batches that were running with the old parallelism do not decrease it again
+    for (int i = 1; i < MAX_PARALLELISM / 2; i++) {
+      heuristic.onSubBatchFinished(subBatch, 1_000_000, true);
+    }
+    assertEquals(MAX_PARALLELISM / 2, heuristic.getParallelism(subBatch));
+    heuristic.onSubBatchFinished(subBatch, 1_000_000, true);
+    assertEquals(MAX_PARALLELISM / 4, heuristic.getParallelism(subBatch));
+
+    heuristic.getSubBatchSize(metrics, createJob("other", 10));
+    assertEquals(MAX_PARALLELISM, (int) otherGauges.getSubBatchParallelism().getValue());
+  }
+
+  @Test
+  public void testDroppedNamespacesAreForgotten() {
+    NamespaceJob subBatch = createJob("col", 10);
+    NamespaceJob otherSubBatch = createJob("other", 10);
+    heuristic.onSubBatchFinished(subBatch, 1_000_000, true);
+    heuristic.onSubBatchFinished(otherSubBatch, 1_000_000, true);
+
+    heuristic.onCollectionDropped("db", "col");
+    heuristic.getSubBatchSize(metrics, subBatch);
+    heuristic.getSubBatchSize(metrics, otherSubBatch);
+    assertEquals(MAX_PARALLELISM, (int) gauges.getSubBatchParallelism().getValue());
+    assertEquals(MAX_PARALLELISM / 2, (int) otherGauges.getSubBatchParallelism().getValue());
+
+    heuristic.onDatabaseDropped("db");
+    heuristic.getSubBatchSize(metrics, otherSubBatch);
+    assertEquals(MAX_PARALLELISM, (int) otherGauges.getSubBatchParallelism().getValue());
+  }
+
+  private void finish(NamespaceJob subBatch, long elapsedNanos, long waitNanos) {
+    heuristic.onTransactionWait(subBatch, waitNanos);
+    heuristic.onSubBatchFinished(subBatch, elapsedNanos, false);
+  }
+
+  private NamespaceJob createJob(String collection, int ops) {
+    return new NamespaceJob("db", collection, Collections.nCopies(ops, null));
+  }
+
+}
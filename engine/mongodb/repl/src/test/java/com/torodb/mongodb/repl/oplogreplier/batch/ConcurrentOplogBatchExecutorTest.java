@@ -94,11 +94,21 @@ public class ConcurrentOplogBatchExecutorTest {
 
   @Test
   public void testExecute() throws Exception {
+    testExecute(Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testExecuteWithLimitedParallelism() throws Exception {
+    testExecute(1);
+  }
+
+  private void testExecute(int parallelism) throws Exception {
     int batchSize = 100;
     int opsPerJob = 20;
     int subBatchSize = 11;
     int subBatchesPerJob = opsPerJob / subBatchSize + (opsPerJob % subBatchSize != 0 ? 1 : 0);
     int expectedSize = batchSize * subBatchesPerJob;
+    int expectedCallables = batchSize * Math.min(parallelism, subBatchesPerJob);
     //GIVEN
     CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
     List<NamespaceJob> jobs = new ArrayList<>();
@@ -125,7 +135,8 @@ public class ConcurrentOplogBatchExecutorTest {
     Meter mockMeter = mock(Meter.class);
 
     given(batch.streamNamespaceJobs()).willReturn(jobs.stream());
-    given(subBatchHeuristic.getSubBatchSize(any())).willReturn(subBatchSize);
+    given(subBatchHeuristic.getSubBatchSize(any(), any())).willReturn(subBatchSize);
+    given(subBatchHeuristic.getParallelism(any())).willReturn(parallelism);
     given(metrics.getSubBatchSizeHistogram()).willReturn(mockHistogram);
     given(metrics.getSubBatchSizeMeter()).willReturn(mockMeter);
     given(streamExecutor.execute(any()))
@@ -148,7 +159,7 @@ public class ConcurrentOplogBatchExecutorTest {
     //THEN
     then(mockHistogram).should().update(expectedSize);
     then(mockMeter).should().mark(expectedSize);
-    assertEquals(expectedSize, callablesCounter.get());
+    assertEquals(expectedCallables, callablesCounter.get());
   }
 
   private AnalyzedOp createAnalyzedOp(AnalyzedOp ignored) {
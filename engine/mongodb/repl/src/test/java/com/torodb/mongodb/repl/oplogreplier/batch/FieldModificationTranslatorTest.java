@@ -0,0 +1,96 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.heap.MapKvDocument;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.mongodb.language.update.IncrementUpdateAction;
+import com.torodb.mongodb.language.update.SetFieldUpdateAction;
+import com.torodb.mongodb.language.update.UnsetFieldUpdateAction;
+import com.torodb.mongodb.language.update.UpdateAction;
+import com.torodb.torod.FieldModification;
+import com.torodb.torod.FieldModification.Kind;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FieldModificationTranslatorTest {
+
+  @Test
+  public void testTopLevelFields() {
+    List<FieldModification> result = FieldModificationTranslator.translate(Arrays.asList(
+        new SetFieldUpdateAction(attRef("a"), new StringKvString("value")),
+        new IncrementUpdateAction(attRef("b"), KvDouble.of(1.5)),
+        new UnsetFieldUpdateAction(attRef("c"))
+    ));
+
+    assertEquals(3, result.size());
+    assertModification(result.get(0), "a", Kind.SET, new StringKvString("value"));
+    assertModification(result.get(1), "b", Kind.INCREMENT, KvDouble.of(1.5));
+    assertModification(result.get(2), "c", Kind.UNSET, null);
+  }
+
+  @Test
+  public void testNestedField() {
+    assertNull(FieldModificationTranslator.translate(Collections.singletonList(
+        new SetFieldUpdateAction(attRef("a", "b"), KvInteger.of(1)))));
+  }
+
+  @Test
+  public void testSubdocumentValue() {
+    assertNull(FieldModificationTranslator.translate(Collections.singletonList(
+        new SetFieldUpdateAction(attRef("a"), new MapKvDocument.Builder()
+            .putValue("b", KvInteger.of(1))
+            .build()))));
+  }
+
+  @Test
+  public void testId() {
+    assertNull(FieldModificationTranslator.translate(Collections.singletonList(
+        new SetFieldUpdateAction(attRef("_id"), KvInteger.of(1)))));
+  }
+
+  @Test
+  public void testUnknownActions() {
+    assertNull(FieldModificationTranslator.translate(Collections.<UpdateAction>emptyList()));
+  }
+
+  private static List<AttributeReference> attRef(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return Collections.singletonList(builder.build());
+  }
+
+  private static void assertModification(FieldModification modification, String fieldName,
+      Kind kind, Object value) {
+    assertEquals(fieldName, modification.getFieldName());
+    assertEquals(kind, modification.getKind());
+    assertEquals(value, modification.getValue());
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.Sets;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.cursors.IteratorCursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.MapKvDocument;
+import com.torodb.mongodb.core.WriteMongodTransaction;
+import com.torodb.mongodb.language.update.SetFieldUpdateAction;
+import com.torodb.mongodb.language.update.UpdateAction;
+import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.UpdateModAnalyzedOp;
+import com.torodb.torod.FieldModification;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.cursors.TorodCursor;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class NamespaceJobExecutorTest {
+
+  private static final String DB = "db";
+  private static final String COL = "col";
+
+  private final NamespaceJobExecutor executor = new NamespaceJobExecutor();
+  private final ApplierContext applierContext = new ApplierContext.Builder()
+      .setReapplying(false)
+      .setUpdatesAsUpserts(true)
+      .build();
+  private SharedWriteTorodTransaction torodTransaction;
+  private WriteMongodTransaction transaction;
+  private final Map<KvValue<?>, Integer> storedDids = new HashMap<>();
+  private final Map<Integer, List<FieldModification>> updatedInPlace = new HashMap<>();
+  private final List<Integer> fetchedDids = new ArrayList<>();
+  private final List<Integer> deletedDids = new ArrayList<>();
+  private final List<KvDocument> insertedDocs = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    torodTransaction = mock(SharedWriteTorodTransaction.class);
+    transaction = mock(WriteMongodTransaction.class);
+    given(transaction.getTorodTransaction()).willReturn(torodTransaction);
+
+    given(torodTransaction.findByAttRefInProjection(eq(DB), eq(COL), any(), any()))
+        .willAnswer(invocation -> {
+          List<Tuple2<Integer, KvValue<?>>> found = new ArrayList<>();
+          for (KvValue<?> mongoId : invocation.<Collection<KvValue<?>>>getArgument(3)) {
+            found.add(new Tuple2<>(storedDids.get(mongoId), mongoId));
+          }
+          return new IteratorCursor<>(found.iterator());
+        });
+    TorodCursor torodCursor = mock(TorodCursor.class);
+    given(torodTransaction.fetch(eq(DB), eq(COL), any())).willAnswer(invocation -> {
+      fetchedDids.addAll(invocation.<Cursor<Integer>>getArgument(2).getRemaining());
+      return torodCursor;
+    });
+    given(torodCursor.asDocCursor()).willAnswer(invocation -> new IteratorCursor<>(
+        fetchedDids.stream()
+            .map(did -> new ToroDocument(did, new MapKvDocument.Builder().build()))
+            .iterator()));
+    willAnswer(invocation -> {
+      deletedDids.addAll(invocation.<Cursor<Integer>>getArgument(2).getRemaining());
+      return null;
+    }).given(torodTransaction).delete(eq(DB), eq(COL), ArgumentMatchers.<Cursor<Integer>>any());
+    willAnswer(invocation -> {
+      insertedDocs.addAll(invocation.<Stream<KvDocument>>getArgument(2)
+          .collect(Collectors.toList()));
+      return null;
+    }).given(torodTransaction).insert(eq(DB), eq(COL), any());
+  }
+
+  @Test
+  public void testInPlaceUpdatesAreNotRewritten() throws Exception {
+    AnalyzedOp inPlace = updateMod(1, new SetFieldUpdateAction(attRef("a"), KvInteger.of(1)));
+    AnalyzedOp nested = updateMod(2, new SetFieldUpdateAction(attRef("a", "b"),
+        KvInteger.of(1)));
+    AnalyzedOp notApplied = updateMod(3, new SetFieldUpdateAction(attRef("c"), KvInteger.of(1)));
+    given(torodTransaction.updateInPlace(eq(DB), eq(COL), anyMap())).willAnswer(invocation -> {
+      updatedInPlace.putAll(invocation.<Map<Integer, List<FieldModification>>>getArgument(2));
+      return Sets.newHashSet(103);
+    });
+
+    executor.apply(new NamespaceJob(DB, COL, Arrays.asList(inPlace, nested, notApplied)),
+        transaction, applierContext, false);
+
+    assertEquals(Sets.newHashSet(101, 103), updatedInPlace.keySet());
+    assertEquals(Sets.newHashSet(102, 103), new HashSet<>(fetchedDids));
+    assertEquals(Sets.newHashSet(102, 103), new HashSet<>(deletedDids));
+    assertEquals(Sets.newHashSet(KvInteger.of(2), KvInteger.of(3)), insertedDocs.stream()
+        .map(doc -> doc.get("_id"))
+        .collect(Collectors.toSet()));
+  }
+
+  @Test
+  public void testNotTranslatedUpdates() throws Exception {
+    AnalyzedOp nested = updateMod(1, new SetFieldUpdateAction(attRef("a", "b"),
+        KvInteger.of(1)));
+    AnalyzedOp unknown = updateMod(2);
+
+    executor.apply(new NamespaceJob(DB, COL, Arrays.asList(nested, unknown)),
+        transaction, applierContext, false);
+
+    verify(torodTransaction, never()).updateInPlace(any(), any(), any());
+    assertEquals(Sets.newHashSet(101, 102), new HashSet<>(fetchedDids));
+    assertEquals(Sets.newHashSet(101, 102), new HashSet<>(deletedDids));
+    assertEquals(2, insertedDocs.size());
+  }
+
+  private AnalyzedOp updateMod(int id, UpdateAction... actions) {
+    KvInteger mongoId = KvInteger.of(id);
+    storedDids.put(mongoId, 100 + id);
+    return new UpdateModAnalyzedOp(mongoId, fetched -> new MapKvDocument.Builder()
+        .putValue("_id", mongoId)
+        .build(), Arrays.asList(actions));
+  }
+
+  private static List<AttributeReference> attRef(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return Collections.singletonList(builder.build());
+  }
+}
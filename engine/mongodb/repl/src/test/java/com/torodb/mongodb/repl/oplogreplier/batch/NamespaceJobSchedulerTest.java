@@ -0,0 +1,160 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class NamespaceJobSchedulerTest {
+
+  private ExecutorService executor;
+  private NamespaceJobScheduler scheduler;
+  private List<String> executed;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    scheduler = new NamespaceJobScheduler(executor);
+    executed = new CopyOnWriteArrayList<>();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSameNamespaceIsOrdered() throws Exception {
+    CountDownLatch firstLatch = new CountDownLatch(1);
+    scheduler.scheduleOnNamespace("db", "col", Collections.singleton(() -> {
+      firstLatch.await();
+      executed.add("first");
+    }));
+    scheduler.scheduleOnNamespace("db", "col", Collections.singleton(() -> executed.add(
+        "second")));
+
+    Thread.sleep(50);
+    assertTrue(executed.isEmpty());
+    firstLatch.countDown();
+
+    scheduler.whenAllFinished().get(10, TimeUnit.SECONDS);
+    assertEquals(Arrays.asList("first", "second"), executed);
+  }
+
+  @Test
+  public void testNamespaceBarrierDoesNotBlockOtherNamespaces() throws Exception {
+    CountDownLatch commandLatch = new CountDownLatch(1);
+    scheduler.scheduleOnNamespace("db", "col1", Collections.singleton(() -> {
+      commandLatch.await();
+      executed.add("command");
+    }));
+    scheduler.scheduleOnNamespace("db", "col2", Collections.singleton(() -> executed.add(
+        "other")));
+
+    waitUntilExecuted("other");
+    assertFalse(executed.contains("command"));
+    commandLatch.countDown();
+
+    scheduler.whenAllFinished().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testDatabaseBarrier() throws Exception {
+    CountDownLatch barrierLatch = new CountDownLatch(1);
+    scheduler.scheduleOnNamespace("db", "col", Collections.singleton(() -> executed.add(
+        "before")));
+    scheduler.scheduleOnDatabase("db", () -> {
+      barrierLatch.await();
+      executed.add("barrier");
+    });
+    scheduler.scheduleOnNamespace("db", "col2", Collections.singleton(() -> executed.add(
+        "after")));
+    scheduler.scheduleOnNamespace("otherDb", "col", Collections.singleton(() -> executed.add(
+        "otherDb")));
+
+    waitUntilExecuted("otherDb");
+    assertFalse(executed.contains("after"));
+    barrierLatch.countDown();
+
+    scheduler.whenAllFinished().get(10, TimeUnit.SECONDS);
+    assertTrue(executed.indexOf("before") < executed.indexOf("barrier"));
+    assertTrue(executed.indexOf("barrier") < executed.indexOf("after"));
+  }
+
+  @Test
+  public void testGlobalBarrier() throws Exception {
+    scheduler.scheduleOnNamespace("db1", "col", Arrays.asList(
+        () -> executed.add("db1"), () -> executed.add("db1")));
+    scheduler.scheduleOnDatabase("db2", () -> executed.add("db2"));
+    scheduler.scheduleOnAll(() -> executed.add("barrier"));
+    scheduler.scheduleOnNamespace("db3", "col", Collections.singleton(() -> executed.add(
+        "after")));
+
+    scheduler.whenAllFinished().get(10, TimeUnit.SECONDS);
+    assertEquals(5, executed.size());
+    assertEquals("barrier", executed.get(3));
+    assertEquals("after", executed.get(4));
+  }
+
+  @Test
+  public void testErrorsArePropagated() throws Exception {
+    IllegalStateException error = new IllegalStateException();
+    scheduler.scheduleOnNamespace("db", "col", Collections.singleton(() -> {
+      throw error;
+    }));
+    scheduler.scheduleOnNamespace("db", "col", Collections.singleton(() -> executed.add(
+        "dependent")));
+
+    CompletableFuture<?> finished = scheduler.whenAllFinished();
+    try {
+      finished.join();
+      fail("An exception was expected");
+    } catch (CompletionException ex) {
+      assertSame(error, ex.getCause());
+    }
+    assertTrue(executed.isEmpty());
+  }
+
+  private void waitUntilExecuted(String taskName) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!executed.contains(taskName)) {
+      assertTrue(taskName + " was not executed", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+}
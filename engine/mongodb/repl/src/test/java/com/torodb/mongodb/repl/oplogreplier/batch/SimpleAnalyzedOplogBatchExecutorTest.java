@@ -30,8 +30,10 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 import com.codahale.metrics.Histogram;
@@ -55,14 +57,18 @@ import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
 import com.torodb.mongodb.repl.oplogreplier.OplogOperationApplier;
 import com.torodb.mongodb.repl.oplogreplier.OplogOperationApplier.OplogApplyingException;
 import com.torodb.mongodb.repl.oplogreplier.batch.AnalyzedOplogBatchExecutor.AnalyzedOplogBatchExecutorMetrics;
+import com.torodb.mongodb.repl.oplogreplier.batch.AnalyzedOplogBatchExecutor.CheckpointWriter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 public class SimpleAnalyzedOplogBatchExecutorTest {
@@ -100,6 +106,7 @@ public class SimpleAnalyzedOplogBatchExecutorTest {
     given(metrics.getCudBatchSize()).willReturn(mock(Histogram.class));
     given(metrics.getCudBatchTimer()).willReturn(mock(Timer.class));
     given(metrics.getNamespaceBatchTimer()).willReturn(mock(Timer.class));
+    given(metrics.getTransactionWaitTimer()).willReturn(mock(Timer.class));
     given(metrics.getCudBatchSize()).willReturn(mock(Histogram.class));
 
     actualExecutor.startAsync();
@@ -520,4 +527,53 @@ public class SimpleAnalyzedOplogBatchExecutorTest {
     assertFalse("It was expected that this execution fails!", succees);
   }
 
+  @Test
+  public void testApplyAll_Checkpoint_SingleJob() throws Exception {
+    //GIVEN
+    CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
+    List<AnalyzedOplogBatch> batches = Collections.singletonList(batch);
+    ApplierContext applierContext = new ApplierContext.Builder()
+        .setReapplying(false)
+        .setUpdatesAsUpserts(true)
+        .build();
+    NamespaceJob job = mock(NamespaceJob.class);
+    CheckpointWriter checkpointWriter = mock(CheckpointWriter.class);
+    given(batch.streamNamespaceJobs()).willReturn(Stream.of(job));
+    given(batch.getOriginalBatch()).willReturn(Lists.newArrayList(mock(OplogOperation.class)));
+
+    //WHEN
+    boolean checkpointStored = executor.applyAll(batches, applierContext, checkpointWriter);
+
+    //THEN
+    assertTrue("The checkpoint should be stored with the batch", checkpointStored);
+    InOrder inOrder = inOrder(namespaceJobExecutor, checkpointWriter, writeTrans);
+    inOrder.verify(namespaceJobExecutor).apply(eq(job), eq(writeTrans), eq(applierContext), any(
+        Boolean.class));
+    inOrder.verify(checkpointWriter).write(writeTrans);
+    inOrder.verify(writeTrans).commit();
+    then(executor).should(never()).applyAll(batches, applierContext);
+  }
+
+  @Test
+  public void testApplyAll_Checkpoint_SeveralJobs() throws Exception {
+    //GIVEN
+    CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
+    List<AnalyzedOplogBatch> batches = Collections.singletonList(batch);
+    ApplierContext applierContext = new ApplierContext.Builder()
+        .setReapplying(false)
+        .setUpdatesAsUpserts(true)
+        .build();
+    CheckpointWriter checkpointWriter = mock(CheckpointWriter.class);
+    given(batch.streamNamespaceJobs()).willReturn(
+        Stream.of(mock(NamespaceJob.class), mock(NamespaceJob.class)));
+
+    //WHEN
+    boolean checkpointStored = executor.applyAll(batches, applierContext, checkpointWriter);
+
+    //THEN
+    assertFalse("The checkpoint should not be stored with several jobs", checkpointStored);
+    then(executor).should().applyAll(batches, applierContext);
+    then(checkpointWriter).should(never()).write(any());
+  }
+
 }
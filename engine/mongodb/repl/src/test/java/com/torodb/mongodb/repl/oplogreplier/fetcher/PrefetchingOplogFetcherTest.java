@@ -0,0 +1,158 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.mongodb.repl.ReplMetrics;
+import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.NormalOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.NotReadyForMoreOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.OplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.RollbackReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.StopReplicationException;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PrefetchingOplogFetcherTest {
+
+  private final ReplMetrics metrics = new ReplMetrics(new DisabledMetricRegistry());
+
+  @Test
+  public void testBatchesAreReturnedInOrder() throws Exception {
+    OplogBatch first = new NormalOplogBatch(Collections.emptyList(), true);
+    OplogBatch second = NotReadyForMoreOplogBatch.getInstance();
+    OplogBatch third = new NormalOplogBatch(Collections.emptyList(), false);
+    QueuedOplogFetcher delegate = new QueuedOplogFetcher(first, second, third);
+
+    try (PrefetchingOplogFetcher fetcher = createFetcher(delegate)) {
+      assertSame(first, fetcher.fetch());
+      assertSame(second, fetcher.fetch());
+      assertSame(third, fetcher.fetch());
+      assertTrue(fetcher.fetch().isLastOne());
+      assertTrue(fetcher.fetch().isLastOne());
+    }
+    assertTrue(delegate.closed);
+  }
+
+  @Test(expected = RollbackReplicationException.class)
+  public void testErrorsArePropagated() throws Exception {
+    OplogFetcher delegate = new QueuedOplogFetcher() {
+      @Override
+      public OplogBatch fetch() throws RollbackReplicationException {
+        throw new RollbackReplicationException("Expected");
+      }
+    };
+
+    try (PrefetchingOplogFetcher fetcher = createFetcher(delegate)) {
+      fetcher.fetch();
+    }
+  }
+
+  @Test
+  public void testCloseFinishesTheFetcher() throws Exception {
+    QueuedOplogFetcher delegate = new QueuedOplogFetcher(
+        new NormalOplogBatch(Collections.emptyList(), true));
+
+    PrefetchingOplogFetcher fetcher = createFetcher(delegate);
+    assertFalse(fetcher.fetch().isLastOne());
+    fetcher.close();
+
+    assertTrue(delegate.closed);
+    assertTrue(fetcher.fetch().isLastOne());
+  }
+
+  @Test
+  public void testCloseWaitsForThePrefetcher() throws Exception {
+    CountDownLatch fetching = new CountDownLatch(1);
+    AtomicBoolean inUse = new AtomicBoolean(false);
+    AtomicBoolean closedWhileInUse = new AtomicBoolean(false);
+    QueuedOplogFetcher delegate = new QueuedOplogFetcher(
+        new NormalOplogBatch(Collections.emptyList(), true)) {
+      @Override
+      public OplogBatch fetch() throws StopReplicationException, RollbackReplicationException {
+        OplogBatch batch = super.fetch();
+        if (batch.isLastOne()) {
+          inUse.set(true);
+          fetching.countDown();
+          try {
+            Thread.sleep(60_000);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+          inUse.set(false);
+        }
+        return batch;
+      }
+
+      @Override
+      public void close() {
+        closedWhileInUse.set(inUse.get());
+        super.close();
+      }
+    };
+
+    PrefetchingOplogFetcher fetcher = createFetcher(delegate);
+    assertFalse(fetcher.fetch().isLastOne());
+    fetching.await();
+    fetcher.close();
+
+    assertTrue(delegate.closed);
+    assertFalse(closedWhileInUse.get());
+  }
+
+  private PrefetchingOplogFetcher createFetcher(OplogFetcher delegate) {
+    return new PrefetchingOplogFetcher(delegate, 2, Executors.defaultThreadFactory(), metrics);
+  }
+
+  private static class QueuedOplogFetcher implements OplogFetcher {
+
+    private final Deque<OplogBatch> batches;
+    private volatile boolean closed = false;
+
+    QueuedOplogFetcher(OplogBatch... batches) {
+      this.batches = new ArrayDeque<>(Arrays.asList(batches));
+    }
+
+    @Override
+    public OplogBatch fetch() throws StopReplicationException, RollbackReplicationException {
+      if (closed || batches.isEmpty()) {
+        return FinishedOplogBatch.getInstance();
+      }
+      return batches.poll();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+}
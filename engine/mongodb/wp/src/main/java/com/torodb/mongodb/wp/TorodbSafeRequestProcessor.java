@@ -21,6 +21,7 @@ package com.torodb.mongodb.wp;
 import com.codahale.metrics.Timer;
 import com.eightkdata.mongowp.ErrorCode;
 import com.eightkdata.mongowp.Status;
+import com.eightkdata.mongowp.bson.BsonDocument;
 import com.eightkdata.mongowp.bson.utils.DefaultBsonValues;
 import com.eightkdata.mongowp.exceptions.MongoException;
 import com.eightkdata.mongowp.messages.request.DeleteMessage;
@@ -44,6 +45,7 @@ import com.torodb.mongodb.commands.TorodbCommandsLibrary.RequiredTransaction;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
+import com.torodb.mongodb.core.CursorManager.CursorBatch;
 import com.torodb.mongodb.core.ExclusiveWriteMongodTransaction;
 import com.torodb.mongodb.core.MongodConnection;
 import com.torodb.mongodb.core.MongodMetrics;
@@ -54,6 +56,7 @@ import io.netty.util.AttributeKey;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collections;
 import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
@@ -192,14 +195,43 @@ public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongodCo
   public ReplyMessage getMore(MongodConnection connection, Request req, int requestId,
       GetMoreMessage moreMessage)
       throws MongoException {
-    throw new UnsupportedOperationException("Not supported yet.");
+    CursorBatch batch = server.getCursorManager().getMore(req.getDatabase(),
+        moreMessage.getCollection(), moreMessage.getCursorId(), moreMessage.getNumberToReturn());
+
+    if (batch == null) {
+      return new ReplyMessage(
+          EmptyBsonContext.getInstance(),
+          requestId,
+          true,
+          false,
+          false,
+          false,
+          0,
+          0,
+          IterableDocumentProvider.of(Collections.<BsonDocument>emptyList())
+      );
+    }
+
+    return new ReplyMessage(
+        EmptyBsonContext.getInstance(),
+        requestId,
+        false,
+        false,
+        false,
+        false,
+        batch.getCursorId(),
+        batch.getStartingFrom(),
+        IterableDocumentProvider.of(batch.getDocs())
+    );
   }
 
   @Override
   public void killCursors(MongodConnection connection, Request req,
       KillCursorsMessage killCursorsMessage)
       throws MongoException {
-    throw new UnsupportedOperationException("Not supported yet.");
+    for (long cursorId : killCursorsMessage.getCursorIds()) {
+      server.getCursorManager().killCursor(connection.getConnectionId(), cursorId);
+    }
   }
 
   @Override
@@ -32,10 +32,15 @@ public abstract class AbstractPostgres implements BackendImplementation, Backend
   private String toropassFile;
   private String applicationName;
   private Boolean includeForeignKeys;
+  private Boolean binaryCopy;
+  private Integer copyChunkSize;
+  private Integer copyBufferDepth;
+  private Integer importConnectionPoolSize;
 
   protected AbstractPostgres(String host, Integer port, String database, String user,
       String password, String toropassFile,
-      String applicationName, Boolean includeForeignKeys) {
+      String applicationName, Boolean includeForeignKeys, Boolean binaryCopy,
+      Integer copyChunkSize, Integer copyBufferDepth, Integer importConnectionPoolSize) {
     super();
     this.host = host;
     this.port = port;
@@ -45,6 +50,10 @@ public abstract class AbstractPostgres implements BackendImplementation, Backend
     this.toropassFile = toropassFile;
     this.applicationName = applicationName;
     this.includeForeignKeys = includeForeignKeys;
+    this.binaryCopy = binaryCopy;
+    this.copyChunkSize = copyChunkSize;
+    this.copyBufferDepth = copyBufferDepth;
+    this.importConnectionPoolSize = importConnectionPoolSize;
   }
 
   public String getHost() {
@@ -114,6 +123,38 @@ public abstract class AbstractPostgres implements BackendImplementation, Backend
     return includeForeignKeys;
   }
 
+  public void setBinaryCopy(Boolean binaryCopy) {
+    this.binaryCopy = binaryCopy;
+  }
+
+  public Boolean getBinaryCopy() {
+    return binaryCopy;
+  }
+
+  public void setCopyChunkSize(Integer copyChunkSize) {
+    this.copyChunkSize = copyChunkSize;
+  }
+
+  public Integer getCopyChunkSize() {
+    return copyChunkSize;
+  }
+
+  public void setCopyBufferDepth(Integer copyBufferDepth) {
+    this.copyBufferDepth = copyBufferDepth;
+  }
+
+  public Integer getCopyBufferDepth() {
+    return copyBufferDepth;
+  }
+
+  public void setImportConnectionPoolSize(Integer importConnectionPoolSize) {
+    this.importConnectionPoolSize = importConnectionPoolSize;
+  }
+
+  public Integer getImportConnectionPoolSize() {
+    return importConnectionPoolSize;
+  }
+
   @Override
   public void accept(BackendImplementationVisitor visitor) {
     visitor.visit(this);
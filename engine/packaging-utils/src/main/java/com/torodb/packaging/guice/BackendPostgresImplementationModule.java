@@ -43,6 +43,11 @@ public class BackendPostgresImplementationModule
   public static class PostgresSqlDbBackendConfigurationMapper 
       extends BackendConfigurationMapper implements PostgreSqlBackendConfiguration {
 
+    private final boolean binaryCopy;
+    private final int copyChunkSize;
+    private final int copyBufferDepth;
+    private final int importConnectionPoolSize;
+
     @Inject
     public PostgresSqlDbBackendConfigurationMapper(CursorConfig cursorConfig,
         ConnectionPoolConfig connectionPoolConfig, AbstractPostgres postgres) {
@@ -56,6 +61,30 @@ public class BackendPostgresImplementationModule
           postgres.getUser(),
           postgres.getPassword(),
           postgres.getIncludeForeignKeys());
+      this.binaryCopy = postgres.getBinaryCopy();
+      this.copyChunkSize = postgres.getCopyChunkSize();
+      this.copyBufferDepth = postgres.getCopyBufferDepth();
+      this.importConnectionPoolSize = postgres.getImportConnectionPoolSize();
+    }
+
+    @Override
+    public boolean useBinaryCopy() {
+      return binaryCopy;
+    }
+
+    @Override
+    public int getCopyChunkSize() {
+      return copyChunkSize;
+    }
+
+    @Override
+    public int getCopyBufferDepth() {
+      return copyBufferDepth;
+    }
+
+    @Override
+    public int getImportConnectionPoolSize() {
+      return importConnectionPoolSize;
     }
   }
 }
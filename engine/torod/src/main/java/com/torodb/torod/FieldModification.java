@@ -0,0 +1,83 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod;
+
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvValue;
+
+import javax.annotation.Nullable;
+
+/**
+ * A modification of a top level field of a document that can be applied without reading it.
+ *
+ * @see SharedWriteTorodTransaction#updateInPlace(String, String, java.util.Map)
+ */
+public class FieldModification {
+
+  private final String fieldName;
+  private final Kind kind;
+  @Nullable
+  private final KvValue<?> value;
+
+  private FieldModification(String fieldName, Kind kind, @Nullable KvValue<?> value) {
+    this.fieldName = fieldName;
+    this.kind = kind;
+    this.value = value;
+  }
+
+  public static FieldModification set(String fieldName, KvValue<?> newValue) {
+    return new FieldModification(fieldName, Kind.SET, newValue);
+  }
+
+  public static FieldModification unset(String fieldName) {
+    return new FieldModification(fieldName, Kind.UNSET, null);
+  }
+
+  public static FieldModification increment(String fieldName, KvNumeric<?> delta) {
+    return new FieldModification(fieldName, Kind.INCREMENT, delta);
+  }
+
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the new value if the kind is {@link Kind#SET}, the delta if it is
+   * {@link Kind#INCREMENT} or null if it is {@link Kind#UNSET}.
+   */
+  @Nullable
+  public KvValue<?> getValue() {
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return fieldName + ' ' + kind + (value != null ? " " + value : "");
+  }
+
+  public static enum Kind {
+    SET,
+    UNSET,
+    INCREMENT;
+  }
+}
@@ -18,17 +18,22 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -55,6 +60,28 @@ public interface SharedWriteTorodTransaction extends TorodTransaction {
   public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value);
 
+  /**
+   * Deletes the documents that fulfill the given filter and returns how many have been deleted.
+   */
+  public long deleteByFilter(String dbName, String colName, Filter filter);
+
+  /**
+   * Applies the given modifications on the top level fields of the documents with the given dids,
+   * without reading nor rewriting the whole documents.
+   *
+   * <p>The modifications of a document are only applied if none of them requires to change how
+   * the document is stored (like adding a new column or replacing a subdocument or an array). The
+   * default implementation does not apply any modification.
+   *
+   * @return the dids whose modifications have not been applied, which must be applied by
+   *         replacing the whole document
+   */
+  public default Set<Integer> updateInPlace(String dbName, String colName,
+      Map<Integer, List<FieldModification>> modifications) throws RollbackException,
+      UserException {
+    return new HashSet<>(modifications.keySet());
+  }
+
   public void dropCollection(String db, String collection) throws RollbackException, UserException;
 
   public void createCollection(String db, String collection)
@@ -67,6 +94,14 @@ public interface SharedWriteTorodTransaction extends TorodTransaction {
 
   public boolean dropIndex(String dbName, String colName, String indexName);
 
+  /**
+   * Associates the given value with the given key on the server meta info store.
+   *
+   * <p>The change is committed or rolled back with the rest of this transaction, which makes this
+   * method a cheap way to store small pieces of state that must be consistent with user data.
+   */
+  public void writeMetaInfo(MetaInfoKey key, KvValue<?> value);
+
   public void commit() throws RollbackException, UserException;
 
 }
@@ -18,16 +18,20 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -49,14 +53,50 @@ public interface TorodTransaction extends AutoCloseable {
 
   public long countAll(String dbName, String colName);
 
+  public long countByFilter(String dbName, String colName, Filter filter);
+
+  /**
+   * Returns an estimation of the number of documents on the given collection, which is cheaper to
+   * calculate than {@link #countAll(String, String)} but may be stale.
+   */
+  public long estimateCountAll(String dbName, String colName);
+
   public long getCollectionSize(String dbName, String colName);
 
   public long getDocumentsSize(String dbName, String colName);
 
-  public TorodCursor findAll(String dbName, String colName);
+  public default TorodCursor findAll(String dbName, String colName) {
+    return findAll(dbName, colName, Projection.all());
+  }
 
+  /**
+   * Like {@link #findAll(String, String)}, but the returned documents only contain the attributes
+   * included on the given projection.
+   */
+  public TorodCursor findAll(String dbName, String colName, Projection projection);
+
+  public default TorodCursor findByAttRef(String dbName, String colName,
+      AttributeReference attRef, KvValue<?> value) {
+    return findByAttRef(dbName, colName, attRef, value, Projection.all());
+  }
+
+  /**
+   * Like {@link #findByAttRef(String, String, AttributeReference, KvValue)}, but the returned
+   * documents only contain the attributes included on the given projection.
+   */
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
-      KvValue<?> value);
+      KvValue<?> value, Projection projection);
+
+  public default TorodCursor findByFilter(String dbName, String colName, Filter filter) {
+    return findByFilter(dbName, colName, filter, Projection.all());
+  }
+
+  /**
+   * Returns a cursor that iterates over the documents that fulfill the given filter. The returned
+   * documents only contain the attributes included on the given projection.
+   */
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      Projection projection);
 
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values);
@@ -98,6 +138,13 @@ public interface TorodTransaction extends AutoCloseable {
   public IndexInfo getIndexInfo(String dbName, String colName, String idxName) throws
       IndexNotFoundException;
 
+  /**
+   * Reads the value associated with the given key on the server meta info store.
+   *
+   * @see SharedWriteTorodTransaction#writeMetaInfo(MetaInfoKey, KvValue)
+   */
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key);
+
   @Override
   public void close();
 
@@ -18,6 +18,7 @@
 
 package com.torodb.torod.guice;
 
+import com.google.common.base.Preconditions;
 import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
@@ -31,6 +32,7 @@ import com.torodb.torod.impl.sql.SqlTorodServer;
 import com.torodb.torod.pipeline.InsertPipelineFactory;
 import com.torodb.torod.pipeline.impl.AkkaInsertPipelineFactory;
 import com.torodb.torod.pipeline.impl.DefaultInsertPipelineFactory;
+import com.torodb.torod.pipeline.impl.InsertPipelineMetrics;
 import com.torodb.torod.pipeline.impl.SameThreadInsertPipeline;
 
 import java.util.concurrent.ThreadFactory;
@@ -40,6 +42,30 @@ import java.util.concurrent.ThreadFactory;
  */
 public class SqlTorodModule extends PrivateModule {
 
+  public static final int DEFAULT_INSERT_DOC_BATCH = 100;
+  public static final int DEFAULT_INSERT_BATCHES_IN_FLIGHT = 2;
+
+  private final int insertDocBatch;
+  private final int insertBatchesInFlight;
+
+  public SqlTorodModule() {
+    this(DEFAULT_INSERT_DOC_BATCH, DEFAULT_INSERT_BATCHES_IN_FLIGHT);
+  }
+
+  /**
+   * @param insertDocBatch        the initial number of documents of each insert batch
+   * @param insertBatchesInFlight how many translated insert batches can wait to be written while
+   *                              the previous one is being written
+   */
+  public SqlTorodModule(int insertDocBatch, int insertBatchesInFlight) {
+    Preconditions.checkArgument(insertDocBatch > 0, "The insert batch must contain at least one "
+        + "document");
+    Preconditions.checkArgument(insertBatchesInFlight > 0, "At least one insert batch must be in "
+        + "flight");
+    this.insertDocBatch = insertDocBatch;
+    this.insertBatchesInFlight = insertBatchesInFlight;
+  }
+
   @Override
   protected void configure() {
     install(new FactoryModuleBuilder()
@@ -66,10 +92,12 @@ public class SqlTorodModule extends PrivateModule {
   AkkaInsertPipelineFactory createConcurrentPipelineFactory(
       ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
-      BackendTransactionJobFactory backendTransactionJobFactory) {
+      BackendTransactionJobFactory backendTransactionJobFactory,
+      InsertPipelineMetrics insertPipelineMetrics) {
 
     return new AkkaInsertPipelineFactory(threadFactory,
-        concurrentToolsFactory, backendTransactionJobFactory, 100);
+        concurrentToolsFactory, backendTransactionJobFactory, insertPipelineMetrics,
+        insertDocBatch, insertBatchesInFlight);
   }
 
 }
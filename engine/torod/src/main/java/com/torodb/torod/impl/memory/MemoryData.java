@@ -53,13 +53,14 @@ public class MemoryData {
 
   private Table<String, String, Map<Integer, KvDocument>> data = HashBasedTable.create();
   private Table<String, String, Map<String, IndexInfo>> indexes = HashBasedTable.create();
+  private Map<String, KvValue<?>> metaInfo = new HashMap<>();
   private final AtomicInteger idGenerator = new AtomicInteger();
   private ReadWriteLock lock = new ReentrantReadWriteLock(true);
 
   public MdReadTransaction openReadTransaction() {
     lock.readLock().lock();
     try {
-      return new MdReadTransaction(data, indexes);
+      return new MdReadTransaction(data, indexes, metaInfo);
     } finally {
       lock.readLock().unlock();
     }
@@ -70,7 +71,7 @@ public class MemoryData {
     Lock writeLock = lock.writeLock();
     writeLock.lock();
     try {
-      return new MdWriteTransaction(data, indexes, () -> idGenerator.incrementAndGet(),
+      return new MdWriteTransaction(data, indexes, metaInfo, () -> idGenerator.incrementAndGet(),
           this::onCommit, writeLock);
     } catch (Throwable ex) {
       writeLock.unlock();
@@ -81,6 +82,7 @@ public class MemoryData {
   private void onCommit(MdTransaction trans) {
     this.data = trans.getData();
     this.indexes = trans.getIndexes();
+    this.metaInfo = trans.getMetaInfo();
   }
 
   public static class MdTransaction implements AutoCloseable {
@@ -88,11 +90,14 @@ public class MemoryData {
     private boolean closed = false;
     Table<String, String, Map<Integer, KvDocument>> data;
     Table<String, String, Map<String, IndexInfo>> indexes;
+    Map<String, KvValue<?>> metaInfo;
 
     public MdTransaction(Table<String, String, Map<Integer, KvDocument>> data,
-        Table<String, String, Map<String, IndexInfo>> indexes) {
+        Table<String, String, Map<String, IndexInfo>> indexes,
+        Map<String, KvValue<?>> metaInfo) {
       this.data = data;
       this.indexes = indexes;
+      this.metaInfo = metaInfo;
     }
 
     public Table<String, String, Map<Integer, KvDocument>> getData() {
@@ -103,6 +108,10 @@ public class MemoryData {
       return indexes;
     }
 
+    public Map<String, KvValue<?>> getMetaInfo() {
+      return metaInfo;
+    }
+
     public boolean isClosed() {
       return closed;
     }
@@ -150,8 +159,9 @@ public class MemoryData {
   public static class MdReadTransaction extends MdTransaction {
 
     public MdReadTransaction(Table<String, String, Map<Integer, KvDocument>> data,
-        Table<String, String, Map<String, IndexInfo>> indexes) {
-      super(data, indexes);
+        Table<String, String, Map<String, IndexInfo>> indexes,
+        Map<String, KvValue<?>> metaInfo) {
+      super(data, indexes, metaInfo);
     }
 
   }
@@ -160,6 +170,7 @@ public class MemoryData {
   public static class MdWriteTransaction extends MdTransaction {
 
     final Table<String, String, Map<Integer, KvDocument>> initialData;
+    final Map<String, KvValue<?>> initialMetaInfo;
     private final IntSupplier idGenerator;
     private final Consumer<MdTransaction> commitConsumer;
     private final Lock lock;
@@ -167,14 +178,16 @@ public class MemoryData {
     public MdWriteTransaction(
         Table<String, String, Map<Integer, KvDocument>> data,
         Table<String, String, Map<String, IndexInfo>> indexes,
+        Map<String, KvValue<?>> metaInfo,
         IntSupplier idGenerator,
         Consumer<MdTransaction> commitConsumer,
         Lock lock) {
-      super(HashBasedTable.create(data), HashBasedTable.create(indexes));
+      super(HashBasedTable.create(data), HashBasedTable.create(indexes), new HashMap<>(metaInfo));
       this.idGenerator = idGenerator;
       this.commitConsumer = commitConsumer;
       this.lock = lock;
       this.initialData = data;
+      this.initialMetaInfo = metaInfo;
     }
 
     public void clear() {
@@ -260,8 +273,13 @@ public class MemoryData {
       }
     }
 
+    void writeMetaInfo(String key, KvValue<?> value) {
+      metaInfo.put(key, value);
+    }
+
     void rollback() {
       this.data = initialData;
+      this.metaInfo = new HashMap<>(initialMetaInfo);
     }
 
     void commit() {
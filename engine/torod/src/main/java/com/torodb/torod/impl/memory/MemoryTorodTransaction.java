@@ -18,6 +18,7 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.cursors.TransformCursor;
@@ -25,6 +26,8 @@ import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.core.util.AttributeRefKvDocResolver;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
@@ -89,8 +92,18 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
   }
 
   @Override
-  public TorodCursor findAll(String dbName, String colName) {
-    return createCursor(getTransaction().streamCollection(dbName, colName));
+  public long countByFilter(String dbName, String colName, Filter filter) {
+    return streamByFilter(dbName, colName, filter).count();
+  }
+
+  @Override
+  public long estimateCountAll(String dbName, String colName) {
+    return countAll(dbName, colName);
+  }
+
+  @Override
+  public TorodCursor findAll(String dbName, String colName, Projection projection) {
+    return createCursor(project(getTransaction().streamCollection(dbName, colName), projection));
   }
 
   Stream<ToroDocument> streamByAttRef(String dbName, String colName, AttributeReference attRef,
@@ -105,8 +118,26 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   @Override
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
-      KvValue<?> value) {
-    return createCursor(streamByAttRef(dbName, colName, attRef, value));
+      KvValue<?> value, Projection projection) {
+    return createCursor(project(streamByAttRef(dbName, colName, attRef, value), projection));
+  }
+
+  Stream<ToroDocument> streamByFilter(String dbName, String colName, Filter filter) {
+    return getTransaction().streamCollection(dbName, colName)
+        .filter(doc -> filter.matches(doc.getRoot()));
+  }
+
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      Projection projection) {
+    return createCursor(project(streamByFilter(dbName, colName, filter), projection));
+  }
+
+  private Stream<ToroDocument> project(Stream<ToroDocument> docs, Projection projection) {
+    if (projection.isAll()) {
+      return docs;
+    }
+    return docs.map(doc -> new ToroDocument(doc.getId(), projection.project(doc.getRoot())));
   }
 
   @Override
@@ -200,6 +231,11 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
             new IndexNotFoundException(dbName, colName, idxName));
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return Optional.ofNullable(getTransaction().getMetaInfo().get(key.getKeyName()));
+  }
+
   @Override
   public void close() {
     if (!closed) {
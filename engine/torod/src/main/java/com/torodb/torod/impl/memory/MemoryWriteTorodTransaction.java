@@ -18,10 +18,12 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
@@ -72,6 +74,12 @@ public class MemoryWriteTorodTransaction extends MemoryTorodTransaction implemen
         ToroDocument::getId));
   }
 
+  @Override
+  public long deleteByFilter(String dbName, String colName, Filter filter) {
+    return trans.delete(dbName, colName, streamByFilter(dbName, colName, filter).map(
+        ToroDocument::getId));
+  }
+
   @Override
   public void delete(String dbName, String colName, Cursor<Integer> cursor) {
     trans.delete(dbName, colName, cursor.getRemaining().stream());
@@ -117,6 +125,11 @@ public class MemoryWriteTorodTransaction extends MemoryTorodTransaction implemen
     return indexesOnTable.remove(indexName) != null;
   }
 
+  @Override
+  public void writeMetaInfo(MetaInfoKey key, KvValue<?> value) {
+    trans.writeMetaInfo(key.getKeyName(), value);
+  }
+
   @Override
   public void rollback() {
     trans.rollback();
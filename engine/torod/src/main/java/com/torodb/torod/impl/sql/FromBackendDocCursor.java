@@ -24,6 +24,7 @@ import com.torodb.core.d2r.DocPartResult;
 import com.torodb.core.d2r.R2DTranslator;
 import com.torodb.core.document.ToroDocument;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -33,7 +34,12 @@ import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 
 /**
+ * A cursor that reads and translates documents from a {@link DocPartResult} cursor.
  *
+ * <p>Documents returned by {@link #next()} are read ahead in chunks, so the doc part tables are
+ * not queried once per document. The first chunk contains a single document and each following
+ * one doubles the previous, up to the size of the last batch requested with
+ * {@link #getNextBatch(int)} or {@value #BATCH_SIZE} if no batch has been requested.
  */
 public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
@@ -41,6 +47,9 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
   private final R2DTranslator r2dTranslator;
   private final Cursor<DocPartResult> docPartCursor;
+  private final ArrayDeque<ToroDocument> readAhead = new ArrayDeque<>();
+  private int maxReadAheadSize = BATCH_SIZE;
+  private int readAheadSize = 1;
 
   public FromBackendDocCursor(
       @Nonnull R2DTranslator r2dTranslator,
@@ -51,24 +60,29 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
   @Override
   public boolean hasNext() {
-    return docPartCursor.hasNext();
+    return !readAhead.isEmpty() || docPartCursor.hasNext();
   }
 
   @Override
   public ToroDocument next() {
-    if (!hasNext()) {
+    while (readAhead.isEmpty() && docPartCursor.hasNext()) {
+      readAhead.addAll(readNextBatch(readAheadSize));
+      readAheadSize = Math.min(readAheadSize * 2, maxReadAheadSize);
+    }
+    if (readAhead.isEmpty()) {
       throw new NoSuchElementException();
     }
-    return getNextBatch(1).get(0);
+    return readAhead.poll();
   }
 
   @Override
   public List<ToroDocument> getRemaining() {
-    List<ToroDocument> allDocuments = new ArrayList<>();
+    List<ToroDocument> allDocuments = new ArrayList<>(readAhead);
+    readAhead.clear();
 
     List<ToroDocument> readedDocuments;
     while (docPartCursor.hasNext()) {
-      readedDocuments = getNextBatch(BATCH_SIZE);
+      readedDocuments = readNextBatch(BATCH_SIZE);
       allDocuments.addAll(readedDocuments);
     }
 
@@ -80,18 +94,21 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
     Preconditions.checkArgument(maxResults > 0, "max results must be at "
         + "least 1, but " + maxResults + " was recived");
 
-    if (!docPartCursor.hasNext()) {
-      return Collections.emptyList();
-    }
-
-    List<DocPartResult> nextDpBatch = docPartCursor.getNextBatch(maxResults);
-
-    List<ToroDocument> translated = r2dTranslator.translate(
-        nextDpBatch.iterator());
+    maxReadAheadSize = Math.min(maxResults, BATCH_SIZE);
+    readAheadSize = Math.min(readAheadSize, maxReadAheadSize);
 
-    nextDpBatch.forEach(docPartResult -> docPartResult.close());
+    if (readAhead.isEmpty()) {
+      return readNextBatch(maxResults);
+    }
 
-    return translated;
+    List<ToroDocument> batch = new ArrayList<>(maxResults);
+    while (batch.size() < maxResults && !readAhead.isEmpty()) {
+      batch.add(readAhead.poll());
+    }
+    if (batch.size() < maxResults) {
+      batch.addAll(readNextBatch(maxResults - batch.size()));
+    }
+    return batch;
   }
 
   @Override
@@ -101,6 +118,22 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
   @Override
   public void close() {
+    readAhead.clear();
     docPartCursor.close();
   }
+
+  private List<ToroDocument> readNextBatch(int maxResults) {
+    if (!docPartCursor.hasNext()) {
+      return Collections.emptyList();
+    }
+
+    List<DocPartResult> nextDpBatch = docPartCursor.getNextBatch(maxResults);
+
+    List<ToroDocument> translated = r2dTranslator.translate(
+        nextDpBatch.iterator());
+
+    nextDpBatch.forEach(docPartResult -> docPartResult.close());
+
+    return translated;
+  }
 }
@@ -57,6 +57,8 @@ public class SqlExclusiveWriteTorodTransaction
 
     getInternalTransaction().getBackendTransaction().renameCollection(fromMetaDb, fromMetaColl,
         toMetaDb, toMetaColl);
+    getConnection().getServer().getInsertPipelineFactory().collectionDropped(fromMetaDb,
+        fromMetaColl);
 
     fromMetaDb.removeMetaCollectionByName(fromCollection);
   }
@@ -23,12 +23,15 @@ import com.google.common.collect.Multimap;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.BackendCursor;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.d2r.R2DTranslator;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.core.language.AttributeReference.Key;
 import com.torodb.core.language.AttributeReference.ObjectKey;
 import com.torodb.core.transaction.InternalTransaction;
@@ -50,6 +53,7 @@ import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -127,6 +131,32 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     return getInternalTransaction().getBackendTransaction().countAll(db, col);
   }
 
+  @Override
+  public long countByFilter(String dbName, String colName, Filter filter) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return 0;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return 0;
+    }
+    return getInternalTransaction().getBackendTransaction().countByFilter(db, col, filter);
+  }
+
+  @Override
+  public long estimateCountAll(String dbName, String colName) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return 0;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return 0;
+    }
+    return getInternalTransaction().getBackendTransaction().estimateCountAll(db, col);
+  }
+
   @Override
   public long getCollectionSize(String dbName, String colName) {
     MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
@@ -154,7 +184,7 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
   }
 
   @Override
-  public TorodCursor findAll(String dbName, String colName) {
+  public TorodCursor findAll(String dbName, String colName, Projection projection) {
     MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
     if (db == null) {
       LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
@@ -168,13 +198,13 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     }
     return toToroCursor(getInternalTransaction()
         .getBackendTransaction()
-        .findAll(db, col)
+        .findAll(db, col, projection)
     );
   }
 
   @Override
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
-      KvValue<?> value) {
+      KvValue<?> value, Projection projection) {
     MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
     if (db == null) {
       LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
@@ -205,7 +235,27 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
 
     return toToroCursor(getInternalTransaction()
         .getBackendTransaction()
-        .findByField(db, col, docPart, field, value)
+        .findByField(db, col, docPart, field, value, projection)
+    );
+  }
+
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      Projection projection) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    return toToroCursor(getInternalTransaction()
+        .getBackendTransaction()
+        .findByFilter(db, col, filter, projection)
     );
   }
 
@@ -429,6 +479,11 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     }
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return getInternalTransaction().getBackendTransaction().readMetaInfo(key);
+  }
+
   @Override
   public void rollback() {
     getInternalTransaction().rollback();
@@ -20,13 +20,19 @@ package com.torodb.torod.impl.sql;
 
 import com.google.common.base.Preconditions;
 import com.torodb.core.TableRef;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.RootDocPartUpdate;
+import com.torodb.core.d2r.RootDocPartUpdate.Assignment;
+import com.torodb.core.d2r.RootDocPartUpdate.Operation;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.DatabaseNotFoundException;
 import com.torodb.core.exceptions.user.UnsupportedCompoundIndexException;
 import com.torodb.core.exceptions.user.UnsupportedUniqueIndexException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Filter;
+import com.torodb.core.language.Projection;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.core.transaction.WriteInternalTransaction;
 import com.torodb.core.transaction.metainf.FieldIndexOrdering;
@@ -36,12 +42,14 @@ import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaIndex;
+import com.torodb.core.transaction.metainf.MetaIndexField;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.core.transaction.metainf.MutableMetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaIndex;
 import com.torodb.core.transaction.metainf.MutableMetaSnapshot;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.FieldModification;
 import com.torodb.torod.IndexFieldInfo;
 import com.torodb.torod.SharedWriteTorodTransaction;
 import com.torodb.torod.pipeline.InsertPipeline;
@@ -50,8 +58,12 @@ import org.jooq.lambda.Seq;
 import org.jooq.lambda.tuple.Tuple3;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -102,7 +114,9 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
       return;
     }
 
-    getInternalTransaction().getBackendTransaction().deleteDids(db, col, cursor.getRemaining());
+    try (Cursor<Integer> didCursor = cursor) {
+      getInternalTransaction().getBackendTransaction().deleteDids(db, col, didCursor);
+    }
   }
 
   @Override
@@ -116,13 +130,11 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
       return 0;
     }
 
-    Collection<Integer> dids = getInternalTransaction().getBackendTransaction()
+    try (Cursor<Integer> didCursor = getInternalTransaction().getBackendTransaction()
         .findAll(db, col)
-        .asDidCursor()
-        .getRemaining();
-    getInternalTransaction().getBackendTransaction().deleteDids(db, col, dids);
-
-    return dids.size();
+        .asDidCursor()) {
+      return getInternalTransaction().getBackendTransaction().deleteDids(db, col, didCursor);
+    }
   }
 
   @Override
@@ -150,13 +162,140 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
       return 0;
     }
 
-    Collection<Integer> dids = getInternalTransaction().getBackendTransaction()
+    try (Cursor<Integer> didCursor = getInternalTransaction().getBackendTransaction()
         .findByField(db, col, docPart, field, value)
-        .asDidCursor()
-        .getRemaining();
-    getInternalTransaction().getBackendTransaction().deleteDids(db, col, dids);
+        .asDidCursor()) {
+      return getInternalTransaction().getBackendTransaction().deleteDids(db, col, didCursor);
+    }
+  }
+
+  @Override
+  public long deleteByFilter(String dbName, String colName, Filter filter) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return 0;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return 0;
+    }
 
-    return dids.size();
+    try (Cursor<Integer> didCursor = getInternalTransaction().getBackendTransaction()
+        .findByFilter(db, col, filter, Projection.all())
+        .asDidCursor()) {
+      return getInternalTransaction().getBackendTransaction().deleteDids(db, col, didCursor);
+    }
+  }
+
+  @Override
+  public Set<Integer> updateInPlace(String dbName, String colName,
+      Map<Integer, List<FieldModification>> modifications) throws RollbackException,
+      UserException {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    MetaCollection col = db == null ? null : db.getMetaCollectionByName(colName);
+    MetaDocPart rootDocPart = col == null ? null : col.getMetaDocPartByTableRef(
+        getConnection().getServer().getTableRefFactory().createRoot());
+    if (rootDocPart == null) {
+      return new HashSet<>(modifications.keySet());
+    }
+    //unique fields are rewritten to keep the order in which the documents release their values
+    Set<String> uniqueFields = col.streamContainedMetaIndexes()
+        .filter(MetaIndex::isUnique)
+        .flatMap(index -> Seq.seq(index.iteratorFields()))
+        .filter(indexField -> indexField.getTableRef().equals(rootDocPart.getTableRef()))
+        .map(MetaIndexField::getName)
+        .collect(Collectors.toSet());
+
+    Set<Integer> notApplied = new HashSet<>();
+    //documents modified on the same columns are updated with the same statement
+    Map<List<Assignment>, RootDocPartUpdate.Builder> updates = new HashMap<>();
+    for (Map.Entry<Integer, List<FieldModification>> entry : modifications.entrySet()) {
+      List<Assignment> assignments = new ArrayList<>();
+      List<KvValue<?>> values = new ArrayList<>();
+      if (translateModifications(rootDocPart, uniqueFields, entry.getValue(), assignments,
+          values)) {
+        if (assignments.isEmpty()) {
+          //nothing stored on the root doc part changes, like unsetting a missing field
+          continue;
+        }
+        updates.computeIfAbsent(assignments,
+            key -> new RootDocPartUpdate.Builder(rootDocPart, key))
+            .addRow(entry.getKey(), values);
+      } else {
+        notApplied.add(entry.getKey());
+      }
+    }
+
+    for (RootDocPartUpdate.Builder update : updates.values()) {
+      getInternalTransaction().getBackendTransaction().update(db, col, update.build());
+    }
+    return notApplied;
+  }
+
+  /**
+   * Translates the given modifications to the assignments of the root doc part columns and the
+   * values they require.
+   *
+   * @return false if the modifications cannot be applied in place
+   */
+  static boolean translateModifications(MetaDocPart rootDocPart,
+      Set<String> uniqueFields, List<FieldModification> modifications,
+      List<Assignment> assignments, List<KvValue<?>> values) {
+    Set<String> modifiedFields = new HashSet<>();
+    for (FieldModification modification : modifications) {
+      if (!modifiedFields.add(modification.getFieldName())
+          || uniqueFields.contains(modification.getFieldName())) {
+        return false;
+      }
+      List<MetaField> fields = rootDocPart.streamMetaFieldByName(modification.getFieldName())
+          .collect(Collectors.toList());
+      if (fields.stream().anyMatch(field -> field.getType() == FieldType.CHILD)) {
+        //the field could contain a subdocument or an array stored on other doc parts
+        return false;
+      }
+
+      MetaField target;
+      Operation operation;
+      switch (modification.getKind()) {
+        case SET: {
+          FieldType type = FieldType.from(modification.getValue().getType());
+          target = rootDocPart.getMetaFieldByNameAndType(modification.getFieldName(), type);
+          if (type == FieldType.CHILD || target == null) {
+            return false;
+          }
+          operation = Operation.SET;
+          break;
+        }
+        case UNSET: {
+          target = null;
+          operation = null;
+          break;
+        }
+        case INCREMENT: {
+          //only doubles incremented by doubles are known to keep their type
+          if (FieldType.from(modification.getValue().getType()) != FieldType.DOUBLE
+              || fields.size() != 1 || fields.get(0).getType() != FieldType.DOUBLE) {
+            return false;
+          }
+          target = fields.get(0);
+          operation = Operation.INCREMENT;
+          break;
+        }
+        default:
+          throw new AssertionError("Unexpected modification " + modification.getKind());
+      }
+
+      for (MetaField field : fields) {
+        if (target == null || !field.getIdentifier().equals(target.getIdentifier())) {
+          assignments.add(new Assignment(field, Operation.SET_NULL));
+        }
+      }
+      if (target != null) {
+        assignments.add(new Assignment(target, operation));
+        values.add(modification.getValue());
+      }
+    }
+    return true;
   }
 
   @Override
@@ -165,6 +304,7 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
     MutableMetaCollection metaColl = getMetaCollectionOrThrowException(metaDb, collection);
 
     getInternalTransaction().getBackendTransaction().dropCollection(metaDb, metaColl);
+    getConnection().getServer().getInsertPipelineFactory().collectionDropped(metaDb, metaColl);
 
     metaDb.removeMetaCollectionByName(collection);
   }
@@ -181,6 +321,7 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
     MutableMetaDatabase metaDb = getMetaDatabaseOrThrowException(db);
 
     getInternalTransaction().getBackendTransaction().dropDatabase(metaDb);
+    getConnection().getServer().getInsertPipelineFactory().databaseDropped(metaDb);
 
     getInternalTransaction().getMetaSnapshot().removeMetaDatabaseByName(db);
   }
@@ -264,6 +405,11 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
     return true;
   }
 
+  @Override
+  public void writeMetaInfo(MetaInfoKey key, KvValue<?> value) {
+    getInternalTransaction().getBackendTransaction().writeMetaInfo(key, value);
+  }
+
   @Nonnull
   protected MutableMetaDatabase getOrCreateMetaDatabase(String dbName) {
     MutableMetaSnapshot metaSnapshot = getInternalTransaction().getMetaSnapshot();
@@ -21,6 +21,7 @@ package com.torodb.torod.pipeline;
 import com.google.common.util.concurrent.Service;
 import com.torodb.core.backend.WriteBackendTransaction;
 import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 
@@ -44,4 +45,18 @@ public interface InsertPipelineFactory extends Service {
       WriteBackendTransaction backendConnection,
       boolean concurrent);
 
+  /**
+   * Notifies that the given collection has been dropped, so the state kept for it can be
+   * released.
+   */
+  public default void collectionDropped(MetaDatabase metaDb, MetaCollection metaCol) {
+  }
+
+  /**
+   * Notifies that the given database has been dropped, so the state kept for its collections can
+   * be released.
+   */
+  public default void databaseDropped(MetaDatabase metaDb) {
+  }
+
 }
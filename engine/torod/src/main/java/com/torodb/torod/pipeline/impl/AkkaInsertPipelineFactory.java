@@ -22,20 +22,26 @@ import akka.actor.ActorSystem;
 import akka.dispatch.ExecutionContexts;
 import akka.stream.ActorMaterializer;
 import akka.stream.ActorMaterializerSettings;
+import akka.stream.Attributes;
 import akka.stream.Materializer;
+import akka.stream.OverflowStrategy;
 import akka.stream.javadsl.Keep;
 import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.torodb.core.backend.WriteBackendTransaction;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.dsl.backend.BackendTransactionJob;
 import com.torodb.core.dsl.backend.BackendTransactionJobFactory;
 import com.torodb.core.exceptions.SystemException;
 import com.torodb.core.exceptions.SystemInterruptedException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.core.transaction.RollbackException;
+import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
@@ -48,15 +54,34 @@ import org.apache.logging.log4j.Logger;
 import scala.concurrent.Await;
 import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
 /**
+ * An {@link InsertPipelineFactory} whose pipelines translate the next batches of documents while
+ * the previous one is being written.
  *
+ * <p>The translation of a batch adds the new fields and scalars it finds to the shared
+ * {@link MutableMetaCollection}, so it may run while a previous batch is written:
+ * <ul>
+ * <li>The insert jobs of a batch only read the fields and scalars collected by its own
+ * translation and the immutable identifiers of its meta doc parts.</li>
+ * <li>The DDL jobs of a batch read and modify the meta doc parts, so when a batch contains DDL
+ * jobs the next one is not translated until it has been written.</li>
+ * </ul>
  */
 public class AkkaInsertPipelineFactory extends IdleTorodbService
     implements InsertPipelineFactory {
@@ -67,17 +92,35 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
   private ActorSystem actorSystem;
   private Materializer materializer;
   private final BackendTransactionJobFactory factory;
+  private final InsertPipelineMetrics metrics;
   private final int docBatch;
+  private final int batchesInFlight;
+  private final ConcurrentMap<String, DocBatchSizer> batchSizers = new ConcurrentHashMap<>();
   private ExecutorService executorService;
 
+  /**
+   * @param threadFactory
+   * @param concurrentToolsFactory
+   * @param factory
+   * @param metrics
+   * @param docBatch               the initial number of documents of each batch. The batch
+   *                               length of each collection is then adapted to the cost of the
+   *                               batches written on it.
+   * @param batchesInFlight        how many translated batches can wait to be written while the
+   *                               previous one is being written
+   */
   @Inject
   public AkkaInsertPipelineFactory(ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
-      BackendTransactionJobFactory factory, int docBatch) {
+      BackendTransactionJobFactory factory, InsertPipelineMetrics metrics, int docBatch,
+      int batchesInFlight) {
     super(threadFactory);
+    Preconditions.checkArgument(batchesInFlight > 0, "At least one batch must be in flight");
     this.concurrentToolsFactory = concurrentToolsFactory;
     this.factory = factory;
+    this.metrics = metrics;
     this.docBatch = docBatch;
+    this.batchesInFlight = batchesInFlight;
   }
 
   @Override
@@ -123,8 +166,35 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
       LOGGER.debug("Akka insert pipeline has been used when concurrent "
           + "hint is marked as false. It will be ignored");
     }
+    DocBatchSizer batchSizer = batchSizers.computeIfAbsent(
+        getNamespace(metaDb, mutableMetaCollection),
+        key -> new DocBatchSizer(docBatch, metrics.getDocBatchLength(key)::setValue));
     return new AkkaInsertPipeline(translatorFactory, metaDb, mutableMetaCollection,
-        backendConnection);
+        backendConnection, batchSizer);
+  }
+
+  @Override
+  public void collectionDropped(MetaDatabase metaDb, MetaCollection metaCol) {
+    removeBatchSizer(getNamespace(metaDb, metaCol));
+  }
+
+  @Override
+  public void databaseDropped(MetaDatabase metaDb) {
+    String prefix = metaDb.getIdentifier() + '.';
+    batchSizers.keySet().stream()
+        .filter(namespace -> namespace.startsWith(prefix))
+        .collect(Collectors.toList())
+        .forEach(this::removeBatchSizer);
+  }
+
+  private void removeBatchSizer(String namespace) {
+    if (batchSizers.remove(namespace) != null) {
+      metrics.removeDocBatchLength(namespace);
+    }
+  }
+
+  private static String getNamespace(MetaDatabase metaDb, MetaCollection metaCol) {
+    return metaDb.getIdentifier() + '.' + metaCol.getIdentifier();
   }
 
   private class AkkaInsertPipeline implements InsertPipeline {
@@ -133,13 +203,16 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
     private final MetaDatabase metaDb;
     private final MutableMetaCollection mutableMetaCollection;
     private final WriteBackendTransaction backendConnection;
+    private final DocBatchSizer batchSizer;
 
     public AkkaInsertPipeline(D2RTranslatorFactory translatorFactory, MetaDatabase metaDb,
-        MutableMetaCollection mutableMetaCollection, WriteBackendTransaction backendConnection) {
+        MutableMetaCollection mutableMetaCollection, WriteBackendTransaction backendConnection,
+        DocBatchSizer batchSizer) {
       this.translatorFactory = translatorFactory;
       this.metaDb = metaDb;
       this.mutableMetaCollection = mutableMetaCollection;
       this.backendConnection = backendConnection;
+      this.batchSizer = batchSizer;
     }
 
     @Override
@@ -149,14 +222,17 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
           new D2RTranslationBatchFunction(translatorFactory, metaDb, mutableMetaCollection);
       DefaultToBackendFunction r2BackendFun =
           new DefaultToBackendFunction(factory, metaDb, mutableMetaCollection);
+      AtomicReference<CompletableFuture<?>> ddlBarrier = new AtomicReference<>(
+          CompletableFuture.completedFuture(null));
       try {
-        Source.fromIterator(() -> docs.iterator())
-            .grouped(docBatch)
-            .map(d2rFun::apply)
-            .mapConcat(r2BackendFun::apply)
+        Source.fromIterator(() -> batchSizer.partition(docs.iterator()))
+            .mapAsync(1, batch -> ddlBarrier.get().thenApplyAsync(
+                ignored -> translate(batch, d2rFun, r2BackendFun, ddlBarrier), executorService))
+            .buffer(batchesInFlight, OverflowStrategy.backpressure())
             .async()
             .toMat(
-                Sink.foreach((job) -> job.execute(backendConnection)),
+                Sink.<TranslatedBatch>foreach(this::executeBatch)
+                    .withAttributes(Attributes.inputBuffer(1, 1)),
                 Keep.right())
             .run(materializer)
             .toCompletableFuture()
@@ -175,17 +251,92 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
       }
     }
 
+    /**
+     * Translates a batch of documents and calculates the jobs needed to write it.
+     *
+     * <p>The DDL jobs of a batch read the meta doc parts that the translation of the following
+     * batches modifies, so when a batch contains DDL jobs the next batch is not translated until
+     * it has been written.
+     */
+    private TranslatedBatch translate(List<KvDocument> docs,
+        D2RTranslationBatchFunction d2rFun, DefaultToBackendFunction r2BackendFun,
+        AtomicReference<CompletableFuture<?>> ddlBarrier) {
+      Iterable<BackendTransactionJob> jobs = r2BackendFun.apply(d2rFun.apply(docs));
+      CompletableFuture<Void> written = new CompletableFuture<>();
+      for (BackendTransactionJob job : jobs) {
+        if (!job.getInsertedData().isPresent()) {
+          ddlBarrier.set(written);
+          break;
+        }
+      }
+      return new TranslatedBatch(jobs, written);
+    }
+
+    private void executeBatch(TranslatedBatch batch) throws UserException {
+      try {
+        executeJobs(batch.jobs);
+        batch.written.complete(null);
+      } catch (Throwable ex) {
+        batch.written.completeExceptionally(ex);
+        throw ex;
+      }
+    }
+
+    /**
+     * Executes the DDL jobs of a batch in order and then inserts all its doc parts with a single
+     * call, so the backend can insert them in parallel.
+     */
+    private void executeJobs(Iterable<BackendTransactionJob> jobs) throws UserException {
+      long start = System.nanoTime();
+      List<DocPartData> dataToInsert = new ArrayList<>();
+      int docs = 0;
+      long cells = 0;
+      for (BackendTransactionJob job : jobs) {
+        Optional<DocPartData> insertedData = job.getInsertedData();
+        if (insertedData.isPresent()) {
+          DocPartData docPartData = insertedData.get();
+          dataToInsert.add(docPartData);
+          if (docPartData.getMetaDocPart().getTableRef().isRoot()) {
+            docs += docPartData.rowCount();
+          }
+          cells += (long) docPartData.rowCount()
+              * (docPartData.scalarColumnsCount() + docPartData.fieldColumnsCount());
+        } else {
+          job.execute(backendConnection);
+        }
+      }
+      if (!dataToInsert.isEmpty()) {
+        backendConnection.insertAll(metaDb, mutableMetaCollection, dataToInsert);
+      }
+      long writeNanos = System.nanoTime() - start;
+
+      metrics.getBatchCells().update(cells);
+      metrics.getBatchWriteTime().update(TimeUnit.NANOSECONDS.toMicros(writeNanos));
+      batchSizer.onBatchWritten(docs, cells, writeNanos);
+    }
+
     @Override
     public int getDocsBatchLength() {
-      return docBatch;
+      return batchSizer.getBatchLength();
     }
 
     @Override
     public void setDocsBatchLength(int newBatchLength) {
-      throw new UnsupportedOperationException(
-          "Doc batch lenght is not supported on Akka factory yet.");
+      batchSizer.setBatchLength(newBatchLength);
     }
 
   }
 
+  private static class TranslatedBatch {
+
+    private final Iterable<BackendTransactionJob> jobs;
+    private final CompletableFuture<Void> written;
+
+    public TranslatedBatch(Iterable<BackendTransactionJob> jobs,
+        CompletableFuture<Void> written) {
+      this.jobs = jobs;
+      this.written = written;
+    }
+  }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline.impl;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Decides how many documents are translated and written on each insert batch.
+ *
+ * <p>The batch length is tuned after each batch is written, moving towards the length that would
+ * produce {@link #TARGET_CELLS} cells (rows times columns) or take {@link #TARGET_WRITE_NANOS}
+ * to be written, whichever is smaller.
+ */
+@ThreadSafe
+class DocBatchSizer {
+
+  static final long TARGET_CELLS = 32 * 1024;
+  static final long TARGET_WRITE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  static final int MIN_BATCH_LENGTH = 1;
+  static final int MAX_BATCH_LENGTH = 10000;
+  private static final int MAX_GROWTH_FACTOR = 2;
+
+  private final IntConsumer lengthListener;
+  private int batchLength;
+
+  DocBatchSizer(int initialBatchLength, IntConsumer lengthListener) {
+    this.lengthListener = lengthListener;
+    setBatchLength(initialBatchLength);
+  }
+
+  synchronized int getBatchLength() {
+    return batchLength;
+  }
+
+  synchronized void setBatchLength(int newBatchLength) {
+    Preconditions.checkArgument(newBatchLength >= MIN_BATCH_LENGTH,
+        "The batch length must be at least " + MIN_BATCH_LENGTH);
+    batchLength = Math.min(newBatchLength, MAX_BATCH_LENGTH);
+    lengthListener.accept(batchLength);
+  }
+
+  /**
+   * Adjusts the batch length with the cost of a batch that has been written.
+   *
+   * @param docs       the number of documents of the batch
+   * @param cells      the number of cells (rows times columns) the batch was translated into
+   * @param writeNanos the time spent writing the batch
+   */
+  synchronized void onBatchWritten(int docs, long cells, long writeNanos) {
+    if (docs <= 0) {
+      return;
+    }
+    double proposed = (double) batchLength * MAX_GROWTH_FACTOR;
+    if (cells > 0) {
+      proposed = Math.min(proposed, (double) TARGET_CELLS * docs / cells);
+    }
+    if (writeNanos > 0) {
+      proposed = Math.min(proposed, (double) TARGET_WRITE_NANOS * docs / writeNanos);
+    }
+    //move half way to smooth the noise of a single batch
+    int newBatchLength = (int) ((batchLength + proposed) / 2);
+    newBatchLength = Math.max(MIN_BATCH_LENGTH, Math.min(MAX_BATCH_LENGTH, newBatchLength));
+    if (newBatchLength != batchLength) {
+      batchLength = newBatchLength;
+      lengthListener.accept(batchLength);
+    }
+  }
+
+  /**
+   * Returns an iterator that groups the given elements in lists whose size is the batch length at
+   * the time each list is created.
+   */
+  <E> Iterator<List<E>> partition(Iterator<E> elements) {
+    return new Iterator<List<E>>() {
+      @Override
+      public boolean hasNext() {
+        return elements.hasNext();
+      }
+
+      @Override
+      public List<E> next() {
+        if (!elements.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int length = getBatchLength();
+        List<E> batch = new ArrayList<>(length);
+        while (batch.size() < length && elements.hasNext()) {
+          batch.add(elements.next());
+        }
+        return batch;
+      }
+    };
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline.impl;
+
+import com.codahale.metrics.Histogram;
+import com.torodb.core.metrics.MetricName;
+import com.torodb.core.metrics.MetricNameFactory;
+import com.torodb.core.metrics.SettableGauge;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ *
+ */
+@ThreadSafe
+public class InsertPipelineMetrics {
+
+  private final ToroMetricRegistry registry;
+  private final MetricNameFactory factory = new MetricNameFactory("InsertPipeline");
+  private final Histogram batchCells;
+  private final Histogram batchWriteTime;
+
+  @Inject
+  public InsertPipelineMetrics(ToroMetricRegistry registry) {
+    this.registry = registry;
+
+    registry.gauge(factory.createMetricName("docBatchLengthUnit")).setValue("docs/batch");
+
+    batchCells = registry.histogram(factory.createMetricName("batchCells"));
+    registry.gauge(factory.createMetricName("batchCellsUnit")).setValue("cells/batch");
+
+    batchWriteTime = registry.histogram(factory.createMetricName("batchWriteTime"));
+    registry.gauge(factory.createMetricName("batchWriteTimeUnit")).setValue("microseconds");
+  }
+
+  /**
+   * Returns the gauge of the doc batch length used on the given namespace.
+   */
+  public SettableGauge<Integer> getDocBatchLength(String namespace) {
+    return registry.gauge(createDocBatchLengthName(namespace));
+  }
+
+  public void removeDocBatchLength(String namespace) {
+    registry.remove(createDocBatchLengthName(namespace));
+  }
+
+  private MetricName createDocBatchLengthName(String namespace) {
+    return factory.createMetricName("docBatchLength." + namespace);
+  }
+
+  public Histogram getBatchCells() {
+    return batchCells;
+  }
+
+  public Histogram getBatchWriteTime() {
+    return batchWriteTime;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvDocument;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FromBackendDocCursorTest {
+
+  @Test
+  public void testNextReadsAheadInGrowingChunks() {
+    FakeDocPartCursor docPartCursor = new FakeDocPartCursor(20);
+    FromBackendDocCursor cursor = createCursor(docPartCursor);
+
+    List<Integer> dids = new ArrayList<>();
+    while (cursor.hasNext()) {
+      dids.add(cursor.next().getId());
+    }
+
+    assertEquals(20, dids.size());
+    assertEquals(0, (int) dids.get(0));
+    assertEquals(19, (int) dids.get(19));
+    assertEquals(Lists.newArrayList(1, 2, 4, 8, 16), docPartCursor.requests);
+  }
+
+  @Test
+  public void testReadAheadIsBoundedByTheRequestedBatchSize() {
+    FakeDocPartCursor docPartCursor = new FakeDocPartCursor(20);
+    FromBackendDocCursor cursor = createCursor(docPartCursor);
+
+    assertEquals(3, cursor.getNextBatch(3).size());
+    for (int i = 0; i < 6; i++) {
+      assertEquals(3 + i, cursor.next().getId());
+    }
+
+    assertEquals(Lists.newArrayList(3, 1, 2, 3), docPartCursor.requests);
+  }
+
+  @Test
+  public void testBatchesConsumeTheReadAheadDocumentsFirst() {
+    FakeDocPartCursor docPartCursor = new FakeDocPartCursor(10);
+    FromBackendDocCursor cursor = createCursor(docPartCursor);
+
+    cursor.next();
+    cursor.next();
+    List<ToroDocument> batch = cursor.getNextBatch(4);
+
+    assertEquals(4, batch.size());
+    assertEquals(2, batch.get(0).getId());
+    assertEquals(5, batch.get(3).getId());
+    assertEquals(Lists.newArrayList(1, 2, 3), docPartCursor.requests);
+    assertEquals(4, cursor.getRemaining().size());
+    assertFalse(cursor.hasNext());
+  }
+
+  private static FromBackendDocCursor createCursor(FakeDocPartCursor docPartCursor) {
+    KvDocument root = new KvDocument.Builder().build();
+    return new FromBackendDocCursor(it -> {
+      List<ToroDocument> docs = new ArrayList<>();
+      while (it.hasNext()) {
+        docs.add(new ToroDocument(((FakeDocPartResult) it.next()).did, root));
+      }
+      return docs;
+    }, docPartCursor);
+  }
+
+  private static class FakeDocPartCursor implements Cursor<DocPartResult> {
+
+    private final int size;
+    private final List<Integer> requests = new ArrayList<>();
+    private int position = 0;
+
+    public FakeDocPartCursor(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return position < size;
+    }
+
+    @Override
+    public DocPartResult next() {
+      return getNextBatch(1).get(0);
+    }
+
+    @Override
+    public List<DocPartResult> getNextBatch(int maxSize) {
+      requests.add(maxSize);
+      List<DocPartResult> results = new ArrayList<>();
+      for (int i = 0; i < maxSize && position < size; i++) {
+        results.add(new FakeDocPartResult(position++));
+      }
+      return results;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class FakeDocPartResult implements DocPartResult {
+
+    private final int did;
+
+    public FakeDocPartResult(int did) {
+      this.did = did;
+    }
+
+    @Override
+    public MetaDocPart getMetaDocPart() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return false;
+    }
+
+    @Override
+    public DocPartResultRow next() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.core.d2r.RootDocPartUpdate.Assignment;
+import com.torodb.core.d2r.RootDocPartUpdate.Operation;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.torod.FieldModification;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SqlWriteTorodTransactionTest {
+
+  private MetaDocPart rootDocPart;
+  private List<Assignment> assignments;
+  private List<KvValue<?>> values;
+
+  @Before
+  public void setUp() {
+    rootDocPart = new ImmutableMetaDocPart.Builder(new TableRefFactoryImpl().createRoot(), "col")
+        .putField("a", "a_i", FieldType.INTEGER)
+        .putField("a", "a_s", FieldType.STRING)
+        .putField("d", "d_d", FieldType.DOUBLE)
+        .putField("m", "m_d", FieldType.DOUBLE)
+        .putField("m", "m_i", FieldType.INTEGER)
+        .putField("o", "o_i", FieldType.INTEGER)
+        .putField("o", "o_e", FieldType.CHILD)
+        .putField("u", "u_i", FieldType.INTEGER)
+        .build();
+    assignments = new ArrayList<>();
+    values = new ArrayList<>();
+  }
+
+  @Test
+  public void testSet() {
+    assertTrue(translate(FieldModification.set("a", KvInteger.of(1))));
+
+    assertAssignments(set("a_i"), setNull("a_s"));
+    assertEquals(Collections.singletonList(KvInteger.of(1)), values);
+  }
+
+  @Test
+  public void testSetAnotherType() {
+    assertTrue(translate(FieldModification.set("a", new StringKvString("x"))));
+
+    assertAssignments(setNull("a_i"), set("a_s"));
+    assertEquals(Collections.singletonList(new StringKvString("x")), values);
+  }
+
+  @Test
+  public void testSetNewColumn() {
+    assertFalse(translate(FieldModification.set("a", KvDouble.of(1.5))));
+    assertFalse(translate(FieldModification.set("z", KvInteger.of(1))));
+  }
+
+  @Test
+  public void testUnset() {
+    assertTrue(translate(FieldModification.unset("a"), FieldModification.unset("z")));
+
+    assertAssignments(setNull("a_i"), setNull("a_s"));
+    assertTrue(values.isEmpty());
+  }
+
+  @Test
+  public void testUnsetMissingField() {
+    assertTrue(translate(FieldModification.unset("z")));
+
+    assertTrue(assignments.isEmpty());
+    assertTrue(values.isEmpty());
+  }
+
+  @Test
+  public void testIncrement() {
+    assertTrue(translate(FieldModification.increment("d", KvDouble.of(1.5))));
+
+    assertAssignments(new Assignment(field("d_d"), Operation.INCREMENT));
+    assertEquals(Collections.singletonList(KvDouble.of(1.5)), values);
+  }
+
+  @Test
+  public void testIncrementFallbacks() {
+    assertFalse("non double delta", translate(FieldModification.increment("d", KvInteger.of(1))));
+    assertFalse("several type columns", translate(
+        FieldModification.increment("m", KvDouble.of(1.5))));
+    assertFalse("missing column", translate(FieldModification.increment("z", KvDouble.of(1.5))));
+  }
+
+  @Test
+  public void testChildColumn() {
+    assertFalse(translate(FieldModification.set("o", KvInteger.of(1))));
+    assertFalse(translate(FieldModification.unset("o")));
+  }
+
+  @Test
+  public void testUniqueField() {
+    assertFalse(SqlWriteTorodTransaction.translateModifications(rootDocPart,
+        new HashSet<>(Collections.singleton("u")),
+        Collections.singletonList(FieldModification.set("u", KvInteger.of(1))), assignments,
+        values));
+  }
+
+  @Test
+  public void testRepeatedField() {
+    assertFalse(translate(FieldModification.set("a", KvInteger.of(1)),
+        FieldModification.unset("a")));
+  }
+
+  @Test
+  public void testSeveralFields() {
+    assertTrue(translate(FieldModification.unset("a"),
+        FieldModification.set("u", KvInteger.of(2)),
+        FieldModification.increment("d", KvDouble.of(0.5))));
+
+    assertAssignments(setNull("a_i"), setNull("a_s"), set("u_i"),
+        new Assignment(field("d_d"), Operation.INCREMENT));
+    assertEquals(Arrays.asList(KvInteger.of(2), KvDouble.of(0.5)), values);
+  }
+
+  private boolean translate(FieldModification... modifications) {
+    Set<String> uniqueFields = Collections.emptySet();
+    return SqlWriteTorodTransaction.translateModifications(rootDocPart, uniqueFields,
+        Arrays.asList(modifications), assignments, values);
+  }
+
+  private void assertAssignments(Assignment... expected) {
+    assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(assignments));
+    assertEquals(expected.length, assignments.size());
+    //the assignments that require a value must be in the same order as the values
+    List<Assignment> withValue = new ArrayList<>();
+    for (Assignment assignment : assignments) {
+      if (assignment.requiresValue()) {
+        withValue.add(assignment);
+      }
+    }
+    List<Assignment> expectedWithValue = new ArrayList<>();
+    for (Assignment assignment : expected) {
+      if (assignment.requiresValue()) {
+        expectedWithValue.add(assignment);
+      }
+    }
+    assertEquals(expectedWithValue, withValue);
+  }
+
+  private Assignment set(String identifier) {
+    return new Assignment(field(identifier), Operation.SET);
+  }
+
+  private Assignment setNull(String identifier) {
+    return new Assignment(field(identifier), Operation.SET_NULL);
+  }
+
+  private MetaField field(String identifier) {
+    return rootDocPart.getMetaFieldByIdentifier(identifier);
+  }
+}
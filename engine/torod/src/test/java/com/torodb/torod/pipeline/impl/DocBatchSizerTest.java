@@ -0,0 +1,89 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DocBatchSizerTest {
+
+  @Test
+  public void testGrowsOnCheapBatches() {
+    AtomicInteger lastLength = new AtomicInteger();
+    DocBatchSizer sizer = new DocBatchSizer(100, lastLength::set);
+
+    sizer.onBatchWritten(100, 100, 1000);
+
+    assertEquals(150, sizer.getBatchLength());
+    assertEquals(150, lastLength.get());
+  }
+
+  @Test
+  public void testConvergesToTargetCells() {
+    DocBatchSizer sizer = new DocBatchSizer(1000, length -> { });
+    int cellsPerDoc = 1024;
+
+    for (int i = 0; i < 20; i++) {
+      int docs = sizer.getBatchLength();
+      sizer.onBatchWritten(docs, (long) docs * cellsPerDoc, 1);
+    }
+
+    assertEquals(DocBatchSizer.TARGET_CELLS / cellsPerDoc, sizer.getBatchLength());
+  }
+
+  @Test
+  public void testShrinksOnSlowBatches() {
+    DocBatchSizer sizer = new DocBatchSizer(1000, length -> { });
+
+    sizer.onBatchWritten(1000, 1000, DocBatchSizer.TARGET_WRITE_NANOS * 10);
+
+    assertEquals(550, sizer.getBatchLength());
+  }
+
+  @Test
+  public void testBatchLengthIsBounded() {
+    DocBatchSizer sizer = new DocBatchSizer(DocBatchSizer.MAX_BATCH_LENGTH * 2, length -> { });
+    assertEquals(DocBatchSizer.MAX_BATCH_LENGTH, sizer.getBatchLength());
+
+    for (int i = 0; i < 50; i++) {
+      sizer.onBatchWritten(1, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2);
+    }
+    assertEquals(DocBatchSizer.MIN_BATCH_LENGTH, sizer.getBatchLength());
+  }
+
+  @Test
+  public void testPartitionUsesCurrentLength() {
+    DocBatchSizer sizer = new DocBatchSizer(2, length -> { });
+    Iterator<List<Integer>> batches = sizer.partition(
+        Lists.newArrayList(1, 2, 3, 4, 5, 6).iterator());
+
+    assertEquals(Lists.newArrayList(1, 2), batches.next());
+    sizer.setBatchLength(3);
+    assertEquals(Lists.newArrayList(3, 4, 5), batches.next());
+    assertEquals(Lists.newArrayList(6), batches.next());
+    assertTrue(!batches.hasNext());
+  }
+}
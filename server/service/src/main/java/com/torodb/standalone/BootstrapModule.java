@@ -70,7 +70,14 @@ class BootstrapModule extends AbstractModule {
     bind(Config.class)
         .toInstance(config);
     bind(MongodServerConfig.class)
-        .toInstance(new MongodServerConfig(HostAndPort.fromParts("localhost", 27017)));
+        .toInstance(new MongodServerConfig(
+            HostAndPort.fromParts("localhost", 27017),
+            config.getProtocol().getMongo().getCursorTimeout(),
+            MongodServerConfig.DEFAULT_MAX_CURSORS_PER_CONNECTION,
+            //open cursors must leave read connections for the queries that do not need a cursor
+            Math.max(1, config.getGeneric().getReservedReadPoolSize() / 2),
+            config.getProtocol().getMongo().getFastCount()
+        ));
     bind(BuildProperties.class)
         .to(DefaultBuildProperties.class)
         .asEagerSingleton();
@@ -28,11 +28,13 @@ import com.torodb.packaging.config.validation.ExistsAnyPassword;
 import com.torodb.packaging.config.validation.Host;
 import com.torodb.packaging.config.validation.Port;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 @Description("config.backend.postgres")
 @JsonPropertyOrder({"host", "port", "database", "user", "password", "toropassFile",
-    "applicationName", "includeForeignKeys"})
+    "applicationName", "includeForeignKeys", "binaryCopy", "copyChunkSize", "copyBufferDepth",
+    "importConnectionPoolSize"})
 @ExistsAnyPassword
 public class Postgres extends AbstractPostgres {
 
@@ -45,7 +47,11 @@ public class Postgres extends AbstractPostgres {
         null,
         ConfigUtils.getUserHomeFilePath(".toropass"),
         "toro",
-        false
+        false,
+        false,
+        65536,
+        2,
+        0
     );
   }
 
@@ -111,4 +117,39 @@ public class Postgres extends AbstractPostgres {
   public Boolean getIncludeForeignKeys() {
     return super.getIncludeForeignKeys();
   }
+
+  @Description("config.backend.postgres.binaryCopy")
+  @NotNull
+  @JsonProperty(required = true)
+  @Override
+  public Boolean getBinaryCopy() {
+    return super.getBinaryCopy();
+  }
+
+  @Description("config.backend.postgres.copyChunkSize")
+  @NotNull
+  @Min(1024)
+  @JsonProperty(required = true)
+  @Override
+  public Integer getCopyChunkSize() {
+    return super.getCopyChunkSize();
+  }
+
+  @Description("config.backend.postgres.copyBufferDepth")
+  @NotNull
+  @Min(1)
+  @JsonProperty(required = true)
+  @Override
+  public Integer getCopyBufferDepth() {
+    return super.getCopyBufferDepth();
+  }
+
+  @Description("config.backend.postgres.importConnectionPoolSize")
+  @NotNull
+  @Min(0)
+  @JsonProperty(required = true)
+  @Override
+  public Integer getImportConnectionPoolSize() {
+    return super.getImportConnectionPoolSize();
+  }
 }
@@ -36,7 +36,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
 @Description("config.protocol.mongo")
-@JsonPropertyOrder({"net", "replication", "cursorTimeout", "mongopassFile"})
+@JsonPropertyOrder({"net", "replication", "cursorTimeout", "fastCount", "mongopassFile"})
 public class Mongo implements CursorConfig {
 
   @NotNull
@@ -53,6 +53,10 @@ public class Mongo implements CursorConfig {
   @NotNull
   @JsonProperty(required = true)
   private Long cursorTimeout = 10L * 60 * 1000;
+  @Description("config.mongo.fastCount")
+  @NotNull
+  @JsonProperty(required = true)
+  private Boolean fastCount = false;
   @Description("config.mongo.mongopassFile")
   @JsonProperty(required = true)
   private String mongopassFile = ConfigUtils.getUserHomeFilePath(".mongopass");
@@ -82,6 +86,14 @@ public class Mongo implements CursorConfig {
     this.cursorTimeout = cursorTimeout;
   }
 
+  public Boolean getFastCount() {
+    return fastCount;
+  }
+
+  public void setFastCount(Boolean fastCount) {
+    this.fastCount = fastCount;
+  }
+
   public String getMongopassFile() {
     return mongopassFile;
   }
@@ -34,12 +34,13 @@ import com.torodb.core.supervision.Supervisor;
 import com.torodb.core.supervision.SupervisorDecision;
 import com.torodb.mongodb.repl.ConsistencyHandler;
 import com.torodb.mongodb.repl.MongodbReplBundle;
+import com.torodb.mongodb.repl.OplogManager.CheckpointMode;
 import com.torodb.mongodb.repl.ReplicationFilters;
 import com.torodb.mongodb.repl.guice.MongodbReplConfig;
-import com.torodb.packaging.config.model.protocol.mongo.AbstractReplication;
 import com.torodb.packaging.util.MongoClientConfigurationFactory;
 import com.torodb.packaging.util.ReplicationFiltersFactory;
 import com.torodb.stampede.config.model.Config;
+import com.torodb.stampede.config.model.replication.Replication;
 import com.torodb.torod.TorodBundle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -100,7 +101,7 @@ public class StampedeService extends AbstractIdleService implements Supervisor {
     Injector finalInjector = createFinalInjector(
         backendBundle, consistencyHandler);
 
-    AbstractReplication replication = getReplication();
+    Replication replication = getReplication();
     reportReplication(replication);
     TorodBundle torodBundle = createTorodBundle(finalInjector);
     startBundle(torodBundle);
@@ -163,16 +164,16 @@ public class StampedeService extends AbstractIdleService implements Supervisor {
     shutdowner.addStopShutdownListener(service);
   }
 
-  private AbstractReplication getReplication() {
+  private Replication getReplication() {
     Config config = bootstrapInjector.getInstance(Config.class);
     return config.getReplication();
   }
 
-  private void reportReplication(AbstractReplication replication) {
+  private void reportReplication(Replication replication) {
     LOGGER.info("Replicating from seeds: {}", replication.getSyncSource());
   }
 
-  private MongodbReplConfig getReplConfig(AbstractReplication replication) {
+  private MongodbReplConfig getReplConfig(Replication replication) {
     return new DefaultMongodbReplConfig(replication);
   }
 
@@ -181,12 +182,22 @@ public class StampedeService extends AbstractIdleService implements Supervisor {
     private final MongoClientConfiguration mongoClientConf;
     private final ReplicationFilters replFilters;
     private final String replSetName;
+    private final CheckpointMode oplogCheckpointMode;
 
-    public DefaultMongodbReplConfig(AbstractReplication replication) {
+    public DefaultMongodbReplConfig(Replication replication) {
       this.mongoClientConf = MongoClientConfigurationFactory
           .getMongoClientConfiguration(replication);
       this.replFilters = ReplicationFiltersFactory.getReplicationFilters(replication);
       replSetName = replication.getReplSetName();
+      switch (replication.getOplogCheckpointMode()) {
+        case metainfo:
+          oplogCheckpointMode = CheckpointMode.META_INFO;
+          break;
+        case collection:
+        default:
+          oplogCheckpointMode = CheckpointMode.COLLECTION;
+          break;
+      }
     }
 
     @Override
@@ -203,6 +214,11 @@ public class StampedeService extends AbstractIdleService implements Supervisor {
     public String getReplSetName() {
       return replSetName;
     }
+
+    @Override
+    public CheckpointMode getOplogCheckpointMode() {
+      return oplogCheckpointMode;
+    }
   }
 
 }
@@ -0,0 +1,36 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.stampede.config.model.replication;
+
+import com.torodb.packaging.config.annotation.Description;
+
+public enum OplogCheckpointMode {
+  /**
+   * Store the last applied oplog entry in a document of the torodb.oplog.replication collection
+   */
+  @Description(value = "config.mongo.oplogcheckpointmode.collection")
+  collection,
+  /**
+   * Store the last applied oplog entry in the backend meta info. It is only stored in the same
+   * transaction that applies the batch when the batch is applied in a single transaction, so it is
+   * best effort and the last operations may be applied again after a crash
+   */
+  @Description(value = "config.mongo.oplogcheckpointmode.metainfo")
+  metainfo;
+}
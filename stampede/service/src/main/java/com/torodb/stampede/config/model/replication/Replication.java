@@ -35,11 +35,12 @@ import org.hibernate.validator.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
 @JsonPropertyOrder({"replSetName", "syncSource", "ssl", "auth", "include", "exclude",
-    "mongopassFile"})
+    "mongopassFile", "oplogCheckpointMode"})
 public class Replication extends AbstractReplication implements CursorConfig {
 
   private Long cursorTimeout = 10L * 60 * 1000;
   private String mongopassFile = ConfigUtils.getUserHomeFilePath(".mongopass");
+  private OplogCheckpointMode oplogCheckpointMode = OplogCheckpointMode.collection;
 
   public Replication() {
     setSyncSource("localhost:27017");
@@ -66,6 +67,17 @@ public class Replication extends AbstractReplication implements CursorConfig {
     this.mongopassFile = mongopassFile;
   }
 
+  @Description("config.mongo.replication.oplogCheckpointMode")
+  @NotNull
+  @JsonProperty(required = true)
+  public OplogCheckpointMode getOplogCheckpointMode() {
+    return oplogCheckpointMode;
+  }
+
+  public void setOplogCheckpointMode(OplogCheckpointMode oplogCheckpointMode) {
+    this.oplogCheckpointMode = oplogCheckpointMode;
+  }
+
   @Description("config.mongo.replication.replSetName")
   @NotEmpty
   @JsonProperty(required = true)